@@ -21,19 +21,21 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
-import lombok.Data;
 import lombok.extern.jbosslog.JBossLog;
 
+// Schedules the tasks of each namespace, split by key (e.g. resource set).
+// A spec change only reschedules the tasks of the namespace and key that changed.
 @JBossLog
 public abstract class NamespacedDaemonThread<T> implements AutoCloseable {
 
-    private final Map<String, NamespaceContext<T>> namespaces = new HashMap<>();
-    protected final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+    private final Map<String, NamespaceContext<T>> namespaces = new ConcurrentHashMap<>();
 
-    @Data
-    private static class NamespaceContext<T> {
+    private static class KeyContext<T> {
         private T current;
+        private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
 
         boolean isChanged(T spec) {
             if (current != null
@@ -43,39 +45,112 @@ public abstract class NamespacedDaemonThread<T> implements AutoCloseable {
             }
             return true;
         }
+
+        void cancelTasks() {
+            NamespacedDaemonThread.cancelTasks(tasks);
+            tasks.clear();
+        }
+    }
+
+    // guarded by itself, reconcilers of different namespaces run in parallel
+    private static class NamespaceContext<T> {
+        private final Map<String, KeyContext<T>> keys = new HashMap<>();
+        // set when the context is dropped from the namespaces, it must not get new tasks after that
+        private boolean removed;
     }
 
     public void onSpecChange(PulsarClusterSpec clusterSpec, String namespace) {
-        final NamespaceContext namespaceContext = namespaces.getOrDefault(namespace,
-                new NamespaceContext());
-        final T newSpec = getSpec(clusterSpec);
-        final boolean isChanged = namespaceContext.isChanged(newSpec);
-        if (isChanged) {
-            cancelTasks();
-            final List<ScheduledFuture<?>> newTasks = specChanged(namespace, newSpec, clusterSpec);
-            if (newTasks != null) {
-                tasks.addAll(newTasks);
+        final Map<String, T> newSpecs = getSpecs(clusterSpec);
+        while (true) {
+            final NamespaceContext<T> namespaceContext = namespaces.computeIfAbsent(namespace,
+                    k -> new NamespaceContext<>());
+            synchronized (namespaceContext) {
+                if (namespaceContext.removed) {
+                    continue;
+                }
+                onSpecChange(namespaceContext, newSpecs, clusterSpec, namespace);
+                keysChanged(namespace, getCurrentSpecs(namespaceContext));
+                removeIfEmpty(namespace, namespaceContext);
+                return;
+            }
+        }
+    }
+
+    private void onSpecChange(NamespaceContext<T> namespaceContext, Map<String, T> newSpecs,
+                              PulsarClusterSpec clusterSpec, String namespace) {
+        namespaceContext.keys.entrySet().removeIf(entry -> {
+            if (!newSpecs.containsKey(entry.getKey())) {
+                entry.getValue().cancelTasks();
+                return true;
             }
+            return false;
+        });
+        for (Map.Entry<String, T> entry : newSpecs.entrySet()) {
+            final KeyContext<T> keyContext = namespaceContext.keys.computeIfAbsent(entry.getKey(),
+                    k -> new KeyContext<>());
+            final T newSpec = entry.getValue();
+            if (keyContext.isChanged(newSpec)) {
+                log.debugf("Spec changed for %s in namespace %s, rescheduling tasks", entry.getKey(), namespace);
+                keyContext.cancelTasks();
+                final List<ScheduledFuture<?>> newTasks =
+                        specChanged(namespace, entry.getKey(), newSpec, clusterSpec);
+                if (newTasks != null) {
+                    keyContext.tasks.addAll(newTasks);
+                }
+            }
+            keyContext.current = newSpec;
+        }
+    }
+
+    // the namespaces without keys are dropped, otherwise every namespace ever reconciled would be kept
+    private void removeIfEmpty(String namespace, NamespaceContext<T> namespaceContext) {
+        if (namespaceContext.keys.isEmpty()) {
+            namespaceContext.removed = true;
+            namespaces.remove(namespace, namespaceContext);
         }
-        namespaceContext.setCurrent(newSpec);
-        namespaces.put(namespace, namespaceContext);
     }
 
 
-    protected abstract T getSpec(PulsarClusterSpec clusterSpec);
+    private static <T> Map<String, T> getCurrentSpecs(NamespaceContext<T> namespaceContext) {
+        final Map<String, T> specs = new HashMap<>();
+        namespaceContext.keys.forEach((key, keyContext) -> specs.put(key, keyContext.current));
+        return specs;
+    }
+
+    protected abstract Map<String, T> getSpecs(PulsarClusterSpec clusterSpec);
 
-    protected abstract List<ScheduledFuture<?>> specChanged(String namespace, T newSpec, PulsarClusterSpec clusterSpec);
+    protected abstract List<ScheduledFuture<?>> specChanged(String namespace, String key, T newSpec,
+                                                            PulsarClusterSpec clusterSpec);
 
+    // called with the keys still scheduled in the namespace, to drop what was kept for the removed ones
+    protected void keysChanged(String namespace, Map<String, T> currentSpecs) {
+    }
+
+    // the next spec change of the namespace will reschedule the tasks, even if the spec didn't change
+    public void cancelTasks(String namespace) {
+        final NamespaceContext<T> namespaceContext = namespaces.get(namespace);
+        if (namespaceContext == null) {
+            return;
+        }
+        synchronized (namespaceContext) {
+            namespaceContext.keys.values().forEach(KeyContext::cancelTasks);
+            namespaceContext.keys.clear();
+            keysChanged(namespace, Map.of());
+            removeIfEmpty(namespace, namespaceContext);
+        }
+    }
 
     public void cancelTasks() {
-        tasks.forEach(f -> {
-            f.cancel(true);
-            try {
-                f.get();
-            } catch (Throwable ignore) {
-            }
-        });
-        tasks.clear();
+        namespaces.keySet().forEach(this::cancelTasks);
+    }
+
+    Set<String> getNamespaces() {
+        return Set.copyOf(namespaces.keySet());
+    }
+
+    // a cancelled task may still be running, the executors must not run the rescheduled tasks concurrently with it
+    private static void cancelTasks(List<ScheduledFuture<?>> tasks) {
+        tasks.forEach(f -> f.cancel(true));
     }
 
     @Override
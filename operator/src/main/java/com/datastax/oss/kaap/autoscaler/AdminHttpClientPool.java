@@ -0,0 +1,152 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import com.datastax.oss.kaap.controllers.BaseResourcesFactory;
+import com.datastax.oss.kaap.controllers.broker.BrokerResourcesFactory;
+import com.datastax.oss.kaap.crds.GlobalSpec;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import javax.security.auth.x500.X500Principal;
+import lombok.SneakyThrows;
+import lombok.Value;
+import lombok.extern.jbosslog.JBossLog;
+import org.apache.zookeeper.util.PemReader;
+
+@JBossLog
+public class AdminHttpClientPool implements AutoCloseable {
+
+    private static final String PLAIN_CLIENT_KEY = "plain";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    // the tls clients are bound to the version of the secret they trust, a rotated certificate gets a new client
+    @Value
+    private static class CachedHttpClient {
+        String secretResourceVersion;
+        HttpClient httpClient;
+    }
+
+    // HttpClient keeps the connections alive and reuses them across autoscaler runs
+    private final Map<String, CachedHttpClient> httpClients = new ConcurrentHashMap<>();
+    private final KubernetesClient client;
+
+    public AdminHttpClientPool(KubernetesClient client) {
+        this.client = client;
+    }
+
+    public HttpClient getBrokerHttpClient(String namespace, GlobalSpec globalSpec, String brokerSet) {
+        if (!BaseResourcesFactory.isTlsEnabledOnBrokerSet(globalSpec, brokerSet)) {
+            return getHttpClient(namespace, null);
+        }
+        return getHttpClient(namespace, BaseResourcesFactory.getTlsSecretNameForBroker(globalSpec));
+    }
+
+    public HttpClient getBookieHttpClient(String namespace, GlobalSpec globalSpec) {
+        if (!BaseResourcesFactory.isTlsEnabledOnBookKeeper(globalSpec)) {
+            return getHttpClient(namespace, null);
+        }
+        return getHttpClient(namespace, BaseResourcesFactory.getTlsSecretNameForBookkeeper(globalSpec));
+    }
+
+    private HttpClient getHttpClient(String namespace, String tlsSecretName) {
+        if (tlsSecretName == null) {
+            return httpClients.computeIfAbsent(PLAIN_CLIENT_KEY,
+                    k -> new CachedHttpClient(null, newHttpClient(null))).getHttpClient();
+        }
+        final Secret secret = client.secrets()
+                .inNamespace(namespace)
+                .withName(tlsSecretName)
+                .get();
+        if (secret == null) {
+            throw new IllegalStateException(
+                    "Cannot create ssl client, secret '" + tlsSecretName + "' not found");
+        }
+        final String resourceVersion = secret.getMetadata().getResourceVersion();
+        return httpClients.compute("%s/%s".formatted(namespace, tlsSecretName), (k, current) -> {
+            if (current != null && Objects.equals(current.getSecretResourceVersion(), resourceVersion)) {
+                return current;
+            }
+            return new CachedHttpClient(resourceVersion, newHttpClient(newSslContext(namespace, secret)));
+        }).getHttpClient();
+    }
+
+    public String getSuperUserToken(String namespace) {
+        final Secret secret = client.secrets()
+                .inNamespace(namespace)
+                .withName(BrokerResourcesFactory.SUPERUSER_TOKEN_SECRET)
+                .get();
+        if (secret == null || secret.getData() == null
+                || !secret.getData().containsKey(BrokerResourcesFactory.SUPERUSER_TOKEN_KEY)) {
+            throw new IllegalStateException(
+                    "Cannot get superuser token, secret '" + BrokerResourcesFactory.SUPERUSER_TOKEN_SECRET
+                            + "' not found");
+        }
+        return new String(Base64.getDecoder().decode(secret.getData().get(BrokerResourcesFactory.SUPERUSER_TOKEN_KEY)),
+                StandardCharsets.UTF_8).strip();
+    }
+
+    private static HttpClient newHttpClient(SSLContext sslContext) {
+        final HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(CONNECT_TIMEOUT);
+        if (sslContext != null) {
+            builder.sslContext(sslContext);
+        }
+        return builder.build();
+    }
+
+    @SneakyThrows
+    private static SSLContext newSslContext(String namespace, Secret secret) {
+        String trustedCert = secret.getData().get("ca.crt");
+        if (trustedCert == null) {
+            trustedCert = secret.getData().get("tls.crt");
+        }
+        final List<X509Certificate> x509Certificates = PemReader.readCertificateChain(
+                new String(Base64.getDecoder().decode(trustedCert), StandardCharsets.UTF_8));
+
+        final KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        trustStore.load(null, null);
+        for (X509Certificate certificate : x509Certificates) {
+            X500Principal principal = certificate.getSubjectX500Principal();
+            trustStore.setCertificateEntry(principal.getName("RFC2253"), certificate);
+        }
+        final TrustManagerFactory trustManagerFactory =
+                TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(trustStore);
+        final SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+        log.infof("Created new https client for secret %s (version %s) in namespace %s",
+                secret.getMetadata().getName(), secret.getMetadata().getResourceVersion(), namespace);
+        return sslContext;
+    }
+
+    @Override
+    public void close() {
+        httpClients.clear();
+    }
+}
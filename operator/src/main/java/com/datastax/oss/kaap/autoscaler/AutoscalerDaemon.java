@@ -15,9 +15,8 @@
  */
 package com.datastax.oss.kaap.autoscaler;
 
+import com.datastax.oss.kaap.controllers.bookkeeper.racks.client.ZkClientRackClientFactory;
 import io.fabric8.kubernetes.client.KubernetesClient;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import lombok.Getter;
 import lombok.extern.jbosslog.JBossLog;
 
@@ -25,7 +24,9 @@ import lombok.extern.jbosslog.JBossLog;
 public class AutoscalerDaemon implements AutoCloseable {
 
     private final KubernetesClient client;
-    private final ScheduledExecutorService executorService;
+    private final LaneScheduler scheduler;
+    // a single zookeeper client per ensemble for the broker autoscalers and the ledger metadata indexes
+    private final ZkClientRackClientFactory zkClientFactory;
     @Getter
     private final BrokerAutoscalerDaemon brokerAutoscalerDaemon;
     @Getter
@@ -33,17 +34,23 @@ public class AutoscalerDaemon implements AutoCloseable {
 
     public AutoscalerDaemon(KubernetesClient client) {
         this.client = client;
-        this.executorService = Executors.newSingleThreadScheduledExecutor();
-        this.brokerAutoscalerDaemon = new BrokerAutoscalerDaemon(client, executorService);
-        this.bookKeeperAutoscalerDaemon = new BookKeeperAutoscalerDaemon(client, executorService);
-
+        // each cluster and component gets its own lane, a bookie decommission doesn't delay the broker scaling
+        this.scheduler = new LaneScheduler("kaap-autoscaler-");
+        this.zkClientFactory = new ZkClientRackClientFactory(client);
+        this.brokerAutoscalerDaemon = new BrokerAutoscalerDaemon(client, scheduler, zkClientFactory);
+        this.bookKeeperAutoscalerDaemon = new BookKeeperAutoscalerDaemon(client, scheduler, zkClientFactory);
     }
 
     @Override
     public void close() {
         brokerAutoscalerDaemon.close();
         bookKeeperAutoscalerDaemon.close();
-        executorService.shutdownNow();
+        scheduler.close();
+        try {
+            zkClientFactory.close();
+        } catch (Exception e) {
+            log.warnf(e, "Failed to close zookeeper clients");
+        }
     }
 
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import com.datastax.oss.kaap.crds.AutoscalerStatus;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.jbosslog.JBossLog;
+
+// Last actions taken by the autoscaler of a resource set.
+// The journal is persisted in the custom resource status and restored after an operator restart.
+@JBossLog
+public class AutoscalerDecisionLog {
+
+    public static final int DEFAULT_MAX_ENTRIES = 10;
+    // bounds the scale events when no scaling behavior trims them
+    public static final int MAX_SCALE_EVENTS = 100;
+    public static final String ACTION_SCALE = "Scale";
+    public static final String ACTION_REBALANCE = "Rebalance";
+    public static final String ACTION_DRAIN = "Drain";
+    public static final String ACTION_EXPAND_VOLUMES = "ExpandVolumes";
+
+    private final int maxEntries;
+    private final Deque<AutoscalerStatus.Decision> decisions = new ArrayDeque<>();
+    // kept even if the decision is not in the journal anymore
+    private final Map<String, Long> lastActions = new HashMap<>();
+    // the scaling policies need all the scale events of their period, other decisions can't push them out
+    private final Deque<AutoscalerStatus.Decision> scaleEvents = new ArrayDeque<>();
+    private boolean restored;
+
+    public AutoscalerDecisionLog() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public AutoscalerDecisionLog(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public void record(String action, String message) {
+        record(action, message, null);
+    }
+
+    public void record(String action, String message, Map<String, String> inputs) {
+        record(AutoscalerStatus.Decision.builder()
+                .action(action)
+                .message(message)
+                .inputs(inputs)
+                .build());
+    }
+
+    public void recordScale(int fromReplicas, int toReplicas, String message, Map<String, String> inputs) {
+        record(AutoscalerStatus.Decision.builder()
+                .action(ACTION_SCALE)
+                .message(message)
+                .inputs(inputs)
+                .fromReplicas(fromReplicas)
+                .toReplicas(toReplicas)
+                .build());
+    }
+
+    private synchronized void record(AutoscalerStatus.Decision decision) {
+        log.infof("Autoscaler decision %s: %s", decision.getAction(), decision.getMessage());
+        final long now = System.currentTimeMillis();
+        decision.setTimestamp(now);
+        decisions.addLast(decision);
+        lastActions.put(decision.getAction(), now);
+        if (isScaleEvent(decision)) {
+            scaleEvents.addLast(decision);
+        }
+        trim();
+    }
+
+    public synchronized List<AutoscalerStatus.Decision> getDecisions() {
+        return new ArrayList<>(decisions);
+    }
+
+    public synchronized Long getLastTimestamp(String action) {
+        return lastActions.get(action);
+    }
+
+    public synchronized List<AutoscalerStatus.Decision> getScaleEvents(long since) {
+        return scaleEvents.stream()
+                .filter(d -> d.getTimestamp() >= since)
+                .toList();
+    }
+
+    // drops the scale events older than the longest scaling policy period
+    public synchronized void trimScaleEvents(long before) {
+        while (!scaleEvents.isEmpty() && scaleEvents.peekFirst().getTimestamp() < before) {
+            scaleEvents.removeFirst();
+        }
+    }
+
+    private static boolean isScaleEvent(AutoscalerStatus.Decision decision) {
+        return ACTION_SCALE.equals(decision.getAction())
+                && decision.getFromReplicas() != null
+                && decision.getToReplicas() != null
+                && decision.getTimestamp() != null;
+    }
+
+    // only the first call has effect, after that the in-memory journal is the most recent one
+    public synchronized void restore(AutoscalerStatus status) {
+        if (restored) {
+            return;
+        }
+        restored = true;
+        if (status == null) {
+            return;
+        }
+        if (status.getDecisions() != null) {
+            final List<AutoscalerStatus.Decision> persisted = status.getDecisions();
+            for (int i = persisted.size() - 1; i >= 0; i--) {
+                decisions.addFirst(persisted.get(i));
+            }
+        }
+        // statuses written before the scale events were persisted have them in the journal only
+        final List<AutoscalerStatus.Decision> persistedScaleEvents = status.getScaleEvents() != null
+                ? status.getScaleEvents() : status.getDecisions();
+        if (persistedScaleEvents != null) {
+            for (int i = persistedScaleEvents.size() - 1; i >= 0; i--) {
+                if (isScaleEvent(persistedScaleEvents.get(i))) {
+                    scaleEvents.addFirst(persistedScaleEvents.get(i));
+                }
+            }
+        }
+        trim();
+        if (status.getLastActions() != null) {
+            status.getLastActions().forEach((action, timestamp) -> lastActions.merge(action, timestamp, Math::max));
+        }
+    }
+
+    public synchronized AutoscalerStatus toStatus() {
+        return new AutoscalerStatus(new ArrayList<>(decisions), new HashMap<>(lastActions),
+                new ArrayList<>(scaleEvents));
+    }
+
+    private void trim() {
+        while (decisions.size() > maxEntries) {
+            decisions.removeFirst();
+        }
+        while (scaleEvents.size() > MAX_SCALE_EVENTS) {
+            scaleEvents.removeFirst();
+        }
+    }
+}
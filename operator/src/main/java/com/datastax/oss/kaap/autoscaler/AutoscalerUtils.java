@@ -18,7 +18,6 @@ package com.datastax.oss.kaap.autoscaler;
 import com.datastax.oss.kaap.controllers.BaseResourcesFactory;
 import io.fabric8.kubernetes.api.model.ContainerStatus;
 import io.fabric8.kubernetes.api.model.Pod;
-import io.fabric8.kubernetes.api.model.PodList;
 import io.fabric8.kubernetes.api.model.apps.StatefulSet;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.ExecListener;
@@ -30,9 +29,11 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import lombok.extern.jbosslog.JBossLog;
@@ -44,6 +45,15 @@ public class AutoscalerUtils {
                                             String namespace, String statefulsetName,
                                             Map<String, String> podSelector,
                                             int currentExpectedReplicas) {
+        return isStsReadyToScale(client, stabilizationWindowMs, statefulsetName,
+                new PodIndex(client, namespace, podSelector), currentExpectedReplicas);
+    }
+
+    public static boolean isStsReadyToScale(KubernetesClient client, Long stabilizationWindowMs,
+                                            String statefulsetName,
+                                            PodIndex podIndex,
+                                            int currentExpectedReplicas) {
+        final String namespace = podIndex.getNamespace();
         final StatefulSet statefulSet = client.apps().statefulSets()
                 .inNamespace(namespace)
                 .withName(statefulsetName)
@@ -67,18 +77,15 @@ public class AutoscalerUtils {
             return false;
         }
 
-        final PodList allTargetPods = client.pods()
-                .inNamespace(namespace)
-                .withLabels(podSelector)
-                .list();
+        final List<Pod> allTargetPods = podIndex.getPods();
 
-        if (allTargetPods.getItems().size() != currentExpectedReplicas) {
+        if (allTargetPods.size() != currentExpectedReplicas) {
             log.infof("Sts %s not in ready state", statefulsetName);
             return false;
         }
         final Instant now = Instant.now();
         Instant maxStartTime = now.minusMillis(stabilizationWindowMs);
-        for (Pod pod : allTargetPods.getItems()) {
+        for (Pod pod : allTargetPods) {
             final ContainerStatus containerStatus = pod.getStatus().getContainerStatuses().get(0);
             final Boolean ready = containerStatus.getReady();
             if (ready != null && !ready) {
@@ -183,6 +190,14 @@ public class AutoscalerUtils {
         return response;
     }
 
+    // the exec is closed if the command doesn't complete within the timeout
+    public static CompletableFuture<String> execInPod(KubernetesClient client,
+                                                      String namespace, String podName, String containerName,
+                                                      long timeoutMs, String... cmds) {
+        return execInPod(client, namespace, podName, containerName, cmds)
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
     public static void closeQuietly(Closeable c) {
         if (c != null) {
             try {
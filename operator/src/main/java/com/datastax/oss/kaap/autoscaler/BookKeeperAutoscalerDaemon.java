@@ -16,60 +16,138 @@
 package com.datastax.oss.kaap.autoscaler;
 
 import com.datastax.oss.kaap.NamespacedDaemonThread;
+import com.datastax.oss.kaap.autoscaler.bookkeeper.LedgerMetadataIndexFactory;
 import com.datastax.oss.kaap.controllers.bookkeeper.BookKeeperController;
+import com.datastax.oss.kaap.controllers.bookkeeper.BookKeeperResourcesFactory;
+import com.datastax.oss.kaap.controllers.bookkeeper.racks.client.ZkClientRackClientFactory;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperAutoscalerSpec;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSpec;
 import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
 import io.fabric8.kubernetes.client.KubernetesClient;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import lombok.Value;
 import lombok.extern.jbosslog.JBossLog;
+import org.apache.commons.lang3.tuple.Pair;
 
 @JBossLog
-public class BookKeeperAutoscalerDaemon extends NamespacedDaemonThread<Map<String, BookKeeperAutoscalerSpec>> {
+public class BookKeeperAutoscalerDaemon extends NamespacedDaemonThread<BookKeeperAutoscalerDaemon.TaskSpec> {
+
+    private static final String RACK_BALANCING_KEY_PREFIX = "rack-balancing:";
+
+    // everything a scheduled task has been built from, any change reschedules it
+    @Value
+    static class TaskSpec {
+        BookKeeperAutoscalerSpec autoscaler;
+        // only for the rack balancing task, bookkeeper set -> (set autoscaler, rack)
+        Map<String, Pair<BookKeeperAutoscalerSpec, String>> sets;
+    }
 
     private final KubernetesClient client;
-    private final ScheduledExecutorService executorService;
+    private final LaneScheduler scheduler;
+    private final AdminHttpClientPool httpClientPool;
+    private final LedgerMetadataIndexFactory ledgerMetadataIndexFactory;
+    // kept across spec changes, bookkeeper set -> decisions and scaling recommendations
+    private final Map<String, BookKeeperSetAutoscalerState> states = new ConcurrentHashMap<>();
 
-    public BookKeeperAutoscalerDaemon(KubernetesClient client, ScheduledExecutorService executorService) {
+    public BookKeeperAutoscalerDaemon(KubernetesClient client, LaneScheduler scheduler,
+                                      ZkClientRackClientFactory zkClientFactory) {
         this.client = client;
-        this.executorService = executorService;
+        this.scheduler = scheduler;
+        this.httpClientPool = new AdminHttpClientPool(client);
+        this.ledgerMetadataIndexFactory = new LedgerMetadataIndexFactory(zkClientFactory);
     }
 
     @Override
-    protected Map<String, BookKeeperAutoscalerSpec> getSpec(PulsarClusterSpec clusterSpec) {
+    protected Map<String, TaskSpec> getSpecs(PulsarClusterSpec clusterSpec) {
         final BookKeeperSpec bk = clusterSpec.getBookkeeper();
         final LinkedHashMap<String, BookKeeperSetSpec> sets =
                 BookKeeperController.getBookKeeperSetSpecs(bk);
+        final BookKeeperAutoscalerSpec clusterAutoscaler = bk.getAutoscaler();
+        if (clusterAutoscaler != null && clusterAutoscaler.getRackBalancing()) {
+            // a single task for all the sets, rescheduled when the autoscaled sets or their settings change
+            final Map<String, Pair<BookKeeperAutoscalerSpec, String>> autoscaledSets = new LinkedHashMap<>();
+            sets.forEach((setName, setSpec) -> {
+                if (setSpec.getAutoscaler().getEnabled()) {
+                    autoscaledSets.put(setName, Pair.of(setSpec.getAutoscaler(),
+                            BookKeeperResourcesFactory.getRack(clusterSpec.getGlobal(), setName)));
+                }
+            });
+            return Map.of(RACK_BALANCING_KEY_PREFIX + String.join(",", autoscaledSets.keySet()),
+                    new TaskSpec(clusterAutoscaler, autoscaledSets));
+        }
         return sets.entrySet().stream()
-                .collect(Collectors.toMap(e -> e.getKey(), e -> e.getValue().getAutoscaler()));
+                .collect(Collectors.toMap(e -> e.getKey(), e -> new TaskSpec(e.getValue().getAutoscaler(), null)));
     }
 
     @Override
-    protected List<ScheduledFuture<?>> specChanged(String namespace, Map<String, BookKeeperAutoscalerSpec> newSpec,
+    protected List<ScheduledFuture<?>> specChanged(String namespace, String key, TaskSpec taskSpec,
                                                    PulsarClusterSpec clusterSpec) {
-        List<ScheduledFuture<?>> newTasks = new ArrayList<>();
-        for (Map.Entry<String, BookKeeperAutoscalerSpec> autoscaler :
-                newSpec.entrySet()) {
-            final BookKeeperAutoscalerSpec spec = autoscaler.getValue();
-            if (spec.getEnabled()) {
-                final String bkSetName = autoscaler.getKey();
-                log.infof("Scheduling bookkeeper autoscaler every %d ms for bookkeeper set %s",
-                        spec.getPeriodMs(), bkSetName);
-                newTasks.add(executorService.scheduleWithFixedDelay(
-                        new BookKeeperSetAutoscaler(client, namespace, bkSetName, clusterSpec),
-                        spec.getPeriodMs(), spec.getPeriodMs(), TimeUnit.MILLISECONDS));
+        final BookKeeperAutoscalerSpec spec = taskSpec.getAutoscaler();
+        if (!spec.getEnabled()) {
+            return List.of();
+        }
+        final Runnable autoscaler;
+        if (key.startsWith(RACK_BALANCING_KEY_PREFIX)) {
+            final Map<String, BookKeeperSetAutoscaler> setAutoscalers = new LinkedHashMap<>();
+            BookKeeperController.getBookKeeperSetSpecs(clusterSpec.getBookkeeper()).forEach((setName, setSpec) -> {
+                if (setSpec.getAutoscaler().getEnabled()) {
+                    setAutoscalers.put(setName, newSetAutoscaler(namespace, setName, clusterSpec));
+                }
+            });
+            if (setAutoscalers.isEmpty()) {
+                return List.of();
             }
-
+            log.infof("Scheduling bookkeeper cluster autoscaler every %d ms for bookkeeper sets %s",
+                    spec.getPeriodMs(), setAutoscalers.keySet());
+            autoscaler = new BookKeeperClusterAutoscaler(client, namespace, clusterSpec, setAutoscalers);
+        } else {
+            log.infof("Scheduling bookkeeper autoscaler every %d ms for bookkeeper set %s",
+                    spec.getPeriodMs(), key);
+            autoscaler = newSetAutoscaler(namespace, key, clusterSpec);
         }
-        return newTasks;
+        return List.of(scheduler.scheduleWithFixedDelay(LaneScheduler.computeLane(namespace, "bookkeeper"),
+                autoscaler, spec.getPeriodMs(), spec.getPeriodMs(), TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    protected void keysChanged(String namespace, Map<String, TaskSpec> currentSpecs) {
+        final Set<String> sets = new HashSet<>();
+        currentSpecs.forEach((key, taskSpec) -> {
+            if (taskSpec.getSets() != null) {
+                sets.addAll(taskSpec.getSets().keySet());
+            } else {
+                sets.add(key);
+            }
+        });
+        final String prefix = namespace + "/";
+        states.keySet().removeIf(k -> k.startsWith(prefix) && !sets.contains(k.substring(prefix.length())));
     }
-}
 
+    Map<String, BookKeeperSetAutoscalerState> getStates() {
+        return states;
+    }
+
+    private BookKeeperSetAutoscaler newSetAutoscaler(String namespace, String bkSetName,
+                                                     PulsarClusterSpec clusterSpec) {
+        return new BookKeeperSetAutoscaler(client, httpClientPool, ledgerMetadataIndexFactory,
+                states.computeIfAbsent("%s/%s".formatted(namespace, bkSetName),
+                        k -> new BookKeeperSetAutoscalerState()),
+                namespace, bkSetName, clusterSpec);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        httpClientPool.close();
+        ledgerMetadataIndexFactory.close();
+    }
+}
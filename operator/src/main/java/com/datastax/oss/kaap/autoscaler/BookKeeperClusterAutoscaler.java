@@ -0,0 +1,158 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import com.datastax.oss.kaap.autoscaler.bookkeeper.BookKeeperRackBalancer;
+import com.datastax.oss.kaap.controllers.PulsarClusterController;
+import com.datastax.oss.kaap.controllers.bookkeeper.BookKeeperController;
+import com.datastax.oss.kaap.controllers.bookkeeper.BookKeeperResourcesFactory;
+import com.datastax.oss.kaap.crds.GlobalSpec;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeper;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperAutoscalerSpec;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.SneakyThrows;
+import lombok.extern.jbosslog.JBossLog;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+// Scales all the bookkeeper sets together. Each set autoscaler tells how many bookies its set needs, then the
+// BookKeeperRackBalancer decides which sets actually grow or shrink to keep the racks capacity balanced.
+@JBossLog
+public class BookKeeperClusterAutoscaler implements Runnable {
+
+    private final KubernetesClient client;
+    private final String namespace;
+    private final PulsarClusterSpec clusterSpec;
+    // bookkeeper set -> autoscaler
+    private final Map<String, BookKeeperSetAutoscaler> setAutoscalers;
+
+    public BookKeeperClusterAutoscaler(KubernetesClient client, String namespace, PulsarClusterSpec clusterSpec,
+                                       Map<String, BookKeeperSetAutoscaler> setAutoscalers) {
+        this.client = client;
+        this.namespace = namespace;
+        this.clusterSpec = clusterSpec;
+        this.setAutoscalers = setAutoscalers;
+    }
+
+    @Override
+    public void run() {
+        try {
+            log.infof("Bookkeeper cluster autoscaler starting for bookkeeper sets %s", setAutoscalers.keySet());
+            internalRun();
+        } catch (Throwable tt) {
+            if (ExceptionUtils.indexOfThrowable(tt, RejectedExecutionException.class) >= 0) {
+                return;
+            }
+            log.errorf("Bookkeeper cluster autoscaler error", tt);
+        }
+    }
+
+    @SneakyThrows
+    void internalRun() {
+        final GlobalSpec global = clusterSpec.getGlobal();
+        final Map<String, BookKeeperSetSpec> setSpecs =
+                BookKeeperController.getBookKeeperSetSpecs(clusterSpec.getBookkeeper());
+        final Map<String, BookKeeperSetAutoscaler.ScaleRecommendation> recommendations = new HashMap<>();
+        final List<BookKeeperRackBalancer.SetState> sets = new ArrayList<>();
+        for (Map.Entry<String, BookKeeperSetAutoscaler> entry : setAutoscalers.entrySet()) {
+            final String setName = entry.getKey();
+            final String rack = BookKeeperResourcesFactory.getRack(global, setName);
+            final BookKeeperSetAutoscaler.ScaleRecommendation recommendation = entry.getValue().recommend();
+            if (recommendation == null) {
+                sets.add(BookKeeperRackBalancer.SetState.builder()
+                        .name(setName)
+                        .rack(rack)
+                        .scalable(false)
+                        .build());
+                continue;
+            }
+            recommendations.put(setName, recommendation);
+            // the set settings are merged with the cluster ones, like in the set autoscaler
+            final BookKeeperAutoscalerSpec setScalerSpec = setSpecs.get(setName).getAutoscaler();
+            final BookKeeperSetAutoscaler.ClusterStats stats = recommendation.getClusterStats();
+            final int currentReplicas = recommendation.getCurrentReplicas();
+            final int bookiesWithStats = stats.getWritableBookiesTotal() + stats.getReadOnlyBookiesTotal();
+            // the missing writable bookies are always added to the set itself
+            final int minReplicas = currentReplicas
+                    + Math.max(0, setScalerSpec.getMinWritableBookies() - stats.getWritableBookiesTotal());
+            sets.add(BookKeeperRackBalancer.SetState.builder()
+                    .name(setName)
+                    .rack(rack)
+                    .scalable(true)
+                    .currentReplicas(currentReplicas)
+                    .recommendedReplicas(recommendation.getRecommendedReplicas())
+                    .minReplicas(minReplicas)
+                    .maxReplicas(setScalerSpec.getScaleUpMaxLimit())
+                    .capacityBytes(stats.getLedgersCapacityBytes())
+                    .usedBytes(stats.getLedgersUsedBytes())
+                    .bookieCapacityBytes(bookiesWithStats > 0 ? stats.getLedgersCapacityBytes() / bookiesWithStats : 0)
+                    .build());
+        }
+
+        final Map<String, Integer> changes = new LinkedHashMap<>();
+        BookKeeperRackBalancer.balance(sets).forEach((setName, replicas) -> {
+            final BookKeeperSetAutoscaler.ScaleRecommendation recommendation = recommendations.get(setName);
+            if (recommendation != null && recommendation.getCurrentReplicas() != replicas) {
+                changes.put(setName, replicas);
+            }
+        });
+        if (changes.isEmpty()) {
+            log.infof("Bookkeeper sets are stable, no scaling needed");
+            return;
+        }
+
+        // all the sets are in the same custom resource, the set autoscalers might have patched it in the meantime
+        final String bkCustomResourceName = PulsarClusterController.computeCustomResourceName(clusterSpec,
+                PulsarClusterController.CUSTOM_RESOURCE_BOOKKEEPER);
+        final BookKeeper bkCr = client.resources(BookKeeper.class)
+                .inNamespace(namespace)
+                .withName(bkCustomResourceName)
+                .get();
+        if (bkCr == null) {
+            log.warnf("BookKeeper custom resource not found in namespace %s", namespace);
+            return;
+        }
+        changes.forEach((setName, replicas) ->
+                bkCr.getSpec().getBookkeeper().getBookKeeperSetSpecRef(setName).setReplicas(replicas));
+        client.resources(BookKeeper.class)
+                .inNamespace(namespace)
+                .withName(bkCustomResourceName)
+                .patch(bkCr);
+
+        changes.forEach((setName, replicas) -> {
+            final BookKeeperSetAutoscaler.ScaleRecommendation recommendation = recommendations.get(setName);
+            final String rack = BookKeeperResourcesFactory.getRack(global, setName);
+            final Map<String, String> inputs =
+                    new HashMap<>(BookKeeperSetAutoscaler.getDecisionInputs(recommendation.getClusterStats()));
+            inputs.put("recommendedReplicas", String.valueOf(recommendation.getRecommendedReplicas()));
+            if (rack != null) {
+                inputs.put("rack", rack);
+            }
+            setAutoscalers.get(setName).recordScale(recommendation, replicas,
+                    "Scaled bookies for bookkeeper set %s%s from %d to %d to balance the racks".formatted(
+                            setName, rack == null ? "" : " (rack %s)".formatted(rack),
+                            recommendation.getCurrentReplicas(), replicas),
+                    inputs);
+        });
+    }
+}
@@ -16,25 +16,39 @@
 package com.datastax.oss.kaap.autoscaler;
 
 import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieAdminClient;
+import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieDiskUsageForecaster;
+import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieVolumeExpansion;
+import com.datastax.oss.kaap.autoscaler.bookkeeper.HttpBookieAdminClient;
+import com.datastax.oss.kaap.autoscaler.bookkeeper.KubeletVolumeStatsSource;
+import com.datastax.oss.kaap.autoscaler.bookkeeper.LedgerMetadataIndex;
+import com.datastax.oss.kaap.autoscaler.bookkeeper.LedgerMetadataIndexFactory;
 import com.datastax.oss.kaap.autoscaler.bookkeeper.PodExecBookieAdminClient;
 import com.datastax.oss.kaap.controllers.PulsarClusterController;
 import com.datastax.oss.kaap.controllers.bookkeeper.BookKeeperController;
 import com.datastax.oss.kaap.controllers.bookkeeper.BookKeeperResourcesFactory;
+import com.datastax.oss.kaap.crds.AutoscalerStatus;
 import com.datastax.oss.kaap.crds.CRDConstants;
 import com.datastax.oss.kaap.crds.GlobalSpec;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeper;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperAutoscalerSpec;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperFullSpec;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperStatus;
 import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import javax.validation.Valid;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.SneakyThrows;
 import lombok.extern.jbosslog.JBossLog;
@@ -49,20 +63,59 @@ public class BookKeeperSetAutoscaler implements Runnable {
     public static class ClusterStats {
         int writableBookiesTotal = 0;
         int atRiskWritableBookies = 0;
+        // writable bookies expected to reach the high watermark within the lead time, included in the at risk ones
+        int forecastAtRiskWritableBookies = 0;
+        // writable bookies with the journal above the high watermark, not included in the at risk ones
+        int journalAtRiskWritableBookies = 0;
         int readOnlyBookiesTotal = 0;
+        // stats not collected in time, they are not counted as writable
+        int unknownBookiesTotal = 0;
+        // ledgers directories of the bookies with stats, both writable and read-only
+        long ledgersCapacityBytes = 0;
+        long ledgersUsedBytes = 0;
+    }
+
+    // what the autoscaler would do with the set alone
+    @Data
+    @AllArgsConstructor
+    public static class ScaleRecommendation {
+        BookKeeper bkCr;
+        String bkCustomResourceName;
+        int currentReplicas;
+        int recommendedReplicas;
+        ClusterStats clusterStats;
     }
 
     private final KubernetesClient client;
+    private final AdminHttpClientPool httpClientPool;
+    private final LedgerMetadataIndexFactory ledgerMetadataIndexFactory;
     private final String namespace;
     private final PulsarClusterSpec clusterSpec;
     private final String bookkeeperSetName;
     private final BookKeeperSetSpec desiredBookKeeperSetSpec;
+    private final AutoscalerDecisionLog decisionLog;
+    private final ScalingBehaviorLimiter behaviorLimiter;
+    private final BookieDiskUsageForecaster diskUsageForecaster;
     private BookieAdminClient bookieAdminClient;
 
     public BookKeeperSetAutoscaler(KubernetesClient client, String namespace,
                                    String bookkeeperSetName,
                                    PulsarClusterSpec clusterSpec) {
+        this(client, new AdminHttpClientPool(client), null, new BookKeeperSetAutoscalerState(), namespace,
+                bookkeeperSetName, clusterSpec);
+    }
+
+    public BookKeeperSetAutoscaler(KubernetesClient client, AdminHttpClientPool httpClientPool,
+                                   LedgerMetadataIndexFactory ledgerMetadataIndexFactory,
+                                   BookKeeperSetAutoscalerState state, String namespace,
+                                   String bookkeeperSetName,
+                                   PulsarClusterSpec clusterSpec) {
         this.client = client;
+        this.httpClientPool = httpClientPool;
+        this.ledgerMetadataIndexFactory = ledgerMetadataIndexFactory;
+        this.decisionLog = state.getDecisionLog();
+        this.behaviorLimiter = state.getBehaviorLimiter();
+        this.diskUsageForecaster = state.getDiskUsageForecaster();
         this.namespace = namespace;
         this.clusterSpec = clusterSpec;
         this.bookkeeperSetName = bookkeeperSetName;
@@ -86,12 +139,47 @@ public class BookKeeperSetAutoscaler implements Runnable {
 
     protected BookieAdminClient newBookieAdminClient(GlobalSpec currentGlobalSpec,
                                                      BookKeeperSetSpec currentBookKeeperSetSpec) {
-        return new PodExecBookieAdminClient(client, namespace, currentGlobalSpec, bookkeeperSetName,
-                currentBookKeeperSetSpec);
+        final BookKeeperAutoscalerSpec autoscalerSpec = desiredBookKeeperSetSpec.getAutoscaler();
+        final LedgerMetadataIndex ledgerMetadataIndex =
+                ledgerMetadataIndexFactory != null && autoscalerSpec.getLedgerMetadataIndexEnabled()
+                        ? ledgerMetadataIndexFactory.getLedgerMetadataIndex(namespace, currentGlobalSpec) : null;
+        final String adminClient = autoscalerSpec.getBookieAdminClient();
+        switch (adminClient) {
+            case BookKeeperAutoscalerSpec.BOOKIE_ADMIN_CLIENT_POD_EXEC:
+                return new PodExecBookieAdminClient(client, namespace, currentGlobalSpec, bookkeeperSetName,
+                        currentBookKeeperSetSpec, ledgerMetadataIndex);
+            case BookKeeperAutoscalerSpec.BOOKIE_ADMIN_CLIENT_HTTP:
+                return new HttpBookieAdminClient(client, httpClientPool, namespace, currentGlobalSpec,
+                        bookkeeperSetName, currentBookKeeperSetSpec, ledgerMetadataIndex);
+            default:
+                throw new IllegalArgumentException("Unknown bookie admin client: " + adminClient);
+        }
     }
 
     @SneakyThrows
     void internalRun() {
+        final ScaleRecommendation recommendation = recommend();
+        if (recommendation == null
+                || recommendation.getRecommendedReplicas() == recommendation.getCurrentReplicas()) {
+            return;
+        }
+        final int scaleTo = recommendation.getRecommendedReplicas();
+        final BookKeeper bkCr = recommendation.getBkCr();
+        applyScaleTo(bkCr, scaleTo);
+
+        client.resources(BookKeeper.class)
+                .inNamespace(namespace)
+                .withName(recommendation.getBkCustomResourceName())
+                .patch(bkCr);
+
+        recordScale(recommendation, scaleTo, "Scaled bookies for bookkeeper set %s from %d to %d".formatted(
+                        bookkeeperSetName, recommendation.getCurrentReplicas(), scaleTo),
+                getDecisionInputs(recommendation.getClusterStats()));
+    }
+
+    // null if the set can't be scaled now, the volumes expansion is applied right away
+    @SneakyThrows
+    ScaleRecommendation recommend() {
         final BookKeeperAutoscalerSpec autoscalerSpec = desiredBookKeeperSetSpec.getAutoscaler();
         Objects.requireNonNull(autoscalerSpec);
 
@@ -99,13 +187,12 @@ public class BookKeeperSetAutoscaler implements Runnable {
         final String bkBaseName = clusterSpec.getGlobal()
                 .getComponents().getBookkeeperBaseName();
         final String bkName = "%s-%s".formatted(clusterSpecName, bkBaseName);
-        @Valid BookKeeperAutoscalerSpec bkScalerSpec = clusterSpec.getBookkeeper().getAutoscaler();
-        final double diskUsageHwm = bkScalerSpec.getDiskUsageToleranceHwm();
-        final double diskUsageLwm = bkScalerSpec.getDiskUsageToleranceLwm();
-        final int targetWritableBookiesCount = bkScalerSpec.getMinWritableBookies();
-        final int bookieSafeStepUp = bkScalerSpec.getScaleUpBy();
-        final int bookieSafeStepDown = bkScalerSpec.getScaleDownBy();
-        final int scaleUpMaxLimit = bkScalerSpec.getScaleUpMaxLimit();
+        final double diskUsageHwm = autoscalerSpec.getDiskUsageToleranceHwm();
+        final double diskUsageLwm = autoscalerSpec.getDiskUsageToleranceLwm();
+        final int targetWritableBookiesCount = autoscalerSpec.getMinWritableBookies();
+        final int bookieSafeStepUp = autoscalerSpec.getScaleUpBy();
+        final int bookieSafeStepDown = autoscalerSpec.getScaleDownBy();
+        final int scaleUpMaxLimit = autoscalerSpec.getScaleUpMaxLimit();
 
         if (scaleUpMaxLimit < targetWritableBookiesCount) {
             throw new IllegalArgumentException("scaleUpMaxLimit must be >= to minWritableBookies, "
@@ -120,8 +207,14 @@ public class BookKeeperSetAutoscaler implements Runnable {
                 .get();
         if (bkCr == null) {
             log.warnf("BookKeeper custom resource not found in namespace %s", namespace);
-            return;
+            if (ledgerMetadataIndexFactory != null) {
+                ledgerMetadataIndexFactory.closeLedgerMetadataIndex(namespace, clusterSpec.getGlobal());
+            }
+            return null;
         }
+        final BookKeeperStatus bkStatus = bkCr.getStatus();
+        decisionLog.restore(bkStatus == null || bkStatus.getAutoscalers() == null
+                ? null : bkStatus.getAutoscalers().get(bookkeeperSetName));
 
         final GlobalSpec currentGlobalSpec = bkCr.getSpec().getGlobal();
         final BookKeeperSetSpec currentBkSetSpec = BookKeeperController.getBookKeeperSetSpecs(
@@ -151,16 +244,44 @@ public class BookKeeperSetAutoscaler implements Runnable {
                 namespace, statefulsetName, podSelector, currentExpectedReplicas)) {
             log.infof("BookKeeper cluster %s %s is not ready to scale, expect replicas: %d",
                     clusterSpecName, bkName, currentExpectedReplicas);
-            return;
+            return null;
         }
 
+        final List<BookieAdminClient.BookieInfo> allBookies = this.bookieAdminClient.collectBookieInfos();
+        // the unknown bookies are kept, they might answer at the next run
+        diskUsageForecaster.retainOnly(allBookies.stream()
+                .map(BookieAdminClient.BookieInfo::getBookieId)
+                .collect(Collectors.toSet()));
+        final Function<BookieAdminClient.BookieInfo, CompletableFuture<BookieAdminClient.BookieStats>> statsCollector =
+                newBookieStatsCollector(autoscalerSpec, currentBkSetSpec, statefulsetName, podSelector);
+        final BoundedCollector.Result<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats> collected =
+                BoundedCollector.collect(allBookies,
+                        statsCollector,
+                        autoscalerSpec.getBookieStatsMaxConcurrency(),
+                        autoscalerSpec.getBookieStatsRequestTimeoutMs(),
+                        autoscalerSpec.getBookieStatsCollectionTimeoutMs());
         List<Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats>> bookieInfos =
-                this.bookieAdminClient.collectBookieInfos()
+                collected.getCompleted().entrySet()
                         .stream()
-                        .map(bookieInfo -> Pair.of(bookieInfo, this.bookieAdminClient.collectBookieStats(bookieInfo)))
+                        .map(e -> Pair.of(e.getKey(), e.getValue()))
                         .collect(Collectors.toList());
 
-        ClusterStats clusterStats = collectClusterStats(diskUsageHwm, bookieInfos);
+        ClusterStats clusterStats = collectClusterStats(diskUsageHwm, autoscalerSpec.getDiskUsageHwmLeadTimeMs(),
+                bookieInfos);
+        clusterStats.unknownBookiesTotal = collected.getFailed().size() + collected.getTimedOut().size();
+        collected.getFailed().forEach((bookieInfo, e) ->
+                log.warnf("Failed to collect stats of bookie %s: %s", bookieInfo.getBookieId(), e.getMessage()));
+        collected.getTimedOut().forEach(bookieInfo ->
+                log.warnf("Timed out collecting stats of bookie %s", bookieInfo.getBookieId()));
+
+        // vertical scaling first, bookies are added only when the volumes can't be expanded anymore
+        if ((clusterStats.atRiskWritableBookies > 0 || clusterStats.journalAtRiskWritableBookies > 0)
+                && clusterStats.writableBookiesTotal >= targetWritableBookiesCount
+                && autoscalerSpec.getVolumeExpansion() != null
+                && autoscalerSpec.getVolumeExpansion().getEnabled()
+                && expandVolumes(bkCr, bkCustomResourceName, currentBkSetSpec, autoscalerSpec, clusterStats)) {
+            return null;
+        }
 
         int desiredScaleChange = 0;
 
@@ -174,8 +295,10 @@ public class BookKeeperSetAutoscaler implements Runnable {
         // 2. add up to stepUp bookies (1 by default) if there is certain level of "at risk"
         //    (close to switching to read only) bookies - scaling up takes time so we are trying to
         //    be a little bit ahead and avoid cases when cluster is not writable
-        if (clusterStats.atRiskWritableBookies > 0
-                && (clusterStats.writableBookiesTotal - clusterStats.atRiskWritableBookies) < (
+        final int atRiskWritableBookies = clusterStats.atRiskWritableBookies
+                + clusterStats.journalAtRiskWritableBookies;
+        if (atRiskWritableBookies > 0
+                && (clusterStats.writableBookiesTotal - atRiskWritableBookies) < (
                 targetWritableBookiesCount - desiredScaleChange)) {
             desiredScaleChange += bookieSafeStepUp;
             log.infof("Some writable bookies are at risk of running out of disk space, need to add extra %d",
@@ -184,7 +307,11 @@ public class BookKeeperSetAutoscaler implements Runnable {
 
         // 3. only after that check if it's safe to scale down
         if (desiredScaleChange == 0 && clusterStats.writableBookiesTotal > targetWritableBookiesCount) {
-            boolean canScaleDown = checkIfCanScaleDown(diskUsageLwm, bookieInfos);
+            // the unknown bookies could be the ones close to the disk limits
+            boolean canScaleDown = clusterStats.unknownBookiesTotal == 0
+                    && clusterStats.forecastAtRiskWritableBookies == 0
+                    && clusterStats.journalAtRiskWritableBookies == 0
+                    && checkIfCanScaleDown(diskUsageLwm, bookieInfos);
             if (canScaleDown) {
                 desiredScaleChange -= Math.min(bookieSafeStepDown,
                         clusterStats.writableBookiesTotal - targetWritableBookiesCount);
@@ -192,33 +319,174 @@ public class BookKeeperSetAutoscaler implements Runnable {
                         Math.abs(desiredScaleChange));
             } else {
                 log.infof("Cannot scale down");
-                return;
+                stabilize(autoscalerSpec, currentExpectedReplicas, currentExpectedReplicas);
+                return new ScaleRecommendation(bkCr, bkCustomResourceName, currentExpectedReplicas,
+                        currentExpectedReplicas, clusterStats);
             }
         }
 
         if (desiredScaleChange == 0) {
             log.infof("System is stable, no scaling needed");
-            return;
+            stabilize(autoscalerSpec, currentExpectedReplicas, currentExpectedReplicas);
+            return new ScaleRecommendation(bkCr, bkCustomResourceName, currentExpectedReplicas,
+                    currentExpectedReplicas, clusterStats);
         }
 
         int scaleTo = currentExpectedReplicas + desiredScaleChange;
         scaleTo = Math.max(scaleTo, targetWritableBookiesCount);
         scaleTo = Math.min(scaleTo, scaleUpMaxLimit);
+        scaleTo = stabilize(autoscalerSpec, currentExpectedReplicas, scaleTo);
 
         if (currentExpectedReplicas == scaleTo) {
             log.infof("Hit scale limits, won't scale. Current expected replicas: %d, desired scale change: %d",
                     currentExpectedReplicas, desiredScaleChange);
-            return;
         }
+        return new ScaleRecommendation(bkCr, bkCustomResourceName, currentExpectedReplicas, scaleTo, clusterStats);
+    }
 
-        applyScaleTo(bkCr, scaleTo);
+    void recordScale(ScaleRecommendation recommendation, int scaleTo, String message, Map<String, String> inputs) {
+        log.infof("Bookies scaled up/down from %d to %d", recommendation.getCurrentReplicas(), scaleTo);
+        decisionLog.recordScale(recommendation.getCurrentReplicas(), scaleTo, message, inputs);
+        persistDecisions(recommendation.getBkCustomResourceName());
+    }
+
+    // false if the volume at risk already reached its max size, bookies must be added instead
+    private boolean expandVolumes(BookKeeper bkCr, String bkCustomResourceName, BookKeeperSetSpec currentBkSetSpec,
+                                  BookKeeperAutoscalerSpec bkScalerSpec, ClusterStats clusterStats) {
+        final Long lastExpansion = decisionLog.getLastTimestamp(AutoscalerDecisionLog.ACTION_EXPAND_VOLUMES);
+        if (lastExpansion != null
+                && System.currentTimeMillis() - lastExpansion < bkScalerSpec.getStabilizationWindowMs()) {
+            // the bookies see the new disk size only after the file system has been resized
+            log.infof("Volumes of bookkeeper set %s recently expanded, waiting for the resize to complete",
+                    bookkeeperSetName);
+            return true;
+        }
+        final BookKeeperAutoscalerSpec.VolumeExpansionConfig config = bkScalerSpec.getVolumeExpansion();
+        final BookKeeperSetSpec.Volumes currentVolumes = currentBkSetSpec.getVolumes();
+        // the journal is expanded together with the ledgers, if it has a max size
+        final String ledgersSize = clusterStats.atRiskWritableBookies > 0
+                ? BookieVolumeExpansion.computeExpandedSize(currentVolumes.getLedgers().getSize(),
+                config.getExpansionFactor(), config.getLedgersMaxSize()) : null;
+        if (clusterStats.atRiskWritableBookies > 0 && ledgersSize == null) {
+            log.infof("Ledgers volume of bookkeeper set %s can't be expanded anymore, adding bookies instead",
+                    bookkeeperSetName);
+            return false;
+        }
+        final String journalSize = BookieVolumeExpansion.computeExpandedSize(currentVolumes.getJournal().getSize(),
+                config.getExpansionFactor(), config.getJournalMaxSize());
+        if (ledgersSize == null && journalSize == null) {
+            log.infof("Journal volume of bookkeeper set %s can't be expanded anymore, adding bookies instead",
+                    bookkeeperSetName);
+            return false;
+        }
 
+        final BookKeeperSetSpec.Volumes volumes = BookieVolumeExpansion.getOrCreateVolumes(
+                bkCr.getSpec().getBookkeeper().getBookKeeperSetSpecRef(bookkeeperSetName));
+        if (ledgersSize != null) {
+            volumes.setLedgers(BookieVolumeExpansion.withSize(volumes.getLedgers(), ledgersSize));
+        }
+        if (journalSize != null) {
+            volumes.setJournal(BookieVolumeExpansion.withSize(volumes.getJournal(), journalSize));
+        }
         client.resources(BookKeeper.class)
                 .inNamespace(namespace)
                 .withName(bkCustomResourceName)
                 .patch(bkCr);
 
-        log.infof("Bookies scaled up/down from %d to %d", currentExpectedReplicas, scaleTo);
+        final List<String> expanded = new ArrayList<>();
+        if (ledgersSize != null) {
+            expanded.add("ledgers volume from %s to %s".formatted(currentVolumes.getLedgers().getSize(), ledgersSize));
+        }
+        if (journalSize != null) {
+            expanded.add("journal volume from %s to %s".formatted(currentVolumes.getJournal().getSize(), journalSize));
+        }
+        final String message = "Expanded %s of bookkeeper set %s".formatted(String.join(", ", expanded),
+                bookkeeperSetName);
+        decisionLog.record(AutoscalerDecisionLog.ACTION_EXPAND_VOLUMES, message, getDecisionInputs(clusterStats));
+        persistDecisions(bkCustomResourceName);
+        return true;
+    }
+
+    static Map<String, String> getDecisionInputs(ClusterStats clusterStats) {
+        return Map.of("writableBookies", String.valueOf(clusterStats.writableBookiesTotal),
+                "atRiskWritableBookies", String.valueOf(clusterStats.atRiskWritableBookies),
+                "forecastAtRiskWritableBookies", String.valueOf(clusterStats.forecastAtRiskWritableBookies),
+                "journalAtRiskWritableBookies", String.valueOf(clusterStats.journalAtRiskWritableBookies),
+                "readOnlyBookies", String.valueOf(clusterStats.readOnlyBookiesTotal),
+                "unknownBookies", String.valueOf(clusterStats.unknownBookiesTotal));
+    }
+
+    private Function<BookieAdminClient.BookieInfo, CompletableFuture<BookieAdminClient.BookieStats>>
+            newBookieStatsCollector(BookKeeperAutoscalerSpec bkScalerSpec, BookKeeperSetSpec currentBkSetSpec,
+                                    String statefulsetName, Map<String, String> podSelector) {
+        final String diskUsageSource = bkScalerSpec.getDiskUsageSource();
+        // the admin clients close the requests still open when the returned future times out
+        final long requestTimeoutMs = bkScalerSpec.getBookieStatsRequestTimeoutMs();
+        final Duration requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        switch (diskUsageSource) {
+            case BookKeeperAutoscalerSpec.DISK_USAGE_SOURCE_BOOKIE:
+                return bookieInfo -> bookieAdminClient.collectBookieStatsAsync(bookieInfo, requestTimeout)
+                        .orTimeout(requestTimeoutMs, TimeUnit.MILLISECONDS);
+            case BookKeeperAutoscalerSpec.DISK_USAGE_SOURCE_KUBELET:
+                final KubeletVolumeStatsSource source = new KubeletVolumeStatsSource(client, namespace,
+                        BookKeeperResourcesFactory.getJournalPvPrefix(currentBkSetSpec, statefulsetName),
+                        BookKeeperResourcesFactory.getLedgersPvPrefix(currentBkSetSpec, statefulsetName));
+                final Map<String, BookieAdminClient.BookieStats> volumeStats = source.collect(
+                        new PodIndex(client, namespace, podSelector).getPods(),
+                        bkScalerSpec.getBookieStatsCollectionTimeoutMs());
+                return bookieInfo -> {
+                    // the pod name was read when listing the bookies, no need to get the pod again
+                    final String podName = bookieInfo.getPodName();
+                    final BookieAdminClient.BookieStats usage = volumeStats.get(podName);
+                    if (usage == null) {
+                        return CompletableFuture.failedFuture(
+                                new IllegalStateException("Volume stats not found for bookie pod " + podName));
+                    }
+                    return bookieAdminClient.isWritableAsync(bookieInfo, requestTimeout)
+                            .orTimeout(requestTimeoutMs, TimeUnit.MILLISECONDS)
+                            .thenApply(writable -> BookieAdminClient.BookieStats.builder()
+                                    .isWritable(writable)
+                                    .ledgerDiskInfos(usage.getLedgerDiskInfos())
+                                    .journalDiskInfos(usage.getJournalDiskInfos())
+                                    .build());
+                };
+            default:
+                throw new IllegalArgumentException("Unknown disk usage source: " + diskUsageSource);
+        }
+    }
+
+    // the stable recommendations are needed too to compute the stabilization windows
+    private int stabilize(BookKeeperAutoscalerSpec bkScalerSpec, int currentExpectedReplicas, int scaleTo) {
+        if (bkScalerSpec.getBehavior() == null) {
+            return scaleTo;
+        }
+        return behaviorLimiter.apply(bkScalerSpec.getBehavior(), currentExpectedReplicas, scaleTo, decisionLog,
+                System.currentTimeMillis());
+    }
+
+    private void persistDecisions(String bkCustomResourceName) {
+        final AutoscalerStatus autoscalerStatus = decisionLog.toStatus();
+        try {
+            client.resources(BookKeeper.class)
+                    .inNamespace(namespace)
+                    .withName(bkCustomResourceName)
+                    .editStatus(bk -> {
+                        // read again to not override the conditions set by the controller in the meantime
+                        BookKeeperStatus status = bk.getStatus();
+                        if (status == null) {
+                            status = new BookKeeperStatus();
+                            bk.setStatus(status);
+                        }
+                        final Map<String, AutoscalerStatus> autoscalers = status.getAutoscalers() == null
+                                ? new HashMap<>() : new HashMap<>(status.getAutoscalers());
+                        autoscalers.put(bookkeeperSetName, autoscalerStatus);
+                        status.setAutoscalers(autoscalers);
+                        return bk;
+                    });
+        } catch (Exception e) {
+            // the decision has been applied anyway, it will be persisted with the next one
+            log.warnf(e, "Failed to persist the autoscaler decisions of bookkeeper set %s", bookkeeperSetName);
+        }
     }
 
     private void applyScaleTo(BookKeeper bookKeeperCr, int scaleTo) {
@@ -260,33 +528,95 @@ public class BookKeeperSetAutoscaler implements Runnable {
         return canScaleDown;
     }
 
-    private ClusterStats collectClusterStats(double diskUsageHwm,
+    private ClusterStats collectClusterStats(double diskUsageHwm, long diskUsageHwmLeadTimeMs,
                                              List<Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats>>
                                                      bookieInfos) {
         ClusterStats clusterStats = new ClusterStats();
-        // ignoring racks for now
+        final long now = System.currentTimeMillis();
+        recordDiskUsage(bookieInfos, now);
+        // the racks are balanced across the sets by the BookKeeperClusterAutoscaler
         for (Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats> info : bookieInfos) {
+            for (BookieAdminClient.BookieLedgerDiskInfo disk : info.getRight().getLedgerDiskInfos()) {
+                clusterStats.ledgersCapacityBytes += disk.getMaxBytes();
+                clusterStats.ledgersUsedBytes += disk.getUsedBytes();
+            }
             if (info.getRight().isWritable()) {
                 clusterStats.writableBookiesTotal++;
 
-                long disksNotAtRisk = info.getRight().getLedgerDiskInfos().stream()
-                        .filter(d -> isDiskUsageBelowTolerance(d, diskUsageHwm))
-                        .count();
-                if (disksNotAtRisk == 0) {
+                // the most full ledger directory decides, the entries are not always spread evenly across them
+                final BookieAdminClient.BookieLedgerDiskInfo mostFullDisk = getMostFullDisk(
+                        info.getRight().getLedgerDiskInfos());
+                if (mostFullDisk == null || !isDiskUsageBelowTolerance(mostFullDisk, diskUsageHwm)) {
+                    clusterStats.atRiskWritableBookies++;
+                } else if (diskUsageHwmLeadTimeMs > 0
+                        && isDiskUsageHwmForecast(info, diskUsageHwm, diskUsageHwmLeadTimeMs, now)) {
                     clusterStats.atRiskWritableBookies++;
+                    clusterStats.forecastAtRiskWritableBookies++;
+                } else if (info.getRight().getJournalDiskInfos().stream()
+                        .anyMatch(d -> isDiskUsageAboveTolerance(d, diskUsageHwm))) {
+                    log.infof("Journal of bookie %s is above the high watermark: %s", info.getLeft().getBookieId(),
+                            info.getRight().getJournalDiskInfos());
+                    clusterStats.journalAtRiskWritableBookies++;
                 }
             } else {
                 clusterStats.readOnlyBookiesTotal++;
             }
         }
 
-        log.infof("Found %d writable bookies (%d at risk) and %d read-only",
+        log.infof("Found %d writable bookies (%d at risk, %d of them forecast, %d with the journal at risk) "
+                        + "and %d read-only",
                 clusterStats.writableBookiesTotal,
                 clusterStats.atRiskWritableBookies,
+                clusterStats.forecastAtRiskWritableBookies,
+                clusterStats.journalAtRiskWritableBookies,
                 clusterStats.readOnlyBookiesTotal);
         return clusterStats;
     }
 
+    private void recordDiskUsage(List<Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats>> bookieInfos,
+                                 long now) {
+        for (Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats> info : bookieInfos) {
+            final List<BookieAdminClient.BookieLedgerDiskInfo> disks = info.getRight().getLedgerDiskInfos();
+            for (int i = 0; i < disks.size(); i++) {
+                diskUsageForecaster.record(info.getLeft().getBookieId(), i, now, disks.get(i).getUsedBytes());
+            }
+        }
+    }
+
+    private static BookieAdminClient.BookieLedgerDiskInfo getMostFullDisk(
+            List<BookieAdminClient.BookieLedgerDiskInfo> disks) {
+        BookieAdminClient.BookieLedgerDiskInfo result = null;
+        double maxUsage = -1;
+        for (BookieAdminClient.BookieLedgerDiskInfo disk : disks) {
+            final double usage = disk.getMaxBytes() > 0 ? (double) disk.getUsedBytes() / disk.getMaxBytes() : 1;
+            if (usage > maxUsage) {
+                maxUsage = usage;
+                result = disk;
+            }
+        }
+        return result;
+    }
+
+    // same as the high watermark check, the bookie is at risk if its most full disk will be above the threshold
+    private boolean isDiskUsageHwmForecast(Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats> info,
+                                           double diskUsageHwm, long leadTimeMs, long now) {
+        final List<BookieAdminClient.BookieLedgerDiskInfo> disks = info.getRight().getLedgerDiskInfos();
+        if (disks.isEmpty()) {
+            return false;
+        }
+        final String bookieId = info.getLeft().getBookieId();
+        for (int i = 0; i < disks.size(); i++) {
+            final long hwmBytes = (long) (disks.get(i).getMaxBytes() * diskUsageHwm);
+            final Long timeToHwm = diskUsageForecaster.estimateTimeToReachMs(bookieId, i, hwmBytes, now);
+            if (timeToHwm != null && timeToHwm < leadTimeMs) {
+                log.infof("Disk %d of bookie %s is growing %.0f bytes/s, expected to reach the high watermark in %d s",
+                        i, bookieId, diskUsageForecaster.getFillRate(bookieId, i), timeToHwm / 1000);
+                return true;
+            }
+        }
+        return false;
+    }
+
 
     protected boolean isDiskUsageAboveTolerance(BookieAdminClient.BookieLedgerDiskInfo diskInfo, double tolerance) {
         return !isDiskUsageBelowTolerance(diskInfo, tolerance);
@@ -0,0 +1,107 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import lombok.Getter;
+import lombok.extern.jbosslog.JBossLog;
+
+@JBossLog
+public class BoundedCollector {
+
+    @Getter
+    public static class Result<T, R> {
+        private final Map<T, R> completed = new LinkedHashMap<>();
+        private final Map<T, Throwable> failed = new LinkedHashMap<>();
+        private final List<T> timedOut = new ArrayList<>();
+
+        public boolean isComplete() {
+            return failed.isEmpty() && timedOut.isEmpty();
+        }
+    }
+
+    // The calls must give up on their own after callTimeoutMs and release what they hold (e.g. the exec websocket),
+    // completing a future derived from the call wouldn't stop it. The permit of a call is kept until the call
+    // actually completes, so the concurrency stays bounded even when the calls time out.
+    public static <T, R> Result<T, R> collect(List<T> items,
+                                            Function<T, CompletableFuture<R>> call,
+                                            int maxConcurrency,
+                                            long callTimeoutMs,
+                                            long deadlineMs) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        final Semaphore inFlight = new Semaphore(Math.max(1, maxConcurrency));
+        final Map<T, CompletableFuture<R>> futures = new LinkedHashMap<>();
+        final Map<T, Long> callDeadlines = new LinkedHashMap<>();
+        final Result<T, R> result = new Result<>();
+
+        // items that didn't complete are reported in the result instead of failing the whole collection
+        for (T item : items) {
+            if (!inFlight.tryAcquire(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+                result.timedOut.add(item);
+                continue;
+            }
+            CompletableFuture<R> future;
+            try {
+                future = call.apply(item);
+            } catch (Throwable t) {
+                future = CompletableFuture.failedFuture(t);
+            }
+            future.whenComplete((r, e) -> inFlight.release());
+            futures.put(item, future);
+            callDeadlines.put(item, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(callTimeoutMs));
+        }
+
+        for (Map.Entry<T, CompletableFuture<R>> entry : futures.entrySet()) {
+            final CompletableFuture<R> future = entry.getValue();
+            final long waitNanos = Math.min(remainingNanos(deadline),
+                    remainingNanos(callDeadlines.get(entry.getKey())));
+            try {
+                result.completed.put(entry.getKey(), future.get(waitNanos, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                // the call is left running until its own timeout expires
+                result.timedOut.add(entry.getKey());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TimeoutException || e.getCause() instanceof HttpTimeoutException) {
+                    result.timedOut.add(entry.getKey());
+                } else {
+                    result.failed.put(entry.getKey(), e.getCause());
+                }
+            }
+        }
+        if (!result.isComplete()) {
+            log.infof("Collected %d results, %d failed and %d timed out",
+                    result.completed.size(), result.failed.size(), result.timedOut.size());
+        }
+        return result;
+    }
+
+    private static long remainingNanos(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private BoundedCollector() {
+    }
+}
@@ -16,35 +16,42 @@
 package com.datastax.oss.kaap.autoscaler;
 
 import com.datastax.oss.kaap.NamespacedDaemonThread;
+import com.datastax.oss.kaap.controllers.bookkeeper.racks.client.ZkClientRackClientFactory;
 import com.datastax.oss.kaap.controllers.broker.BrokerController;
 import com.datastax.oss.kaap.crds.broker.BrokerAutoscalerSpec;
 import com.datastax.oss.kaap.crds.broker.BrokerSetSpec;
 import com.datastax.oss.kaap.crds.broker.BrokerSpec;
 import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
 import io.fabric8.kubernetes.client.KubernetesClient;
-import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import lombok.extern.jbosslog.JBossLog;
 
 @JBossLog
-public class BrokerAutoscalerDaemon extends NamespacedDaemonThread<Map<String, BrokerAutoscalerSpec>> {
+public class BrokerAutoscalerDaemon extends NamespacedDaemonThread<BrokerAutoscalerSpec> {
 
     private final KubernetesClient client;
-    private final ScheduledExecutorService executorService;
+    private final LaneScheduler scheduler;
+    private final AdminHttpClientPool httpClientPool;
+    private final ZkClientRackClientFactory zkClientFactory;
+    // kept across spec changes, broker set -> usage samples, decisions and load pattern
+    private final Map<String, BrokerSetAutoscalerState> states = new ConcurrentHashMap<>();
 
-    public BrokerAutoscalerDaemon(KubernetesClient client, ScheduledExecutorService executorService) {
+    public BrokerAutoscalerDaemon(KubernetesClient client, LaneScheduler scheduler,
+                                  ZkClientRackClientFactory zkClientFactory) {
         this.client = client;
-        this.executorService = executorService;
+        this.scheduler = scheduler;
+        this.httpClientPool = new AdminHttpClientPool(client);
+        this.zkClientFactory = zkClientFactory;
     }
 
     @Override
-    protected Map<String, BrokerAutoscalerSpec> getSpec(PulsarClusterSpec clusterSpec) {
+    protected Map<String, BrokerAutoscalerSpec> getSpecs(PulsarClusterSpec clusterSpec) {
         final BrokerSpec broker = clusterSpec.getBroker();
         final LinkedHashMap<String, BrokerSetSpec> brokerSetSpecs =
                 BrokerController.getBrokerSetSpecs(broker);
@@ -53,22 +60,32 @@ public class BrokerAutoscalerDaemon extends NamespacedDaemonThread<Map<String, B
     }
 
     @Override
-    protected List<ScheduledFuture<?>> specChanged(String namespace, Map<String, BrokerAutoscalerSpec> newSpec,
+    protected List<ScheduledFuture<?>> specChanged(String namespace, String brokerSetName, BrokerAutoscalerSpec spec,
                                                    PulsarClusterSpec clusterSpec) {
-        List<ScheduledFuture<?>> newTasks = new ArrayList<>();
-        for (Map.Entry<String, BrokerAutoscalerSpec> brokerSetAutoscalers :
-                newSpec.entrySet()) {
-            final BrokerAutoscalerSpec spec = brokerSetAutoscalers.getValue();
-            if (spec.getEnabled()) {
-                final String brokerSetName = brokerSetAutoscalers.getKey();
-                log.infof("Scheduling broker autoscaler every %d ms for broker set %s",
-                        spec.getPeriodMs(), brokerSetName);
-                newTasks.add(executorService.scheduleWithFixedDelay(
-                        new BrokerSetAutoscaler(client, namespace, brokerSetName, clusterSpec),
-                        spec.getPeriodMs(), spec.getPeriodMs(), TimeUnit.MILLISECONDS));
-            }
+        if (!spec.getEnabled()) {
+            return List.of();
         }
-        return newTasks;
+        log.infof("Scheduling broker autoscaler every %d ms for broker set %s",
+                spec.getPeriodMs(), brokerSetName);
+        return List.of(scheduler.scheduleWithFixedDelay(LaneScheduler.computeLane(namespace, "broker"),
+                new BrokerSetAutoscaler(client, httpClientPool, zkClientFactory,
+                        states.computeIfAbsent("%s/%s".formatted(namespace, brokerSetName),
+                                k -> new BrokerSetAutoscalerState()),
+                        namespace, brokerSetName, clusterSpec),
+                spec.getPeriodMs(), spec.getPeriodMs(), TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    protected void keysChanged(String namespace, Map<String, BrokerAutoscalerSpec> currentSpecs) {
+        final String prefix = namespace + "/";
+        states.keySet().removeIf(k -> k.startsWith(prefix)
+                && !currentSpecs.containsKey(k.substring(prefix.length())));
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        httpClientPool.close();
     }
 }
 
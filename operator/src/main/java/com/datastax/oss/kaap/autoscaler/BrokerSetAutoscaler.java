@@ -15,26 +15,48 @@
  */
 package com.datastax.oss.kaap.autoscaler;
 
+import com.datastax.oss.kaap.autoscaler.broker.BrokerAdminHttpClient;
+import com.datastax.oss.kaap.autoscaler.broker.BrokerBundleRebalancer;
+import com.datastax.oss.kaap.autoscaler.broker.BrokerDrainer;
+import com.datastax.oss.kaap.autoscaler.broker.BrokerLoadPredictor;
 import com.datastax.oss.kaap.autoscaler.broker.BrokerResourceUsageSource;
+import com.datastax.oss.kaap.autoscaler.broker.BrokerUsageHistory;
+import com.datastax.oss.kaap.autoscaler.broker.HttpLoadReportResourceUsageSource;
 import com.datastax.oss.kaap.autoscaler.broker.LoadReportResourceUsageSource;
 import com.datastax.oss.kaap.autoscaler.broker.PodMetricResourceUsageSource;
+import com.datastax.oss.kaap.autoscaler.broker.ZkLoadReportResourceUsageSource;
 import com.datastax.oss.kaap.controllers.PulsarClusterController;
+import com.datastax.oss.kaap.controllers.bookkeeper.racks.client.ZkClientRackClientFactory;
 import com.datastax.oss.kaap.controllers.broker.BrokerController;
 import com.datastax.oss.kaap.controllers.broker.BrokerResourcesFactory;
+import com.datastax.oss.kaap.crds.AutoscalerStatus;
 import com.datastax.oss.kaap.crds.CRDConstants;
 import com.datastax.oss.kaap.crds.GlobalSpec;
 import com.datastax.oss.kaap.crds.broker.Broker;
 import com.datastax.oss.kaap.crds.broker.BrokerAutoscalerSpec;
 import com.datastax.oss.kaap.crds.broker.BrokerFullSpec;
 import com.datastax.oss.kaap.crds.broker.BrokerSetSpec;
+import com.datastax.oss.kaap.crds.broker.BrokerStatus;
 import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.TreeMap;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import lombok.SneakyThrows;
 import lombok.extern.jbosslog.JBossLog;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -43,20 +65,42 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 public class BrokerSetAutoscaler implements Runnable {
 
     private final KubernetesClient client;
+    private final AdminHttpClientPool httpClientPool;
+    private final ZkClientRackClientFactory zkClientFactory;
+    private final BrokerUsageHistory usageHistory;
+    private final AutoscalerDecisionLog decisionLog;
+    private final BrokerLoadPredictor loadPredictor;
+    private final ScalingBehaviorLimiter behaviorLimiter;
     private final String namespace;
     private final PulsarClusterSpec clusterSpec;
     private final String brokerSetName;
     private final BrokerSetSpec desiredBrokerSetSpec;
+    private final String brokerCustomResourceName;
 
     public BrokerSetAutoscaler(KubernetesClient client, String namespace,
                                String brokerSetName, PulsarClusterSpec clusterSpec) {
+        this(client, new AdminHttpClientPool(client), new ZkClientRackClientFactory(client),
+                new BrokerSetAutoscalerState(), namespace, brokerSetName, clusterSpec);
+    }
+
+    public BrokerSetAutoscaler(KubernetesClient client, AdminHttpClientPool httpClientPool,
+                               ZkClientRackClientFactory zkClientFactory, BrokerSetAutoscalerState state,
+                               String namespace, String brokerSetName, PulsarClusterSpec clusterSpec) {
         this.client = client;
+        this.httpClientPool = httpClientPool;
+        this.zkClientFactory = zkClientFactory;
+        this.usageHistory = state.getUsageHistory();
+        this.decisionLog = state.getDecisionLog();
+        this.loadPredictor = state.getLoadPredictor();
+        this.behaviorLimiter = state.getBehaviorLimiter();
         this.namespace = namespace;
         this.brokerSetName = brokerSetName;
         this.clusterSpec = clusterSpec;
         this.desiredBrokerSetSpec = BrokerController.getBrokerSetSpecs(
                         new BrokerFullSpec(clusterSpec.getGlobal(), clusterSpec.getBroker()))
                 .get(brokerSetName);
+        this.brokerCustomResourceName = PulsarClusterController.computeCustomResourceName(clusterSpec,
+                PulsarClusterController.CUSTOM_RESOURCE_BROKER);
     }
 
     @Override
@@ -77,8 +121,6 @@ public class BrokerSetAutoscaler implements Runnable {
         Objects.requireNonNull(autoscalerSpec);
 
         final String clusterSpecName = clusterSpec.getGlobal().getName();
-        final String brokerCustomResourceName = PulsarClusterController.computeCustomResourceName(clusterSpec,
-                PulsarClusterController.CUSTOM_RESOURCE_BROKER);
         final Broker brokerCr = client.resources(Broker.class)
                 .inNamespace(namespace)
                 .withName(brokerCustomResourceName)
@@ -87,6 +129,10 @@ public class BrokerSetAutoscaler implements Runnable {
             log.warnf("Broker custom resource not found in namespace %s", namespace);
             return;
         }
+        final BrokerStatus brokerStatus = brokerCr.getStatus();
+        // after a restart, the cooldowns must take into account the decisions taken before
+        decisionLog.restore(brokerStatus == null || brokerStatus.getAutoscalers() == null
+                ? null : brokerStatus.getAutoscalers().get(brokerSetName));
 
         final GlobalSpec currentGlobalSpec = brokerCr.getSpec().getGlobal();
         final BrokerSetSpec currentBrokerSetSpec = BrokerController.getBrokerSetSpecs(
@@ -105,53 +151,335 @@ public class BrokerSetAutoscaler implements Runnable {
                 CRDConstants.LABEL_CLUSTER, clusterSpecName,
                 CRDConstants.LABEL_COMPONENT, componentLabelValue,
                 CRDConstants.LABEL_RESOURCESET, brokerSetName));
+        // the same pods are needed by the readiness check and by the usage source
+        final PodIndex podIndex = new PodIndex(client, namespace, podSelector);
+
+        final BrokerStatus.DrainStatus drain = brokerStatus == null || brokerStatus.getDrains() == null
+                ? null : brokerStatus.getDrains().get(brokerSetName);
+        if (drain != null) {
+            // no new decision until the previous one is completed
+            continueDrain(brokerCr, drain, autoscalerSpec, podIndex, currentExpectedReplicas);
+            return;
+        }
 
         if (!AutoscalerUtils.isStsReadyToScale(client,
                 autoscalerSpec.getStabilizationWindowMs(),
-                namespace, statefulsetName, podSelector, currentExpectedReplicas)) {
+                statefulsetName, podIndex, currentExpectedReplicas)) {
             return;
         }
+
+        final long now = System.currentTimeMillis();
+        final int minReplicas = computeMinReplicas(autoscalerSpec, now);
+        if (currentExpectedReplicas < minReplicas) {
+            // no need to look at the current usage, the scheduled or expected load requires more brokers
+            scale(brokerCr, currentExpectedReplicas, minReplicas, " to reach the scheduled min",
+                    Map.of("minReplicas", String.valueOf(minReplicas)));
+            return;
+        }
+
         BrokerResourceUsageSource brokerResourceUsageSource =
-                newBrokerResourceUsageSource(autoscalerSpec, podSelector);
-        Optional<Boolean> scaleUpOrDown = decideScaleUpOrDown(autoscalerSpec, brokerResourceUsageSource);
-
-        if (scaleUpOrDown.isPresent()) {
-            int scaleTo = scaleUpOrDown.get()
-                    ? currentExpectedReplicas + autoscalerSpec.getScaleUpBy()
-                    : currentExpectedReplicas - autoscalerSpec.getScaleDownBy();
-
-            final Integer min = autoscalerSpec.getMin();
-            if (scaleTo <= 0 || (min != null && scaleTo < min)) {
-                log.debugf("Can't scale down, "
-                                + "replicas is already the min. Current %d, min %d, scaleDownBy %d",
-                        currentExpectedReplicas,
-                        min,
-                        autoscalerSpec.getScaleDownBy()
-                );
-                return;
-            }
-            final Integer max = autoscalerSpec.getMax();
-            if (max != null && scaleTo > max) {
-                log.debugf("Can't scale down, "
-                                + "replicas is already the max. Current %d, max %d, scaleUpBy %d",
-                        currentExpectedReplicas,
-                        max,
-                        autoscalerSpec.getScaleUpBy()
-                );
+                newBrokerResourceUsageSource(autoscalerSpec, podIndex);
+        final BrokerResourceUsageSource.ResourceUsages resourceUsages =
+                brokerResourceUsageSource.getBrokersResourceUsages();
+        if (resourceUsages.getUsages().isEmpty()) {
+            log.warnf("No resource usage available for broker set %s, unavailable brokers: %s",
+                    brokerSetName, resourceUsages.getUnavailablePods());
+            return;
+        }
+        recordLoad(autoscalerSpec, resourceUsages, now);
+        applyUsageHistory(autoscalerSpec, resourceUsages);
+
+        if (rebalanceIfSkewed(autoscalerSpec, podIndex, resourceUsages)) {
+            // the load is going to be redistributed, the samples taken before are not relevant anymore
+            usageHistory.clear();
+            return;
+        }
+
+        Optional<Integer> scaleToOpt =
+                BrokerAutoscalerSpec.ALGORITHM_TARGET_UTILIZATION.equals(autoscalerSpec.getAlgorithm())
+                        ? decideTargetUtilizationScaleTo(autoscalerSpec, currentExpectedReplicas, minReplicas,
+                        resourceUsages)
+                        : decideThresholdScaleTo(autoscalerSpec, currentExpectedReplicas, minReplicas, resourceUsages);
+        if (autoscalerSpec.getBehavior() != null) {
+            // the stable recommendations are needed too to compute the stabilization windows
+            final int stabilized = behaviorLimiter.apply(autoscalerSpec.getBehavior(), currentExpectedReplicas,
+                    scaleToOpt.orElse(currentExpectedReplicas), decisionLog, now);
+            scaleToOpt = stabilized == currentExpectedReplicas ? Optional.empty() : Optional.of(stabilized);
+        }
+
+        if (scaleToOpt.isPresent()) {
+            final int scaleTo = scaleToOpt.get();
+            if (scaleTo < currentExpectedReplicas && isDrainEnabled(autoscalerSpec)) {
+                startDrain(brokerCr, autoscalerSpec, podIndex, statefulsetName, currentExpectedReplicas, scaleTo);
                 return;
             }
+            scale(brokerCr, currentExpectedReplicas, scaleTo, "", describeUsages(resourceUsages));
+        } else {
+            log.infof("System is stable, no scaling needed");
+        }
+    }
+
+    private static boolean isDrainEnabled(BrokerAutoscalerSpec autoscalerSpec) {
+        return autoscalerSpec.getScaleDownDrain() != null
+                && Boolean.TRUE.equals(autoscalerSpec.getScaleDownDrain().getEnabled());
+    }
 
+    private void startDrain(Broker brokerCr, BrokerAutoscalerSpec autoscalerSpec, PodIndex podIndex,
+                            String statefulsetName, int currentExpectedReplicas, int scaleTo) {
+        // the statefulset removes the pods with the highest ordinals
+        List<String> brokers = new ArrayList<>();
+        for (int i = scaleTo; i < currentExpectedReplicas; i++) {
+            brokers.add("%s-%d".formatted(statefulsetName, i));
+        }
+        final BrokerStatus.DrainStatus drain = BrokerStatus.DrainStatus.builder()
+                .targetReplicas(scaleTo)
+                .brokers(brokers)
+                .startedAt(System.currentTimeMillis())
+                .build();
+        decisionLog.record(AutoscalerDecisionLog.ACTION_DRAIN,
+                "Draining brokers %s before scaling broker set %s from %d to %d".formatted(
+                        brokers, brokerSetName, currentExpectedReplicas, scaleTo),
+                Map.of("replicas", String.valueOf(currentExpectedReplicas)));
+        continueDrain(brokerCr, drain, autoscalerSpec, podIndex, currentExpectedReplicas);
+    }
 
-            applyScaleTo(brokerCr, scaleTo);
-            client.resources(Broker.class)
-                    .inNamespace(namespace)
-                    .withName(brokerCustomResourceName)
-                    .patch(brokerCr);
-            log.infof("Scaled brokers for broker set %s from %d to %d",
-                    brokerSetName, currentExpectedReplicas, scaleTo);
+    private void continueDrain(Broker brokerCr, BrokerStatus.DrainStatus drain,
+                               BrokerAutoscalerSpec autoscalerSpec, PodIndex podIndex,
+                               int currentExpectedReplicas) {
+        final int scaleTo = drain.getTargetReplicas();
+        if (currentExpectedReplicas <= scaleTo) {
+            log.infof("Broker set %s already scaled to %d replicas, drain not needed anymore",
+                    brokerSetName, currentExpectedReplicas);
+            updateDrainStatus(null);
+            return;
+        }
+        final BrokerAutoscalerSpec.ScaleDownDrainConfig drainConfig = autoscalerSpec.getScaleDownDrain();
+        final boolean expired = System.currentTimeMillis() - drain.getStartedAt() > drainConfig.getTimeoutMs();
+        boolean drained = false;
+        if (expired) {
+            log.warnf("Broker set %s drain timed out, brokers %s still owned %s bundles", brokerSetName,
+                    drain.getBrokers(), drain.getRemainingBundles());
         } else {
-            log.infof("System is stable, no scaling needed");
+            final List<String> destinations = podIndex.getPods().stream()
+                    .map(pod -> pod.getMetadata().getName())
+                    .filter(name -> !drain.getBrokers().contains(name))
+                    .toList();
+            final BrokerDrainer drainer = new BrokerDrainer(
+                    new BrokerAdminHttpClient(httpClientPool, namespace, brokerSetName, desiredBrokerSetSpec,
+                            clusterSpec.getGlobalSpec()),
+                    Duration.ofMillis(autoscalerSpec.getResourcesUsageRequestTimeoutMs()));
+            final Map<String, Integer> remaining = drainer.drainStep(drain.getBrokers(), podIndex.getPodsByName(),
+                    destinations, drainConfig.getBundlesBatchSize());
+            drain.setRemainingBundles(remaining);
+            drained = remaining.values().stream().allMatch(count -> count != null && count == 0);
         }
+        if (!expired && !drained) {
+            updateDrainStatus(drain);
+            return;
+        }
+        scale(brokerCr, currentExpectedReplicas, scaleTo, drained ? "" : " (drain timed out)",
+                drain.getRemainingBundles() == null ? null : drain.getRemainingBundles().entrySet().stream()
+                        .collect(Collectors.toMap(e -> "remainingBundles." + e.getKey(),
+                                e -> String.valueOf(e.getValue()))));
+        updateDrainStatus(null);
+    }
+
+    private void scale(Broker brokerCr, int currentExpectedReplicas, int scaleTo, String reason,
+                       Map<String, String> inputs) {
+        applyScaleTo(brokerCr, scaleTo);
+        client.resources(Broker.class)
+                .inNamespace(namespace)
+                .withName(brokerCustomResourceName)
+                .patch(brokerCr);
+        decisionLog.recordScale(currentExpectedReplicas, scaleTo,
+                "Scaled brokers for broker set %s from %d to %d%s".formatted(
+                        brokerSetName, currentExpectedReplicas, scaleTo, reason), inputs);
+        persistDecisions();
+        // the load is going to be redistributed, the samples taken before are not relevant anymore
+        usageHistory.clear();
+    }
+
+    private static Map<String, String> describeUsages(BrokerResourceUsageSource.ResourceUsages resourceUsages) {
+        final Map<String, String> inputs = new TreeMap<>();
+        for (BrokerResourceUsageSource.ResourceUsage usage : resourceUsages.getUsages()) {
+            inputs.put("cpu." + usage.getPod(), "%.2f".formatted(usage.getPercentCpu()));
+        }
+        resourceUsages.getUnavailablePods().forEach((pod, reason) -> inputs.put("unavailable." + pod, reason));
+        return inputs;
+    }
+
+    private int computeMinReplicas(BrokerAutoscalerSpec autoscalerSpec, long now) {
+        int minReplicas = autoscalerSpec.getMin() == null ? 1 : Math.max(1, autoscalerSpec.getMin());
+        if (autoscalerSpec.getSchedules() != null) {
+            for (BrokerAutoscalerSpec.ScheduleConfig schedule : autoscalerSpec.getSchedules()) {
+                if (isScheduleActive(schedule, now) && schedule.getMinReplicas() > minReplicas) {
+                    log.infof("Broker set %s schedule '%s' is active, min brokers %d", brokerSetName,
+                            schedule.getCron(), schedule.getMinReplicas());
+                    minReplicas = schedule.getMinReplicas();
+                }
+            }
+        }
+        final BrokerAutoscalerSpec.PredictiveScalingConfig predictive = autoscalerSpec.getPredictiveScaling();
+        if (predictive != null && Boolean.TRUE.equals(predictive.getEnabled())) {
+            final Float expectedLoad = loadPredictor.predict(now + predictive.getLeadTimeMs());
+            if (expectedLoad != null) {
+                final int expectedReplicas = (int) Math.ceil(expectedLoad / autoscalerSpec.getTargetCpuUtilization());
+                if (expectedReplicas > minReplicas) {
+                    log.infof("Broker set %s expected cpu usage %f, min brokers %d", brokerSetName,
+                            expectedLoad, expectedReplicas);
+                    minReplicas = expectedReplicas;
+                }
+            }
+        }
+        final Integer max = autoscalerSpec.getMax();
+        return max == null ? minReplicas : Math.min(minReplicas, max);
+    }
+
+    private boolean isScheduleActive(BrokerAutoscalerSpec.ScheduleConfig schedule, long now) {
+        try {
+            final ZoneId zone = schedule.getTimeZone() == null ? ZoneOffset.UTC : ZoneId.of(schedule.getTimeZone());
+            return new CronExpression(schedule.getCron()).matches(
+                    ZonedDateTime.ofInstant(Instant.ofEpochMilli(now), zone));
+        } catch (Exception e) {
+            log.warnf("Ignoring invalid schedule '%s' for broker set %s: %s", schedule.getCron(), brokerSetName,
+                    e.getMessage());
+            return false;
+        }
+    }
+
+    private void recordLoad(BrokerAutoscalerSpec autoscalerSpec,
+                            BrokerResourceUsageSource.ResourceUsages resourceUsages, long now) {
+        final BrokerAutoscalerSpec.PredictiveScalingConfig predictive = autoscalerSpec.getPredictiveScaling();
+        if (predictive == null || !Boolean.TRUE.equals(predictive.getEnabled())) {
+            return;
+        }
+        double totalUsage = 0;
+        for (BrokerResourceUsageSource.ResourceUsage usage : resourceUsages.getUsages()) {
+            totalUsage += usage.getPercentCpu();
+        }
+        // the brokers without usage are assumed to be as busy as the others
+        final int brokers = resourceUsages.getUsages().size() + resourceUsages.getUnavailablePods().size();
+        totalUsage = totalUsage / resourceUsages.getUsages().size() * brokers;
+        loadPredictor.record(now, (float) totalUsage, predictive.getHistoryDays());
+    }
+
+    private void updateDrainStatus(BrokerStatus.DrainStatus drain) {
+        // the drain decision is persisted together with its progress
+        final AutoscalerStatus autoscalerStatus = decisionLog.toStatus();
+        updateStatus(status -> {
+            Map<String, BrokerStatus.DrainStatus> drains = status.getDrains() == null
+                    ? new HashMap<>() : new HashMap<>(status.getDrains());
+            if (drain == null) {
+                drains.remove(brokerSetName);
+            } else {
+                drains.put(brokerSetName, drain);
+            }
+            status.setDrains(drains.isEmpty() ? null : drains);
+            setAutoscalerStatus(status, autoscalerStatus);
+        });
+    }
+
+    private void persistDecisions() {
+        final AutoscalerStatus autoscalerStatus = decisionLog.toStatus();
+        try {
+            updateStatus(status -> setAutoscalerStatus(status, autoscalerStatus));
+        } catch (Exception e) {
+            // the decision has been applied anyway, it will be persisted with the next one
+            log.warnf(e, "Failed to persist the autoscaler decisions of broker set %s", brokerSetName);
+        }
+    }
+
+    private void setAutoscalerStatus(BrokerStatus status, AutoscalerStatus autoscalerStatus) {
+        final Map<String, AutoscalerStatus> autoscalers = status.getAutoscalers() == null
+                ? new HashMap<>() : new HashMap<>(status.getAutoscalers());
+        autoscalers.put(brokerSetName, autoscalerStatus);
+        status.setAutoscalers(autoscalers);
+    }
+
+    private void updateStatus(Consumer<BrokerStatus> updater) {
+        client.resources(Broker.class)
+                .inNamespace(namespace)
+                .withName(brokerCustomResourceName)
+                .editStatus(broker -> {
+                    // read again to not override the conditions set by the controller in the meantime
+                    BrokerStatus status = broker.getStatus();
+                    if (status == null) {
+                        status = new BrokerStatus();
+                        broker.setStatus(status);
+                    }
+                    updater.accept(status);
+                    return broker;
+                });
+    }
+
+    private boolean rebalanceIfSkewed(BrokerAutoscalerSpec autoscalerSpec, PodIndex podIndex,
+                                      BrokerResourceUsageSource.ResourceUsages resourceUsages) {
+        final BrokerAutoscalerSpec.RebalanceConfig rebalance = autoscalerSpec.getRebalance();
+        if (rebalance == null || !Boolean.TRUE.equals(rebalance.getEnabled())) {
+            return false;
+        }
+        final List<BrokerResourceUsageSource.ResourceUsage> usages = resourceUsages.getUsages();
+        if (usages.size() < 2) {
+            return false;
+        }
+        boolean anyHot = false;
+        boolean anyCold = false;
+        boolean allHot = true;
+        for (BrokerResourceUsageSource.ResourceUsage usage : usages) {
+            if (usage.getPercentCpu() > autoscalerSpec.getHigherCpuThreshold()) {
+                anyHot = true;
+            } else {
+                allHot = false;
+            }
+            if (usage.getPercentCpu() < autoscalerSpec.getLowerCpuThreshold()) {
+                anyCold = true;
+            }
+        }
+        if (allHot) {
+            // moving bundles around won't help, more capacity is needed
+            return false;
+        }
+        final double cv = BrokerBundleRebalancer.computeCpuCoefficientOfVariation(usages);
+        if (!(anyHot && anyCold) && cv <= rebalance.getMaxCpuCoefficientOfVariation()) {
+            return false;
+        }
+        final Long lastRebalance = decisionLog.getLastTimestamp(AutoscalerDecisionLog.ACTION_REBALANCE);
+        if (lastRebalance != null
+                && System.currentTimeMillis() - lastRebalance < rebalance.getMinIntervalMs()) {
+            log.infof("Broker set %s cpu usage is skewed (coefficient of variation %f), "
+                    + "skipping rebalance since the last one was at %d", brokerSetName, cv, lastRebalance);
+            return false;
+        }
+
+        double mean = 0;
+        for (BrokerResourceUsageSource.ResourceUsage usage : usages) {
+            mean += usage.getPercentCpu() / usages.size();
+        }
+        final double finalMean = mean;
+        final Map<String, Pod> pods = podIndex.getPodsByName();
+        final List<Pod> hotBrokers = usages.stream()
+                .filter(usage -> usage.getPercentCpu() > finalMean)
+                .sorted(Comparator.comparingDouble(BrokerResourceUsageSource.ResourceUsage::getPercentCpu).reversed())
+                .map(usage -> pods.get(usage.getPod()))
+                .filter(Objects::nonNull)
+                .toList();
+        log.infof("Broker set %s cpu usage is skewed (coefficient of variation %f), unloading bundles from %s",
+                brokerSetName, cv, hotBrokers.stream().map(pod -> pod.getMetadata().getName()).toList());
+
+        final BrokerBundleRebalancer rebalancer = new BrokerBundleRebalancer(
+                new BrokerAdminHttpClient(httpClientPool, namespace, brokerSetName, desiredBrokerSetSpec,
+                        clusterSpec.getGlobalSpec()),
+                Duration.ofMillis(autoscalerSpec.getResourcesUsageRequestTimeoutMs()));
+        final List<String> unloaded = rebalancer.unloadHottestBundles(hotBrokers, rebalance.getMaxBundleUnloads());
+        if (unloaded.isEmpty()) {
+            log.warnf("Broker set %s rebalance didn't unload any bundle", brokerSetName);
+            return false;
+        }
+        decisionLog.record(AutoscalerDecisionLog.ACTION_REBALANCE,
+                "Unloaded bundles %s of broker set %s, cpu coefficient of variation %.2f".formatted(
+                        unloaded, brokerSetName, cv), describeUsages(resourceUsages));
+        persistDecisions();
+        return true;
     }
 
     private void applyScaleTo(Broker brokerCr, int scaleTo) {
@@ -162,53 +490,235 @@ public class BrokerSetAutoscaler implements Runnable {
         }
     }
 
-    private Optional<Boolean> decideScaleUpOrDown(BrokerAutoscalerSpec autoscalerSpec,
-                                        BrokerResourceUsageSource brokerResourceUsageSource) {
-        float cpuLowerThreshold = autoscalerSpec.getLowerCpuThreshold().floatValue();
-        float cpuHigherThreshold = autoscalerSpec.getHigherCpuThreshold().floatValue();
+    private Optional<Integer> decideThresholdScaleTo(BrokerAutoscalerSpec autoscalerSpec,
+                                                     int currentExpectedReplicas,
+                                                     int min,
+                                                     BrokerResourceUsageSource.ResourceUsages resourceUsages) {
+        final Optional<Boolean> scaleUpOrDown = decideScaleUpOrDown(autoscalerSpec, resourceUsages);
+        if (scaleUpOrDown.isEmpty()) {
+            return Optional.empty();
+        }
+        int scaleTo = scaleUpOrDown.get()
+                ? currentExpectedReplicas + autoscalerSpec.getScaleUpBy()
+                : currentExpectedReplicas - autoscalerSpec.getScaleDownBy();
 
+        if (scaleTo < min) {
+            log.debugf("Can't scale down, "
+                            + "replicas is already the min. Current %d, min %d, scaleDownBy %d",
+                    currentExpectedReplicas,
+                    min,
+                    autoscalerSpec.getScaleDownBy()
+            );
+            return Optional.empty();
+        }
+        final Integer max = autoscalerSpec.getMax();
+        if (max != null && scaleTo > max) {
+            log.debugf("Can't scale down, "
+                            + "replicas is already the max. Current %d, max %d, scaleUpBy %d",
+                    currentExpectedReplicas,
+                    max,
+                    autoscalerSpec.getScaleUpBy()
+            );
+            return Optional.empty();
+        }
+        return Optional.of(scaleTo);
+    }
 
-        final List<BrokerResourceUsageSource.ResourceUsage> brokersResourceUsages =
-                brokerResourceUsageSource.getBrokersResourceUsages();
+    private Optional<Integer> decideTargetUtilizationScaleTo(BrokerAutoscalerSpec autoscalerSpec,
+                                                             int currentExpectedReplicas,
+                                                             int min,
+                                                             BrokerResourceUsageSource.ResourceUsages resourceUsages) {
+        final double target = autoscalerSpec.getTargetCpuUtilization();
+        final double tolerance = autoscalerSpec.getTargetUtilizationTolerance();
+        final List<BrokerResourceUsageSource.ResourceUsage> usages = resourceUsages.getUsages();
+        final int unavailable = resourceUsages.getUnavailablePods().size();
 
-        boolean scaleUp = false;
-        boolean scaleDown = false;
-        for (BrokerResourceUsageSource.ResourceUsage brokerUsage : brokersResourceUsages) {
-            final double cpuPercentage = brokerUsage.getPercentCpu();
-            if (cpuPercentage < cpuLowerThreshold) {
-                if (scaleUp) {
-                    return Optional.empty();
-                }
-                scaleDown = true;
-            } else if (cpuPercentage > cpuHigherThreshold) {
-                if (scaleDown) {
-                    return Optional.empty();
-                }
-                scaleUp = true;
-            } else {
+        double totalUsage = 0;
+        for (BrokerResourceUsageSource.ResourceUsage usage : usages) {
+            totalUsage += usage.getPercentCpu();
+        }
+        double ratio = totalUsage / usages.size() / target;
+        if (unavailable > 0) {
+            // same as the k8s HPA: the unavailable brokers are considered idle when scaling up and fully used
+            // when scaling down, so the missing samples can only dampen the decision
+            final boolean scaleUp = ratio > 1;
+            final double assumedUsage = scaleUp ? 0 : 1;
+            final double recomputedRatio = (totalUsage + assumedUsage * unavailable)
+                    / (usages.size() + unavailable) / target;
+            if (scaleUp != recomputedRatio > 1) {
+                log.infof("Broker set %s cpu usage ratio to target %f would be %f with the unavailable brokers %s, "
+                                + "keeping the current replicas", brokerSetName, ratio, recomputedRatio,
+                        resourceUsages.getUnavailablePods().keySet());
                 return Optional.empty();
             }
+            ratio = recomputedRatio;
+        }
+        if (Math.abs(ratio - 1) <= tolerance) {
+            log.infof("Broker set %s cpu usage ratio to target %f is within the tolerance", brokerSetName, ratio);
+            return Optional.empty();
         }
-        if (scaleUp && scaleDown) {
-            throw new IllegalStateException();
+        final int brokers = usages.size() + unavailable;
+        int desired = (int) Math.ceil(brokers * ratio);
+        if (desired > currentExpectedReplicas && autoscalerSpec.getMaxScaleUpStep() != null) {
+            desired = Math.min(desired, currentExpectedReplicas + autoscalerSpec.getMaxScaleUpStep());
         }
-        if (scaleUp) {
-            return Optional.of(true);
+        if (desired < currentExpectedReplicas && autoscalerSpec.getMaxScaleDownStep() != null) {
+            desired = Math.max(desired, currentExpectedReplicas - autoscalerSpec.getMaxScaleDownStep());
         }
-        if (scaleDown) {
-            return Optional.of(false);
+        desired = Math.max(desired, min);
+        final Integer max = autoscalerSpec.getMax();
+        if (max != null) {
+            desired = Math.min(desired, max);
+        }
+        log.infof("Broker set %s cpu usage ratio to target %f, desired replicas %d (current %d)",
+                brokerSetName, ratio, desired, currentExpectedReplicas);
+        if (desired == currentExpectedReplicas) {
+            return Optional.empty();
+        }
+        // the unavailable brokers might be the busy ones, it's not safe to remove capacity
+        if (desired < currentExpectedReplicas && resourceUsages.isPartial()) {
+            log.infof("Skipping scale down for broker set %s, usage not available for brokers: %s",
+                    brokerSetName, resourceUsages.getUnavailablePods());
+            return Optional.empty();
+        }
+        return Optional.of(desired);
+    }
+
+    private enum DimensionState {
+        HOT,
+        COLD,
+        NEUTRAL,
+        NOT_AVAILABLE
+    }
+
+    private Optional<Boolean> decideScaleUpOrDown(BrokerAutoscalerSpec autoscalerSpec,
+                                                  BrokerResourceUsageSource.ResourceUsages resourceUsages) {
+        final Map<BrokerResourceUsageSource.UsageDimension, BrokerAutoscalerSpec.ThresholdConfig> thresholds =
+                getThresholds(autoscalerSpec);
+
+        boolean allCold = true;
+        for (Map.Entry<BrokerResourceUsageSource.UsageDimension, BrokerAutoscalerSpec.ThresholdConfig> entry
+                : thresholds.entrySet()) {
+            final DimensionState state = getDimensionState(entry.getKey(), entry.getValue(),
+                    resourceUsages.getUsages());
+            if (state == DimensionState.HOT) {
+                log.infof("Broker set %s %s usage is higher than the threshold", brokerSetName,
+                        entry.getKey().getLabel());
+                return Optional.of(true);
+            }
+            if (state == DimensionState.NEUTRAL) {
+                allCold = false;
+            }
+        }
+        if (!allCold) {
+            return Optional.empty();
+        }
+        // the unavailable brokers might be the busy ones, it's not safe to remove capacity
+        if (resourceUsages.isPartial()) {
+            log.infof("Skipping scale down for broker set %s, usage not available for brokers: %s",
+                    brokerSetName, resourceUsages.getUnavailablePods());
+            return Optional.empty();
+        }
+        return Optional.of(false);
+    }
+
+    private static Map<BrokerResourceUsageSource.UsageDimension, BrokerAutoscalerSpec.ThresholdConfig> getThresholds(
+            BrokerAutoscalerSpec autoscalerSpec) {
+        Map<BrokerResourceUsageSource.UsageDimension, BrokerAutoscalerSpec.ThresholdConfig> thresholds =
+                new LinkedHashMap<>();
+        thresholds.put(BrokerResourceUsageSource.UsageDimension.CPU, new BrokerAutoscalerSpec.ThresholdConfig(
+                autoscalerSpec.getLowerCpuThreshold(), autoscalerSpec.getHigherCpuThreshold()));
+        putIfSet(thresholds, BrokerResourceUsageSource.UsageDimension.MEMORY,
+                autoscalerSpec.getMemoryThresholds());
+        putIfSet(thresholds, BrokerResourceUsageSource.UsageDimension.DIRECT_MEMORY,
+                autoscalerSpec.getDirectMemoryThresholds());
+        putIfSet(thresholds, BrokerResourceUsageSource.UsageDimension.BANDWIDTH_IN,
+                autoscalerSpec.getBandwidthInThresholds());
+        putIfSet(thresholds, BrokerResourceUsageSource.UsageDimension.BANDWIDTH_OUT,
+                autoscalerSpec.getBandwidthOutThresholds());
+        putIfSet(thresholds, BrokerResourceUsageSource.UsageDimension.MSG_RATE,
+                autoscalerSpec.getMsgRateThresholds());
+        return thresholds;
+    }
+
+    private static void putIfSet(
+            Map<BrokerResourceUsageSource.UsageDimension, BrokerAutoscalerSpec.ThresholdConfig> thresholds,
+            BrokerResourceUsageSource.UsageDimension dimension,
+            BrokerAutoscalerSpec.ThresholdConfig thresholdConfig) {
+        if (thresholdConfig != null) {
+            thresholds.put(dimension, thresholdConfig);
+        }
+    }
+
+    private static DimensionState getDimensionState(BrokerResourceUsageSource.UsageDimension dimension,
+                                                    BrokerAutoscalerSpec.ThresholdConfig thresholdConfig,
+                                                    List<BrokerResourceUsageSource.ResourceUsage> usages) {
+        boolean hot = thresholdConfig.getHigher() != null;
+        boolean cold = thresholdConfig.getLower() != null;
+        boolean available = false;
+        for (BrokerResourceUsageSource.ResourceUsage usage : usages) {
+            final Float value = dimension.get(usage);
+            if (value == null) {
+                continue;
+            }
+            available = true;
+            if (thresholdConfig.getHigher() == null || value <= thresholdConfig.getHigher()) {
+                hot = false;
+            }
+            if (thresholdConfig.getLower() == null || value >= thresholdConfig.getLower()) {
+                cold = false;
+            }
+        }
+        if (!available) {
+            return DimensionState.NOT_AVAILABLE;
+        }
+        if (hot) {
+            return DimensionState.HOT;
+        }
+        return cold ? DimensionState.COLD : DimensionState.NEUTRAL;
+    }
+
+    private void applyUsageHistory(BrokerAutoscalerSpec autoscalerSpec,
+                                   BrokerResourceUsageSource.ResourceUsages resourceUsages) {
+        final int windowSize = autoscalerSpec.getMetricsWindowSize();
+        List<String> knownPods = new ArrayList<>(resourceUsages.getUnavailablePods().keySet());
+        for (BrokerResourceUsageSource.ResourceUsage usage : resourceUsages.getUsages()) {
+            knownPods.add(usage.getPod());
+            for (BrokerResourceUsageSource.UsageDimension dimension : BrokerResourceUsageSource.UsageDimension
+                    .values()) {
+                final Float value = dimension.get(usage);
+                if (value == null) {
+                    continue;
+                }
+                usageHistory.record(usage.getPod(), dimension.getLabel(), value, windowSize);
+                final float aggregated = usageHistory.aggregate(usage.getPod(), dimension.getLabel(),
+                        autoscalerSpec.getMetricsAggregation(), autoscalerSpec.getMetricsEwmaAlpha());
+                if (windowSize > 1) {
+                    log.debugf("Broker %s %s usage %s over %d samples: %f", usage.getPod(), dimension.getLabel(),
+                            autoscalerSpec.getMetricsAggregation(),
+                            usageHistory.getSamplesCount(usage.getPod(), dimension.getLabel()), aggregated);
+                }
+                dimension.set(usage, aggregated);
+            }
         }
-        throw new IllegalStateException();
+        // forget brokers that don't exist anymore
+        usageHistory.retainOnly(knownPods);
     }
 
     private BrokerResourceUsageSource newBrokerResourceUsageSource(BrokerAutoscalerSpec brokerAutoscalerSpec,
-                                                                   Map<String, String> podSelector) {
+                                                                   PodIndex podIndex) {
         switch (brokerAutoscalerSpec.getResourcesUsageSource()) {
             case BrokerAutoscalerSpec.RESOURCE_USAGE_SOURCE_LOAD_BALANCER:
-                return new LoadReportResourceUsageSource(client, namespace, podSelector, brokerSetName,
+                return new LoadReportResourceUsageSource(client, podIndex, brokerSetName,
                         desiredBrokerSetSpec, clusterSpec.getGlobalSpec());
+            case BrokerAutoscalerSpec.RESOURCE_USAGE_SOURCE_LOAD_BALANCER_HTTP:
+                return new HttpLoadReportResourceUsageSource(httpClientPool, podIndex,
+                        brokerSetName, desiredBrokerSetSpec, clusterSpec.getGlobalSpec());
+            case BrokerAutoscalerSpec.RESOURCE_USAGE_SOURCE_LOAD_BALANCER_ZK:
+                return new ZkLoadReportResourceUsageSource(
+                        zkClientFactory.getCuratorFramework(namespace, clusterSpec.getGlobalSpec()), podIndex);
             case BrokerAutoscalerSpec.RESOURCE_USAGE_SOURCE_K8S_METRICS:
-                return new PodMetricResourceUsageSource(client, namespace, podSelector);
+                return new PodMetricResourceUsageSource(client, podIndex);
             default:
                 throw new IllegalArgumentException(
                         "Unknown resource usage source: " + brokerAutoscalerSpec.getResourcesUsageSource());
@@ -0,0 +1,29 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import com.datastax.oss.kaap.autoscaler.broker.BrokerLoadPredictor;
+import com.datastax.oss.kaap.autoscaler.broker.BrokerUsageHistory;
+import lombok.Getter;
+
+// Kept across the runs and the spec changes of the autoscaler of a broker set
+@Getter
+public class BrokerSetAutoscalerState {
+    private final BrokerUsageHistory usageHistory = new BrokerUsageHistory();
+    private final AutoscalerDecisionLog decisionLog = new AutoscalerDecisionLog();
+    private final BrokerLoadPredictor loadPredictor = new BrokerLoadPredictor();
+    private final ScalingBehaviorLimiter behaviorLimiter = new ScalingBehaviorLimiter();
+}
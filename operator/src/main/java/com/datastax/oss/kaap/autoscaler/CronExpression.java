@@ -0,0 +1,127 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import java.time.ZonedDateTime;
+import java.util.BitSet;
+import java.util.List;
+import lombok.Getter;
+
+// Standard 5 fields cron expression: minute hour day-of-month month day-of-week
+public class CronExpression {
+
+    private static final List<String> MONTHS =
+            List.of("JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC");
+    private static final List<String> DAYS_OF_WEEK = List.of("SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT");
+
+    @Getter
+    private final String expression;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean anyDayOfMonth;
+    private final boolean anyDayOfWeek;
+
+    public CronExpression(String expression) {
+        this.expression = expression;
+        final String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Invalid cron expression '%s', expected 5 fields".formatted(expression));
+        }
+        minutes = parseField(fields[0], 0, 59, null);
+        hours = parseField(fields[1], 0, 23, null);
+        daysOfMonth = parseField(fields[2], 1, 31, null);
+        months = parseField(fields[3], 1, 12, MONTHS);
+        daysOfWeek = parseField(fields[4], 0, 7, DAYS_OF_WEEK);
+        // both 0 and 7 are sunday
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0);
+        }
+        anyDayOfMonth = fields[2].equals("*");
+        anyDayOfWeek = fields[4].equals("*");
+    }
+
+    public boolean matches(ZonedDateTime time) {
+        if (!minutes.get(time.getMinute()) || !hours.get(time.getHour()) || !months.get(time.getMonthValue())) {
+            return false;
+        }
+        final boolean dayOfMonthMatches = daysOfMonth.get(time.getDayOfMonth());
+        final boolean dayOfWeekMatches = daysOfWeek.get(time.getDayOfWeek().getValue() % 7);
+        // same as the unix cron, if both the days are restricted it's enough that one of them matches
+        if (!anyDayOfMonth && !anyDayOfWeek) {
+            return dayOfMonthMatches || dayOfWeekMatches;
+        }
+        return dayOfMonthMatches && dayOfWeekMatches;
+    }
+
+    private BitSet parseField(String field, int min, int max, List<String> names) {
+        BitSet result = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            String range = part;
+            final int stepIndex = part.indexOf('/');
+            if (stepIndex >= 0) {
+                step = parseValue(part.substring(stepIndex + 1), 1, Integer.MAX_VALUE, null);
+                range = part.substring(0, stepIndex);
+            }
+            int from;
+            int to;
+            if (range.equals("*")) {
+                from = min;
+                to = max;
+            } else {
+                final int rangeIndex = range.indexOf('-');
+                if (rangeIndex >= 0) {
+                    from = parseValue(range.substring(0, rangeIndex), min, max, names);
+                    to = parseValue(range.substring(rangeIndex + 1), min, max, names);
+                } else {
+                    from = parseValue(range, min, max, names);
+                    // '5/15' means from 5 to the end every 15
+                    to = stepIndex >= 0 ? max : from;
+                }
+            }
+            if (from > to) {
+                throw new IllegalArgumentException("Invalid range '%s' in cron expression '%s'"
+                        .formatted(part, expression));
+            }
+            for (int i = from; i <= to; i += step) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    private int parseValue(String value, int min, int max, List<String> names) {
+        int result;
+        if (names != null && names.contains(value.toUpperCase())) {
+            result = names.indexOf(value.toUpperCase()) + (names == MONTHS ? 1 : 0);
+        } else {
+            try {
+                result = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value '%s' in cron expression '%s'"
+                        .formatted(value, expression));
+            }
+        }
+        if (result < min || result > max) {
+            throw new IllegalArgumentException("Value '%s' out of range [%d, %d] in cron expression '%s'"
+                    .formatted(value, min, max, expression));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.jbosslog.JBossLog;
+
+// Runs periodic tasks in isolated lanes: tasks of the same lane never run concurrently,
+// while a slow task can't delay the tasks of other lanes
+@JBossLog
+public class LaneScheduler implements AutoCloseable {
+
+    private static class Lane {
+        private final LaneExecutor executor;
+        private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+
+        Lane(LaneExecutor executor) {
+            this.executor = executor;
+        }
+    }
+
+    // counts the runs in progress: a cancelled task may still be running, e.g. not reacting to the interruption
+    private static class LaneExecutor extends ScheduledThreadPoolExecutor {
+        private final AtomicInteger running = new AtomicInteger();
+
+        LaneExecutor(ThreadFactory threadFactory) {
+            super(1, threadFactory);
+        }
+
+        @Override
+        protected void beforeExecute(Thread t, Runnable r) {
+            running.incrementAndGet();
+            super.beforeExecute(t, r);
+        }
+
+        @Override
+        protected void afterExecute(Runnable r, Throwable t) {
+            super.afterExecute(r, t);
+            running.decrementAndGet();
+        }
+    }
+
+    private final String threadNamePrefix;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public LaneScheduler(String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+    }
+
+    public static String computeLane(String namespace, String component) {
+        return "%s/%s".formatted(namespace, component);
+    }
+
+    public ScheduledFuture<?> scheduleWithFixedDelay(String lane, Runnable task, long initialDelay, long delay,
+                                                     TimeUnit unit) {
+        if (closed) {
+            throw new IllegalStateException("Scheduler is closed");
+        }
+        releaseIdleLanes();
+        final ScheduledFuture<?>[] result = new ScheduledFuture<?>[1];
+        lanes.compute(lane, (k, current) -> {
+            final Lane laneTasks = current == null ? new Lane(newLaneExecutor(lane)) : current;
+            result[0] = laneTasks.executor.scheduleWithFixedDelay(task, initialDelay, delay, unit);
+            laneTasks.tasks.add(result[0]);
+            return laneTasks;
+        });
+        return result[0];
+    }
+
+    public int getLanesCount() {
+        return lanes.size();
+    }
+
+    // the lanes whose tasks have all been cancelled keep a thread alive for nothing.
+    // A lane still running a cancelled task is kept, so the tasks scheduled next in the lane run after it
+    // instead of concurrently in a new executor
+    void releaseIdleLanes() {
+        for (String lane : lanes.keySet()) {
+            lanes.computeIfPresent(lane, (k, current) -> {
+                current.tasks.removeIf(Future::isDone);
+                if (current.tasks.isEmpty() && current.executor.running.get() == 0) {
+                    log.debugf("Releasing idle autoscaler lane %s", lane);
+                    current.executor.shutdown();
+                    return null;
+                }
+                return current;
+            });
+        }
+    }
+
+    private LaneExecutor newLaneExecutor(String lane) {
+        final LaneExecutor executor = new LaneExecutor(r -> {
+            final Thread thread = new Thread(r, threadNamePrefix + lane);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        lanes.values().forEach(lane -> lane.executor.shutdownNow());
+        lanes.clear();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+
+// Pods of a resource set, listed at most once per autoscaler run
+public class PodIndex {
+
+    private final KubernetesClient client;
+    @Getter
+    private final String namespace;
+    @Getter
+    private final Map<String, String> podSelector;
+    private List<Pod> pods;
+    private Map<String, Pod> podsByName;
+
+    public PodIndex(KubernetesClient client, String namespace, Map<String, String> podSelector) {
+        this.client = client;
+        this.namespace = namespace;
+        this.podSelector = podSelector;
+    }
+
+    public List<Pod> getPods() {
+        if (pods == null) {
+            pods = client.pods()
+                    .inNamespace(namespace)
+                    .withLabels(podSelector)
+                    .list()
+                    .getItems();
+        }
+        return pods;
+    }
+
+    public Map<String, Pod> getPodsByName() {
+        if (podsByName == null) {
+            podsByName = new LinkedHashMap<>();
+            for (Pod pod : getPods()) {
+                podsByName.put(pod.getMetadata().getName(), pod);
+            }
+        }
+        return podsByName;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import com.datastax.oss.kaap.crds.AutoscalerStatus;
+import com.datastax.oss.kaap.crds.configs.ScalingBehaviorConfig;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.extern.jbosslog.JBossLog;
+
+// Applies the scale up and scale down behaviors to the replicas recommended by the autoscaler:
+// first the stabilization windows, then the rate limits computed from the scale events in the journal
+@JBossLog
+public class ScalingBehaviorLimiter {
+
+    @AllArgsConstructor
+    private static class Recommendation {
+        long timestamp;
+        int replicas;
+    }
+
+    private final Deque<Recommendation> recommendations = new ArrayDeque<>();
+
+    public synchronized int apply(ScalingBehaviorConfig behavior, int currentReplicas, int desiredReplicas,
+                                  AutoscalerDecisionLog decisionLog, long now) {
+        final ScalingBehaviorConfig.ScalingRules scaleUp = behavior.getScaleUp();
+        final ScalingBehaviorConfig.ScalingRules scaleDown = behavior.getScaleDown();
+        final long upWindow = getStabilizationWindowMs(scaleUp);
+        final long downWindow = getStabilizationWindowMs(scaleDown);
+
+        decisionLog.trimScaleEvents(now - Math.max(getLongestPeriodMs(scaleUp), getLongestPeriodMs(scaleDown)));
+
+        final long oldest = now - Math.max(upWindow, downWindow);
+        while (!recommendations.isEmpty() && recommendations.peekFirst().timestamp <= oldest) {
+            recommendations.removeFirst();
+        }
+
+        // scale up only to what has been recommended for the whole up window,
+        // scale down only to what has been recommended for the whole down window
+        int upRecommendation = desiredReplicas;
+        int downRecommendation = desiredReplicas;
+        for (Recommendation recommendation : recommendations) {
+            if (recommendation.timestamp > now - upWindow) {
+                upRecommendation = Math.min(upRecommendation, recommendation.replicas);
+            }
+            if (recommendation.timestamp > now - downWindow) {
+                downRecommendation = Math.max(downRecommendation, recommendation.replicas);
+            }
+        }
+        recommendations.addLast(new Recommendation(now, desiredReplicas));
+        int replicas = currentReplicas;
+        if (replicas < upRecommendation) {
+            replicas = upRecommendation;
+        }
+        if (replicas > downRecommendation) {
+            replicas = downRecommendation;
+        }
+
+        if (replicas > currentReplicas) {
+            final int limit = computeScaleUpLimit(scaleUp, currentReplicas, decisionLog, now);
+            if (replicas > limit) {
+                log.infof("Scale up to %d replicas limited to %d by the scale up policies", replicas, limit);
+                replicas = limit;
+            }
+        } else if (replicas < currentReplicas) {
+            final int limit = computeScaleDownLimit(scaleDown, currentReplicas, decisionLog, now);
+            if (replicas < limit) {
+                log.infof("Scale down to %d replicas limited to %d by the scale down policies", replicas, limit);
+                replicas = limit;
+            }
+        }
+        if (replicas != desiredReplicas) {
+            log.infof("Desired replicas %d stabilized to %d (current %d)", desiredReplicas, replicas,
+                    currentReplicas);
+        }
+        return replicas;
+    }
+
+    private static long getStabilizationWindowMs(ScalingBehaviorConfig.ScalingRules rules) {
+        return rules == null || rules.getStabilizationWindowMs() == null ? 0 : rules.getStabilizationWindowMs();
+    }
+
+    private static long getLongestPeriodMs(ScalingBehaviorConfig.ScalingRules rules) {
+        if (rules == null || rules.getPolicies() == null) {
+            return 0;
+        }
+        return rules.getPolicies().stream()
+                .mapToLong(ScalingBehaviorConfig.ScalingPolicy::getPeriodMs)
+                .max()
+                .orElse(0);
+    }
+
+    static int computeScaleUpLimit(ScalingBehaviorConfig.ScalingRules rules, int currentReplicas,
+                                   AutoscalerDecisionLog decisionLog, long now) {
+        if (rules == null) {
+            return Integer.MAX_VALUE;
+        }
+        final String selectPolicy = getSelectPolicy(rules);
+        if (ScalingBehaviorConfig.SELECT_POLICY_DISABLED.equals(selectPolicy)) {
+            return currentReplicas;
+        }
+        if (rules.getPolicies() == null || rules.getPolicies().isEmpty()) {
+            return Integer.MAX_VALUE;
+        }
+        Integer result = null;
+        for (ScalingBehaviorConfig.ScalingPolicy policy : rules.getPolicies()) {
+            final int periodStartReplicas = currentReplicas
+                    - computeReplicasChange(decisionLog.getScaleEvents(now - policy.getPeriodMs()), true);
+            final int limit;
+            if (ScalingBehaviorConfig.POLICY_TYPE_PODS.equals(policy.getType())) {
+                limit = periodStartReplicas + policy.getValue();
+            } else if (ScalingBehaviorConfig.POLICY_TYPE_PERCENT.equals(policy.getType())) {
+                limit = (int) Math.ceil(periodStartReplicas * (1 + policy.getValue() / 100.0d));
+            } else {
+                throw new IllegalArgumentException("Unknown scaling policy type " + policy.getType());
+            }
+            result = select(selectPolicy, result, limit, true);
+        }
+        // the replicas added in the period might have used all the budget, but never force a scale down
+        return Math.max(result, currentReplicas);
+    }
+
+    static int computeScaleDownLimit(ScalingBehaviorConfig.ScalingRules rules, int currentReplicas,
+                                     AutoscalerDecisionLog decisionLog, long now) {
+        if (rules == null) {
+            return Integer.MIN_VALUE;
+        }
+        final String selectPolicy = getSelectPolicy(rules);
+        if (ScalingBehaviorConfig.SELECT_POLICY_DISABLED.equals(selectPolicy)) {
+            return currentReplicas;
+        }
+        if (rules.getPolicies() == null || rules.getPolicies().isEmpty()) {
+            return Integer.MIN_VALUE;
+        }
+        Integer result = null;
+        for (ScalingBehaviorConfig.ScalingPolicy policy : rules.getPolicies()) {
+            final int periodStartReplicas = currentReplicas
+                    + computeReplicasChange(decisionLog.getScaleEvents(now - policy.getPeriodMs()), false);
+            final int limit;
+            if (ScalingBehaviorConfig.POLICY_TYPE_PODS.equals(policy.getType())) {
+                limit = periodStartReplicas - policy.getValue();
+            } else if (ScalingBehaviorConfig.POLICY_TYPE_PERCENT.equals(policy.getType())) {
+                limit = (int) Math.ceil(periodStartReplicas * (1 - policy.getValue() / 100.0d));
+            } else {
+                throw new IllegalArgumentException("Unknown scaling policy type " + policy.getType());
+            }
+            result = select(selectPolicy, result, limit, false);
+        }
+        return Math.min(result, currentReplicas);
+    }
+
+    private static String getSelectPolicy(ScalingBehaviorConfig.ScalingRules rules) {
+        return rules.getSelectPolicy() == null ? ScalingBehaviorConfig.SELECT_POLICY_MAX : rules.getSelectPolicy();
+    }
+
+    // 'Max' selects the limit allowing the biggest change
+    private static int select(String selectPolicy, Integer current, int limit, boolean scaleUp) {
+        if (current == null) {
+            return limit;
+        }
+        final boolean biggestChange = !ScalingBehaviorConfig.SELECT_POLICY_MIN.equals(selectPolicy);
+        return biggestChange == scaleUp ? Math.max(current, limit) : Math.min(current, limit);
+    }
+
+    private static int computeReplicasChange(List<AutoscalerStatus.Decision> scaleEvents, boolean added) {
+        int result = 0;
+        for (AutoscalerStatus.Decision event : scaleEvents) {
+            final int change = event.getToReplicas() - event.getFromReplicas();
+            if (added && change > 0) {
+                result += change;
+            } else if (!added && change < 0) {
+                result -= change;
+            }
+        }
+        return result;
+    }
+}
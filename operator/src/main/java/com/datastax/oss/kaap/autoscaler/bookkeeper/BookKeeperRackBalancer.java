@@ -0,0 +1,165 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Chooses which bookkeeper sets grow or shrink when the sets are scaled together.
+// With the rack-aware ensemble placement every rack stores a similar amount of data, so the bookies are added to the
+// racks with the highest disk usage and removed from the ones with the lowest, keeping a similar capacity per rack.
+public class BookKeeperRackBalancer {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SetState {
+        private String name;
+        // the sets without a rack are balanced as if each one was a rack
+        private String rack;
+        // false if the set can't be scaled now, e.g. not all its bookies are ready
+        private boolean scalable;
+        private int currentReplicas;
+        // replicas recommended by the autoscaler of the set alone
+        private int recommendedReplicas;
+        // replicas kept by the set whatever the other racks, e.g. to have the min writable bookies
+        private int minReplicas;
+        private int maxReplicas;
+        private long capacityBytes;
+        private long usedBytes;
+        private long bookieCapacityBytes;
+    }
+
+    private BookKeeperRackBalancer() {
+    }
+
+    // bookkeeper set -> replicas
+    public static Map<String, Integer> balance(List<SetState> sets) {
+        final Map<String, Integer> replicas = new LinkedHashMap<>();
+        final Map<String, Long> capacities = new HashMap<>();
+        int requested = 0;
+        int toAdd = 0;
+        for (SetState set : sets) {
+            int setReplicas = set.getCurrentReplicas();
+            if (set.isScalable() && set.getRecommendedReplicas() > set.getCurrentReplicas()) {
+                requested += set.getRecommendedReplicas() - set.getCurrentReplicas();
+                final int required = Math.min(set.getMinReplicas(), set.getRecommendedReplicas());
+                setReplicas = Math.max(setReplicas, required);
+                toAdd += set.getRecommendedReplicas() - setReplicas;
+            }
+            replicas.put(set.getName(), setReplicas);
+            capacities.put(set.getName(), set.getCapacityBytes()
+                    + (setReplicas - set.getCurrentReplicas()) * set.getBookieCapacityBytes());
+        }
+
+        if (requested > 0) {
+            for (int i = 0; i < toAdd; i++) {
+                final SetState set = pickSetToGrow(sets, replicas, capacities);
+                if (set == null) {
+                    break;
+                }
+                replicas.merge(set.getName(), 1, Integer::sum);
+                capacities.merge(set.getName(), set.getBookieCapacityBytes(), Long::sum);
+            }
+            return replicas;
+        }
+
+        if (sets.stream().anyMatch(s -> !s.isScalable())) {
+            // the capacity of some racks is not known
+            return replicas;
+        }
+        // a single step, the other racks are shrunk by the next runs if they are still idle
+        final int toRemove = sets.stream()
+                .mapToInt(s -> s.getCurrentReplicas() - s.getRecommendedReplicas())
+                .max()
+                .orElse(0);
+        for (int i = 0; i < toRemove; i++) {
+            final SetState set = pickSetToShrink(sets, replicas, capacities);
+            if (set == null) {
+                break;
+            }
+            replicas.merge(set.getName(), -1, Integer::sum);
+            capacities.merge(set.getName(), -set.getBookieCapacityBytes(), Long::sum);
+        }
+        return replicas;
+    }
+
+    private static SetState pickSetToGrow(List<SetState> sets, Map<String, Integer> replicas,
+                                          Map<String, Long> capacities) {
+        final Map<String, RackUsage> racks = getRacks(sets, capacities);
+        return sets.stream()
+                .filter(s -> s.isScalable() && replicas.get(s.getName()) < s.getMaxReplicas())
+                .max(getComparator(racks, replicas, capacities))
+                .orElse(null);
+    }
+
+    private static SetState pickSetToShrink(List<SetState> sets, Map<String, Integer> replicas,
+                                            Map<String, Long> capacities) {
+        final Map<String, RackUsage> racks = getRacks(sets, capacities);
+        return sets.stream()
+                .filter(s -> replicas.get(s.getName()) > s.getRecommendedReplicas())
+                // the smallest rack is never shrunk, it would be even more unbalanced
+                .filter(s -> racks.entrySet().stream()
+                        .filter(e -> !e.getKey().equals(getRackKey(s)))
+                        .allMatch(e -> racks.get(getRackKey(s)).capacityBytes >= e.getValue().capacityBytes))
+                .min(getComparator(racks, replicas, capacities))
+                .orElse(null);
+    }
+
+    // from the least to the most needed: rack usage, smallest rack, set usage, fewer replicas
+    private static Comparator<SetState> getComparator(Map<String, RackUsage> racks, Map<String, Integer> replicas,
+                                                      Map<String, Long> capacities) {
+        return Comparator.comparingDouble((SetState s) -> racks.get(getRackKey(s)).getUsage())
+                .thenComparingLong(s -> -racks.get(getRackKey(s)).capacityBytes)
+                .thenComparingDouble(s -> getUsage(s.getUsedBytes(), capacities.get(s.getName())))
+                .thenComparingInt(s -> -replicas.get(s.getName()));
+    }
+
+    private static class RackUsage {
+        private long usedBytes;
+        private long capacityBytes;
+
+        double getUsage() {
+            return BookKeeperRackBalancer.getUsage(usedBytes, capacityBytes);
+        }
+    }
+
+    private static Map<String, RackUsage> getRacks(List<SetState> sets, Map<String, Long> capacities) {
+        final Map<String, RackUsage> racks = new HashMap<>();
+        for (SetState set : sets) {
+            final RackUsage rack = racks.computeIfAbsent(getRackKey(set), k -> new RackUsage());
+            rack.usedBytes += set.getUsedBytes();
+            rack.capacityBytes += capacities.get(set.getName());
+        }
+        return racks;
+    }
+
+    private static String getRackKey(SetState set) {
+        return set.getRack() == null ? "set/" + set.getName() : "rack/" + set.getRack();
+    }
+
+    private static double getUsage(long usedBytes, long capacityBytes) {
+        return capacityBytes > 0 ? (double) usedBytes / capacityBytes : 0;
+    }
+}
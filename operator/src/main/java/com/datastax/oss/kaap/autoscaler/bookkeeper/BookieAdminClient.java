@@ -16,7 +16,9 @@
 package com.datastax.oss.kaap.autoscaler.bookkeeper;
 
 import io.fabric8.kubernetes.client.dsl.PodResource;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.Builder;
 import lombok.Data;
 
@@ -26,6 +28,7 @@ public interface BookieAdminClient {
     @Builder
     class BookieInfo {
         PodResource podResource;
+        String podName;
         String bookieId;
     }
 
@@ -35,11 +38,15 @@ public interface BookieAdminClient {
         @Builder.Default
         boolean isWritable = false;
         List<BookieLedgerDiskInfo> ledgerDiskInfos;
+        @Builder.Default
+        List<BookieLedgerDiskInfo> journalDiskInfos = List.of();
     }
 
     @Data
     @Builder
     class BookieLedgerDiskInfo {
+        // directory or PVC the usage refers to, null if only the total usage of the ledger directories is known
+        String directory;
         @Builder.Default
         long maxBytes = 0L;
         @Builder.Default
@@ -50,14 +57,28 @@ public interface BookieAdminClient {
 
     BookieStats collectBookieStats(BookieInfo bookieInfo);
 
+    // the request timeout bounds each request sent to the bookie, not the whole collection
+    CompletableFuture<BookieStats> collectBookieStatsAsync(BookieInfo bookieInfo, Duration requestTimeout);
+
+    // only the bookie state, for when the disk usage is collected from another source
+    CompletableFuture<Boolean> isWritableAsync(BookieInfo bookieInfo, Duration requestTimeout);
+
     void setReadOnly(BookieInfo bookieInfo, boolean readonly);
 
     void recoverAndDeleteCookieInZk(BookieInfo bookieInfo, boolean deleteCookie);
 
+    // implementations that can't throttle the recovery ignore the rate
+    default void recoverAndDeleteCookieInZk(BookieInfo bookieInfo, boolean deleteCookie,
+                                            long recoveryRateBytesPerSecond) {
+        recoverAndDeleteCookieInZk(bookieInfo, deleteCookie);
+    }
+
     boolean existsLedger(BookieInfo bookieInfo);
 
     boolean doesNotHaveUnderReplicatedLedgers();
 
+    int countUnderReplicatedLedgers();
+
     void triggerAudit();
 
     void deleteCookieOnDisk(BookieInfo bookieInfo);
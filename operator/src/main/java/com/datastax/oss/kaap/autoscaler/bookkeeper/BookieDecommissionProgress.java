@@ -0,0 +1,137 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import com.datastax.oss.kaap.crds.bookkeeper.BookieDecommissionStatus;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.extern.jbosslog.JBossLog;
+
+// Decommission state machine of the bookies of a set, updated concurrently by the recovery workers.
+// Every change is passed to the listener to be checkpointed, so the decommission resumes from the last completed step
+@JBossLog
+public class BookieDecommissionProgress {
+
+    public enum Phase {
+        READONLY,
+        RECOVERING,
+        VERIFIED,
+        COOKIE_DELETED,
+        REMOVED
+    }
+
+    private final Map<String, BookieDecommissionStatus> bookies = new LinkedHashMap<>();
+    private final Consumer<List<BookieDecommissionStatus>> listener;
+
+    public BookieDecommissionProgress() {
+        this(null, null);
+    }
+
+    public BookieDecommissionProgress(List<BookieDecommissionStatus> restored,
+                                      Consumer<List<BookieDecommissionStatus>> listener) {
+        if (restored != null) {
+            for (BookieDecommissionStatus status : restored) {
+                bookies.put(status.getBookieId(), copy(status));
+            }
+        }
+        this.listener = listener;
+    }
+
+    // completed steps are never undone, moving to a previous phase is ignored
+    public synchronized void advance(String bookieId, String podName, Phase phase) {
+        final Phase previous = getPhase(bookieId);
+        if (previous != null && previous.compareTo(phase) >= 0) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final BookieDecommissionStatus current = bookies.get(bookieId);
+        if (previous == null) {
+            log.infof("Bookie %s decommission: %s", bookieId, phase);
+        } else {
+            log.infof("Bookie %s decommission: %s -> %s after %d ms", bookieId, previous, phase,
+                    now - current.getTimestamp());
+        }
+        bookies.put(bookieId, BookieDecommissionStatus.builder()
+                .bookieId(bookieId)
+                .podName(podName)
+                .phase(phase.name())
+                .timestamp(now)
+                .build());
+        notifyListener();
+    }
+
+    public synchronized void fail(String bookieId, String error) {
+        final BookieDecommissionStatus current = bookies.get(bookieId);
+        if (current == null) {
+            return;
+        }
+        log.warnf("Bookie %s decommission failed after %s: %s", bookieId, current.getPhase(), error);
+        current.setLastError(error);
+        notifyListener();
+    }
+
+    public synchronized void forget(String bookieId) {
+        if (bookies.remove(bookieId) != null) {
+            notifyListener();
+        }
+    }
+
+    public synchronized Phase getPhase(String bookieId) {
+        final BookieDecommissionStatus current = bookies.get(bookieId);
+        return current == null ? null : Phase.valueOf(current.getPhase());
+    }
+
+    // bookies still to be recovered or to have the cookie deleted
+    public synchronized boolean hasPendingBookies() {
+        return bookies.values().stream()
+                .anyMatch(s -> Phase.valueOf(s.getPhase()).compareTo(Phase.COOKIE_DELETED) < 0);
+    }
+
+    public synchronized List<BookieDecommissionStatus> toStatus() {
+        final List<BookieDecommissionStatus> result = new ArrayList<>(bookies.size());
+        for (BookieDecommissionStatus status : bookies.values()) {
+            result.add(copy(status));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return bookies.values().stream()
+                .map(s -> s.getBookieId() + "=" + s.getPhase())
+                .collect(Collectors.joining(", "));
+    }
+
+    private void notifyListener() {
+        if (listener != null) {
+            listener.accept(toStatus());
+        }
+    }
+
+    private static BookieDecommissionStatus copy(BookieDecommissionStatus status) {
+        return BookieDecommissionStatus.builder()
+                .bookieId(status.getBookieId())
+                .podName(status.getPodName())
+                .phase(status.getPhase())
+                .timestamp(status.getTimestamp())
+                .lastError(status.getLastError())
+                .build();
+    }
+}
@@ -15,120 +15,331 @@
  */
 package com.datastax.oss.kaap.autoscaler.bookkeeper;
 
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
+import com.datastax.oss.kaap.crds.bookkeeper.BookieDecommissionStatus;
+import io.fabric8.kubernetes.api.model.Pod;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import lombok.extern.jbosslog.JBossLog;
 
 @JBossLog
 public class BookieDecommissionUtil {
 
+    static final long READ_ONLY_POLL_INTERVAL_MS = 500;
+    static final long READ_ONLY_REQUEST_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(10);
+    static final long UNDER_REPLICATED_POLL_INTERVAL_MS = TimeUnit.SECONDS.toMillis(5);
+    static final long UNDER_REPLICATED_MAX_WAIT_MS = TimeUnit.MINUTES.toMillis(1);
+
+    // the bookies in the progress that are not to be decommissioned anymore are set writable again
     public static int decommissionBookies(List<BookieAdminClient.BookieInfo> allBookies, int numToDecommission,
-                                          BookieAdminClient bookieAdminClient) {
+                                          BookieAdminClient bookieAdminClient,
+                                          BookKeeperSetSpec.DecommissionConfig config,
+                                          BookieDecommissionProgress progress) {
         List<BookieAdminClient.BookieInfo> bookiesToRemove = new ArrayList<>();
         int sz = allBookies.size();
         for (int i = sz - 1; i >= sz - numToDecommission; i--) {
             bookiesToRemove.add(allBookies.get(i));
         }
-        return decommissionBookies(bookiesToRemove, bookieAdminClient);
+        cancelDecommission(allBookies, bookiesToRemove, bookieAdminClient, progress);
+        return decommissionBookies(bookiesToRemove, bookieAdminClient, config, progress);
     }
 
+    private static void cancelDecommission(List<BookieAdminClient.BookieInfo> allBookies,
+                                           List<BookieAdminClient.BookieInfo> bookiesToDecommission,
+                                           BookieAdminClient bookieAdminClient,
+                                           BookieDecommissionProgress progress) {
+        for (BookieDecommissionStatus status : progress.toStatus()) {
+            final String bookieId = status.getBookieId();
+            final BookieDecommissionProgress.Phase phase = BookieDecommissionProgress.Phase.valueOf(status.getPhase());
+            final BookieAdminClient.BookieInfo toDecommission = findBookie(bookiesToDecommission, bookieId);
+            if (toDecommission != null) {
+                // the bookie has been removed and then added back, it's a new bookie with the same id
+                if (phase == BookieDecommissionProgress.Phase.REMOVED
+                        || (phase == BookieDecommissionProgress.Phase.COOKIE_DELETED
+                        && isCreatedAfter(toDecommission, status.getTimestamp()))) {
+                    progress.forget(bookieId);
+                }
+                continue;
+            }
+            final BookieAdminClient.BookieInfo bookieInfo = findBookie(allBookies, bookieId);
+            if (bookieInfo != null) {
+                if (phase.compareTo(BookieDecommissionProgress.Phase.COOKIE_DELETED) < 0) {
+                    log.infof("Bookie %s is not to be decommissioned anymore, setting it writable", bookieId);
+                    bookieAdminClient.setReadOnly(bookieInfo, false);
+                } else if (phase == BookieDecommissionProgress.Phase.COOKIE_DELETED) {
+                    log.warnf("Bookie %s is not to be decommissioned anymore but its cookie has been already "
+                            + "deleted, it won't be able to restart", bookieId);
+                }
+            }
+            progress.forget(bookieId);
+        }
+    }
 
-    private static int decommissionBookies(List<BookieAdminClient.BookieInfo> bookiesToDecommission,
-                                           BookieAdminClient bookieAdminClient) {
-        int bookiesToDownscaleCount = bookiesToDecommission.size();
-        log.infof("Start decommissioning bookies: %s",
+    static int decommissionBookies(List<BookieAdminClient.BookieInfo> bookiesToDecommission,
+                                   BookieAdminClient bookieAdminClient,
+                                   BookKeeperSetSpec.DecommissionConfig config,
+                                   BookieDecommissionProgress progress) {
+        if (bookiesToDecommission.isEmpty()) {
+            return 0;
+        }
+        log.infof("Start decommissioning bookies: %s, progress: %s",
                 bookiesToDecommission.stream().map(b -> b.getBookieId()).collect(
-                        Collectors.joining(",")));
-        Set<BookieAdminClient.BookieInfo> bookiesSetAsReadonly = new HashSet<>(bookiesToDownscaleCount);
+                        Collectors.joining(",")), progress);
 
-        for (BookieAdminClient.BookieInfo bookieInfo : bookiesToDecommission) {
-            bookiesSetAsReadonly.add(bookieInfo);
+        final List<BookieAdminClient.BookieInfo> pending =
+                filterBefore(bookiesToDecommission, BookieDecommissionProgress.Phase.COOKIE_DELETED, progress);
+        // the forced read-only mode is lost if the bookie restarts, so it's set again when resuming
+        for (BookieAdminClient.BookieInfo bookieInfo : pending) {
             bookieAdminClient.setReadOnly(bookieInfo, true);
         }
 
-        // wait for bookies to be read-only
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException(e);
+        if (!awaitReadOnly(pending, bookieAdminClient, READ_ONLY_POLL_INTERVAL_MS, config.getReadOnlyTimeoutMs(),
+                progress)) {
+            log.warnf("Can't scale down, bookies didn't become read-only in %d ms", config.getReadOnlyTimeoutMs());
+            return countDecommissioned(bookiesToDecommission, progress);
         }
 
+        if (!recoverBookies(filterBefore(pending, BookieDecommissionProgress.Phase.VERIFIED, progress),
+                bookieAdminClient, config, progress)) {
+            log.warnf("Can't scale down, failed to recover bookies, progress: %s", progress);
+            return countDecommissioned(bookiesToDecommission, progress);
+        }
 
-        boolean success = true;
-        for (BookieAdminClient.BookieInfo bookieInfo : bookiesToDecommission) {
-            String bookieName = bookieInfo.getPodResource().get().getMetadata().getName();
-            log.infof("Attempting decommission of bookie %s with bookieId = %s",
-                    bookieName, bookieInfo.getBookieId());
+        if (!pending.isEmpty()) {
+            if (awaitNoUnderReplicatedLedgers(bookieAdminClient, UNDER_REPLICATED_POLL_INTERVAL_MS,
+                    UNDER_REPLICATED_MAX_WAIT_MS)) {
+                log.infof("ledgers recovered successfully, proceeding with cookie removal");
+            } else {
+                log.warnf("Can't scale down, there are under replicated ledgers after recovery");
+                return countDecommissioned(bookiesToDecommission, progress);
+            }
+        }
 
-            if (!runBookieRecovery(bookieInfo, bookieAdminClient)) {
-                log.warnf("Can't scale down, failed to recover %s with bookieId = %s",
-                        bookieName,
-                        bookieInfo.getBookieId());
-                success = false;
+        for (BookieAdminClient.BookieInfo bookieInfo : pending) {
+            // todo: I think it is possible to get into a bad state here
+            // if the cookie delete passes but connection fails and k8s client returns error.
+            // or if the disk cookie deletion fails due to some k8s/network error
+            // Cookie on the disk will persist, PVC will be preserved,
+            // and on restart the bookie will fail
+            if (!deleteCookie(bookieInfo, bookieAdminClient)) {
+                log.warnf("Can't scale down, failed to delete cookie for %s", getPodName(bookieInfo));
+                progress.fail(bookieInfo.getBookieId(), "Failed to delete the cookie");
                 break;
             }
+            progress.advance(bookieInfo.getBookieId(), getPodName(bookieInfo),
+                    BookieDecommissionProgress.Phase.COOKIE_DELETED);
         }
-
-        if (success && bookieAdminClient.doesNotHaveUnderReplicatedLedgers()) {
-            log.infof("ledgers recovered successfully, proceeding with cookie removal");
+        final int decommissioned = countDecommissioned(bookiesToDecommission, progress);
+        if (decommissioned == bookiesToDecommission.size()) {
+            log.infof("Decommission completed, progress: %s", progress);
         } else {
-            log.warnf("Can't scale down, there are under replicated ledgers after recovery");
-            success = false;
-        }
-
-        if (success) {
-            for (BookieAdminClient.BookieInfo bookieInfo : bookiesToDecommission) {
-                // todo: I think it is possible to get into a bad state here
-                // if the cookie delete passes but connection fails and k8s client returns error.
-                // or if the disk cookie deletion fails due to some k8s/network error
-                // Cookie on the disk will persist, PVC will be preserved,
-                // and on restart the bookie will fail
-                if (!deleteCookie(bookieInfo, bookieAdminClient)) {
-                    log.warnf("Can't scale down, failed to delete cookie for %s",
-                            bookieInfo.getPodResource().get().getMetadata().getName());
-                    break;
-                }
-                bookiesSetAsReadonly.remove(bookieInfo);
-            }
+            log.warnf("Decommission partially succeeded, %d bookies can be removed, will retry the others later",
+                    decommissioned);
         }
-        if (bookiesSetAsReadonly.isEmpty()) {
-            return bookiesToDownscaleCount;
+        return decommissioned;
+    }
+
+    private static List<BookieAdminClient.BookieInfo> filterBefore(List<BookieAdminClient.BookieInfo> bookies,
+                                                                   BookieDecommissionProgress.Phase phase,
+                                                                   BookieDecommissionProgress progress) {
+        return bookies.stream()
+                .filter(b -> {
+                    final BookieDecommissionProgress.Phase current = progress.getPhase(b.getBookieId());
+                    return current == null || current.compareTo(phase) < 0;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static int countDecommissioned(List<BookieAdminClient.BookieInfo> bookies,
+                                           BookieDecommissionProgress progress) {
+        return bookies.size()
+                - filterBefore(bookies, BookieDecommissionProgress.Phase.COOKIE_DELETED, progress).size();
+    }
+
+    private static BookieAdminClient.BookieInfo findBookie(List<BookieAdminClient.BookieInfo> bookies,
+                                                           String bookieId) {
+        return bookies.stream()
+                .filter(b -> b.getBookieId().equals(bookieId))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static boolean isCreatedAfter(BookieAdminClient.BookieInfo bookieInfo, Long timestamp) {
+        final Pod pod = bookieInfo.getPodResource().get();
+        if (timestamp == null || pod == null || pod.getMetadata().getCreationTimestamp() == null) {
+            return false;
         }
+        return Instant.parse(pod.getMetadata().getCreationTimestamp()).toEpochMilli() > timestamp;
+    }
 
+    private static String getPodName(BookieAdminClient.BookieInfo bookieInfo) {
+        return bookieInfo.getPodResource().get().getMetadata().getName();
+    }
 
-        int partiallySucceeded = bookiesToDownscaleCount - bookiesSetAsReadonly.size();
+    static boolean awaitReadOnly(List<BookieAdminClient.BookieInfo> bookies, BookieAdminClient bookieAdminClient,
+                                 long pollIntervalMs, long maxWaitMs, BookieDecommissionProgress progress) {
+        final List<BookieAdminClient.BookieInfo> writable = new ArrayList<>(bookies);
+        final long deadline = System.currentTimeMillis() + maxWaitMs;
+        while (true) {
+            writable.removeIf(bookieInfo -> {
+                if (isReadOnly(bookieInfo, bookieAdminClient)) {
+                    progress.advance(bookieInfo.getBookieId(), getPodName(bookieInfo),
+                            BookieDecommissionProgress.Phase.READONLY);
+                    return true;
+                }
+                return false;
+            });
+            if (writable.isEmpty()) {
+                return true;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                log.warnf("Bookies still writable: %s",
+                        writable.stream().map(b -> b.getBookieId()).collect(Collectors.joining(",")));
+                for (BookieAdminClient.BookieInfo bookieInfo : writable) {
+                    progress.fail(bookieInfo.getBookieId(), "The bookie didn't become read-only");
+                }
+                return false;
+            }
+            try {
+                Thread.sleep(pollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
 
-        if (partiallySucceeded > 0) {
-            log.warnf("Decommission partially succeeded, %d bookies can be removed",
-                    partiallySucceeded);
-        } else {
-            log.warnf("Decommission failed, will retry again later");
+    private static boolean isReadOnly(BookieAdminClient.BookieInfo bookieInfo, BookieAdminClient bookieAdminClient) {
+        try {
+            // only the bookie state is needed, not the disk usage
+            return !bookieAdminClient.isWritableAsync(bookieInfo,
+                            Duration.ofMillis(READ_ONLY_REQUEST_TIMEOUT_MS))
+                    .orTimeout(READ_ONLY_REQUEST_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .get();
+        } catch (Exception e) {
+            log.warnf("Failed to get the state of bookie %s: %s", bookieInfo.getBookieId(), e.getMessage());
+            return false;
         }
+    }
 
-        for (BookieAdminClient.BookieInfo bInfo : bookiesSetAsReadonly) {
-            bookieAdminClient.setReadOnly(bInfo, false);
+    // the recovery of a bookie re-replicates its ledgers to the other bookies, the ones not being decommissioned
+    // are the targets so multiple bookies can be recovered at the same time
+    private static boolean recoverBookies(List<BookieAdminClient.BookieInfo> bookies,
+                                          BookieAdminClient bookieAdminClient,
+                                          BookKeeperSetSpec.DecommissionConfig config,
+                                          BookieDecommissionProgress progress) {
+        if (bookies.isEmpty()) {
+            return true;
+        }
+        final int concurrency = Math.max(1, Math.min(config.getMaxConcurrentRecoveries(), bookies.size()));
+        final long rate = getRecoveryRatePerBookie(config.getRecoveryRateBytesPerSecond(), concurrency);
+        log.infof("Recovering %d bookies, %d at a time, rate limit per bookie %s", bookies.size(), concurrency,
+                rate > 0 ? rate + " bytes/s" : "unlimited");
+        final AtomicBoolean failed = new AtomicBoolean();
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency, r -> {
+            final Thread thread = new Thread(r, "kaap-bookie-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Future<Boolean>> futures = new ArrayList<>();
+            for (BookieAdminClient.BookieInfo bookieInfo : bookies) {
+                futures.add(executor.submit(() -> {
+                    // no point in recovering the other bookies if one failed, the decommission will be retried
+                    if (failed.get()) {
+                        return false;
+                    }
+                    final boolean recovered = runBookieRecovery(bookieInfo, bookieAdminClient, rate, progress);
+                    if (!recovered) {
+                        failed.set(true);
+                    }
+                    return recovered;
+                }));
+            }
+            boolean success = true;
+            for (Future<Boolean> future : futures) {
+                try {
+                    success &= future.get();
+                } catch (ExecutionException e) {
+                    log.errorf(e.getCause(), "Error while recovering bookies");
+                    success = false;
+                }
+            }
+            return success;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
         }
-        return partiallySucceeded;
     }
 
+    static long getRecoveryRatePerBookie(long recoveryRateBytesPerSecond, int concurrency) {
+        if (recoveryRateBytesPerSecond <= 0) {
+            return 0;
+        }
+        return Math.max(1, recoveryRateBytesPerSecond / concurrency);
+    }
+
+
+    // the probe stops at the first under replicated ledger, the count is only fetched to follow the progress
+    static boolean awaitNoUnderReplicatedLedgers(BookieAdminClient bookieAdminClient, long pollIntervalMs,
+                                                 long maxWaitMs) {
+        if (bookieAdminClient.doesNotHaveUnderReplicatedLedgers()) {
+            return true;
+        }
+        final long deadline = System.currentTimeMillis() + maxWaitMs;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(pollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            final int count;
+            try {
+                count = bookieAdminClient.countUnderReplicatedLedgers();
+            } catch (Exception e) {
+                log.warnf("Failed to count the under replicated ledgers: %s", e.getMessage());
+                continue;
+            }
+            if (count == 0) {
+                log.infof("No under replicated ledgers left");
+                return true;
+            }
+            log.infof("Waiting for %d under replicated ledgers to be replicated", count);
+        }
+        return false;
+    }
 
     private static boolean runBookieRecovery(BookieAdminClient.BookieInfo bookieInfo,
-                                             BookieAdminClient bookieAdminClient) {
+                                             BookieAdminClient bookieAdminClient,
+                                             long recoveryRateBytesPerSecond,
+                                             BookieDecommissionProgress progress) {
+        final String podName = getPodName(bookieInfo);
+        // the recovery is idempotent, if it was interrupted it's started again
+        progress.advance(bookieInfo.getBookieId(), podName, BookieDecommissionProgress.Phase.RECOVERING);
         try {
-            bookieAdminClient.recoverAndDeleteCookieInZk(bookieInfo, false);
+            bookieAdminClient.recoverAndDeleteCookieInZk(bookieInfo, false, recoveryRateBytesPerSecond);
             if (bookieAdminClient.existsLedger(bookieInfo)) {
-                log.warnf("Bookie %s still has ledgers assigned to it, will not delete cookie",
-                        bookieInfo.getPodResource().get().getMetadata().getName());
+                log.warnf("Bookie %s still has ledgers assigned to it, will not delete cookie", podName);
+                progress.fail(bookieInfo.getBookieId(), "The bookie still has ledgers after the recovery");
                 return false;
             }
+            progress.advance(bookieInfo.getBookieId(), podName, BookieDecommissionProgress.Phase.VERIFIED);
             return true;
         } catch (Exception e) {
-            log.errorf(e, "Error while recovering bookie %s",
-                    bookieInfo.getPodResource().get().getMetadata().getName());
+            log.errorf(e, "Error while recovering bookie %s", podName);
+            progress.fail(bookieInfo.getBookieId(), "Recovery failed: " + e.getMessage());
             return false;
         }
     }
@@ -136,8 +347,7 @@ public class BookieDecommissionUtil {
     private static boolean deleteCookie(BookieAdminClient.BookieInfo bookieInfo, BookieAdminClient bookieAdminClient) {
         try {
             if (bookieAdminClient.existsLedger(bookieInfo)) {
-                log.warnf("Bookie %s has ledgers assigned to it, will not delete cookie",
-                        bookieInfo.getPodResource().get().getMetadata().getName());
+                log.warnf("Bookie %s has ledgers assigned to it, will not delete cookie", getPodName(bookieInfo));
                 return false;
             }
 
@@ -146,8 +356,7 @@ public class BookieDecommissionUtil {
             bookieAdminClient.deleteCookieOnDisk(bookieInfo);
             return true;
         } catch (Exception e) {
-            log.errorf(e, "Error while deleting a cookie for bookie %s",
-                    bookieInfo.getPodResource().get().getMetadata().getName());
+            log.errorf(e, "Error while deleting a cookie for bookie %s", getPodName(bookieInfo));
             return false;
         }
     }
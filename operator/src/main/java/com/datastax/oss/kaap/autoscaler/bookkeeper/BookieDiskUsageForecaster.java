@@ -0,0 +1,101 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// Fill rate of the bookies disks, estimated with the Holt's linear trend method (double exponential smoothing) on
+// the used bytes sampled at each autoscaler run. The samples are not evenly spaced, so the trend is in bytes per second
+public class BookieDiskUsageForecaster {
+
+    static final double LEVEL_SMOOTHING = 0.5d;
+    static final double TREND_SMOOTHING = 0.3d;
+    // the first trend is only the difference between two samples
+    static final int MIN_SAMPLES = 3;
+
+    static class Series {
+        private long lastTimestampMs;
+        private double level;
+        private double trend;
+        private int samples;
+
+        void add(long timestampMs, long usedBytes) {
+            if (samples == 0) {
+                level = usedBytes;
+            } else {
+                final double elapsedSeconds = (timestampMs - lastTimestampMs) / 1000d;
+                if (elapsedSeconds <= 0) {
+                    return;
+                }
+                if (samples == 1) {
+                    trend = (usedBytes - level) / elapsedSeconds;
+                    level = usedBytes;
+                } else {
+                    final double previousLevel = level;
+                    level = LEVEL_SMOOTHING * usedBytes
+                            + (1 - LEVEL_SMOOTHING) * (previousLevel + trend * elapsedSeconds);
+                    trend = TREND_SMOOTHING * (level - previousLevel) / elapsedSeconds
+                            + (1 - TREND_SMOOTHING) * trend;
+                }
+            }
+            lastTimestampMs = timestampMs;
+            samples++;
+        }
+    }
+
+    // bookie -> disk -> series, not thread safe since each bookkeeper set is handled by a single task
+    private final Map<String, Map<Integer, Series>> series = new HashMap<>();
+
+    public void record(String bookie, int disk, long timestampMs, long usedBytes) {
+        series.computeIfAbsent(bookie, k -> new HashMap<>())
+                .computeIfAbsent(disk, k -> new Series())
+                .add(timestampMs, usedBytes);
+    }
+
+    // bytes per second, null if there are not enough samples
+    public Double getFillRate(String bookie, int disk) {
+        final Series s = getSeries(bookie, disk);
+        return s == null ? null : s.trend;
+    }
+
+    // null if there are not enough samples or the usage is not growing
+    public Long estimateTimeToReachMs(String bookie, int disk, long thresholdBytes, long nowMs) {
+        final Series s = getSeries(bookie, disk);
+        if (s == null) {
+            return null;
+        }
+        final double projectedLevel = s.level + s.trend * Math.max(0, nowMs - s.lastTimestampMs) / 1000d;
+        if (projectedLevel >= thresholdBytes) {
+            return 0L;
+        }
+        if (s.trend <= 0) {
+            return null;
+        }
+        return (long) ((thresholdBytes - projectedLevel) / s.trend * 1000d);
+    }
+
+    private Series getSeries(String bookie, int disk) {
+        final Map<Integer, Series> disks = series.get(bookie);
+        final Series s = disks == null ? null : disks.get(disk);
+        return s == null || s.samples < MIN_SAMPLES ? null : s;
+    }
+
+    public void retainOnly(Collection<String> bookies) {
+        series.keySet().retainAll(bookies);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
+import com.datastax.oss.kaap.crds.configs.VolumeConfig;
+import io.fabric8.kubernetes.api.model.Quantity;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Sizes of the bookie volumes expanded in place by the autoscaler
+public class BookieVolumeExpansion {
+
+    private static final BigDecimal GI = BigDecimal.valueOf(1024L * 1024L * 1024L);
+
+    private BookieVolumeExpansion() {
+    }
+
+    // null if the volume can't be expanded, because the max size is not set or it has been already reached
+    public static String computeExpandedSize(String currentSize, double expansionFactor, String maxSize) {
+        if (currentSize == null || maxSize == null) {
+            return null;
+        }
+        final BigDecimal current = toBytes(currentSize);
+        final BigDecimal max = toBytes(maxSize);
+        if (current.compareTo(max) >= 0) {
+            return null;
+        }
+        // rounded up to the next Gi to keep the sizes readable
+        final BigDecimal expandedGi = current.multiply(BigDecimal.valueOf(expansionFactor))
+                .divide(GI, 0, RoundingMode.CEILING);
+        final BigDecimal expanded = expandedGi.multiply(GI);
+        if (expanded.compareTo(max) >= 0) {
+            return maxSize;
+        }
+        if (expanded.compareTo(current) <= 0) {
+            return null;
+        }
+        return expandedGi.toPlainString() + "Gi";
+    }
+
+    public static boolean isLarger(String size, String other) {
+        if (size == null) {
+            return false;
+        }
+        if (other == null) {
+            return true;
+        }
+        return toBytes(size).compareTo(toBytes(other)) > 0;
+    }
+
+    public static BookKeeperSetSpec.Volumes getOrCreateVolumes(BookKeeperSetSpec setSpec) {
+        if (setSpec.getVolumes() == null) {
+            setSpec.setVolumes(new BookKeeperSetSpec.Volumes());
+        }
+        return setSpec.getVolumes();
+    }
+
+    // the other fields are inherited from the bookkeeper spec if the volume is not set
+    public static VolumeConfig withSize(VolumeConfig volume, String size) {
+        if (volume == null) {
+            return VolumeConfig.builder().size(size).build();
+        }
+        volume.setSize(size);
+        return volume;
+    }
+
+    private static BigDecimal toBytes(String size) {
+        return Quantity.getAmountInBytes(Quantity.parse(size));
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import com.datastax.oss.kaap.autoscaler.AdminHttpClientPool;
+import com.datastax.oss.kaap.controllers.BaseResourcesFactory;
+import com.datastax.oss.kaap.controllers.bookkeeper.BookKeeperResourcesFactory;
+import com.datastax.oss.kaap.crds.GlobalSpec;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import lombok.extern.jbosslog.JBossLog;
+import org.apache.commons.lang3.tuple.Pair;
+
+// Calls the bookies admin REST API directly from the operator.
+// The operations not exposed by the REST API (recovery, ledgers listing, cookies) are still executed in the pods.
+@JBossLog
+public class HttpBookieAdminClient extends PodExecBookieAdminClient {
+
+    private final HttpClient httpClient;
+    private final String namespace;
+    private final GlobalSpec globalSpec;
+    private final String bookkeeperSetName;
+    private final BookKeeperSetSpec currentBookKeeperSetSpec;
+
+    public HttpBookieAdminClient(KubernetesClient client, AdminHttpClientPool httpClientPool, String namespace,
+                                 GlobalSpec globalSpec, String bookkeeperSetName,
+                                 BookKeeperSetSpec currentBookKeeperSetSpec) {
+        this(client, httpClientPool, namespace, globalSpec, bookkeeperSetName, currentBookKeeperSetSpec, null);
+    }
+
+    public HttpBookieAdminClient(KubernetesClient client, AdminHttpClientPool httpClientPool, String namespace,
+                                 GlobalSpec globalSpec, String bookkeeperSetName,
+                                 BookKeeperSetSpec currentBookKeeperSetSpec,
+                                 LedgerMetadataIndex ledgerMetadataIndex) {
+        super(client, namespace, globalSpec, bookkeeperSetName, currentBookKeeperSetSpec, ledgerMetadataIndex);
+        this.httpClient = httpClientPool.getBookieHttpClient(namespace, globalSpec);
+        this.namespace = namespace;
+        this.globalSpec = globalSpec;
+        this.bookkeeperSetName = bookkeeperSetName;
+        this.currentBookKeeperSetSpec = currentBookKeeperSetSpec;
+    }
+
+    @Override
+    public CompletableFuture<BookieStats> collectBookieStatsAsync(BookieInfo bookieInfo, Duration requestTimeout) {
+        final Pod pod = bookieInfo.getPodResource().get();
+        final CompletableFuture<String> bkState = sendOk(pod, "GET", "/api/v1/bookie/state", null, requestTimeout);
+        final CompletableFuture<String> bkInfo = sendOk(pod, "GET", "/api/v1/bookie/info", null, requestTimeout);
+        // the usage of each directory is not exposed by the REST API
+        final CompletableFuture<String> df = collectDirectoriesUsageAsync(pod);
+        final CompletableFuture<BookieStats> result = bkState.thenCombine(bkInfo, Pair::of)
+                .thenCombine(df.handle((out, ex) -> ex == null ? out : null),
+                        (stateAndInfo, out) -> parseBookieStats(stateAndInfo.getLeft(), stateAndInfo.getRight(),
+                                out, pod));
+        // if the caller gives up (e.g. timeout), close the exec session still open,
+        // the http requests end with the request timeout
+        result.whenComplete((stats, ex) -> {
+            if (ex != null) {
+                df.completeExceptionally(ex);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isWritableAsync(BookieInfo bookieInfo, Duration requestTimeout) {
+        final Pod pod = bookieInfo.getPodResource().get();
+        return sendOk(pod, "GET", "/api/v1/bookie/state", null, requestTimeout).thenApply(this::parseIsWritable);
+    }
+
+    @Override
+    @SneakyThrows
+    public void setReadOnly(BookieInfo bookieInfo, boolean readonly) {
+        final Pod pod = bookieInfo.getPodResource().get();
+        sendOk(pod, "PUT", "/api/v1/bookie/state/readonly", "{\"readOnly\":" + readonly + "}", REQUEST_TIMEOUT)
+                .get(1, TimeUnit.MINUTES);
+        log.infof("Bookie %s is set to read-only=%b", pod.getMetadata().getName(), readonly);
+    }
+
+    @Override
+    @SneakyThrows
+    protected boolean probeNoUnderReplicatedLedgers() {
+        final Pod pod = getBookieInfos().get(0).getPodResource().get();
+        final HttpResponse<InputStream> response = send(pod, "GET", UNDER_REPLICATED_LEDGERS_PATH, null,
+                REQUEST_TIMEOUT, HttpResponse.BodyHandlers.ofInputStream())
+                .get(1, TimeUnit.MINUTES);
+        // closing the stream before the end aborts the download of the rest of the list
+        try (InputStream body = response.body()) {
+            return new String(body.readNBytes(UNDER_REPLICATED_PROBE_BYTES), StandardCharsets.UTF_8)
+                    .contains(NO_UNDER_REPLICATED_LEDGERS);
+        }
+    }
+
+    @Override
+    @SneakyThrows
+    protected int fetchUnderReplicatedLedgersCount() {
+        final Pod pod = getBookieInfos().get(0).getPodResource().get();
+        final HttpResponse<InputStream> response = send(pod, "GET", UNDER_REPLICATED_LEDGERS_PATH, null,
+                REQUEST_TIMEOUT, HttpResponse.BodyHandlers.ofInputStream())
+                .get(1, TimeUnit.MINUTES);
+        try (BufferedInputStream body = new BufferedInputStream(response.body())) {
+            body.mark(UNDER_REPLICATED_PROBE_BYTES);
+            final String head = new String(body.readNBytes(UNDER_REPLICATED_PROBE_BYTES), StandardCharsets.UTF_8);
+            // the bookie answers 404 if there aren't under replicated ledgers
+            if (head.contains(NO_UNDER_REPLICATED_LEDGERS)) {
+                return 0;
+            }
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Bookie %s returned HTTP %d: %s"
+                        .formatted(pod.getMetadata().getName(), response.statusCode(), head));
+            }
+            body.reset();
+            // json array of ledger ids, streamed to not hold the whole list in memory
+            int count = 0;
+            try (JsonParser parser = MAPPER.getFactory().createParser(body)) {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null) {
+                    if (token == JsonToken.VALUE_NUMBER_INT) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    @Override
+    @SneakyThrows
+    public void triggerAudit() {
+        final Pod pod = getBookieInfos().get(0).getPodResource().get();
+        sendOk(pod, "PUT", "/api/v1/autorecovery/trigger_audit", null, REQUEST_TIMEOUT)
+                .get(1, TimeUnit.MINUTES);
+        log.infof("Triggered audit");
+    }
+
+    private CompletableFuture<String> sendOk(Pod pod, String method, String path, String body,
+                                             Duration timeout) {
+        return send(pod, method, path, body, timeout, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IllegalStateException("Bookie %s returned HTTP %d: %s"
+                                .formatted(pod.getMetadata().getName(), response.statusCode(), response.body()));
+                    }
+                    return response.body();
+                });
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(Pod pod, String method, String path, String body,
+                                                        Duration timeout, HttpResponse.BodyHandler<T> bodyHandler) {
+        final HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create(computeBookieUrl(pod) + path))
+                .timeout(timeout);
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(body));
+        }
+        return httpClient.sendAsync(request.build(), bodyHandler);
+    }
+
+    private String computeBookieUrl(Pod pod) {
+        final String port = getHttpServerPort(currentBookKeeperSetSpec);
+        if (BaseResourcesFactory.isTlsEnabledOnBookKeeper(globalSpec)) {
+            // the bookie certificate is issued for the service hostnames, the pod ip wouldn't pass the
+            // hostname verification
+            final String svcName = BookKeeperResourcesFactory.getResourceName(globalSpec.getName(),
+                    globalSpec.getComponents().getBookkeeperBaseName(), bookkeeperSetName,
+                    currentBookKeeperSetSpec.getOverrideResourceName());
+            return "https://%s.%s.%s:%s".formatted(pod.getMetadata().getName(), svcName,
+                    BaseResourcesFactory.getServiceDnsSuffix(globalSpec, namespace), port);
+        }
+        final String podIP = pod.getStatus() == null ? null : pod.getStatus().getPodIP();
+        if (podIP == null) {
+            throw new IllegalStateException("Bookie %s has no pod ip assigned".formatted(pod.getMetadata().getName()));
+        }
+        return "http://%s:%s".formatted(podIP, port);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.http.HttpClient;
+import io.fabric8.kubernetes.client.http.HttpRequest;
+import io.fabric8.kubernetes.client.utils.URLUtils;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import lombok.extern.jbosslog.JBossLog;
+
+// Disk usage of the bookie volumes reported by the kubelets, with one request for each node hosting the bookies
+// instead of one for each bookie
+@JBossLog
+public class KubeletVolumeStatsSource {
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final KubernetesClient client;
+    private final String namespace;
+    private final String journalPvPrefix;
+    private final String ledgersPvPrefix;
+
+    public KubeletVolumeStatsSource(KubernetesClient client, String namespace, String journalPvPrefix,
+                                    String ledgersPvPrefix) {
+        this.client = client;
+        this.namespace = namespace;
+        this.journalPvPrefix = journalPvPrefix;
+        this.ledgersPvPrefix = ledgersPvPrefix;
+    }
+
+    // pod name -> usage of the pod volumes, the writable state is not set.
+    // The pods on the nodes that didn't answer in time are missing
+    public Map<String, BookieAdminClient.BookieStats> collect(Collection<Pod> pods, long timeoutMs) {
+        final Map<String, Set<String>> podsByNode = new LinkedHashMap<>();
+        for (Pod pod : pods) {
+            final String node = pod.getSpec() == null ? null : pod.getSpec().getNodeName();
+            if (node == null) {
+                log.warnf("Bookie pod %s is not scheduled", pod.getMetadata().getName());
+                continue;
+            }
+            podsByNode.computeIfAbsent(node, n -> new HashSet<>()).add(pod.getMetadata().getName());
+        }
+        final Map<String, CompletableFuture<String>> summaries = new LinkedHashMap<>();
+        podsByNode.keySet().forEach(node -> summaries.put(node, fetchSummary(node)));
+
+        final Map<String, BookieAdminClient.BookieStats> result = new HashMap<>();
+        final long deadline = System.currentTimeMillis() + timeoutMs;
+        summaries.forEach((node, summary) -> {
+            try {
+                final String body = summary.get(Math.max(0, deadline - System.currentTimeMillis()),
+                        TimeUnit.MILLISECONDS);
+                result.putAll(parseSummary(body, podsByNode.get(node)));
+            } catch (Exception e) {
+                summary.cancel(true);
+                log.warnf("Failed to get the volume stats of node %s: %s", node, e.getMessage());
+            }
+        });
+        return result;
+    }
+
+    protected CompletableFuture<String> fetchSummary(String node) {
+        final HttpClient httpClient = client.getHttpClient();
+        final HttpRequest request = httpClient.newHttpRequestBuilder()
+                .uri(URLUtils.join(client.getMasterUrl().toString(), "api", "v1", "nodes", node, "proxy", "stats",
+                        "summary"))
+                .build();
+        return httpClient.sendAsync(request, String.class)
+                .thenApply(response -> {
+                    if (!response.isSuccessful()) {
+                        throw new IllegalStateException("Node %s returned HTTP %d: %s"
+                                .formatted(node, response.code(), response.body()));
+                    }
+                    return response.body();
+                });
+    }
+
+    @SneakyThrows
+    Map<String, BookieAdminClient.BookieStats> parseSummary(String summary, Set<String> podNames) {
+        /*
+        $ kubectl get --raw /api/v1/nodes/<node>/proxy/stats/summary
+        {
+          "node": {...},
+          "pods": [{
+              "podRef": {"name": "pul-bookkeeper-0", "namespace": "ns", "uid": "..."},
+              "volume": [{
+                  "name": "pul-bookkeeper-ledgers",
+                  "availableBytes": 40788448,
+                  "capacityBytes": 51290592,
+                  "usedBytes": 10485760,
+                  "pvcRef": {"name": "pul-bookkeeper-ledgers-pul-bookkeeper-0", "namespace": "ns"}
+              }]
+          }]
+        }
+        */
+        final Map<String, BookieAdminClient.BookieStats> result = new HashMap<>();
+        final JsonNode root = MAPPER.readTree(summary);
+        for (JsonNode pod : root.path("pods")) {
+            final JsonNode podRef = pod.path("podRef");
+            final String podName = podRef.path("name").asText();
+            if (!namespace.equals(podRef.path("namespace").asText()) || !podNames.contains(podName)) {
+                continue;
+            }
+            final List<BookieAdminClient.BookieLedgerDiskInfo> journalDiskInfos = new ArrayList<>(1);
+            final List<BookieAdminClient.BookieLedgerDiskInfo> ledgerDiskInfos = new ArrayList<>(1);
+            for (JsonNode volume : pod.path("volume")) {
+                final String pvcName = volume.path("pvcRef").path("name").asText(null);
+                if (pvcName == null || !volume.has("capacityBytes")) {
+                    continue;
+                }
+                final long capacity = volume.get("capacityBytes").asLong();
+                // same as the bookie, the blocks reserved to root are considered used
+                final long used = volume.has("availableBytes")
+                        ? capacity - volume.get("availableBytes").asLong()
+                        : volume.path("usedBytes").asLong();
+                final BookieAdminClient.BookieLedgerDiskInfo diskInfo = BookieAdminClient.BookieLedgerDiskInfo
+                        .builder()
+                        .directory(pvcName)
+                        .maxBytes(capacity)
+                        .usedBytes(used)
+                        .build();
+                if (pvcName.startsWith(journalPvPrefix + "-")) {
+                    journalDiskInfos.add(diskInfo);
+                } else if (pvcName.startsWith(ledgersPvPrefix + "-")) {
+                    ledgerDiskInfos.add(diskInfo);
+                }
+            }
+            if (!ledgerDiskInfos.isEmpty()) {
+                result.put(podName, BookieAdminClient.BookieStats.builder()
+                        .ledgerDiskInfos(ledgerDiskInfos)
+                        .journalDiskInfos(journalDiskInfos)
+                        .build());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,506 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.jbosslog.JBossLog;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.zookeeper.AddWatchMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+
+// In-memory index bookie id -> ledgers, built from the ledgers metadata in ZooKeeper and kept up to date with a
+// persistent recursive watch on the ledgers tree.
+// Supports the flat and the (long) hierarchical ledger layouts and the metadata format versions 2 and 3.
+@JBossLog
+public class LedgerMetadataIndex implements AutoCloseable {
+
+    public static final String DEFAULT_LEDGERS_ROOT = "/ledgers";
+    private static final String METADATA_VERSION_KEY = "BookieMetadataFormatVersion";
+    private static final Pattern LEDGER_NODE = Pattern.compile("L(\\d+)");
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+    private static final Pattern TEXT_ENSEMBLE_MEMBER = Pattern.compile("ensembleMember:\\s*\"([^\"]*)\"");
+    private static final String UNDER_REPLICATED_NODE_PREFIX = "urL";
+    // LedgerMetadataFormat.segment (6, length delimited) and Segment.ensembleMember (1, length delimited)
+    private static final long SEGMENT_TAG = (6 << 3) | 2;
+    private static final long ENSEMBLE_MEMBER_TAG = (1 << 3) | 2;
+    private static final long CATCH_UP_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+
+    private final CuratorFramework zkClient;
+    private final String ledgersRoot;
+    private final String underReplicationRoot;
+    // all the changes to the index are applied by this thread, in the order the events are received
+    private final ExecutorService executor;
+    private final Watcher watcher = this::onEvent;
+    private final ConnectionStateListener connectionStateListener = this::onConnectionStateChanged;
+    private final AtomicBoolean resyncRequested = new AtomicBoolean();
+
+    private final Map<Long, String[]> ledgers = new HashMap<>();
+    private final Map<String, Set<Long>> ledgersByBookie = new HashMap<>();
+    private final Map<String, String> bookieIds = new HashMap<>();
+    // ledgers with metadata not understood, the bookies owning them are unknown
+    private final Set<Long> unknownLedgers = new HashSet<>();
+    private final Set<String> underReplicatedLedgers = new HashSet<>();
+    private volatile boolean ready;
+
+    public LedgerMetadataIndex(CuratorFramework zkClient, String ledgersRoot) {
+        this.zkClient = zkClient;
+        this.ledgersRoot = ledgersRoot;
+        this.underReplicationRoot = ledgersRoot + "/underreplication/ledgers";
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            final Thread thread = new Thread(r, "kaap-ledger-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        zkClient.getConnectionStateListenable().addListener(connectionStateListener);
+        requestResync();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // null if the index is not ready
+    public Boolean hasLedgers(String bookieId) {
+        if (!catchUp()) {
+            return null;
+        }
+        synchronized (this) {
+            if (!unknownLedgers.isEmpty()) {
+                log.infof("Found %d ledgers with unknown metadata format, assuming bookie %s owns ledgers",
+                        unknownLedgers.size(), bookieId);
+                return true;
+            }
+            final Set<Long> bookieLedgers = ledgersByBookie.get(bookieId);
+            return bookieLedgers != null && !bookieLedgers.isEmpty();
+        }
+    }
+
+    // null if the index is not ready
+    public Boolean hasUnderReplicatedLedgers() {
+        if (!catchUp()) {
+            return null;
+        }
+        synchronized (this) {
+            return !underReplicatedLedgers.isEmpty();
+        }
+    }
+
+    // null if the index is not ready
+    public Integer countUnderReplicatedLedgers() {
+        if (!catchUp()) {
+            return null;
+        }
+        synchronized (this) {
+            return underReplicatedLedgers.size();
+        }
+    }
+
+    public synchronized int getLedgersCount() {
+        return ledgers.size() + unknownLedgers.size();
+    }
+
+    // ZooKeeper delivers the watch events before the result of any later operation, so after a sync all the
+    // changes made until now are in the executor queue
+    private boolean catchUp() {
+        if (!ready) {
+            requestResync();
+            return false;
+        }
+        try {
+            final long deadline = System.currentTimeMillis() + CATCH_UP_TIMEOUT_MS;
+            final CountDownLatch synced = new CountDownLatch(1);
+            zkClient.sync().inBackground((client, event) -> synced.countDown()).forPath(ledgersRoot);
+            if (!synced.await(CATCH_UP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                log.warnf("Timed out syncing the ledger metadata index");
+                return false;
+            }
+            executor.submit(() -> {
+            }).get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            return ready;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.warnf(e, "Failed to sync the ledger metadata index");
+            return false;
+        }
+    }
+
+    private void requestResync() {
+        if (resyncRequested.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                resyncRequested.set(false);
+                resync();
+            });
+        }
+    }
+
+    private void resync() {
+        ready = false;
+        try {
+            zkClient.watchers().add()
+                    .withMode(AddWatchMode.PERSISTENT_RECURSIVE)
+                    .usingWatcher(watcher)
+                    .forPath(ledgersRoot);
+            synchronized (this) {
+                ledgers.clear();
+                ledgersByBookie.clear();
+                bookieIds.clear();
+                unknownLedgers.clear();
+                underReplicatedLedgers.clear();
+            }
+            final long start = System.nanoTime();
+            scanLedgers(ledgersRoot);
+            scanUnderReplicatedLedgers(underReplicationRoot);
+            ready = true;
+            log.infof("Ledger metadata index loaded in %d ms, %d ledgers and %d under replicated",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), getLedgersCount(),
+                    underReplicatedLedgers.size());
+        } catch (Exception e) {
+            // retried at the next query
+            log.warnf(e, "Failed to load the ledger metadata index from %s", ledgersRoot);
+        }
+    }
+
+    private void scanLedgers(String path) throws Exception {
+        for (String child : getChildren(path)) {
+            final String childPath = path + "/" + child;
+            if (DIGITS.matcher(child).matches()) {
+                scanLedgers(childPath);
+            } else if (LEDGER_NODE.matcher(child).matches()) {
+                readLedger(childPath);
+            }
+        }
+    }
+
+    private void scanUnderReplicatedLedgers(String path) throws Exception {
+        for (String child : getChildren(path)) {
+            final String childPath = path + "/" + child;
+            if (child.startsWith(UNDER_REPLICATED_NODE_PREFIX)) {
+                synchronized (this) {
+                    underReplicatedLedgers.add(childPath);
+                }
+            } else {
+                scanUnderReplicatedLedgers(childPath);
+            }
+        }
+    }
+
+    private List<String> getChildren(String path) throws Exception {
+        try {
+            return zkClient.getChildren().forPath(path);
+        } catch (KeeperException.NoNodeException e) {
+            return List.of();
+        }
+    }
+
+    private void onEvent(WatchedEvent event) {
+        if (event.getType() == Watcher.Event.EventType.None || event.getPath() == null) {
+            return;
+        }
+        executor.execute(() -> {
+            if (!ready) {
+                // the resync will read the current state
+                return;
+            }
+            try {
+                handleEvent(event.getType(), event.getPath());
+            } catch (Exception e) {
+                log.warnf(e, "Failed to handle %s on %s, reloading the ledger metadata index",
+                        event.getType(), event.getPath());
+                requestResync();
+            }
+        });
+    }
+
+    private void handleEvent(Watcher.Event.EventType type, String path) throws Exception {
+        if (path.startsWith(underReplicationRoot + "/")) {
+            if (path.substring(path.lastIndexOf('/') + 1).startsWith(UNDER_REPLICATED_NODE_PREFIX)) {
+                synchronized (this) {
+                    if (type == Watcher.Event.EventType.NodeDeleted) {
+                        underReplicatedLedgers.remove(path);
+                    } else if (type == Watcher.Event.EventType.NodeCreated) {
+                        underReplicatedLedgers.add(path);
+                    }
+                }
+            }
+            return;
+        }
+        final Long ledgerId = parseLedgerId(ledgersRoot, path);
+        if (ledgerId == null) {
+            return;
+        }
+        if (type == Watcher.Event.EventType.NodeDeleted) {
+            removeLedger(ledgerId);
+        } else if (type == Watcher.Event.EventType.NodeCreated || type == Watcher.Event.EventType.NodeDataChanged) {
+            readLedger(path);
+        }
+    }
+
+    private void readLedger(String path) throws Exception {
+        final Long ledgerId = parseLedgerId(ledgersRoot, path);
+        if (ledgerId == null) {
+            return;
+        }
+        final byte[] data;
+        try {
+            data = zkClient.getData().forPath(path);
+        } catch (KeeperException.NoNodeException e) {
+            removeLedger(ledgerId);
+            return;
+        }
+        Set<String> bookies;
+        try {
+            bookies = parseEnsembleMembers(data);
+        } catch (Exception e) {
+            log.warnf("Cannot parse the metadata of ledger %d: %s", ledgerId, e.getMessage());
+            bookies = null;
+        }
+        putLedger(ledgerId, bookies);
+    }
+
+    private synchronized void putLedger(long ledgerId, Set<String> bookies) {
+        removeLedger(ledgerId);
+        if (bookies == null) {
+            unknownLedgers.add(ledgerId);
+            return;
+        }
+        final String[] ensemble = new String[bookies.size()];
+        int i = 0;
+        for (String bookie : bookies) {
+            // share the bookie id strings between all the ledgers
+            final String bookieId = bookieIds.computeIfAbsent(bookie, k -> k);
+            ledgersByBookie.computeIfAbsent(bookieId, k -> new HashSet<>()).add(ledgerId);
+            ensemble[i++] = bookieId;
+        }
+        ledgers.put(ledgerId, ensemble);
+    }
+
+    private synchronized void removeLedger(long ledgerId) {
+        unknownLedgers.remove(ledgerId);
+        final String[] ensemble = ledgers.remove(ledgerId);
+        if (ensemble == null) {
+            return;
+        }
+        for (String bookie : ensemble) {
+            final Set<Long> bookieLedgers = ledgersByBookie.get(bookie);
+            if (bookieLedgers != null) {
+                bookieLedgers.remove(ledgerId);
+                if (bookieLedgers.isEmpty()) {
+                    ledgersByBookie.remove(bookie);
+                    bookieIds.remove(bookie);
+                }
+            }
+        }
+    }
+
+    private void onConnectionStateChanged(CuratorFramework client, ConnectionState state) {
+        if (state == ConnectionState.RECONNECTED) {
+            // changes made while disconnected are not notified to the persistent watches
+            log.infof("Reconnected to ZooKeeper, reloading the ledger metadata index");
+            ready = false;
+            requestResync();
+        } else if (state == ConnectionState.LOST || state == ConnectionState.SUSPENDED) {
+            ready = false;
+        }
+    }
+
+    // /ledgers/L0000000001, /ledgers/00/0000/L0001 and /ledgers/000/0000/0000/0000/L0001
+    static Long parseLedgerId(String ledgersRoot, String path) {
+        if (!path.startsWith(ledgersRoot + "/")) {
+            return null;
+        }
+        final String[] parts = path.substring(ledgersRoot.length() + 1).split("/");
+        final StringBuilder digits = new StringBuilder();
+        for (int i = 0; i < parts.length - 1; i++) {
+            if (!DIGITS.matcher(parts[i]).matches()) {
+                return null;
+            }
+            digits.append(parts[i]);
+        }
+        final Matcher matcher = LEDGER_NODE.matcher(parts[parts.length - 1]);
+        if (!matcher.matches()) {
+            return null;
+        }
+        digits.append(matcher.group(1));
+        try {
+            return Long.parseLong(digits.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static Set<String> parseEnsembleMembers(byte[] data) {
+        int headerEnd = -1;
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == '\n') {
+                headerEnd = i;
+                break;
+            }
+        }
+        if (headerEnd < 0) {
+            throw new IllegalArgumentException("metadata format version not found");
+        }
+        final String[] header = new String(data, 0, headerEnd, StandardCharsets.UTF_8).split("\t");
+        if (header.length != 2 || !header[0].equals(METADATA_VERSION_KEY)) {
+            throw new IllegalArgumentException("metadata format version not found");
+        }
+        final String version = header[1].trim();
+        switch (version) {
+            case "3":
+                return parseBinaryMetadata(data, headerEnd + 1);
+            case "2":
+                return parseTextMetadata(new String(data, headerEnd + 1, data.length - headerEnd - 1,
+                        StandardCharsets.UTF_8));
+            default:
+                throw new IllegalArgumentException("unsupported metadata format version " + version);
+        }
+    }
+
+    // protobuf text format
+    private static Set<String> parseTextMetadata(String metadata) {
+        Set<String> bookies = new HashSet<>();
+        final Matcher matcher = TEXT_ENSEMBLE_MEMBER.matcher(metadata);
+        while (matcher.find()) {
+            bookies.add(matcher.group(1));
+        }
+        return bookies;
+    }
+
+    // protobuf binary format, written with writeDelimitedTo
+    private static Set<String> parseBinaryMetadata(byte[] data, int offset) {
+        final WireReader reader = new WireReader(data, offset, data.length);
+        final WireReader message = reader.readEmbedded();
+        Set<String> bookies = new HashSet<>();
+        while (message.hasRemaining()) {
+            final long tag = message.readVarint();
+            if (tag != SEGMENT_TAG) {
+                message.skipField(tag);
+                continue;
+            }
+            final WireReader segment = message.readEmbedded();
+            while (segment.hasRemaining()) {
+                final long segmentTag = segment.readVarint();
+                if (segmentTag == ENSEMBLE_MEMBER_TAG) {
+                    bookies.add(segment.readString());
+                } else {
+                    segment.skipField(segmentTag);
+                }
+            }
+        }
+        return bookies;
+    }
+
+    private static class WireReader {
+        private final byte[] data;
+        private final int limit;
+        private int position;
+
+        WireReader(byte[] data, int position, int limit) {
+            this.data = data;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        boolean hasRemaining() {
+            return position < limit;
+        }
+
+        long readVarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= limit) {
+                    throw new IllegalArgumentException("truncated varint");
+                }
+                final byte b = data[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("malformed varint");
+        }
+
+        WireReader readEmbedded() {
+            final int length = readLength();
+            final WireReader embedded = new WireReader(data, position, position + length);
+            position += length;
+            return embedded;
+        }
+
+        String readString() {
+            final int length = readLength();
+            final String result = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return result;
+        }
+
+        void skipField(long tag) {
+            switch ((int) (tag & 0x7)) {
+                case 0 -> readVarint();
+                case 1 -> skip(8);
+                case 2 -> skip(readLength());
+                case 5 -> skip(4);
+                default -> throw new IllegalArgumentException("unsupported wire type in tag " + tag);
+            }
+        }
+
+        private int readLength() {
+            final long length = readVarint();
+            if (length < 0 || position + length > limit) {
+                throw new IllegalArgumentException("truncated field");
+            }
+            return (int) length;
+        }
+
+        private void skip(int length) {
+            if (position + length > limit) {
+                throw new IllegalArgumentException("truncated field");
+            }
+            position += length;
+        }
+    }
+
+    @Override
+    public void close() {
+        zkClient.getConnectionStateListenable().removeListener(connectionStateListener);
+        try {
+            zkClient.watchers().remove(watcher).ofType(Watcher.WatcherType.Any).quietly().forPath(ledgersRoot);
+        } catch (Exception e) {
+            log.debugf(e, "Failed to remove the watch on %s", ledgersRoot);
+        }
+        executor.shutdownNow();
+    }
+}
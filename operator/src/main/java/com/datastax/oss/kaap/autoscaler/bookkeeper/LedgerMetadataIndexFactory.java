@@ -0,0 +1,66 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import com.datastax.oss.kaap.controllers.BaseResourcesFactory;
+import com.datastax.oss.kaap.controllers.bookkeeper.racks.client.ZkClientRackClientFactory;
+import com.datastax.oss.kaap.crds.GlobalSpec;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.jbosslog.JBossLog;
+import org.apache.curator.framework.CuratorFramework;
+
+// One ledger metadata index per ZooKeeper ensemble, shared by all the bookkeeper sets of the cluster.
+// The indexes use the ZooKeeper clients of the autoscalers, they're closed by the owner of the client factory
+@JBossLog
+public class LedgerMetadataIndexFactory implements AutoCloseable {
+
+    private final ZkClientRackClientFactory zkClientFactory;
+    private final Map<String, LedgerMetadataIndex> indexes = new ConcurrentHashMap<>();
+
+    public LedgerMetadataIndexFactory(ZkClientRackClientFactory zkClientFactory) {
+        this.zkClientFactory = zkClientFactory;
+    }
+
+    public LedgerMetadataIndex getLedgerMetadataIndex(String namespace, GlobalSpec globalSpec) {
+        final CuratorFramework zkClient = zkClientFactory.getCuratorFramework(namespace, globalSpec);
+        if (zkClient == null) {
+            return null;
+        }
+        return indexes.computeIfAbsent(BaseResourcesFactory.getZkServers(globalSpec, namespace), k -> {
+            final LedgerMetadataIndex index =
+                    new LedgerMetadataIndex(zkClient, LedgerMetadataIndex.DEFAULT_LEDGERS_ROOT);
+            index.start();
+            return index;
+        });
+    }
+
+    // the cluster has been deleted, its index must not keep watching the ledgers
+    public void closeLedgerMetadataIndex(String namespace, GlobalSpec globalSpec) {
+        final String zkServers = BaseResourcesFactory.getZkServers(globalSpec, namespace);
+        final LedgerMetadataIndex index = indexes.remove(zkServers);
+        if (index != null) {
+            log.infof("Closing the ledger metadata index of %s", zkServers);
+            index.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        indexes.values().forEach(LedgerMetadataIndex::close);
+        indexes.clear();
+    }
+}
@@ -21,33 +21,45 @@ import com.datastax.oss.kaap.controllers.bookkeeper.BookKeeperResourcesFactory;
 import com.datastax.oss.kaap.crds.CRDConstants;
 import com.datastax.oss.kaap.crds.GlobalSpec;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.PodResource;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import lombok.SneakyThrows;
 import lombok.extern.jbosslog.JBossLog;
+import org.apache.commons.lang3.tuple.Pair;
 
 @JBossLog
 public class PodExecBookieAdminClient implements BookieAdminClient {
 
     static final ObjectMapper MAPPER = new ObjectMapper();
+    static final String REPLICATION_RATE_CONFIG = "replicationRateByBytes";
+    static final String RECOVER_CONFIG_PATH = "/tmp/kaap-recover.conf";
+    static final String UNDER_REPLICATED_LEDGERS_PATH = "/api/v1/autorecovery/list_under_replicated_ledger/";
+    static final String NO_UNDER_REPLICATED_LEDGERS = "No under replicated ledgers found";
+    static final int UNDER_REPLICATED_PROBE_BYTES = 64;
+    static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(1);
+    static final String HTTP_STATUS_MARKER = "HTTP_STATUS";
+    static final String LEDGER_DIRECTORIES_CONFIG = "ledgerDirectories";
+    static final String JOURNAL_DIRECTORIES_CONFIG = "journalDirectories";
+    static final String JOURNAL_DIRECTORY_CONFIG = "journalDirectory";
 
     private final KubernetesClient client;
     private final String namespace;
     private final GlobalSpec globalSpec;
     private final String bookkeeperSetName;
     private final BookKeeperSetSpec currentBookKeeperSetSpec;
+    private final LedgerMetadataIndex ledgerMetadataIndex;
 
     private final String bookieAdminUrl;
     private final Map<String, String> podSelector;
@@ -57,7 +69,15 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
     public PodExecBookieAdminClient(KubernetesClient client, String namespace,
                                     GlobalSpec globalSpec, String bookkeeperSetName,
                                     BookKeeperSetSpec currentBookKeeperSetSpec) {
+        this(client, namespace, globalSpec, bookkeeperSetName, currentBookKeeperSetSpec, null);
+    }
+
+    public PodExecBookieAdminClient(KubernetesClient client, String namespace,
+                                    GlobalSpec globalSpec, String bookkeeperSetName,
+                                    BookKeeperSetSpec currentBookKeeperSetSpec,
+                                    LedgerMetadataIndex ledgerMetadataIndex) {
         this.client = client;
+        this.ledgerMetadataIndex = ledgerMetadataIndex;
         this.namespace = namespace;
         this.globalSpec = globalSpec;
         this.bookkeeperSetName = bookkeeperSetName;
@@ -78,11 +98,11 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
     public List<BookieInfo> collectBookieInfos() {
         this.bookieInfos = client.pods().inNamespace(namespace).withLabels(podSelector).resources()
                 .map(pod -> getBookieInfo(pod))
-                .sorted(Comparator.comparing(b -> b.podResource.get().getMetadata().getName())).toList();
+                .sorted(Comparator.comparing(BookieInfo::getPodName)).toList();
         return bookieInfos;
     }
 
-    private List<BookieInfo> getBookieInfos() {
+    protected List<BookieInfo> getBookieInfos() {
         if (bookieInfos == null) {
             collectBookieInfos();
         }
@@ -90,21 +110,29 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
     }
 
     @SneakyThrows
-    protected BookieInfo getBookieInfo(PodResource pod) {
+    protected BookieInfo getBookieInfo(PodResource podResource) {
+        final Pod pod = podResource.get();
+        final String podName = pod.getMetadata().getName();
         if (log.isDebugEnabled()) {
-            log.debugf("getting BookieInfo for pod %s", pod.get().getMetadata().getName());
+            log.debugf("getting BookieInfo for pod %s", podName);
         }
 
 
         return BookieInfo.builder()
-                .podResource(pod)
-                .bookieId(getBookieId(pod))
+                .podResource(podResource)
+                .podName(podName)
+                .bookieId(getBookieId(pod, bookkeeperSetName, currentBookKeeperSetSpec, globalSpec, namespace))
                 .build();
     }
 
     @Override
     @SneakyThrows
     public BookieStats collectBookieStats(BookieInfo bookieInfo) {
+        return collectBookieStatsAsync(bookieInfo, REQUEST_TIMEOUT).get();
+    }
+
+    @Override
+    public CompletableFuture<BookieStats> collectBookieStatsAsync(BookieInfo bookieInfo, Duration requestTimeout) {
         final Pod pod = bookieInfo.getPodResource().get();
 
         CompletableFuture<String> bkStateOut =
@@ -117,23 +145,145 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
                         BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
                         "curl -s " + bookieAdminUrl + "/api/v1/bookie/info");
 
-        List<BookieLedgerDiskInfo> ledgerDiskInfos = new ArrayList<>(1);
-        final BookieLedgerDiskInfo diskInfo = parseAndFillDiskUsage(bkInfoOut.get(), pod);
-        if (diskInfo != null) {
-            ledgerDiskInfos.add(diskInfo);
+        final CompletableFuture<String> dfOut = collectDirectoriesUsageAsync(pod);
+
+        final CompletableFuture<BookieStats> result = bkStateOut.thenCombine(bkInfoOut, Pair::of)
+                .thenCombine(dfOut.handle((df, ex) -> ex == null ? df : null),
+                        (stateAndInfo, df) -> parseBookieStats(stateAndInfo.getLeft(), stateAndInfo.getRight(),
+                                df, pod));
+        // if the caller gives up (e.g. timeout), close the exec sessions still open
+        result.whenComplete((stats, ex) -> {
+            if (ex != null) {
+                bkStateOut.completeExceptionally(ex);
+                bkInfoOut.completeExceptionally(ex);
+                dfOut.completeExceptionally(ex);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isWritableAsync(BookieInfo bookieInfo, Duration requestTimeout) {
+        final Pod pod = bookieInfo.getPodResource().get();
+        final CompletableFuture<String> bkStateOut = AutoscalerUtils.execInPod(client, namespace,
+                pod.getMetadata().getName(),
+                BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
+                "curl -s " + bookieAdminUrl + "/api/v1/bookie/state");
+        final CompletableFuture<Boolean> result = bkStateOut.thenApply(this::parseIsWritable);
+        // if the caller gives up (e.g. timeout), close the exec session
+        result.whenComplete((writable, ex) -> {
+            if (ex != null) {
+                bkStateOut.completeExceptionally(ex);
+            }
+        });
+        return result;
+    }
+
+    // the REST API only exposes the total usage of the ledger directories,
+    // the usage of each journal and ledger directory is collected with a single df
+    protected CompletableFuture<String> collectDirectoriesUsageAsync(Pod pod) {
+        final List<String> directories = new ArrayList<>(getJournalDirectories());
+        directories.addAll(getLedgerDirectories());
+        return AutoscalerUtils.execInPod(client, namespace, pod.getMetadata().getName(),
+                BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
+                "df -k -P " + String.join(" ", directories));
+    }
+
+    protected List<String> getJournalDirectories() {
+        return getDirectoriesConfig(List.of(JOURNAL_DIRECTORIES_CONFIG, JOURNAL_DIRECTORY_CONFIG),
+                BookKeeperResourcesFactory.JOURNAL_MOUNT_PATH);
+    }
+
+    protected List<String> getLedgerDirectories() {
+        return getDirectoriesConfig(List.of(LEDGER_DIRECTORIES_CONFIG),
+                BookKeeperResourcesFactory.LEDGERS_MOUNT_PATH);
+    }
+
+    private List<String> getDirectoriesConfig(List<String> keys, String defaultDirectory) {
+        final Map<String, Object> config = currentBookKeeperSetSpec.getConfig();
+        if (config != null) {
+            for (String key : keys) {
+                Object value = config.get(key);
+                if (value == null) {
+                    value = config.get(BaseResourcesFactory.CONFIG_PULSAR_PREFIX + key);
+                }
+                if (value != null && !value.toString().isBlank()) {
+                    return Arrays.stream(value.toString().split(","))
+                            .map(String::strip)
+                            .filter(d -> !d.isEmpty())
+                            .toList();
+                }
+            }
         }
+        return List.of(defaultDirectory);
+    }
 
-        boolean writable = parseIsWritable(bkStateOut.get());
+    protected BookieStats parseBookieStats(String bkStateOutput, String bkInfoOutput, String dfOutput, Pod pod) {
+        List<BookieLedgerDiskInfo> ledgerDiskInfos = null;
+        List<BookieLedgerDiskInfo> journalDiskInfos = List.of();
+        if (dfOutput != null) {
+            final List<String> journalDirectories = getJournalDirectories();
+            final List<String> directories = new ArrayList<>(journalDirectories);
+            directories.addAll(getLedgerDirectories());
+            try {
+                final List<BookieLedgerDiskInfo> diskInfos = parseDirectoriesUsage(dfOutput, directories);
+                journalDiskInfos = diskInfos.subList(0, journalDirectories.size());
+                ledgerDiskInfos = diskInfos.subList(journalDirectories.size(), diskInfos.size());
+            } catch (RuntimeException e) {
+                log.warnf("Invalid directories usage for bookie pod %s, using the bookie info: %s",
+                        pod.getMetadata().getName(), e.getMessage());
+            }
+        }
+        if (ledgerDiskInfos == null) {
+            ledgerDiskInfos = new ArrayList<>(1);
+            final BookieLedgerDiskInfo diskInfo = parseAndFillDiskUsage(bkInfoOutput, pod);
+            if (diskInfo != null) {
+                ledgerDiskInfos.add(diskInfo);
+            }
+        }
         return BookieStats.builder()
-                .isWritable(writable)
+                .isWritable(parseIsWritable(bkStateOutput))
                 .ledgerDiskInfos(ledgerDiskInfos)
+                .journalDiskInfos(journalDiskInfos)
                 .build();
+    }
 
+    static List<BookieLedgerDiskInfo> parseDirectoriesUsage(String dfOutput, List<String> directories) {
+        /*
+        $ df -k -P /pulsar/data/bookkeeper/journal /pulsar/data/bookkeeper/ledgers
+        Filesystem     1024-blocks     Used Available Capacity Mounted on
+        /dev/sdb          20466256  1052712  19397160       6% /pulsar/data/bookkeeper/journal
+        /dev/sdc          51290592 10485760  40788448      21% /pulsar/data/bookkeeper/ledgers
+        */
+        final List<String> lines = dfOutput.lines()
+                .map(String::strip)
+                .filter(l -> !l.isEmpty())
+                .toList();
+        // the header and then one line for each directory, in the same order
+        if (lines.size() != directories.size() + 1) {
+            throw new IllegalStateException("expected the usage of %d directories, got: %s"
+                    .formatted(directories.size(), dfOutput));
+        }
+        List<BookieLedgerDiskInfo> result = new ArrayList<>(directories.size());
+        for (int i = 0; i < directories.size(); i++) {
+            final String[] fields = lines.get(i + 1).split("\\s+");
+            if (fields.length < 6) {
+                throw new IllegalStateException("invalid directory usage: " + lines.get(i + 1));
+            }
+            final long total = Long.parseLong(fields[1]) * 1024L;
+            final long available = Long.parseLong(fields[3]) * 1024L;
+            // same as the bookie, the blocks reserved to root are considered used
+            result.add(BookieLedgerDiskInfo.builder()
+                    .directory(directories.get(i))
+                    .maxBytes(total)
+                    .usedBytes(total - available)
+                    .build());
+        }
+        return result;
     }
 
     @SneakyThrows
-    private boolean parseIsWritable(String bkStateOutput)
-            throws JsonProcessingException, InterruptedException, ExecutionException {
+    protected boolean parseIsWritable(String bkStateOutput) {
         /*
         $ curl -s localhost:8000/api/v1/bookie/state
         {
@@ -197,11 +347,30 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
         curlOut.get();
     }
 
+    static String getRecoverCommand(String bookieId, boolean deleteCookie, long recoveryRateBytesPerSecond) {
+        final String recover = "bin/bookkeeper shell recover -f " + (deleteCookie ? "-d " : "") + bookieId;
+        if (recoveryRateBytesPerSecond <= 0) {
+            return recover;
+        }
+        // the shell reads the bookie config, the rate limit of the replication is overridden only for this run
+        final long rate = Math.min(recoveryRateBytesPerSecond, Integer.MAX_VALUE);
+        return "sed '/^" + REPLICATION_RATE_CONFIG + "=/d' conf/bookkeeper.conf > " + RECOVER_CONFIG_PATH
+                + " && echo '" + REPLICATION_RATE_CONFIG + "=" + rate + "' >> " + RECOVER_CONFIG_PATH
+                + " && BOOKIE_CONF=" + RECOVER_CONFIG_PATH + " " + recover;
+    }
+
     @Override
     @SneakyThrows
     public void recoverAndDeleteCookieInZk(BookieInfo bookieInfo, boolean deleteCookie) {
+        recoverAndDeleteCookieInZk(bookieInfo, deleteCookie, 0);
+    }
+
+    @Override
+    @SneakyThrows
+    public void recoverAndDeleteCookieInZk(BookieInfo bookieInfo, boolean deleteCookie,
+                                           long recoveryRateBytesPerSecond) {
         final String podName = bookieInfo.getPodResource().get().getMetadata().getName();
-        String res = internalRecoverAndDeleteCookieInZk(bookieInfo, deleteCookie);
+        String res = internalRecoverAndDeleteCookieInZk(bookieInfo, deleteCookie, recoveryRateBytesPerSecond);
         log.debugf("Recover output: %s", res);
         if (!deleteCookie) {
             if (!res.contains(
@@ -212,7 +381,7 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
             }
         } else {
             // todo: figure out better way to check if cookie got deleted or change recover command
-            res = internalRecoverAndDeleteCookieInZk(bookieInfo, true);
+            res = internalRecoverAndDeleteCookieInZk(bookieInfo, true, 0);
             if (res.contains("cookie is deleted") || res.contains("No cookie to remove")) {
                 return;
             }
@@ -221,15 +390,16 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
     }
 
     @SneakyThrows
-    private String internalRecoverAndDeleteCookieInZk(BookieInfo bookieInfo, boolean deleteCookie) {
+    private String internalRecoverAndDeleteCookieInZk(BookieInfo bookieInfo, boolean deleteCookie,
+                                                      long recoveryRateBytesPerSecond) {
         final String podName = bookieInfo.getPodResource().get().getMetadata().getName();
         final long start = System.nanoTime();
         log.info("Starting bookie recovery for bookie " + podName);
         CompletableFuture<String> recoverOut = AutoscalerUtils.execInPod(client, namespace,
                 podName,
                 BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
-                "bin/bookkeeper shell recover -f " + (deleteCookie ? "-d " : "")
-                        + getBookieId(bookieInfo.getPodResource()));
+                getRecoverCommand(getBookieId(bookieInfo.getPodResource()), deleteCookie,
+                        recoveryRateBytesPerSecond));
         recoverOut.whenComplete((s, e) -> {
             if (e != null) {
                 log.errorf(e, "Error recovering bookie %s",
@@ -246,6 +416,13 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
     @SneakyThrows
     public boolean existsLedger(BookieInfo bookieInfo) {
         final String podName = bookieInfo.getPodResource().get().getMetadata().getName();
+        if (ledgerMetadataIndex != null) {
+            final Boolean hasLedgers = ledgerMetadataIndex.hasLedgers(getBookieId(bookieInfo.getPodResource()));
+            if (hasLedgers != null) {
+                return hasLedgers;
+            }
+            log.infof("Ledger metadata index not ready, listing the ledgers of bookie %s in the pod", podName);
+        }
         CompletableFuture<String> out = AutoscalerUtils.execInPod(client, namespace,
                 podName,
                 BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
@@ -272,39 +449,86 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
     }
 
     @Override
-    @SneakyThrows
     public boolean doesNotHaveUnderReplicatedLedgers() {
-        //TODO: improve BK API, add an option for true/false response if any UR ledger exists
-        // to avoid long wait for the full list, return json
+        if (ledgerMetadataIndex != null) {
+            final Boolean hasUnderReplicatedLedgers = ledgerMetadataIndex.hasUnderReplicatedLedgers();
+            if (hasUnderReplicatedLedgers != null) {
+                return !hasUnderReplicatedLedgers;
+            }
+            log.infof("Ledger metadata index not ready, listing the under replicated ledgers with the bookie API");
+        }
+        return probeNoUnderReplicatedLedgers();
+    }
+
+    @Override
+    public int countUnderReplicatedLedgers() {
+        if (ledgerMetadataIndex != null) {
+            final Integer count = ledgerMetadataIndex.countUnderReplicatedLedgers();
+            if (count != null) {
+                return count;
+            }
+            log.infof("Ledger metadata index not ready, counting the under replicated ledgers with the bookie API");
+        }
+        return fetchUnderReplicatedLedgersCount();
+    }
+
+    @SneakyThrows
+    protected boolean probeNoUnderReplicatedLedgers() {
         /*
         $ curl -s localhost:8000/api/v1/autorecovery/list_under_replicated_ledger/
         No under replicated ledgers found
         */
+        // the beginning of the list is enough, curl stops downloading it as soon as head exits
+        final String s = execOnFirstBookie("curl -s " + bookieAdminUrl + UNDER_REPLICATED_LEDGERS_PATH
+                + " | head -c " + UNDER_REPLICATED_PROBE_BYTES);
+        return s.contains(NO_UNDER_REPLICATED_LEDGERS);
+    }
+
+    @SneakyThrows
+    protected int fetchUnderReplicatedLedgersCount() {
+        // the list is a json array of ledger ids, it's counted in the pod to only get back the number.
+        // Only a successful response made of ledger ids is counted, error pages may contain digits too
+        final String s = execOnFirstBookie("curl -s -w '\\n" + HTTP_STATUS_MARKER + " %{http_code}' "
+                + bookieAdminUrl + UNDER_REPLICATED_LEDGERS_PATH
+                + " | awk '/" + NO_UNDER_REPLICATED_LEDGERS + "/ {none = 1} "
+                + "/^" + HTTP_STATUS_MARKER + " / {status = $2; next} "
+                + "NF {lines++} /[^][0-9, \\t\\r]/ {invalid = 1} {count += gsub(/[0-9]+/, \"\")} "
+                + "END {print (none ? 0 : (status !~ /^2/ ? \"status \" status "
+                + ": (invalid || lines == 0 ? \"invalid\" : count)))}'");
+        try {
+            return Integer.parseInt(s.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Unexpected response listing the under replicated ledgers: " + s);
+        }
+    }
+
+    @SneakyThrows
+    private String execOnFirstBookie(String cmd) {
         final PodResource pod = getBookieInfos().get(0).getPodResource();
-        CompletableFuture<String> urLedgersOut = AutoscalerUtils.execInPod(client, namespace,
+        return AutoscalerUtils.execInPod(client, namespace,
                 pod.get().getMetadata().getName(),
                 BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
-                "curl -s " + bookieAdminUrl + "/api/v1/autorecovery/list_under_replicated_ledger/");
-
-        final String s = urLedgersOut.get(1, TimeUnit.MINUTES);
-        return s.contains("No under replicated ledgers found");
+                cmd).get(1, TimeUnit.MINUTES);
     }
 
-
     private String computeBookieUrl() {
+        return "%s://%s:%s".formatted(
+                BaseResourcesFactory.isTlsEnabledOnBookKeeper(globalSpec) ? "https" : "http",
+                "localhost",
+                getHttpServerPort(currentBookKeeperSetSpec)
+        );
+    }
+
+    static String getHttpServerPort(BookKeeperSetSpec bookKeeperSetSpec) {
         final String configKey = "%s%s".formatted(BaseResourcesFactory.CONFIG_PULSAR_PREFIX, "httpServerPort");
-        final Map<String, Object> config = currentBookKeeperSetSpec.getConfig();
+        final Map<String, Object> config = bookKeeperSetSpec.getConfig();
         final Object port;
         if (config == null || !config.containsKey(configKey)) {
             port = BookKeeperResourcesFactory.DEFAULT_HTTP_PORT;
         } else {
             port = config.getOrDefault(configKey, BookKeeperResourcesFactory.DEFAULT_HTTP_PORT);
         }
-        return "%s://%s:%s".formatted(
-                BaseResourcesFactory.isTlsEnabledOnBookKeeper(globalSpec) ? "https" : "http",
-                "localhost",
-                String.valueOf(port)
-        );
+        return String.valueOf(port);
     }
 
     @Override
@@ -0,0 +1,121 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.broker;
+
+import com.datastax.oss.kaap.autoscaler.AdminHttpClientPool;
+import com.datastax.oss.kaap.controllers.BaseResourcesFactory;
+import com.datastax.oss.kaap.controllers.broker.BrokerResourcesFactory;
+import com.datastax.oss.kaap.crds.GlobalSpec;
+import com.datastax.oss.kaap.crds.broker.BrokerSetSpec;
+import io.fabric8.kubernetes.api.model.Pod;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+// Calls the admin API of a single broker directly from the operator
+public class BrokerAdminHttpClient {
+
+    private final HttpClient httpClient;
+    private final String authHeader;
+    private final String namespace;
+    private final String brokerSet;
+    private final BrokerSetSpec brokerSetSpec;
+    private final GlobalSpec globalSpec;
+
+    public BrokerAdminHttpClient(AdminHttpClientPool httpClientPool,
+                                 String namespace,
+                                 String brokerSet,
+                                 BrokerSetSpec brokerSetSpec,
+                                 GlobalSpec globalSpec) {
+        this.namespace = namespace;
+        this.brokerSet = brokerSet;
+        this.brokerSetSpec = brokerSetSpec;
+        this.globalSpec = globalSpec;
+        this.httpClient = httpClientPool.getBrokerHttpClient(namespace, globalSpec, brokerSet);
+        this.authHeader = BaseResourcesFactory.isAuthTokenEnabled(globalSpec)
+                ? BrokerResourcesFactory.computeAuthHeaderValue(httpClientPool.getSuperUserToken(namespace))
+                : null;
+    }
+
+    public CompletableFuture<String> get(Pod pod, String path, Duration timeout) {
+        return send(pod, path, timeout, "GET");
+    }
+
+    public CompletableFuture<String> put(Pod pod, String path, Duration timeout) {
+        return send(pod, path, timeout, "PUT");
+    }
+
+    private CompletableFuture<String> send(Pod pod, String path, Duration timeout, String method) {
+        final String podName = pod.getMetadata().getName();
+        final HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create(computeBrokerUrl(pod) + path))
+                .timeout(timeout)
+                .method(method, HttpRequest.BodyPublishers.noBody());
+        if (authHeader != null) {
+            request.header("Authorization", authHeader);
+        }
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IllegalStateException("Broker %s returned HTTP %d: %s"
+                                .formatted(podName, response.statusCode(), response.body()));
+                    }
+                    return response.body();
+                });
+    }
+
+    // the broker id used by the load manager, <advertised address>:<web service port>
+    public String computeBrokerId(String podName) {
+        return "%s.%s.%s:%s".formatted(podName, getServiceName(),
+                BaseResourcesFactory.getServiceDnsSuffix(globalSpec, namespace),
+                LoadReportResourceUsageSource.getWebServicePort(brokerSetSpec));
+    }
+
+    private String computeBrokerUrl(Pod pod) {
+        if (BaseResourcesFactory.isTlsEnabledOnBrokerSet(globalSpec, brokerSet)) {
+            // the broker certificate is issued for the service hostnames, the pod ip wouldn't pass the
+            // hostname verification. The pod hostname resolves to the pod ip through the headless service
+            return "https://%s.%s.%s:%s".formatted(pod.getMetadata().getName(), getServiceName(),
+                    BaseResourcesFactory.getServiceDnsSuffix(globalSpec, namespace),
+                    getWebServicePortTls());
+        }
+        final String podIP = pod.getStatus() == null ? null : pod.getStatus().getPodIP();
+        if (podIP == null) {
+            throw new IllegalStateException("Broker %s has no pod ip assigned".formatted(pod.getMetadata().getName()));
+        }
+        return "http://%s:%s".formatted(podIP, LoadReportResourceUsageSource.getWebServicePort(brokerSetSpec));
+    }
+
+    private String getServiceName() {
+        return BrokerResourcesFactory.getResourceName(globalSpec.getName(),
+                globalSpec.getComponents().getBrokerBaseName(), brokerSet,
+                brokerSetSpec.getOverrideResourceName());
+    }
+
+    private String getWebServicePortTls() {
+        Object webServicePortTls =
+                brokerSetSpec.getConfig() != null
+                        ? brokerSetSpec.getConfig().get("webServicePortTls")
+                        : null;
+        if (webServicePortTls == null) {
+            webServicePortTls = BrokerResourcesFactory.DEFAULT_HTTPS_PORT;
+        }
+        return String.valueOf(webServicePortTls);
+    }
+}
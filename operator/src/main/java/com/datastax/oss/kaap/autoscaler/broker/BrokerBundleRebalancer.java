@@ -0,0 +1,165 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.broker;
+
+import com.datastax.oss.kaap.common.SerializationUtil;
+import io.fabric8.kubernetes.api.model.Pod;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.jbosslog.JBossLog;
+
+// Moves the busiest bundles away from the hottest brokers by unloading them, the load manager then assigns
+// them to the least loaded brokers
+@JBossLog
+public class BrokerBundleRebalancer {
+
+    private static final String SYSTEM_TENANT_PREFIX = "pulsar/";
+
+    @Data
+    @AllArgsConstructor
+    static class BundleLoad {
+        String bundle;
+        double throughput;
+        double msgRate;
+    }
+
+    private final BrokerAdminHttpClient adminClient;
+    private final Duration requestTimeout;
+
+    public BrokerBundleRebalancer(BrokerAdminHttpClient adminClient, Duration requestTimeout) {
+        this.adminClient = adminClient;
+        this.requestTimeout = requestTimeout;
+    }
+
+    public static double computeCpuCoefficientOfVariation(List<BrokerResourceUsageSource.ResourceUsage> usages) {
+        if (usages.size() < 2) {
+            return 0;
+        }
+        double sum = 0;
+        for (BrokerResourceUsageSource.ResourceUsage usage : usages) {
+            sum += usage.getPercentCpu();
+        }
+        final double mean = sum / usages.size();
+        if (mean <= 0) {
+            return 0;
+        }
+        double variance = 0;
+        for (BrokerResourceUsageSource.ResourceUsage usage : usages) {
+            variance += Math.pow(usage.getPercentCpu() - mean, 2);
+        }
+        return Math.sqrt(variance / usages.size()) / mean;
+    }
+
+    // returns the unloaded bundles
+    public List<String> unloadHottestBundles(List<Pod> hotBrokers, int maxUnloads) {
+        List<String> unloaded = new ArrayList<>();
+        for (Pod broker : hotBrokers) {
+            if (unloaded.size() >= maxUnloads) {
+                break;
+            }
+            final String podName = broker.getMetadata().getName();
+            final List<BundleLoad> bundles;
+            try {
+                bundles = parseBundleLoads(adminClient.get(broker, HttpLoadReportResourceUsageSource.LOAD_REPORT_PATH,
+                        requestTimeout).get());
+            } catch (Throwable e) {
+                log.warnf(e, "Failed to get the bundles of broker %s", podName);
+                continue;
+            }
+            // moving the only bundle would just move the hotspot
+            for (int i = 0; i < bundles.size() - 1 && unloaded.size() < maxUnloads; i++) {
+                final String bundle = bundles.get(i).getBundle();
+                try {
+                    adminClient.put(broker, computeUnloadPath(bundle), requestTimeout).get();
+                    log.infof("Unloaded bundle %s from broker %s", bundle, podName);
+                    unloaded.add(bundle);
+                } catch (Throwable e) {
+                    log.warnf(e, "Failed to unload bundle %s from broker %s", bundle, podName);
+                }
+            }
+        }
+        return unloaded;
+    }
+
+    static List<BundleLoad> parseBundleLoads(String loadReport) {
+        final Map<String, Object> json = SerializationUtil.readJson(loadReport, Map.class);
+        // 'lastStats' is reported by the modular load manager, 'bundleStats' by the simple one
+        Object stats = json.get("lastStats");
+        if (!(stats instanceof Map)) {
+            stats = json.get("bundleStats");
+        }
+        List<BundleLoad> result = new ArrayList<>();
+        if (!(stats instanceof Map)) {
+            return result;
+        }
+        for (Map.Entry<String, Object> entry : ((Map<String, Object>) stats).entrySet()) {
+            // system and heartbeat namespaces are owned by the broker itself
+            if (entry.getKey().startsWith(SYSTEM_TENANT_PREFIX) || !(entry.getValue() instanceof Map)) {
+                continue;
+            }
+            final Map<String, Object> bundleStats = (Map<String, Object>) entry.getValue();
+            result.add(new BundleLoad(entry.getKey(),
+                    getDouble(bundleStats, "msgThroughputIn") + getDouble(bundleStats, "msgThroughputOut"),
+                    getDouble(bundleStats, "msgRateIn") + getDouble(bundleStats, "msgRateOut")));
+        }
+        result.sort(Comparator.comparingDouble(BundleLoad::getThroughput)
+                .thenComparingDouble(BundleLoad::getMsgRate)
+                .reversed());
+        return result;
+    }
+
+    // all the bundles owned by the broker, except the system ones
+    static List<String> parseOwnedBundles(String loadReport) {
+        final Map<String, Object> json = SerializationUtil.readJson(loadReport, Map.class);
+        final Object bundles = json.get("bundles");
+        if (!(bundles instanceof Collection)) {
+            return parseBundleLoads(loadReport).stream().map(BundleLoad::getBundle).toList();
+        }
+        return ((Collection<Object>) bundles).stream()
+                .map(String::valueOf)
+                .filter(bundle -> !bundle.startsWith(SYSTEM_TENANT_PREFIX))
+                .toList();
+    }
+
+    static String computeUnloadPath(String bundle) {
+        return computeUnloadPath(bundle, null);
+    }
+
+    static String computeUnloadPath(String bundle, String destinationBroker) {
+        // <tenant>/<namespace>/<range>
+        final int rangeIndex = bundle.lastIndexOf('/');
+        final String path = "/admin/v2/namespaces/%s/%s/unload".formatted(bundle.substring(0, rangeIndex),
+                bundle.substring(rangeIndex + 1));
+        if (destinationBroker == null) {
+            return path;
+        }
+        // honored since Pulsar 3.0, ignored by older brokers
+        return path + "?destinationBroker=" + URLEncoder.encode(destinationBroker, StandardCharsets.UTF_8);
+    }
+
+    private static double getDouble(Map<String, Object> json, String key) {
+        final Object value = json.get(key);
+        return value instanceof Number number ? number.doubleValue() : 0;
+    }
+}
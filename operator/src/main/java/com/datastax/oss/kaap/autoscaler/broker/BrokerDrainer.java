@@ -0,0 +1,76 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.broker;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.jbosslog.JBossLog;
+
+// Moves the bundles away from the brokers that are going to be removed
+@JBossLog
+public class BrokerDrainer {
+
+    private final BrokerAdminHttpClient adminClient;
+    private final Duration requestTimeout;
+
+    public BrokerDrainer(BrokerAdminHttpClient adminClient, Duration requestTimeout) {
+        this.adminClient = adminClient;
+        this.requestTimeout = requestTimeout;
+    }
+
+    // returns the bundles owned by each draining broker before this step, null if unknown
+    public Map<String, Integer> drainStep(List<String> drainingBrokers, Map<String, Pod> pods,
+                                          List<String> destinationBrokers, int batchSize) {
+        Map<String, Integer> remaining = new LinkedHashMap<>();
+        int destinationIndex = 0;
+        for (String podName : drainingBrokers) {
+            final Pod pod = pods.get(podName);
+            if (pod == null) {
+                // already gone
+                remaining.put(podName, 0);
+                continue;
+            }
+            final List<String> bundles;
+            try {
+                bundles = BrokerBundleRebalancer.parseOwnedBundles(adminClient.get(pod,
+                        HttpLoadReportResourceUsageSource.LOAD_REPORT_PATH, requestTimeout).get());
+            } catch (Throwable e) {
+                log.warnf(e, "Failed to get the bundles of draining broker %s", podName);
+                remaining.put(podName, null);
+                continue;
+            }
+            remaining.put(podName, bundles.size());
+            for (int i = 0; i < bundles.size() && i < batchSize; i++) {
+                final String bundle = bundles.get(i);
+                // without a destination the load manager could assign the bundle back to a draining broker
+                final String destination = destinationBrokers.isEmpty() ? null
+                        : adminClient.computeBrokerId(
+                                destinationBrokers.get(destinationIndex++ % destinationBrokers.size()));
+                try {
+                    adminClient.put(pod, BrokerBundleRebalancer.computeUnloadPath(bundle, destination),
+                            requestTimeout).get();
+                } catch (Throwable e) {
+                    log.warnf(e, "Failed to unload bundle %s from draining broker %s", bundle, podName);
+                }
+            }
+            log.infof("Draining broker %s, %d bundles left before this step", podName, bundles.size());
+        }
+        return remaining;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.broker;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Learns the daily pattern of the broker set load: for each time of the day bucket, the peak of the total cpu usage
+// observed in each of the last days
+public class BrokerLoadPredictor {
+
+    public static final long BUCKET_MS = TimeUnit.MINUTES.toMillis(15);
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+    private static final int BUCKETS_PER_DAY = (int) (DAY_MS / BUCKET_MS);
+
+    private int days;
+    // day slot -> bucket -> peak total usage, NaN if not observed
+    private float[][] peaks;
+    // day slot -> epoch day currently stored in the slot
+    private long[] slotDays;
+
+    public synchronized void record(long timestampMs, float totalUsage, int historyDays) {
+        ensureCapacity(historyDays);
+        final long epochDay = Math.floorDiv(timestampMs, DAY_MS);
+        final int slot = (int) Math.floorMod(epochDay, (long) days);
+        if (slotDays[slot] != epochDay) {
+            // a new day, forget the oldest one
+            Arrays.fill(peaks[slot], Float.NaN);
+            slotDays[slot] = epochDay;
+        }
+        final int bucket = getBucket(timestampMs);
+        final float current = peaks[slot][bucket];
+        if (Float.isNaN(current) || totalUsage > current) {
+            peaks[slot][bucket] = totalUsage;
+        }
+    }
+
+    // the peak usage observed at the same time of the day in the previous days, null if never observed
+    public synchronized Float predict(long timestampMs) {
+        if (peaks == null) {
+            return null;
+        }
+        final long epochDay = Math.floorDiv(timestampMs, DAY_MS);
+        final int bucket = getBucket(timestampMs);
+        Float result = null;
+        for (int slot = 0; slot < days; slot++) {
+            final long slotDay = slotDays[slot];
+            if (slotDay >= epochDay || slotDay < epochDay - (days - 1)) {
+                continue;
+            }
+            final float peak = peaks[slot][bucket];
+            if (!Float.isNaN(peak) && (result == null || peak > result)) {
+                result = peak;
+            }
+        }
+        return result;
+    }
+
+    private void ensureCapacity(int historyDays) {
+        // one more slot for the current day
+        final int requiredDays = historyDays + 1;
+        if (peaks != null && days == requiredDays) {
+            return;
+        }
+        days = requiredDays;
+        peaks = new float[days][BUCKETS_PER_DAY];
+        slotDays = new long[days];
+        for (float[] dayPeaks : peaks) {
+            Arrays.fill(dayPeaks, Float.NaN);
+        }
+        Arrays.fill(slotDays, Long.MIN_VALUE);
+    }
+
+    private static int getBucket(long timestampMs) {
+        return (int) (Math.floorMod(timestampMs, DAY_MS) / BUCKET_MS);
+    }
+}
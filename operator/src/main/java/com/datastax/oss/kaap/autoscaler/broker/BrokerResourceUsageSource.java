@@ -16,6 +16,9 @@
 package com.datastax.oss.kaap.autoscaler.broker;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -26,8 +29,63 @@ public interface BrokerResourceUsageSource {
     class ResourceUsage {
         String pod;
         float percentCpu;
+        // null when not exposed by the source
+        Float percentMemory;
+        Float percentDirectMemory;
+        Float percentBandwidthIn;
+        Float percentBandwidthOut;
+        // messages in + out per second
+        Float msgRate;
+
+        public ResourceUsage(String pod, float percentCpu) {
+            this(pod, percentCpu, null, null, null, null, null);
+        }
+    }
+
+    enum UsageDimension {
+        CPU("cpu", ResourceUsage::getPercentCpu, (usage, value) -> usage.setPercentCpu(value)),
+        MEMORY("memory", ResourceUsage::getPercentMemory, ResourceUsage::setPercentMemory),
+        DIRECT_MEMORY("directMemory", ResourceUsage::getPercentDirectMemory, ResourceUsage::setPercentDirectMemory),
+        BANDWIDTH_IN("bandwidthIn", ResourceUsage::getPercentBandwidthIn, ResourceUsage::setPercentBandwidthIn),
+        BANDWIDTH_OUT("bandwidthOut", ResourceUsage::getPercentBandwidthOut, ResourceUsage::setPercentBandwidthOut),
+        MSG_RATE("msgRate", ResourceUsage::getMsgRate, ResourceUsage::setMsgRate);
+
+        private final String label;
+        private final Function<ResourceUsage, Float> getter;
+        private final BiConsumer<ResourceUsage, Float> setter;
+
+        UsageDimension(String label, Function<ResourceUsage, Float> getter,
+                       BiConsumer<ResourceUsage, Float> setter) {
+            this.label = label;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public Float get(ResourceUsage usage) {
+            return getter.apply(usage);
+        }
+
+        public void set(ResourceUsage usage, float value) {
+            setter.accept(usage, value);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    class ResourceUsages {
+        List<ResourceUsage> usages;
+        // pod name -> reason why the usage is not available (timeout, error)
+        Map<String, String> unavailablePods;
+
+        public boolean isPartial() {
+            return !unavailablePods.isEmpty();
+        }
     }
 
-    List<ResourceUsage> getBrokersResourceUsages();
+    ResourceUsages getBrokersResourceUsages();
 
 }
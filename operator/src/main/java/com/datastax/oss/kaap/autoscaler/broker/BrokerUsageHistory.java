@@ -0,0 +1,134 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.broker;
+
+import com.datastax.oss.kaap.crds.broker.BrokerAutoscalerSpec;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public class BrokerUsageHistory {
+
+    static class SampleRing {
+        private final float[] samples;
+        private final float[] sorted;
+        private int next;
+        private int size;
+
+        SampleRing(int capacity) {
+            this.samples = new float[capacity];
+            this.sorted = new float[capacity];
+        }
+
+        void add(float value) {
+            samples[next] = value;
+            next = (next + 1) % samples.length;
+            if (size < samples.length) {
+                size++;
+            }
+        }
+
+        int capacity() {
+            return samples.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        float last() {
+            return samples[(next - 1 + samples.length) % samples.length];
+        }
+
+        float max() {
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, samples[i]);
+            }
+            return max;
+        }
+
+        float ewma(double alpha) {
+            // from the oldest to the newest sample
+            final int oldest = (next - size + samples.length) % samples.length;
+            double value = samples[oldest];
+            for (int i = 1; i < size; i++) {
+                value = alpha * samples[(oldest + i) % samples.length] + (1 - alpha) * value;
+            }
+            return (float) value;
+        }
+
+        float percentile(double percentile) {
+            System.arraycopy(samples, 0, sorted, 0, size);
+            Arrays.sort(sorted, 0, size);
+            final int index = (int) Math.ceil(percentile * size) - 1;
+            return sorted[Math.max(0, Math.min(size - 1, index))];
+        }
+    }
+
+    // broker pod -> dimension -> samples, not thread safe since each broker set is handled by a single task
+    private final Map<String, Map<String, SampleRing>> rings = new HashMap<>();
+
+    public void record(String pod, String dimension, float value, int windowSize) {
+        final Map<String, SampleRing> podRings = rings.computeIfAbsent(pod, k -> new HashMap<>());
+        SampleRing ring = podRings.get(dimension);
+        if (ring == null || ring.capacity() != windowSize) {
+            ring = new SampleRing(windowSize);
+            podRings.put(dimension, ring);
+        }
+        ring.add(value);
+    }
+
+    public float aggregate(String pod, String dimension, String aggregation, double ewmaAlpha) {
+        final SampleRing ring = getRing(pod, dimension);
+        if (ring == null || ring.size() == 0) {
+            throw new IllegalStateException("No %s samples recorded for %s".formatted(dimension, pod));
+        }
+        switch (aggregation) {
+            case BrokerAutoscalerSpec.METRICS_AGGREGATION_LAST:
+                return ring.last();
+            case BrokerAutoscalerSpec.METRICS_AGGREGATION_EWMA:
+                return ring.ewma(ewmaAlpha);
+            case BrokerAutoscalerSpec.METRICS_AGGREGATION_P50:
+                return ring.percentile(0.5d);
+            case BrokerAutoscalerSpec.METRICS_AGGREGATION_P90:
+                return ring.percentile(0.9d);
+            case BrokerAutoscalerSpec.METRICS_AGGREGATION_MAX:
+                return ring.max();
+            default:
+                throw new IllegalArgumentException("Unknown metrics aggregation: " + aggregation);
+        }
+    }
+
+    public int getSamplesCount(String pod, String dimension) {
+        final SampleRing ring = getRing(pod, dimension);
+        return ring == null ? 0 : ring.size();
+    }
+
+    private SampleRing getRing(String pod, String dimension) {
+        final Map<String, SampleRing> podRings = rings.get(pod);
+        return podRings == null ? null : podRings.get(dimension);
+    }
+
+    public void retainOnly(Collection<String> pods) {
+        rings.keySet().retainAll(pods);
+    }
+
+    public void clear() {
+        rings.clear();
+    }
+}
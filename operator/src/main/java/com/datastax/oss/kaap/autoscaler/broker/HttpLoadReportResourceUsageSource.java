@@ -0,0 +1,82 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.broker;
+
+import com.datastax.oss.kaap.autoscaler.AdminHttpClientPool;
+import com.datastax.oss.kaap.autoscaler.BoundedCollector;
+import com.datastax.oss.kaap.autoscaler.PodIndex;
+import com.datastax.oss.kaap.crds.GlobalSpec;
+import com.datastax.oss.kaap.crds.broker.BrokerAutoscalerSpec;
+import com.datastax.oss.kaap.crds.broker.BrokerSetSpec;
+import io.fabric8.kubernetes.api.model.Pod;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.SneakyThrows;
+import lombok.extern.jbosslog.JBossLog;
+
+@JBossLog
+public class HttpLoadReportResourceUsageSource implements BrokerResourceUsageSource {
+
+    public static final String LOAD_REPORT_PATH = "/admin/v2/broker-stats/load-report/";
+
+    private final AdminHttpClientPool httpClientPool;
+    private final String namespace;
+    private final PodIndex podIndex;
+    private final String brokerSet;
+    private final BrokerSetSpec brokerSetSpec;
+    private final GlobalSpec globalSpec;
+
+    public HttpLoadReportResourceUsageSource(AdminHttpClientPool httpClientPool,
+                                             PodIndex podIndex,
+                                             String brokerSet,
+                                             BrokerSetSpec brokerSetSpec,
+                                             GlobalSpec globalSpec) {
+        this.httpClientPool = httpClientPool;
+        this.namespace = podIndex.getNamespace();
+        this.podIndex = podIndex;
+        this.brokerSet = brokerSet;
+        this.brokerSetSpec = brokerSetSpec;
+        this.globalSpec = globalSpec;
+    }
+
+    @Override
+    @SneakyThrows
+    public ResourceUsages getBrokersResourceUsages() {
+        final Map<String, Pod> pods = podIndex.getPodsByName();
+        final BrokerAdminHttpClient adminClient =
+                new BrokerAdminHttpClient(httpClientPool, namespace, brokerSet, brokerSetSpec, globalSpec);
+
+        final BrokerAutoscalerSpec autoscalerSpec = brokerSetSpec.getAutoscaler();
+        final Duration requestTimeout = Duration.ofMillis(autoscalerSpec.getResourcesUsageRequestTimeoutMs());
+        final BoundedCollector.Result<String, ResourceUsage> collected = BoundedCollector.collect(
+                new ArrayList<>(pods.keySet()),
+                podName -> adminClient.get(pods.get(podName), LOAD_REPORT_PATH, requestTimeout)
+                        .thenApply(body -> LoadReportResourceUsageSource.parseResourceUsage(podName, body)),
+                autoscalerSpec.getResourcesUsageMaxConcurrency(),
+                autoscalerSpec.getResourcesUsageRequestTimeoutMs(),
+                autoscalerSpec.getResourcesUsageCollectionTimeoutMs());
+
+        Map<String, String> unavailablePods = new LinkedHashMap<>();
+        collected.getTimedOut().forEach(podName -> unavailablePods.put(podName, "timeout"));
+        collected.getFailed().forEach((podName, error) -> {
+            log.warnf(error, "Failed to get load report from broker %s", podName);
+            unavailablePods.put(podName, String.valueOf(error.getMessage()));
+        });
+        return new ResourceUsages(new ArrayList<>(collected.getCompleted().values()), unavailablePods);
+    }
+}
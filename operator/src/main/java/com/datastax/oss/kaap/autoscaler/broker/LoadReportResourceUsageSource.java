@@ -16,18 +16,21 @@
 package com.datastax.oss.kaap.autoscaler.broker;
 
 import com.datastax.oss.kaap.autoscaler.AutoscalerUtils;
+import com.datastax.oss.kaap.autoscaler.BoundedCollector;
+import com.datastax.oss.kaap.autoscaler.PodIndex;
 import com.datastax.oss.kaap.common.SerializationUtil;
 import com.datastax.oss.kaap.controllers.broker.BrokerResourcesFactory;
 import com.datastax.oss.kaap.crds.GlobalSpec;
+import com.datastax.oss.kaap.crds.broker.BrokerAutoscalerSpec;
 import com.datastax.oss.kaap.crds.broker.BrokerSetSpec;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
@@ -39,19 +42,19 @@ public class LoadReportResourceUsageSource implements BrokerResourceUsageSource
 
     private final KubernetesClient client;
     private final String namespace;
-    private final Map<String, String> podSelector;
+    private final PodIndex podIndex;
     private final String brokerSet;
     private final BrokerSetSpec brokerSetSpec;
     private final GlobalSpec globalSpec;
 
-    public LoadReportResourceUsageSource(KubernetesClient client, String namespace,
-                                         Map<String, String> podSelector,
+    public LoadReportResourceUsageSource(KubernetesClient client,
+                                         PodIndex podIndex,
                                          String brokerSet,
                                          BrokerSetSpec brokerSetSpec,
                                          GlobalSpec globalSpec) {
         this.client = client;
-        this.namespace = namespace;
-        this.podSelector = podSelector;
+        this.namespace = podIndex.getNamespace();
+        this.podIndex = podIndex;
         this.brokerSet = brokerSet;
         this.brokerSetSpec = brokerSetSpec;
         this.globalSpec = globalSpec;
@@ -59,16 +62,10 @@ public class LoadReportResourceUsageSource implements BrokerResourceUsageSource
 
     @Override
     @SneakyThrows
-    public List<ResourceUsage> getBrokersResourceUsages() {
-        final List<Pod> pods = client.pods()
-                .inNamespace(namespace)
-                .withLabels(podSelector)
-                .list()
-                .getItems();
+    public ResourceUsages getBrokersResourceUsages() {
+        final List<Pod> pods = podIndex.getPods();
 
-
-        List<ResourceUsage> result = new ArrayList<>();
-        String webServicePort = getWebServicePort();
+        String webServicePort = getWebServicePort(brokerSetSpec);
         final String brokerUrl =
                 "http://localhost:%s/admin/v2/broker-stats/load-report/".formatted(String.valueOf(webServicePort));
         final String curlAuthHeader = BrokerResourcesFactory.computeCurlAuthHeader(globalSpec);
@@ -79,33 +76,74 @@ public class LoadReportResourceUsageSource implements BrokerResourceUsageSource
                 BrokerResourcesFactory.getMainContainerName(BrokerResourcesFactory.getResourceName(globalSpec.getName(),
                         globalSpec.getComponents().getBrokerBaseName(), brokerSet,
                         brokerSetSpec.getOverrideResourceName()));
-        for (Pod pod : pods) {
-            final String podName = pod.getMetadata().getName();
-
-            final String jsonOut = AutoscalerUtils.execInPod(client, namespace, podName, containerName, curlCommand)
-                    .get(30, TimeUnit.SECONDS);
 
-            final Map<String, Object> json = SerializationUtil.readJson(jsonOut, Map.class);
-            if (!json.containsKey("cpu")) {
-                throw new IllegalStateException(
-                        "Broker %s didn't exposed valid report usage, expected 'cpu', found: %s".formatted(podName,
-                                jsonOut));
-            }
-            final LoadReportResourceUsage loadReportResourceUsage =
-                    SerializationUtil.convertValue(json.get("cpu"), LoadReportResourceUsage.class);
-            final float percentUsage = loadReportResourceUsage.percentUsage();
+        final List<String> podNames = pods.stream().map(pod -> pod.getMetadata().getName()).toList();
+        final BrokerAutoscalerSpec autoscalerSpec = brokerSetSpec.getAutoscaler();
+        final BoundedCollector.Result<String, ResourceUsage> collected = BoundedCollector.collect(podNames,
+                podName -> AutoscalerUtils.execInPod(client, namespace, podName, containerName,
+                                autoscalerSpec.getResourcesUsageRequestTimeoutMs(), curlCommand)
+                        .thenApply(jsonOut -> parseResourceUsage(podName, jsonOut)),
+                autoscalerSpec.getResourcesUsageMaxConcurrency(),
+                autoscalerSpec.getResourcesUsageRequestTimeoutMs(),
+                autoscalerSpec.getResourcesUsageCollectionTimeoutMs());
+
+        Map<String, String> unavailablePods = new LinkedHashMap<>();
+        collected.getTimedOut().forEach(podName -> unavailablePods.put(podName, "timeout"));
+        collected.getFailed().forEach((podName, error) -> {
+            log.warnf(error, "Failed to get load report from broker %s", podName);
+            unavailablePods.put(podName, String.valueOf(error.getMessage()));
+        });
+        return new ResourceUsages(new ArrayList<>(collected.getCompleted().values()), unavailablePods);
+    }
 
-            final float rounded = new BigDecimal(percentUsage).setScale(2, RoundingMode.HALF_UP)
-                    .floatValue();
+    static ResourceUsage parseResourceUsage(String podName, String jsonOut) {
+        final Map<String, Object> json = SerializationUtil.readJson(jsonOut, Map.class);
+        if (!json.containsKey("cpu")) {
+            throw new IllegalStateException(
+                    "Broker %s didn't exposed valid report usage, expected 'cpu', found: %s".formatted(podName,
+                            jsonOut));
+        }
+        final Float cpu = getPercentUsage(json, "cpu");
+        final ResourceUsage resourceUsage = new ResourceUsage(podName, cpu == null ? 0 : cpu,
+                getPercentUsage(json, "memory"),
+                getPercentUsage(json, "directMemory"),
+                getPercentUsage(json, "bandwidthIn"),
+                getPercentUsage(json, "bandwidthOut"),
+                getMsgRate(json));
+        log.infof("Broker %s usage: %s", podName, resourceUsage);
+        return resourceUsage;
+    }
 
+    private static Float getPercentUsage(Map<String, Object> json, String key) {
+        final Object entry = json.get(key);
+        if (entry == null) {
+            return null;
+        }
+        final LoadReportResourceUsage usage = SerializationUtil.convertValue(entry, LoadReportResourceUsage.class);
+        // bandwidth limit is not set if the broker can't detect the nic speed
+        if (usage.getLimit() <= 0) {
+            return null;
+        }
+        return new BigDecimal(usage.percentUsage()).setScale(2, RoundingMode.HALF_UP).floatValue();
+    }
 
-            log.infof("Broker %s cpu usage: %f %%", podName, rounded * 100, null);
-            result.add(new ResourceUsage(podName, rounded));
+    private static Float getMsgRate(Map<String, Object> json) {
+        final Object msgRateIn = json.get("msgRateIn");
+        final Object msgRateOut = json.get("msgRateOut");
+        if (!(msgRateIn instanceof Number) && !(msgRateOut instanceof Number)) {
+            return null;
+        }
+        float msgRate = 0;
+        if (msgRateIn instanceof Number in) {
+            msgRate += in.floatValue();
+        }
+        if (msgRateOut instanceof Number out) {
+            msgRate += out.floatValue();
         }
-        return result;
+        return msgRate;
     }
 
-    private String getWebServicePort() {
+    static String getWebServicePort(BrokerSetSpec brokerSetSpec) {
         Object webServicePort =
                 brokerSetSpec.getConfig() != null
                         ? brokerSetSpec.getConfig().get("webServicePort")
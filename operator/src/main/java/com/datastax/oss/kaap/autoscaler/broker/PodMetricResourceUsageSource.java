@@ -15,13 +15,19 @@
  */
 package com.datastax.oss.kaap.autoscaler.broker;
 
+import com.datastax.oss.kaap.autoscaler.PodIndex;
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.api.model.metrics.v1beta1.ContainerMetrics;
 import io.fabric8.kubernetes.api.model.metrics.v1beta1.PodMetrics;
 import io.fabric8.kubernetes.api.model.metrics.v1beta1.PodMetricsList;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.extern.jbosslog.JBossLog;
@@ -30,62 +36,53 @@ import lombok.extern.jbosslog.JBossLog;
 public class PodMetricResourceUsageSource implements BrokerResourceUsageSource {
 
     private final KubernetesClient client;
-    private final String namespace;
-    private final Map<String, String> podSelector;
+    private final PodIndex podIndex;
 
-    public PodMetricResourceUsageSource(KubernetesClient client, String namespace,
-                                        Map<String, String> podSelector) {
+    public PodMetricResourceUsageSource(KubernetesClient client, PodIndex podIndex) {
         this.client = client;
-        this.namespace = namespace;
-        this.podSelector = podSelector;
+        this.podIndex = podIndex;
     }
 
     @Override
-    public List<ResourceUsage> getBrokersResourceUsages() {
+    public ResourceUsages getBrokersResourceUsages() {
         final PodMetricsList metrics =
                 client.top()
                         .pods()
-                        .withLabels(podSelector)
-                        .inNamespace(namespace)
+                        .withLabels(podIndex.getPodSelector())
+                        .inNamespace(podIndex.getNamespace())
                         .metrics();
 
         log.infof("Got %d broker pod metrics", metrics.getItems().size());
 
-
-        List<ResourceUsage> result = new ArrayList<>();
-
-
+        Map<String, PodMetrics> metricsByPod = new HashMap<>();
         for (PodMetrics item : metrics.getItems()) {
-            final String podName = item.getMetadata().getName();
-
-            float cpuUsage;
-            float requestedCpu;
+            metricsByPod.put(item.getMetadata().getName(), item);
+        }
 
-            Quantity cpuUsageQuantity = item.getContainers().get(0)
-                    .getUsage().get("cpu");
+        List<ResourceUsage> result = new ArrayList<>();
+        Map<String, String> unavailablePods = new LinkedHashMap<>();
+
+        for (Pod pod : podIndex.getPods()) {
+            final String podName = pod.getMetadata().getName();
+            final PodMetrics podMetrics = metricsByPod.get(podName);
+            if (podMetrics == null) {
+                log.warnf("Broker pod %s metrics not available", podName);
+                unavailablePods.put(podName, "metrics not available");
+                continue;
+            }
 
-            if (cpuUsageQuantity == null) {
+            // the usage of the sidecars counts as well, like the HPA does
+            final Float cpuUsage = sumUsage(podMetrics, "cpu");
+            if (cpuUsage == null) {
                 log.warnf("Broker pod %s didn't exposed CPU usage", podName);
+                unavailablePods.put(podName, "cpu usage not exposed");
                 continue;
-            } else {
-                cpuUsage = quantityToBytes(cpuUsageQuantity);
             }
-
-            final Quantity requestedCpuQuantity = client.pods()
-                    .inNamespace(namespace)
-                    .withName(podName)
-                    .get().getSpec()
-                    .getContainers()
-                    .get(0)
-                    .getResources()
-                    .getRequests()
-                    .get("cpu");
-            if (requestedCpuQuantity == null) {
+            final Float requestedCpu = sumRequests(pod, "cpu");
+            if (requestedCpu == null || requestedCpu <= 0) {
                 log.warnf("Broker pod %s CPU requests not set", podName);
+                unavailablePods.put(podName, "cpu requests not set");
                 continue;
-            } else {
-                requestedCpu = quantityToBytes(requestedCpuQuantity);
-
             }
             float percentage = cpuUsage / requestedCpu;
 
@@ -95,9 +92,45 @@ public class PodMetricResourceUsageSource implements BrokerResourceUsageSource {
                     new BigDecimal(requestedCpu).setScale(2, RoundingMode.HALF_EVEN),
                     new BigDecimal(percentage).setScale(2, RoundingMode.HALF_EVEN));
 
-            result.add(new ResourceUsage(podName, percentage));
+            final ResourceUsage usage = new ResourceUsage(podName, percentage);
+            final Float memoryUsage = sumUsage(podMetrics, "memory");
+            final Float requestedMemory = sumRequests(pod, "memory");
+            if (memoryUsage != null && requestedMemory != null && requestedMemory > 0) {
+                usage.setPercentMemory(memoryUsage / requestedMemory);
+            }
+            result.add(usage);
+        }
+        return new ResourceUsages(result, unavailablePods);
+    }
+
+    private static Float sumUsage(PodMetrics podMetrics, String resource) {
+        if (podMetrics.getContainers() == null || podMetrics.getContainers().isEmpty()) {
+            return null;
+        }
+        float sum = 0;
+        for (ContainerMetrics container : podMetrics.getContainers()) {
+            final Quantity quantity = container.getUsage() == null ? null : container.getUsage().get(resource);
+            if (quantity == null) {
+                return null;
+            }
+            sum += quantityToBytes(quantity);
         }
-        return result;
+        return sum;
+    }
+
+    private static Float sumRequests(Pod pod, String resource) {
+        // if any container misses the request, the pod utilization can't be computed
+        float sum = 0;
+        for (Container container : pod.getSpec().getContainers()) {
+            final Quantity quantity = container.getResources() == null
+                    || container.getResources().getRequests() == null
+                    ? null : container.getResources().getRequests().get(resource);
+            if (quantity == null) {
+                return null;
+            }
+            sum += quantityToBytes(quantity);
+        }
+        return sum;
     }
 
     private static float quantityToBytes(Quantity quantity) {
@@ -106,4 +139,3 @@ public class PodMetricResourceUsageSource implements BrokerResourceUsageSource {
                 .floatValue();
     }
 }
-
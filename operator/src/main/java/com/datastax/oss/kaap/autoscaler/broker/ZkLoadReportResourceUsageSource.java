@@ -0,0 +1,134 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.broker;
+
+import com.datastax.oss.kaap.autoscaler.PodIndex;
+import io.fabric8.kubernetes.api.model.Pod;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.SneakyThrows;
+import lombok.extern.jbosslog.JBossLog;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
+
+@JBossLog
+public class ZkLoadReportResourceUsageSource implements BrokerResourceUsageSource {
+
+    public static final String LOAD_REPORTS_PATH = "/loadbalance/brokers";
+
+    private final CuratorFramework zkClient;
+    private final PodIndex podIndex;
+
+    public ZkLoadReportResourceUsageSource(CuratorFramework zkClient,
+                                           PodIndex podIndex) {
+        this.zkClient = zkClient;
+        this.podIndex = podIndex;
+    }
+
+    @Override
+    @SneakyThrows
+    public ResourceUsages getBrokersResourceUsages() {
+        final List<Pod> pods = podIndex.getPods();
+
+        Map<String, String> unavailablePods = new LinkedHashMap<>();
+        if (zkClient == null) {
+            pods.forEach(pod -> unavailablePods.put(pod.getMetadata().getName(), "zookeeper client not available"));
+            return new ResourceUsages(new ArrayList<>(), unavailablePods);
+        }
+
+        // the load reports of all the brokers of the cluster are there, not only the ones in this broker set
+        final Map<String, String> loadReports = readLoadReports();
+        final Map<String, String> podsByAddress = new HashMap<>();
+        for (String brokerAddress : loadReports.keySet()) {
+            final String pod = getPodForBrokerAddress(brokerAddress, pods);
+            if (pod != null) {
+                podsByAddress.put(pod, brokerAddress);
+            }
+        }
+
+        List<ResourceUsage> usages = new ArrayList<>();
+        for (Pod pod : pods) {
+            final String podName = pod.getMetadata().getName();
+            final String brokerAddress = podsByAddress.get(podName);
+            if (brokerAddress == null) {
+                unavailablePods.put(podName, "no load report found");
+                continue;
+            }
+            try {
+                usages.add(LoadReportResourceUsageSource.parseResourceUsage(podName, loadReports.get(brokerAddress)));
+            } catch (Throwable e) {
+                log.warnf(e, "Failed to parse load report for broker %s", podName);
+                unavailablePods.put(podName, String.valueOf(e.getMessage()));
+            }
+        }
+        return new ResourceUsages(usages, unavailablePods);
+    }
+
+    private Map<String, String> readLoadReports() throws Exception {
+        final List<String> brokers = zkClient.getChildren().forPath(LOAD_REPORTS_PATH);
+        Map<String, String> result = new HashMap<>();
+        if (brokers.isEmpty()) {
+            return result;
+        }
+        final List<Op> ops = brokers.stream()
+                .map(broker -> Op.getData(LOAD_REPORTS_PATH + "/" + broker))
+                .toList();
+        final List<OpResult> opResults;
+        try {
+            opResults = zkClient.getZookeeperClient().getZooKeeper().multi(ops);
+        } catch (KeeperException.UnimplementedException e) {
+            // read-only multi is supported since ZooKeeper 3.6
+            log.infof("Batched read not supported by ZooKeeper, reading load reports one by one");
+            for (String broker : brokers) {
+                try {
+                    result.put(broker, new String(zkClient.getData().forPath(LOAD_REPORTS_PATH + "/" + broker),
+                            StandardCharsets.UTF_8));
+                } catch (KeeperException.NoNodeException ignore) {
+                }
+            }
+            return result;
+        }
+        for (int i = 0; i < brokers.size(); i++) {
+            // the broker might be gone in the meantime
+            if (opResults.get(i) instanceof OpResult.GetDataResult getDataResult) {
+                result.put(brokers.get(i), new String(getDataResult.getData(), StandardCharsets.UTF_8));
+            }
+        }
+        return result;
+    }
+
+    static String getPodForBrokerAddress(String brokerAddress, List<Pod> pods) {
+        // <advertised address>:<web service port>, the advertised address defaults to the pod FQDN
+        final int portIndex = brokerAddress.lastIndexOf(':');
+        final String host = portIndex > 0 ? brokerAddress.substring(0, portIndex) : brokerAddress;
+        final String hostname = host.split("\\.", 2)[0];
+        for (Pod pod : pods) {
+            if (pod.getMetadata().getName().equals(hostname)) {
+                return pod.getMetadata().getName();
+            }
+            if (pod.getStatus() != null && host.equals(pod.getStatus().getPodIP())) {
+                return pod.getMetadata().getName();
+            }
+        }
+        return null;
+    }
+}
@@ -60,7 +60,8 @@ import org.hibernate.validator.cfg.ConstraintMapping;
 import org.hibernate.validator.cfg.context.ConstraintDefinitionContext;
 
 @JBossLog
-public abstract class AbstractController<T extends CustomResource<? extends FullSpecWithDefaults, BaseComponentStatus>>
+public abstract class AbstractController<T extends CustomResource<? extends FullSpecWithDefaults,
+        ? extends BaseComponentStatus>>
         implements Reconciler<T> {
 
     protected final KubernetesClient client;
@@ -127,7 +128,7 @@ public abstract class AbstractController<T extends CustomResource<? extends Full
                     mergeConditions(resource.getStatus().getConditions(), List.of(createNotReadyCondition(
                             resource, CRDConstants.CONDITIONS_TYPE_READY_REASON_INVALID_SPEC, validationErrorMessage
                     )), Instant.now());
-            resource.setStatus(new BaseComponentStatus(conditions, lastApplied));
+            updateStatus(resource, conditions, lastApplied);
             return UpdateControl.updateStatus(resource);
         }
 
@@ -173,7 +174,7 @@ public abstract class AbstractController<T extends CustomResource<? extends Full
                 resource.getFullResourceName(),
                 time, reschedule + "", conditionsStr);
 
-        resource.setStatus(new BaseComponentStatus(conditions, lastApplied));
+        updateStatus(resource, conditions, lastApplied);
         final UpdateControl<T> update = UpdateControl.updateStatus(resource);
         if (reschedule) {
             update.rescheduleAfter(operatorRuntimeConfiguration.reconciliationRescheduleSeconds(), TimeUnit.SECONDS);
@@ -181,6 +182,14 @@ public abstract class AbstractController<T extends CustomResource<? extends Full
         return update;
     }
 
+    private static void updateStatus(CustomResource<?, ? extends BaseComponentStatus> resource,
+                                     List<Condition> conditions, String lastApplied) {
+        // the status might contain fields owned by other components (e.g. the autoscaler), they must be kept
+        final BaseComponentStatus status = resource.getStatus();
+        status.setConditions(conditions);
+        status.setLastApplied(lastApplied);
+    }
+
     @Data
     @AllArgsConstructor
     protected static class ReconciliationResult {
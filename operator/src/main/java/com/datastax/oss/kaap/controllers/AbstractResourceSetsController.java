@@ -39,7 +39,7 @@ import lombok.extern.jbosslog.JBossLog;
 
 @JBossLog
 public abstract class AbstractResourceSetsController<T extends CustomResource<FULLSPEC,
-        BaseComponentStatus>, FULLSPEC extends FullSpecWithDefaults, SPEC extends SETSPEC, SETSPEC, FACTORY,
+        ? extends BaseComponentStatus>, FULLSPEC extends FullSpecWithDefaults, SPEC extends SETSPEC, SETSPEC, FACTORY,
         SETSLASTAPPLIED extends AbstractResourceSetsController.SetsLastApplied<FULLSPEC>>
         extends AbstractController<T> {
 
@@ -294,12 +294,20 @@ public abstract class BaseResourcesFactory<T> {
     }
 
     protected boolean isTlsEnabledOnBrokerSet(String brokerSet) {
-        final TlsConfig.TlsEntryConfig tlsConfigForBrokerSet = getTlsConfigForBrokerSet(brokerSet);
+        return isTlsEnabledOnBrokerSet(global, brokerSet);
+    }
+
+    public static boolean isTlsEnabledOnBrokerSet(GlobalSpec global, String brokerSet) {
+        final TlsConfig.TlsEntryConfig tlsConfigForBrokerSet = getTlsConfigForBrokerSet(global, brokerSet);
         return tlsConfigForBrokerSet != null && tlsConfigForBrokerSet.getEnabled();
     }
 
 
     protected TlsConfig.TlsEntryConfig getTlsConfigForBrokerSet(String brokerSet) {
+        return getTlsConfigForBrokerSet(global, brokerSet);
+    }
+
+    private static TlsConfig.TlsEntryConfig getTlsConfigForBrokerSet(GlobalSpec global, String brokerSet) {
         if (global.getTls().getBrokerResourceSets() == null
                 || !global.getTls().getBrokerResourceSets().containsKey(brokerSet)) {
             return global.getTls().getBroker();
@@ -491,6 +499,10 @@ public abstract class BaseResourcesFactory<T> {
     }
 
     protected String getTlsSecretNameForBookkeeper() {
+        return getTlsSecretNameForBookkeeper(global);
+    }
+
+    public static String getTlsSecretNameForBookkeeper(GlobalSpec global) {
         final String name = global.getTls().getBookkeeper() == null
                 ? null : global.getTls().getBookkeeper().getSecretName();
         return ObjectUtils.firstNonNull(
@@ -499,6 +511,10 @@ public abstract class BaseResourcesFactory<T> {
     }
 
     protected String getTlsSecretNameForBroker() {
+        return getTlsSecretNameForBroker(global);
+    }
+
+    public static String getTlsSecretNameForBroker(GlobalSpec global) {
         final String name = global.getTls().getBroker() == null
                 ? null : global.getTls().getBroker().getSecretName();
         return ObjectUtils.firstNonNull(
@@ -16,6 +16,7 @@
 package com.datastax.oss.kaap.controllers;
 
 import com.datastax.oss.kaap.autoscaler.AutoscalerDaemon;
+import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieVolumeExpansion;
 import com.datastax.oss.kaap.common.SerializationUtil;
 import com.datastax.oss.kaap.common.json.JSONComparator;
 import com.datastax.oss.kaap.controllers.bookkeeper.BookKeeperController;
@@ -248,11 +249,34 @@ public class PulsarClusterController extends AbstractController<PulsarCluster> {
                         clusterSpec.getBookkeeper().getBookKeeperSetSpecRef(currentSet.getKey())
                                 .setReplicas(currentReplicas);
                     }
+                    adjustBookKeeperVolumes(clusterSpec.getBookkeeper().getBookKeeperSetSpecRef(currentSet.getKey()),
+                            desiredSetSpec, currentSetSpec);
                 }
             }
         }
     }
 
+    // do not shrink the volumes expanded by the autoscaler, the PVCs can't be shrunk anyway
+    private void adjustBookKeeperVolumes(BookKeeperSetSpec desiredSetSpecRef, BookKeeperSetSpec desiredSetSpec,
+                                         BookKeeperSetSpec currentSetSpec) {
+        if (desiredSetSpec.getAutoscaler().getVolumeExpansion() == null
+                || !desiredSetSpec.getAutoscaler().getVolumeExpansion().getEnabled()
+                || currentSetSpec.getVolumes() == null
+                || desiredSetSpec.getVolumes() == null) {
+            return;
+        }
+        final String currentLedgersSize = currentSetSpec.getVolumes().getLedgers().getSize();
+        if (BookieVolumeExpansion.isLarger(currentLedgersSize, desiredSetSpec.getVolumes().getLedgers().getSize())) {
+            final BookKeeperSetSpec.Volumes volumes = BookieVolumeExpansion.getOrCreateVolumes(desiredSetSpecRef);
+            volumes.setLedgers(BookieVolumeExpansion.withSize(volumes.getLedgers(), currentLedgersSize));
+        }
+        final String currentJournalSize = currentSetSpec.getVolumes().getJournal().getSize();
+        if (BookieVolumeExpansion.isLarger(currentJournalSize, desiredSetSpec.getVolumes().getJournal().getSize())) {
+            final BookKeeperSetSpec.Volumes volumes = BookieVolumeExpansion.getOrCreateVolumes(desiredSetSpecRef);
+            volumes.setJournal(BookieVolumeExpansion.withSize(volumes.getJournal(), currentJournalSize));
+        }
+    }
+
     private boolean checkReadyOrPatchZooKeeper(String currentNamespace, PulsarClusterSpec clusterSpec,
                                                List<OwnerReference> ownerReference) {
         return checkReadyOrPatch(
@@ -16,6 +16,7 @@
 package com.datastax.oss.kaap.controllers.bookkeeper;
 
 import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieAdminClient;
+import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieDecommissionProgress;
 import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieDecommissionUtil;
 import com.datastax.oss.kaap.autoscaler.bookkeeper.PodExecBookieAdminClient;
 import com.datastax.oss.kaap.common.SerializationUtil;
@@ -30,6 +31,8 @@ import com.datastax.oss.kaap.crds.bookkeeper.BookKeeper;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperFullSpec;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSpec;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperStatus;
+import com.datastax.oss.kaap.crds.bookkeeper.BookieDecommissionStatus;
 import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
 import io.fabric8.kubernetes.api.model.OwnerReference;
 import io.fabric8.kubernetes.api.model.apps.StatefulSet;
@@ -133,6 +136,7 @@ public class BookKeeperController extends
     protected void onSetReady(BookKeeperFullSpec lastAppliedFullSpec, BookKeeper resource,
                               SetInfo<BookKeeperSetSpec, BookKeeperResourcesFactory> setInfo) {
         cleanupOrphanPVCs(setInfo, lastAppliedFullSpec, resource.getMetadata().getNamespace());
+        markRemovedBookies(resource, setInfo);
     }
 
     @Override
@@ -213,38 +217,17 @@ public class BookKeeperController extends
                     .removeIf(e -> !e.getKey().equals(setInfo.getName()));
         }
         final JSONComparator.Result result = SpecDiffer.generateDiff(lastApplied, spec);
+        // a decommission left in progress must be cancelled even if the scale down has been reverted
+        if (lastApplied != null && (!result.areEquals() || hasPendingDecommission(resource, setInfo.getName()))) {
+            decommissionBookies(resource, setInfo.getName(), spec, lastApplied);
+        }
         if (!result.areEquals()) {
-            if (lastApplied != null) {
-                final BookKeeperSetSpec lastAppliedSetSpec =
-                        lastApplied.getBookkeeper().getBookKeeperSetSpecRef(setInfo.getName());
-                final BookKeeperSetSpec desiredSetSpec =
-                        spec.getBookkeeper().getBookKeeperSetSpecRef(setInfo.getName());
-                if (lastAppliedSetSpec != null && desiredSetSpec != null) {
-
-                    final int currentReplicas = lastAppliedSetSpec.getReplicas().intValue();
-                    final int desiredReplicas = desiredSetSpec.getReplicas().intValue();
-                    final int delta = currentReplicas - desiredReplicas;
-                    if (delta > 0) {
-                        final BookieAdminClient bookieAdminClient =
-                                createBookieAdminClient(resource.getMetadata().getNamespace(),
-                                        setInfo.getName(), lastApplied);
-
-                        final int decommissioned = BookieDecommissionUtil
-                                .decommissionBookies(bookieAdminClient.collectBookieInfos(),
-                                        delta, bookieAdminClient);
-                        if (decommissioned != delta) {
-                            throw new IllegalStateException(
-                                    "Failed to decommission " + (delta - decommissioned) + " bookies, will retry");
-                        }
-                    }
-                }
-            }
             final PulsarClusterSpec pulsarClusterSpec = PulsarClusterSpec.builder()
                     .global(spec.getGlobal())
                     .bookkeeper(spec.getBookkeeper())
                     .build();
-            bkRackDaemon.cancelTasks();
             final String namespace = resource.getMetadata().getNamespace();
+            bkRackDaemon.cancelTasks(namespace);
             log.infof("Initializing bookie racks for bookkeeper-set '%s'", setInfo.getName());
             bkRackDaemon.triggerSync(namespace, spec);
             bkRackDaemon.onSpecChange(pulsarClusterSpec, namespace);
@@ -252,6 +235,109 @@ public class BookKeeperController extends
         return result;
     }
 
+    private void decommissionBookies(BookKeeper resource, String setName, BookKeeperFullSpec spec,
+                                     BookKeeperFullSpec lastApplied) {
+        final BookKeeperSetSpec lastAppliedSetSpec = lastApplied.getBookkeeper().getBookKeeperSetSpecRef(setName);
+        final BookKeeperSetSpec desiredSetSpec = spec.getBookkeeper().getBookKeeperSetSpecRef(setName);
+        if (lastAppliedSetSpec == null || desiredSetSpec == null) {
+            return;
+        }
+        final int currentReplicas = lastAppliedSetSpec.getReplicas().intValue();
+        final int desiredReplicas = desiredSetSpec.getReplicas().intValue();
+        final int delta = Math.max(0, currentReplicas - desiredReplicas);
+        final BookieDecommissionProgress progress = newDecommissionProgress(resource, setName);
+        if (delta == 0 && !progress.hasPendingBookies()) {
+            return;
+        }
+        final BookieAdminClient bookieAdminClient =
+                createBookieAdminClient(resource.getMetadata().getNamespace(), setName, lastApplied);
+
+        final int decommissioned = BookieDecommissionUtil
+                .decommissionBookies(bookieAdminClient.collectBookieInfos(),
+                        delta, bookieAdminClient, desiredSetSpec.getDecommission(), progress);
+        if (decommissioned != delta) {
+            throw new IllegalStateException(
+                    "Failed to decommission " + (delta - decommissioned) + " bookies, will retry");
+        }
+    }
+
+    private boolean hasPendingDecommission(BookKeeper resource, String setName) {
+        return new BookieDecommissionProgress(getDecommissionStatus(resource, setName), null).hasPendingBookies();
+    }
+
+    private static List<BookieDecommissionStatus> getDecommissionStatus(BookKeeper resource, String setName) {
+        final Map<String, List<BookieDecommissionStatus>> decommissions = resource.getStatus().getDecommissions();
+        return decommissions == null ? null : decommissions.get(setName);
+    }
+
+    private BookieDecommissionProgress newDecommissionProgress(BookKeeper resource, String setName) {
+        return new BookieDecommissionProgress(getDecommissionStatus(resource, setName),
+                bookies -> persistDecommissionStatus(resource, setName, bookies));
+    }
+
+    // each step is checkpointed in the status right away, the decommission can take hours and the operator
+    // might restart before the end of the reconciliation
+    private void persistDecommissionStatus(BookKeeper resource, String setName,
+                                           List<BookieDecommissionStatus> bookies) {
+        setDecommissionStatus(resource.getStatus(), setName, bookies);
+        try {
+            final BookKeeper updated = client.resources(BookKeeper.class)
+                    .inNamespace(resource.getMetadata().getNamespace())
+                    .withName(resource.getMetadata().getName())
+                    .editStatus(bk -> {
+                        if (bk.getStatus() == null) {
+                            bk.setStatus(new BookKeeperStatus());
+                        }
+                        setDecommissionStatus(bk.getStatus(), setName, bookies);
+                        return bk;
+                    });
+            // the status is updated again at the end of the reconciliation
+            resource.getMetadata().setResourceVersion(updated.getMetadata().getResourceVersion());
+        } catch (Exception e) {
+            log.warnf(e, "Failed to persist the decommission progress of bookkeeper set %s", setName);
+        }
+    }
+
+    private static void setDecommissionStatus(BookKeeperStatus status, String setName,
+                                              List<BookieDecommissionStatus> bookies) {
+        final Map<String, List<BookieDecommissionStatus>> decommissions = status.getDecommissions() == null
+                ? new HashMap<>() : new HashMap<>(status.getDecommissions());
+        if (bookies.isEmpty()) {
+            decommissions.remove(setName);
+        } else {
+            decommissions.put(setName, bookies);
+        }
+        status.setDecommissions(decommissions.isEmpty() ? null : decommissions);
+    }
+
+    // the removed bookies are dropped from the status once their pvcs are deleted too
+    private void markRemovedBookies(BookKeeper resource,
+                                    SetInfo<BookKeeperSetSpec, BookKeeperResourcesFactory> setInfo) {
+        final String setName = setInfo.getName();
+        final List<BookieDecommissionStatus> bookies = getDecommissionStatus(resource, setName);
+        if (bookies == null) {
+            return;
+        }
+        final BookieDecommissionProgress progress = newDecommissionProgress(resource, setName);
+        for (BookieDecommissionStatus bookie : bookies) {
+            final BookieDecommissionProgress.Phase phase = BookieDecommissionProgress.Phase.valueOf(bookie.getPhase());
+            if (phase.compareTo(BookieDecommissionProgress.Phase.COOKIE_DELETED) < 0) {
+                continue;
+            }
+            final boolean podExists = client.pods()
+                    .inNamespace(resource.getMetadata().getNamespace())
+                    .withName(bookie.getPodName())
+                    .get() != null;
+            if (podExists) {
+                continue;
+            }
+            progress.advance(bookie.getBookieId(), bookie.getPodName(), BookieDecommissionProgress.Phase.REMOVED);
+            if (!setInfo.getResourceFactory().hasPVCs(bookie.getPodName())) {
+                progress.forget(bookie.getBookieId());
+            }
+        }
+    }
+
     protected BookieAdminClient createBookieAdminClient(String namespace,
                                                         String setName,
                                                         BookKeeperFullSpec lastApplied) {
@@ -26,11 +26,13 @@ import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
 import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.ContainerBuilder;
 import io.fabric8.kubernetes.api.model.ContainerPortBuilder;
+import io.fabric8.kubernetes.api.model.DeletionPropagation;
 import io.fabric8.kubernetes.api.model.EnvFromSourceBuilder;
 import io.fabric8.kubernetes.api.model.HTTPGetActionBuilder;
 import io.fabric8.kubernetes.api.model.OwnerReference;
 import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
 import io.fabric8.kubernetes.api.model.Probe;
+import io.fabric8.kubernetes.api.model.Quantity;
 import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.api.model.ServiceBuilder;
 import io.fabric8.kubernetes.api.model.ServicePort;
@@ -47,6 +49,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.jbosslog.JBossLog;
 import org.apache.commons.lang3.ObjectUtils;
@@ -55,6 +58,8 @@ import org.apache.commons.lang3.ObjectUtils;
 public class BookKeeperResourcesFactory extends BaseResourcesFactory<BookKeeperSetSpec> {
 
     public static final String BOOKKEEPER_DEFAULT_SET = "bookkeeper";
+    public static final String JOURNAL_MOUNT_PATH = "/pulsar/data/bookkeeper/journal";
+    public static final String LEDGERS_MOUNT_PATH = "/pulsar/data/bookkeeper/ledgers";
 
     public static final int DEFAULT_BK_PORT = 3181;
     public static final int DEFAULT_HTTP_PORT = 8000;
@@ -209,9 +214,76 @@ public class BookKeeperResourcesFactory extends BaseResourcesFactory<BookKeeperS
             return;
         }
         final StatefulSet statefulSet = generateStatefulSet();
+        expandPersistentVolumeClaims(statefulSet);
         patchResource(statefulSet);
     }
 
+    // The volume claim templates of a statefulset are immutable: the existing PVCs are resized and the statefulset is
+    // recreated, orphaning its pods, so they're not restarted
+    private void expandPersistentVolumeClaims(StatefulSet statefulSet) {
+        final StatefulSet current = getStatefulSet();
+        if (current == null || current.getSpec() == null || current.getSpec().getVolumeClaimTemplates() == null) {
+            return;
+        }
+        boolean expanded = false;
+        for (PersistentVolumeClaim template : statefulSet.getSpec().getVolumeClaimTemplates()) {
+            final String templateName = template.getMetadata().getName();
+            final PersistentVolumeClaim currentTemplate = current.getSpec().getVolumeClaimTemplates()
+                    .stream()
+                    .filter(t -> t.getMetadata().getName().equals(templateName))
+                    .findFirst()
+                    .orElse(null);
+            if (currentTemplate == null || !isLarger(getStorageRequest(template), getStorageRequest(currentTemplate))) {
+                continue;
+            }
+            expanded = true;
+            expandPersistentVolumeClaims(templateName, getStorageRequest(template));
+        }
+        if (expanded) {
+            log.infof("Recreating statefulset %s to expand its volumes", resourceName);
+            client.resource(current)
+                    .inNamespace(namespace)
+                    .withTimeout(1, TimeUnit.MINUTES)
+                    .withPropagationPolicy(DeletionPropagation.ORPHAN)
+                    .delete();
+        }
+    }
+
+    private void expandPersistentVolumeClaims(String templateName, Quantity size) {
+        final String pvcPrefix = "%s-%s-".formatted(templateName, resourceName);
+        client.persistentVolumeClaims()
+                .inNamespace(namespace)
+                .withLabels(getLabels(spec.getLabels()))
+                .list().getItems().forEach(pvc -> {
+                    final String name = pvc.getMetadata().getName();
+                    if (name.startsWith(pvcPrefix) && isLarger(size, getStorageRequest(pvc))) {
+                        log.infof("Expanding bookie pvc %s to %s", name, size);
+                        client.persistentVolumeClaims()
+                                .inNamespace(namespace)
+                                .withName(name)
+                                .edit(p -> {
+                                    p.getSpec().getResources().getRequests().put("storage", size);
+                                    return p;
+                                });
+                    }
+                });
+    }
+
+    private static Quantity getStorageRequest(PersistentVolumeClaim pvc) {
+        if (pvc.getSpec() == null || pvc.getSpec().getResources() == null
+                || pvc.getSpec().getResources().getRequests() == null) {
+            return null;
+        }
+        return pvc.getSpec().getResources().getRequests().get("storage");
+    }
+
+    private static boolean isLarger(Quantity size, Quantity other) {
+        if (size == null || other == null) {
+            return false;
+        }
+        return Quantity.getAmountInBytes(size).compareTo(Quantity.getAmountInBytes(other)) > 0;
+    }
+
     public StatefulSet generateStatefulSet() {
         Map<String, String> labels = getLabels(spec.getLabels());
         Map<String, String> podLabels = getPodLabels(spec.getPodLabels());
@@ -272,11 +344,11 @@ public class BookKeeperResourcesFactory extends BaseResourcesFactory<BookKeeperS
 
         volumeMounts.add(new VolumeMountBuilder()
                 .withName(journalVolumeName)
-                .withMountPath("/pulsar/data/bookkeeper/journal")
+                .withMountPath(JOURNAL_MOUNT_PATH)
                 .build());
         volumeMounts.add(new VolumeMountBuilder()
                 .withName(ledgersVolumeName)
-                .withMountPath("/pulsar/data/bookkeeper/ledgers")
+                .withMountPath(LEDGERS_MOUNT_PATH)
                 .build());
 
         List<PersistentVolumeClaim> persistentVolumeClaims = new ArrayList<>();
@@ -486,4 +558,18 @@ public class BookKeeperResourcesFactory extends BaseResourcesFactory<BookKeeperS
                 });
         return pvcCount.get();
     }
+
+    // the pvcs of a pod are matched by its ordinal, like in cleanupOrphanPVCs
+    public boolean hasPVCs(String podName) {
+        final String journalPvPrefix = getJournalPvPrefix(spec, resourceName);
+        final String ledgersPvPrefix = getLedgersPvPrefix(spec, resourceName);
+        final String ordinalSuffix = podName.substring(podName.lastIndexOf('-'));
+        return client.persistentVolumeClaims()
+                .inNamespace(namespace)
+                .withLabels(getLabels(spec.getLabels()))
+                .list().getItems().stream()
+                .map(pvc -> pvc.getMetadata().getName())
+                .anyMatch(name -> (name.startsWith(journalPvPrefix) || name.startsWith(ledgersPvPrefix))
+                        && name.endsWith(ordinalSuffix));
+    }
 }
@@ -24,6 +24,7 @@ import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -33,6 +34,7 @@ import lombok.extern.jbosslog.JBossLog;
 @JBossLog
 public class BookKeeperRackDaemon extends NamespacedDaemonThread<BookKeeperFullSpec> {
 
+    private static final String RACKS_KEY = "racks";
     private final KubernetesClient client;
     private final ScheduledExecutorService executorService;
     private final BkRackClientFactory bkRackClientFactory;
@@ -44,8 +46,9 @@ public class BookKeeperRackDaemon extends NamespacedDaemonThread<BookKeeperFullS
     }
 
     @Override
-    protected BookKeeperFullSpec getSpec(PulsarClusterSpec clusterSpec) {
-        return new BookKeeperFullSpec(clusterSpec.getGlobal(), clusterSpec.getBookkeeper());
+    protected Map<String, BookKeeperFullSpec> getSpecs(PulsarClusterSpec clusterSpec) {
+        // the racks are synced for the whole bookkeeper cluster at once
+        return Map.of(RACKS_KEY, new BookKeeperFullSpec(clusterSpec.getGlobal(), clusterSpec.getBookkeeper()));
     }
 
     public void triggerSync(String namespace, BookKeeperFullSpec newSpec) {
@@ -60,7 +63,7 @@ public class BookKeeperRackDaemon extends NamespacedDaemonThread<BookKeeperFullS
 
 
     @Override
-    protected List<ScheduledFuture<?>> specChanged(String namespace, BookKeeperFullSpec newSpec,
+    protected List<ScheduledFuture<?>> specChanged(String namespace, String key, BookKeeperFullSpec newSpec,
                                                    PulsarClusterSpec clusterSpec) {
 
         final BookKeeperAutoRackConfig autoRackConfig = newSpec.getBookkeeper().getAutoRackConfig();
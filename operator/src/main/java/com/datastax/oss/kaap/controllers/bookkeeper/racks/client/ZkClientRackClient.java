@@ -166,6 +166,10 @@ public class ZkClientRackClient implements BkRackClient {
         return new ZkNodeOp();
     }
 
+    public CuratorFramework getCuratorFramework() {
+        return zkClient;
+    }
+
     @Override
     public void close() {
         zkClient.close();
@@ -27,6 +27,7 @@ import java.util.Base64;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.jbosslog.JBossLog;
+import org.apache.curator.framework.CuratorFramework;
 
 @JBossLog
 public class ZkClientRackClientFactory implements BkRackClientFactory{
@@ -66,6 +67,17 @@ public class ZkClientRackClientFactory implements BkRackClientFactory{
     }
 
 
+    public CuratorFramework getCuratorFramework(String namespace, GlobalSpec globalSpec) {
+        if (LaunchMode.current() == LaunchMode.DEVELOPMENT) {
+            log.infof("Zk Client disabled since we're in dev mode.");
+            return null;
+        }
+        final String zkConnectString = BaseResourcesFactory.getZkServers(globalSpec, namespace);
+        return zkClients.computeIfAbsent(zkConnectString, (k) -> newZkRackClient(k, globalSpec, namespace))
+                .getCuratorFramework();
+    }
+
+
     private ZkClientRackClient newZkRackClient(String zkConnectString, GlobalSpec globalSpec, String namespace) {
         final boolean tlsEnabledOnZooKeeper = BaseResourcesFactory.isTlsEnabledOnZooKeeper(globalSpec);
         if (!tlsEnabledOnZooKeeper) {
@@ -61,6 +61,8 @@ public class BrokerResourcesFactory extends BaseResourcesFactory<BrokerSetSpec>
     public static final int KAFKA_SSL_PORT = 9093;
     public static final int KAFKA_PORT = 9092;
     public static final int KAFKA_SCHEMA_REGISTRY_PORT = 8081;
+    public static final String SUPERUSER_TOKEN_SECRET = "token-superuser";
+    public static final String SUPERUSER_TOKEN_KEY = "superuser.jwt";
 
     public static String getComponentBaseName(GlobalSpec globalSpec) {
         return globalSpec.getComponents().getBrokerBaseName();
@@ -543,7 +545,13 @@ public class BrokerResourcesFactory extends BaseResourcesFactory<BrokerSetSpec>
 
     public static String computeCurlAuthHeader(GlobalSpec globalSpec) {
         return isAuthTokenEnabled(globalSpec)
-                ? "-H \"Authorization: Bearer $(cat /pulsar/token-superuser/superuser.jwt | tr -d '\\r')\"" : "";
+                ? "-H \"Authorization: %s\"".formatted(computeAuthHeaderValue(
+                "$(cat /pulsar/%s/%s | tr -d '\\r')".formatted(SUPERUSER_TOKEN_SECRET, SUPERUSER_TOKEN_KEY)))
+                : "";
+    }
+
+    public static String computeAuthHeaderValue(String token) {
+        return "Bearer %s".formatted(token);
     }
 
     public void patchPodDisruptionBudget() {
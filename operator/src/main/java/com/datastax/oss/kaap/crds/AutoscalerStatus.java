@@ -0,0 +1,60 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.crds;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AutoscalerStatus {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Decision {
+        @JsonPropertyDescription("Decision time, in milliseconds since the epoch.")
+        Long timestamp;
+        @JsonPropertyDescription("Action taken, e.g. Scale, Rebalance or Drain.")
+        String action;
+        @JsonPropertyDescription("Description of the action taken.")
+        String message;
+        @JsonPropertyDescription("Observed values the decision has been based on.")
+        Map<String, String> inputs;
+        @JsonPropertyDescription("Replicas before the scaling, only for the Scale action.")
+        Integer fromReplicas;
+        @JsonPropertyDescription("Replicas after the scaling, only for the Scale action.")
+        Integer toReplicas;
+    }
+
+    @JsonPropertyDescription("Last decisions taken by the autoscaler, oldest first.")
+    List<Decision> decisions;
+    @JsonPropertyDescription("Last time each action has been taken, in milliseconds since the epoch. "
+            + "Cooldowns are computed from these timestamps, so they're kept across operator restarts.")
+    Map<String, Long> lastActions;
+    @JsonPropertyDescription("Scale decisions taken in the longest scaling policy period, oldest first. "
+            + "The scaling policies are computed from them, so they're kept even if the decision is not in the "
+            + "journal anymore.")
+    List<Decision> scaleEvents;
+}
@@ -15,7 +15,6 @@
  */
 package com.datastax.oss.kaap.crds.bookkeeper;
 
-import com.datastax.oss.kaap.crds.BaseComponentStatus;
 import com.datastax.oss.kaap.crds.CRDConstants;
 import io.fabric8.kubernetes.api.model.Namespaced;
 import io.fabric8.kubernetes.client.CustomResource;
@@ -32,9 +31,9 @@ import io.fabric8.kubernetes.model.annotation.Version;
 @Singular("bookkeeper")
 @Plural("bookkeepers")
 @ShortNames({"bk"})
-public class BookKeeper extends CustomResource<BookKeeperFullSpec, BaseComponentStatus> implements Namespaced {
+public class BookKeeper extends CustomResource<BookKeeperFullSpec, BookKeeperStatus> implements Namespaced {
     @Override
-    protected BaseComponentStatus initStatus() {
-        return new BaseComponentStatus();
+    protected BookKeeperStatus initStatus() {
+        return new BookKeeperStatus();
     }
 }
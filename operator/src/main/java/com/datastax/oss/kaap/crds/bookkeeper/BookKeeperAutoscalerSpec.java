@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.kaap.crds.bookkeeper;
 
+import com.datastax.oss.kaap.crds.configs.ScalingBehaviorConfig;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import io.fabric8.generator.annotation.Max;
 import io.fabric8.generator.annotation.Min;
@@ -29,6 +30,32 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class BookKeeperAutoscalerSpec {
 
+    public static final String BOOKIE_ADMIN_CLIENT_POD_EXEC = "PodExec";
+    public static final String BOOKIE_ADMIN_CLIENT_HTTP = "Http";
+    public static final String DISK_USAGE_SOURCE_BOOKIE = "Bookie";
+    public static final String DISK_USAGE_SOURCE_KUBELET = "Kubelet";
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class VolumeExpansionConfig {
+        @JsonPropertyDescription("Expand the volumes of the existing bookies before adding new bookies. When some "
+                + "bookies reach 'diskUsageToleranceHwm', the ledgers and journal volumes are expanded in place up to "
+                + "their max size. Bookies are added only when the volumes can't be expanded anymore. The storage "
+                + "class must allow volume expansion. Default is 'false'.")
+        private Boolean enabled;
+        @Min(1.0d)
+        @JsonPropertyDescription("The volume size is multiplied by this factor at each expansion. Default is '1.5'.")
+        private Double expansionFactor;
+        @JsonPropertyDescription("Max size of the ledgers volume. The format follows the Kubernetes' Quantity. "
+                + "If not set, the ledgers volume is never expanded.")
+        private String ledgersMaxSize;
+        @JsonPropertyDescription("Max size of the journal volume. The format follows the Kubernetes' Quantity. "
+                + "If not set, the journal volume is never expanded.")
+        private String journalMaxSize;
+    }
+
     @JsonPropertyDescription("Enable autoscaling for bookies.")
     Boolean enabled;
 
@@ -85,5 +112,66 @@ public class BookKeeperAutoscalerSpec {
                     + "Default value is 5 minutes after the pod readiness.")
     Long stabilizationWindowMs;
 
+    @Min(1)
+    @javax.validation.constraints.Min(1)
+    @JsonPropertyDescription("Max number of bookies queried in parallel when collecting the bookies state and disk "
+            + "usage. Default is '10'")
+    Integer bookieStatsMaxConcurrency;
+
+    @Min(1)
+    @javax.validation.constraints.Min(1)
+    @JsonPropertyDescription("Timeout in milliseconds for getting the state and disk usage of a single bookie. "
+            + "Bookies that don't answer in time are considered unknown and prevent the scale down. "
+            + "Default is '30000'")
+    Long bookieStatsRequestTimeoutMs;
+
+    @Min(1)
+    @javax.validation.constraints.Min(1)
+    @JsonPropertyDescription("Overall timeout in milliseconds for collecting the state and disk usage of all the "
+            + "bookies. Default is '60000'")
+    Long bookieStatsCollectionTimeoutMs;
+
+    @JsonPropertyDescription("How the autoscaler calls the bookies admin REST API. "
+            + "Possible values are 'PodExec' and 'Http'. 'PodExec' executes curl in the bookie pods, 'Http' calls the "
+            + "bookies directly from the operator honoring 'httpServerPort' and the bookkeeper TLS configuration. "
+            + "The operations not exposed by the REST API (e.g. recovery) are always executed in the bookie pods. "
+            + "Default is 'PodExec'")
+    String bookieAdminClient;
+
+    @JsonPropertyDescription("Where the autoscaler reads the disk usage of the bookies. "
+            + "Possible values are 'Bookie' and 'Kubelet'. 'Bookie' asks every bookie for the usage of its "
+            + "directories. 'Kubelet' reads the volume stats of the nodes hosting the bookies through the "
+            + "Kubernetes API server node proxy, with one request for each node; the operator needs the permission "
+            + "to get 'nodes/proxy'. The bookies are still asked for their writable state. Default is 'Bookie'")
+    String diskUsageSource;
+
+    @JsonPropertyDescription("Keep an in-memory index of the ledgers metadata, fed by a ZooKeeper watch on the "
+            + "ledgers tree, to check if a bookie still owns ledgers and if there are under replicated ledgers "
+            + "without running the bookkeeper shell in the bookie pods. The index holds the ensembles of all the "
+            + "ledgers in the operator memory. Default is 'false'")
+    Boolean ledgerMetadataIndexEnabled;
+
+    @Min(0)
+    @javax.validation.constraints.Min(0)
+    @JsonPropertyDescription("Scale up ahead of time if the disk usage of the bookies, projected from its recent "
+            + "growth, is expected to reach 'diskUsageToleranceHwm' within this time in milliseconds. "
+            + "It should be around the time needed to schedule and start a new bookie. '0' disables the forecast. "
+            + "Default is '600000'")
+    Long diskUsageHwmLeadTimeMs;
+
+    @JsonPropertyDescription("Expand the volumes of the existing bookies instead of adding new bookies.")
+    VolumeExpansionConfig volumeExpansion;
+
+    @JsonPropertyDescription("Scale all the bookkeeper sets together instead of each set on its own. The bookies "
+            + "needed by each set are added to the sets of the racks with the highest disk usage and removed from "
+            + "the sets of the racks with the lowest one, so that the racks keep a similar ledgers capacity for the "
+            + "rack-aware ensemble placement. The sets without a rack are balanced as if each one was a rack. "
+            + "Only the cluster level autoscaler configuration is used. Default is 'false'")
+    Boolean rackBalancing;
+
+    @JsonPropertyDescription("Scale up and scale down behaviors, as in the Kubernetes HorizontalPodAutoscaler: "
+            + "stabilization window and max bookies added or removed per period. If set, they're applied on top of "
+            + "'scaleUpBy' and 'scaleDownBy'.")
+    ScalingBehaviorConfig behavior;
 
 }
@@ -101,6 +101,24 @@ public class BookKeeperSetSpec extends BaseComponentSpec<BookKeeperSetSpec> {
             .stabilizationWindowMs(TimeUnit.MINUTES.toMillis(5))
             .diskUsageToleranceHwm(0.92d)
             .diskUsageToleranceLwm(0.75d)
+            .bookieStatsMaxConcurrency(10)
+            .bookieStatsRequestTimeoutMs(TimeUnit.SECONDS.toMillis(30))
+            .bookieStatsCollectionTimeoutMs(TimeUnit.SECONDS.toMillis(60))
+            .bookieAdminClient(BookKeeperAutoscalerSpec.BOOKIE_ADMIN_CLIENT_POD_EXEC)
+            .diskUsageSource(BookKeeperAutoscalerSpec.DISK_USAGE_SOURCE_BOOKIE)
+            .ledgerMetadataIndexEnabled(false)
+            .diskUsageHwmLeadTimeMs(TimeUnit.MINUTES.toMillis(10))
+            .volumeExpansion(BookKeeperAutoscalerSpec.VolumeExpansionConfig.builder()
+                    .enabled(false)
+                    .expansionFactor(1.5d)
+                    .build())
+            .rackBalancing(false)
+            .build();
+
+    public static final Supplier<DecommissionConfig> DEFAULT_DECOMMISSION = () -> DecommissionConfig.builder()
+            .maxConcurrentRecoveries(2)
+            .recoveryRateBytesPerSecond(0L)
+            .readOnlyTimeoutMs(TimeUnit.MINUTES.toMillis(1))
             .build();
 
 
@@ -127,6 +145,29 @@ public class BookKeeperSetSpec extends BaseComponentSpec<BookKeeperSetSpec> {
     }
 
 
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class DecommissionConfig {
+        @Min(1)
+        @io.fabric8.generator.annotation.Min(1)
+        @JsonPropertyDescription("Max number of bookies recovered in parallel during a scale down. Default is '2'.")
+        private Integer maxConcurrentRecoveries;
+        @Min(0)
+        @io.fabric8.generator.annotation.Min(0)
+        @JsonPropertyDescription("Max bytes per second re-replicated by all the recoveries running in parallel, "
+                + "split evenly between them. Limits the impact of the recovery on the write latency. "
+                + "'0' means unlimited. Default is '0'.")
+        private Long recoveryRateBytesPerSecond;
+        @Min(0)
+        @io.fabric8.generator.annotation.Min(0)
+        @JsonPropertyDescription("Max time in milliseconds to wait for the bookies to become read-only before "
+                + "starting the recovery. Default is '60000'.")
+        private Long readOnlyTimeoutMs;
+    }
+
+
     @JsonPropertyDescription(CRDConstants.DOC_CONFIG)
     // workaround to generate CRD spec that accepts any type as key
     @SchemaFrom(type = JsonNode.class)
@@ -156,6 +197,9 @@ public class BookKeeperSetSpec extends BaseComponentSpec<BookKeeperSetSpec> {
     private String overrideResourceName;
     @JsonPropertyDescription("Cleanup PVCs after the bookie has been removed.")
     private Boolean cleanUpPvcs;
+    @JsonPropertyDescription("Decommission of the bookies removed by a scale down.")
+    @Valid
+    private DecommissionConfig decommission;
 
     @Override
     public void applyDefaults(GlobalSpec globalSpec) {
@@ -196,6 +240,11 @@ public class BookKeeperSetSpec extends BaseComponentSpec<BookKeeperSetSpec> {
         if (cleanUpPvcs == null) {
             cleanUpPvcs = true;
         }
+        if (decommission == null) {
+            decommission = DEFAULT_DECOMMISSION.get();
+        } else {
+            decommission = ConfigUtil.applyDefaultsWithReflection(decommission, DEFAULT_DECOMMISSION);
+        }
 
         applyAutoscalerDefaults();
     }
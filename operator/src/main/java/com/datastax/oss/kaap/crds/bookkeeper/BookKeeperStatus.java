@@ -0,0 +1,45 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.crds.bookkeeper;
+
+import com.datastax.oss.kaap.crds.AutoscalerStatus;
+import com.datastax.oss.kaap.crds.BaseComponentStatus;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import io.fabric8.kubernetes.api.model.Condition;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@NoArgsConstructor
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class BookKeeperStatus extends BaseComponentStatus {
+
+    @JsonPropertyDescription("Autoscaler decisions journal, for each bookkeeper set.")
+    Map<String, AutoscalerStatus> autoscalers;
+
+    @JsonPropertyDescription("Progress of the bookies decommission, for each bookkeeper set. After a failure or an "
+            + "operator restart the decommission resumes from the last completed step.")
+    Map<String, List<BookieDecommissionStatus>> decommissions;
+
+    public BookKeeperStatus(List<Condition> conditions, String lastApplied) {
+        super(conditions, lastApplied);
+    }
+}
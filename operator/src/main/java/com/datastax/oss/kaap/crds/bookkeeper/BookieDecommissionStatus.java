@@ -0,0 +1,40 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.crds.bookkeeper;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookieDecommissionStatus {
+    @JsonPropertyDescription("Bookie id.")
+    String bookieId;
+    @JsonPropertyDescription("Bookie pod name.")
+    String podName;
+    @JsonPropertyDescription("Last completed decommission step: READONLY, RECOVERING, VERIFIED, COOKIE_DELETED or "
+            + "REMOVED.")
+    String phase;
+    @JsonPropertyDescription("Time of the last completed step, in milliseconds since the epoch.")
+    Long timestamp;
+    @JsonPropertyDescription("Error of the last failed step, the step is retried at the next reconciliation.")
+    String lastError;
+}
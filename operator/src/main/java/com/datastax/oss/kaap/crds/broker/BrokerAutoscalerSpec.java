@@ -15,9 +15,13 @@
  */
 package com.datastax.oss.kaap.crds.broker;
 
+import com.datastax.oss.kaap.crds.configs.ScalingBehaviorConfig;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import io.fabric8.generator.annotation.Max;
 import io.fabric8.generator.annotation.Min;
+import io.fabric8.generator.annotation.Required;
+import java.util.List;
+import javax.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -30,7 +34,16 @@ import lombok.NoArgsConstructor;
 public class BrokerAutoscalerSpec {
 
     public static final String RESOURCE_USAGE_SOURCE_LOAD_BALANCER = "PulsarLBReport";
+    public static final String RESOURCE_USAGE_SOURCE_LOAD_BALANCER_HTTP = "PulsarLBReportHttp";
+    public static final String RESOURCE_USAGE_SOURCE_LOAD_BALANCER_ZK = "PulsarLBReportZk";
     public static final String RESOURCE_USAGE_SOURCE_K8S_METRICS = "K8SMetrics";
+    public static final String ALGORITHM_THRESHOLD = "Threshold";
+    public static final String ALGORITHM_TARGET_UTILIZATION = "TargetUtilization";
+    public static final String METRICS_AGGREGATION_LAST = "Last";
+    public static final String METRICS_AGGREGATION_EWMA = "EWMA";
+    public static final String METRICS_AGGREGATION_P50 = "P50";
+    public static final String METRICS_AGGREGATION_P90 = "P90";
+    public static final String METRICS_AGGREGATION_MAX = "Max";
 
     @JsonPropertyDescription("Enable autoscaling for brokers.")
     Boolean enabled;
@@ -76,7 +89,197 @@ public class BrokerAutoscalerSpec {
     Long stabilizationWindowMs;
 
     @JsonPropertyDescription("Source for getting the brokers resources usage. "
-            + "Possible values are 'PulsarLBReport' and 'K8SMetrics'. Default is 'PulsarLBReport'")
+            + "Possible values are 'PulsarLBReport', 'PulsarLBReportHttp', 'PulsarLBReportZk' and 'K8SMetrics'. "
+            + "'PulsarLBReportHttp' reads the load report calling the brokers directly from the operator instead of "
+            + "executing a command in the broker pods. 'PulsarLBReportZk' reads the load reports of all the brokers "
+            + "published by the load manager in ZooKeeper. Default is 'PulsarLBReport'")
     String resourcesUsageSource;
+    @Min(1)
+    @javax.validation.constraints.Min(1)
+    @JsonPropertyDescription("Max number of brokers queried in parallel when collecting the resources usage. "
+            + "Default is '10'")
+    Integer resourcesUsageMaxConcurrency;
+    @Min(1)
+    @javax.validation.constraints.Min(1)
+    @JsonPropertyDescription("Timeout in milliseconds for getting the resources usage of a single broker. "
+            + "Brokers that don't answer in time are excluded from the scale down decision. Default is '30000'")
+    Long resourcesUsageRequestTimeoutMs;
+    @Min(1)
+    @javax.validation.constraints.Min(1)
+    @JsonPropertyDescription("Overall timeout in milliseconds for collecting the resources usage of all the "
+            + "brokers. Default is '60000'")
+    Long resourcesUsageCollectionTimeoutMs;
+    @Min(1)
+    @javax.validation.constraints.Min(1)
+    @JsonPropertyDescription("Number of resources usage samples kept for each broker. The scaling decision is "
+            + "taken on the aggregation of the samples in the window. Default is '1' (only the last sample).")
+    Integer metricsWindowSize;
+    @JsonPropertyDescription("How the samples in the window are aggregated. "
+            + "Possible values are 'Last', 'EWMA', 'P50', 'P90' and 'Max'. Default is 'Last'")
+    String metricsAggregation;
+    @Min(0)
+    @Max(1)
+    @javax.validation.constraints.Min(0)
+    @javax.validation.constraints.Max(1)
+    @JsonPropertyDescription("Weight of the most recent sample when using the 'EWMA' aggregation. Default is '0.5'")
+    Double metricsEwmaAlpha;
+    @JsonPropertyDescription("Scaling algorithm. 'Threshold' adds or removes a fixed number of brokers when all the "
+            + "brokers are above or below the cpu thresholds. 'TargetUtilization' computes the number of brokers "
+            + "needed to bring the average cpu usage to 'targetCpuUtilization', like the Kubernetes HPA. "
+            + "Default is 'Threshold'")
+    String algorithm;
+    @Min(0)
+    @Max(1)
+    @javax.validation.constraints.Min(0)
+    @javax.validation.constraints.Max(1)
+    @JsonPropertyDescription("Target average cpu usage of the brokers, used by the 'TargetUtilization' algorithm. "
+            + "Default is '0.6'")
+    Double targetCpuUtilization;
+    @Min(0)
+    @Max(1)
+    @javax.validation.constraints.Min(0)
+    @javax.validation.constraints.Max(1)
+    @JsonPropertyDescription("Relative distance from the target usage under which the 'TargetUtilization' algorithm "
+            + "doesn't scale. Default is '0.1'")
+    Double targetUtilizationTolerance;
+    @Min(1)
+    @javax.validation.constraints.Min(1)
+    @JsonPropertyDescription("Max number of brokers added in a single scale up by the 'TargetUtilization' algorithm. "
+            + "Default is unlimited.")
+    Integer maxScaleUpStep;
+    @Min(1)
+    @javax.validation.constraints.Min(1)
+    @JsonPropertyDescription("Max number of brokers removed in a single scale down by the 'TargetUtilization' "
+            + "algorithm. Default is unlimited.")
+    Integer maxScaleDownStep;
+    @JsonPropertyDescription("Memory usage thresholds, relative to the max heap size. "
+            + "Only supported by the Pulsar load report sources. Not set by default.")
+    ThresholdConfig memoryThresholds;
+    @JsonPropertyDescription("Direct memory usage thresholds, relative to the max direct memory size. "
+            + "Only supported by the Pulsar load report sources. Not set by default.")
+    ThresholdConfig directMemoryThresholds;
+    @JsonPropertyDescription("Inbound network usage thresholds, relative to the NIC speed. "
+            + "Only supported by the Pulsar load report sources. Not set by default.")
+    ThresholdConfig bandwidthInThresholds;
+    @JsonPropertyDescription("Outbound network usage thresholds, relative to the NIC speed. "
+            + "Only supported by the Pulsar load report sources. Not set by default.")
+    ThresholdConfig bandwidthOutThresholds;
+    @JsonPropertyDescription("Thresholds on the messages rate (in + out, msg/s) of each broker. "
+            + "Only supported by the Pulsar load report sources. Not set by default.")
+    ThresholdConfig msgRateThresholds;
+    @JsonPropertyDescription("Unload the busiest bundles from the hottest brokers when the cpu usage is skewed "
+            + "across the brokers, before considering adding capacity.")
+    RebalanceConfig rebalance;
+    @JsonPropertyDescription("Drain the brokers before removing them on scale down. The bundles of the brokers "
+            + "to remove are unloaded in batches and the replicas are reduced only when these brokers don't own any "
+            + "bundle anymore, or when the drain timeout expires. The drain progress is kept in the custom resource "
+            + "status, so it's resumed after an operator restart.")
+    ScaleDownDrainConfig scaleDownDrain;
+    @JsonPropertyDescription("Scheduled min number of brokers. While the current time matches the cron expression "
+            + "of a schedule, the autoscaler doesn't scale below its 'minReplicas' and scales up to it if needed. "
+            + "The reactive scaling still applies on top.")
+    List<ScheduleConfig> schedules;
+    @JsonPropertyDescription("Raise the min number of brokers ahead of the expected load. The expected load is "
+            + "learned from the brokers cpu usage observed by the autoscaler in the previous days at the same time "
+            + "of the day.")
+    PredictiveScalingConfig predictiveScaling;
+    @JsonPropertyDescription("Scale up and scale down behaviors, as in the Kubernetes HorizontalPodAutoscaler: "
+            + "stabilization window and max brokers added or removed per period. If set, they're applied on top of the scaling step.")
+    ScalingBehaviorConfig behavior;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ThresholdConfig {
+        @JsonPropertyDescription("The autoscaler will scale down only if the usage of all the brokers is lower than "
+                + "this threshold, for every configured resource.")
+        Double lower;
+        @JsonPropertyDescription("The autoscaler will scale up if the usage of all the brokers is higher than this "
+                + "threshold, for any configured resource.")
+        Double higher;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RebalanceConfig {
+        @JsonPropertyDescription("Enable the bundles rebalancing. Default is 'false'")
+        Boolean enabled;
+        @Min(0)
+        @javax.validation.constraints.Min(0)
+        @JsonPropertyDescription("The load is considered skewed if the coefficient of variation (standard deviation "
+                + "divided by the mean) of the brokers cpu usage is higher than this value, or if some brokers are "
+                + "above 'higherCpuThreshold' while others are below 'lowerCpuThreshold'. Default is '0.3'")
+        Double maxCpuCoefficientOfVariation;
+        @Min(1)
+        @javax.validation.constraints.Min(1)
+        @JsonPropertyDescription("Max number of bundles unloaded at each rebalance. Default is '3'")
+        Integer maxBundleUnloads;
+        @Min(0)
+        @javax.validation.constraints.Min(0)
+        @JsonPropertyDescription("Min interval in milliseconds between two rebalances. Default is 5 minutes.")
+        Long minIntervalMs;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ScaleDownDrainConfig {
+        @JsonPropertyDescription("Enable the brokers drain before scaling down. Default is 'false'")
+        Boolean enabled;
+        @Min(1)
+        @javax.validation.constraints.Min(1)
+        @JsonPropertyDescription("Max number of bundles unloaded from each draining broker at each autoscaler "
+                + "check. Default is '10'")
+        Integer bundlesBatchSize;
+        @Min(0)
+        @javax.validation.constraints.Min(0)
+        @JsonPropertyDescription("Max time in milliseconds to wait for the brokers to be drained. Once expired, the "
+                + "scale down is applied anyway. Default is 10 minutes.")
+        Long timeoutMs;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ScheduleConfig {
+        @NotNull
+        @Required
+        @JsonPropertyDescription("Cron expression with 5 fields (minute, hour, day of month, month, day of week). "
+                + "The schedule is active in every minute matching the expression, "
+                + "e.g. '* 7-19 * * MON-FRI' is active during the working hours.")
+        String cron;
+        @JsonPropertyDescription("Time zone of the cron expression. Default is 'UTC'")
+        String timeZone;
+        @NotNull
+        @Required
+        @Min(1)
+        @javax.validation.constraints.Min(1)
+        @JsonPropertyDescription("Min number of brokers while the schedule is active.")
+        Integer minReplicas;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class PredictiveScalingConfig {
+        @JsonPropertyDescription("Enable the predictive scaling. Default is 'false'")
+        Boolean enabled;
+        @Min(1)
+        @javax.validation.constraints.Min(1)
+        @JsonPropertyDescription("Number of previous days taken into account. Default is '7'")
+        Integer historyDays;
+        @Min(0)
+        @javax.validation.constraints.Min(0)
+        @JsonPropertyDescription("How long in advance, in milliseconds, the brokers are added before the expected "
+                + "load. The min number of brokers is the one needed to keep the peak total cpu usage observed at "
+                + "that time of the day below 'targetCpuUtilization'. Default is 15 minutes.")
+        Long leadTimeMs;
+    }
 
 }
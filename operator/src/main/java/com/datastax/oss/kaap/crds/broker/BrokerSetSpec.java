@@ -117,6 +117,31 @@ public class BrokerSetSpec extends BaseComponentSpec<BrokerSetSpec> {
             .scaleUpBy(1)
             .scaleDownBy(1)
             .stabilizationWindowMs(TimeUnit.MINUTES.toMillis(5))
+            .resourcesUsageMaxConcurrency(10)
+            .resourcesUsageRequestTimeoutMs(TimeUnit.SECONDS.toMillis(30))
+            .resourcesUsageCollectionTimeoutMs(TimeUnit.SECONDS.toMillis(60))
+            .metricsWindowSize(1)
+            .metricsAggregation(BrokerAutoscalerSpec.METRICS_AGGREGATION_LAST)
+            .metricsEwmaAlpha(0.5d)
+            .algorithm(BrokerAutoscalerSpec.ALGORITHM_THRESHOLD)
+            .targetCpuUtilization(0.6d)
+            .targetUtilizationTolerance(0.1d)
+            .rebalance(BrokerAutoscalerSpec.RebalanceConfig.builder()
+                    .enabled(false)
+                    .maxCpuCoefficientOfVariation(0.3d)
+                    .maxBundleUnloads(3)
+                    .minIntervalMs(TimeUnit.MINUTES.toMillis(5))
+                    .build())
+            .scaleDownDrain(BrokerAutoscalerSpec.ScaleDownDrainConfig.builder()
+                    .enabled(false)
+                    .bundlesBatchSize(10)
+                    .timeoutMs(TimeUnit.MINUTES.toMillis(10))
+                    .build())
+            .predictiveScaling(BrokerAutoscalerSpec.PredictiveScalingConfig.builder()
+                    .enabled(false)
+                    .historyDays(7)
+                    .leadTimeMs(TimeUnit.MINUTES.toMillis(15))
+                    .build())
             .build();
 
     private static final Supplier<BrokerSpec.TransactionCoordinatorConfig> DEFAULT_TRANSACTION_COORDINATOR_CONFIG =
@@ -0,0 +1,62 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.crds.broker;
+
+import com.datastax.oss.kaap.crds.AutoscalerStatus;
+import com.datastax.oss.kaap.crds.BaseComponentStatus;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import io.fabric8.kubernetes.api.model.Condition;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@NoArgsConstructor
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class BrokerStatus extends BaseComponentStatus {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class DrainStatus {
+        @JsonPropertyDescription("Number of replicas the broker set is going to be scaled to once the drain is "
+                + "completed.")
+        Integer targetReplicas;
+        @JsonPropertyDescription("Brokers being drained.")
+        List<String> brokers;
+        @JsonPropertyDescription("Drain start time, in milliseconds since the epoch.")
+        Long startedAt;
+        @JsonPropertyDescription("Bundles still owned by each draining broker at the last check.")
+        Map<String, Integer> remainingBundles;
+    }
+
+    @JsonPropertyDescription("Brokers drain in progress before a scale down, for each broker set.")
+    Map<String, DrainStatus> drains;
+
+    @JsonPropertyDescription("Autoscaler decisions journal, for each broker set.")
+    Map<String, AutoscalerStatus> autoscalers;
+
+    public BrokerStatus(List<Condition> conditions, String lastApplied) {
+        super(conditions, lastApplied);
+    }
+}
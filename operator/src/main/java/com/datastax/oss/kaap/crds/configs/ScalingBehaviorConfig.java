@@ -0,0 +1,86 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.crds.configs;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import io.fabric8.generator.annotation.Min;
+import io.fabric8.generator.annotation.Required;
+import java.util.List;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScalingBehaviorConfig {
+
+    public static final String POLICY_TYPE_PODS = "Pods";
+    public static final String POLICY_TYPE_PERCENT = "Percent";
+    public static final String SELECT_POLICY_MAX = "Max";
+    public static final String SELECT_POLICY_MIN = "Min";
+    public static final String SELECT_POLICY_DISABLED = "Disabled";
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ScalingPolicy {
+        @NotNull
+        @Required
+        @JsonPropertyDescription("Policy type, 'Pods' to limit the change to a number of pods or 'Percent' to limit "
+                + "the change to a percentage of the replicas at the beginning of the period.")
+        String type;
+        @NotNull
+        @Required
+        @Min(1)
+        @javax.validation.constraints.Min(1)
+        @JsonPropertyDescription("Max number of pods or max percentage of replicas changed in the period.")
+        Integer value;
+        @NotNull
+        @Required
+        @Min(1000)
+        @javax.validation.constraints.Min(1000)
+        @JsonPropertyDescription("Period, in milliseconds, the policy applies to.")
+        Long periodMs;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ScalingRules {
+        @Min(0)
+        @javax.validation.constraints.Min(0)
+        @JsonPropertyDescription("The autoscaler takes the most conservative replicas computed in this window, in "
+                + "milliseconds, to avoid flapping. Default is '0'")
+        Long stabilizationWindowMs;
+        @JsonPropertyDescription("Policy to use when multiple policies are set: 'Max' selects the policy allowing "
+                + "the biggest change, 'Min' the smallest one, 'Disabled' disables the scaling in this direction. "
+                + "Default is 'Max'")
+        String selectPolicy;
+        @JsonPropertyDescription("Limits to the replicas change in a period. If not set, the change is not limited.")
+        List<ScalingPolicy> policies;
+    }
+
+    @JsonPropertyDescription("Rules applied when scaling up.")
+    ScalingRules scaleUp;
+    @JsonPropertyDescription("Rules applied when scaling down.")
+    ScalingRules scaleDown;
+}
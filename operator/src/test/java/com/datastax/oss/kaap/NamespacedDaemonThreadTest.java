@@ -0,0 +1,129 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+public class NamespacedDaemonThreadTest {
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    private class SetsDaemon extends NamespacedDaemonThread<String> {
+
+        final List<String> scheduled = new ArrayList<>();
+        final Map<String, ScheduledFuture<?>> futures = new LinkedHashMap<>();
+        final Map<String, Set<String>> currentKeys = new HashMap<>();
+        Map<String, String> specs;
+
+        void onSpecChange(String namespace, Map<String, String> specs) {
+            this.specs = specs;
+            onSpecChange(new PulsarClusterSpec(), namespace);
+        }
+
+        @Override
+        protected Map<String, String> getSpecs(PulsarClusterSpec clusterSpec) {
+            return specs;
+        }
+
+        @Override
+        protected List<ScheduledFuture<?>> specChanged(String namespace, String key, String newSpec,
+                                                       PulsarClusterSpec clusterSpec) {
+            final String id = "%s/%s".formatted(namespace, key);
+            scheduled.add(id);
+            final ScheduledFuture<?> future = executor.schedule(() -> {
+            }, 1, TimeUnit.HOURS);
+            futures.put(id, future);
+            return List.of(future);
+        }
+
+        @Override
+        protected void keysChanged(String namespace, Map<String, String> currentSpecs) {
+            currentKeys.put(namespace, currentSpecs.keySet());
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testOnlyChangedSetIsRescheduled() {
+        try (final SetsDaemon daemon = new SetsDaemon()) {
+            daemon.onSpecChange("ns1", Map.of("set1", "spec", "set2", "spec"));
+            daemon.onSpecChange("ns2", Map.of("set1", "spec"));
+            Assert.assertEquals(daemon.scheduled.size(), 3);
+            final ScheduledFuture<?> ns1Set1 = daemon.futures.get("ns1/set1");
+            final ScheduledFuture<?> ns2Set1 = daemon.futures.get("ns2/set1");
+
+            daemon.onSpecChange("ns1", Map.of("set1", "spec", "set2", "changed"));
+            Assert.assertEquals(daemon.scheduled.size(), 4);
+            Assert.assertEquals(daemon.scheduled.get(3), "ns1/set2");
+            Assert.assertFalse(ns1Set1.isCancelled());
+            Assert.assertFalse(ns2Set1.isCancelled());
+
+            // set removed
+            final ScheduledFuture<?> ns1Set2 = daemon.futures.get("ns1/set2");
+            daemon.onSpecChange("ns1", Map.of("set1", "spec"));
+            Assert.assertEquals(daemon.currentKeys.get("ns1"), Set.of("set1"));
+            Assert.assertEquals(daemon.scheduled.size(), 4);
+            Assert.assertTrue(ns1Set2.isCancelled());
+            Assert.assertFalse(ns1Set1.isCancelled());
+
+            daemon.cancelTasks("ns1");
+            Assert.assertTrue(ns1Set1.isCancelled());
+            Assert.assertFalse(ns2Set1.isCancelled());
+            // rescheduled even if the spec didn't change
+            daemon.onSpecChange("ns1", Map.of("set1", "spec"));
+            Assert.assertEquals(daemon.scheduled.size(), 5);
+        }
+    }
+
+    @Test
+    public void testNamespaceRemovedWithLastKey() {
+        try (final SetsDaemon daemon = new SetsDaemon()) {
+            daemon.onSpecChange("ns1", Map.of("set1", "spec"));
+            daemon.onSpecChange("ns2", Map.of("set1", "spec"));
+            Assert.assertEquals(daemon.getNamespaces(), Set.of("ns1", "ns2"));
+
+            daemon.cancelTasks("ns1");
+            Assert.assertEquals(daemon.getNamespaces(), Set.of("ns2"));
+            Assert.assertEquals(daemon.currentKeys.get("ns1"), Set.of());
+
+            // e.g. autoscaler disabled
+            daemon.onSpecChange("ns2", Map.of());
+            Assert.assertTrue(daemon.futures.get("ns2/set1").isCancelled());
+            Assert.assertTrue(daemon.getNamespaces().isEmpty());
+            Assert.assertEquals(daemon.currentKeys.get("ns2"), Set.of());
+
+            daemon.onSpecChange("ns1", Map.of("set1", "spec"));
+            Assert.assertEquals(daemon.getNamespaces(), Set.of("ns1"));
+        }
+    }
+}
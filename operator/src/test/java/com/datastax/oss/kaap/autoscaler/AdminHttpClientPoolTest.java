@@ -0,0 +1,82 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import com.datastax.oss.kaap.mocks.MockKubernetesClient;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class AdminHttpClientPoolTest {
+
+    private static final String CA_CERT = """
+            -----BEGIN CERTIFICATE-----
+            MIIBezCCASGgAwIBAgIUSa6OdymX0FCGzNPECZM8P3VKGJAwCgYIKoZIzj0EAwIw
+            EjEQMA4GA1UEAwwHdGVzdC1jYTAgFw0yNjEwMTUwNjI5MTBaGA8yMTI2MDkyMTA2
+            MjkxMFowEjEQMA4GA1UEAwwHdGVzdC1jYTBZMBMGByqGSM49AgEGCCqGSM49AwEH
+            A0IABNzJskGpjITSn3quS+rdEaG5f9wVBK86QbHcKEPhl5skbfS7siQgYfs5s3Ra
+            ohqS6+HZjxth5lro/roJikFXDvSjUzBRMB0GA1UdDgQWBBTn592Rb7x4F5klJkRY
+            3WlZUfh+FTAfBgNVHSMEGDAWgBTn592Rb7x4F5klJkRY3WlZUfh+FTAPBgNVHRMB
+            Af8EBTADAQH/MAoGCCqGSM49BAMCA0gAMEUCIE7dbCtC+aVzjvEjGkvKX3d5PMNW
+            UzmXF/CDefdi4mP4AiEArXz8jOiZn97NtXPd3yQH/K7TvT5WfTZO6A0Fv162RS4=
+            -----END CERTIFICATE-----
+            """;
+
+    @Test
+    public void testTlsClientRebuiltWhenSecretChanges() {
+        final PulsarClusterSpec clusterSpec = MockKubernetesClient.readYaml("""
+                global:
+                    name: pul
+                    tls:
+                        bookkeeper:
+                            enabled: true
+                            secretName: bk-tls
+                """, PulsarClusterSpec.class);
+        clusterSpec.getGlobal().applyDefaults(null);
+
+        final KubernetesServer server = new KubernetesServer(false, true);
+        server.before();
+        try (final AdminHttpClientPool pool = new AdminHttpClientPool(server.getClient())) {
+            final Secret secret = new SecretBuilder()
+                    .withNewMetadata()
+                    .withName("bk-tls")
+                    .endMetadata()
+                    .withData(Map.of("ca.crt", Base64.getEncoder()
+                            .encodeToString(CA_CERT.getBytes(StandardCharsets.UTF_8))))
+                    .build();
+            server.getClient().secrets().inNamespace("ns").resource(secret).create();
+
+            final HttpClient httpClient = pool.getBookieHttpClient("ns", clusterSpec.getGlobalSpec());
+            Assert.assertSame(pool.getBookieHttpClient("ns", clusterSpec.getGlobalSpec()), httpClient);
+
+            // e.g. the certificate has been renewed
+            secret.getMetadata().setLabels(Map.of("renewed", "true"));
+            server.getClient().secrets().inNamespace("ns").resource(secret).replace();
+            final HttpClient renewed = pool.getBookieHttpClient("ns", clusterSpec.getGlobalSpec());
+            Assert.assertNotSame(renewed, httpClient);
+            Assert.assertSame(pool.getBookieHttpClient("ns", clusterSpec.getGlobalSpec()), renewed);
+        } finally {
+            server.after();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import com.datastax.oss.kaap.crds.AutoscalerStatus;
+import java.util.List;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class AutoscalerDecisionLogTest {
+
+    @Test
+    public void testBounded() {
+        final AutoscalerDecisionLog decisionLog = new AutoscalerDecisionLog(2);
+        decisionLog.record(AutoscalerDecisionLog.ACTION_REBALANCE, "r1");
+        decisionLog.record(AutoscalerDecisionLog.ACTION_SCALE, "s1");
+        decisionLog.record(AutoscalerDecisionLog.ACTION_SCALE, "s2", Map.of("cpu.broker-0", "0.90"));
+        Assert.assertEquals(decisionLog.getDecisions().stream().map(AutoscalerStatus.Decision::getMessage).toList(),
+                List.of("s1", "s2"));
+        // the cooldown is kept even if the decision is not in the journal anymore
+        Assert.assertNotNull(decisionLog.getLastTimestamp(AutoscalerDecisionLog.ACTION_REBALANCE));
+        Assert.assertNull(decisionLog.getLastTimestamp(AutoscalerDecisionLog.ACTION_DRAIN));
+        Assert.assertEquals(decisionLog.toStatus().getDecisions().get(1).getInputs(), Map.of("cpu.broker-0", "0.90"));
+    }
+
+    @Test
+    public void testRestore() {
+        final AutoscalerStatus persisted = new AutoscalerStatus(
+                List.of(AutoscalerStatus.Decision.builder()
+                                .timestamp(1000L)
+                                .action(AutoscalerDecisionLog.ACTION_SCALE)
+                                .message("s1")
+                                .build(),
+                        AutoscalerStatus.Decision.builder()
+                                .timestamp(2000L)
+                                .action(AutoscalerDecisionLog.ACTION_REBALANCE)
+                                .message("r1")
+                                .build()),
+                Map.of(AutoscalerDecisionLog.ACTION_SCALE, 1000L, AutoscalerDecisionLog.ACTION_REBALANCE, 2000L),
+                List.of(AutoscalerStatus.Decision.builder()
+                        .timestamp(500L)
+                        .action(AutoscalerDecisionLog.ACTION_SCALE)
+                        .fromReplicas(2)
+                        .toReplicas(3)
+                        .build()));
+
+        final AutoscalerDecisionLog decisionLog = new AutoscalerDecisionLog(3);
+        decisionLog.record(AutoscalerDecisionLog.ACTION_SCALE, "s2");
+        decisionLog.restore(persisted);
+        Assert.assertEquals(decisionLog.getDecisions().stream().map(AutoscalerStatus.Decision::getMessage).toList(),
+                List.of("s1", "r1", "s2"));
+        Assert.assertEquals(decisionLog.getLastTimestamp(AutoscalerDecisionLog.ACTION_REBALANCE).longValue(), 2000L);
+        Assert.assertTrue(decisionLog.getLastTimestamp(AutoscalerDecisionLog.ACTION_SCALE) > 1000L);
+        Assert.assertEquals(decisionLog.getScaleEvents(0).get(0).getTimestamp().longValue(), 500L);
+
+        // already restored, the in-memory journal is more recent
+        decisionLog.restore(new AutoscalerStatus(List.of(), Map.of(), List.of()));
+        Assert.assertEquals(decisionLog.getDecisions().size(), 3);
+    }
+
+    @Test
+    public void testScaleEvents() {
+        final AutoscalerDecisionLog decisionLog = new AutoscalerDecisionLog(2);
+        // persisted before the scale events had their own history
+        decisionLog.restore(new AutoscalerStatus(
+                List.of(AutoscalerStatus.Decision.builder()
+                        .timestamp(1000L)
+                        .action(AutoscalerDecisionLog.ACTION_SCALE)
+                        .fromReplicas(2)
+                        .toReplicas(3)
+                        .build()),
+                Map.of(), null));
+        decisionLog.recordScale(3, 4, "s1", null);
+        decisionLog.record(AutoscalerDecisionLog.ACTION_REBALANCE, "r1");
+        decisionLog.record(AutoscalerDecisionLog.ACTION_REBALANCE, "r2");
+        Assert.assertEquals(decisionLog.getDecisions().stream().map(AutoscalerStatus.Decision::getMessage).toList(),
+                List.of("r1", "r2"));
+        Assert.assertEquals(decisionLog.getScaleEvents(0).size(), 2);
+        Assert.assertEquals(decisionLog.toStatus().getScaleEvents().size(), 2);
+
+        decisionLog.trimScaleEvents(2000L);
+        Assert.assertEquals(decisionLog.getScaleEvents(0).stream().map(AutoscalerStatus.Decision::getMessage)
+                .toList(), List.of("s1"));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import com.datastax.oss.kaap.controllers.bookkeeper.racks.client.ZkClientRackClientFactory;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperAutoscalerSpec;
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import com.datastax.oss.kaap.mocks.MockKubernetesClient;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.lang3.tuple.Pair;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BookKeeperAutoscalerDaemonTest {
+
+    private static final String SPEC = """
+            global:
+                name: pul
+                resourceSets:
+                    set1:
+                        rack: rack1
+                    set2:
+                        rack: %s
+            bookkeeper:
+                autoscaler:
+                    enabled: true
+                    rackBalancing: true
+                sets:
+                    set1: {}
+                    set2:
+                        autoscaler:
+                            minWritableBookies: %d
+            """;
+
+    private static Map<String, BookKeeperAutoscalerDaemon.TaskSpec> getSpecs(BookKeeperAutoscalerDaemon daemon,
+                                                                             String set2Rack,
+                                                                             int set2MinWritableBookies) {
+        final PulsarClusterSpec clusterSpec = MockKubernetesClient.readYaml(
+                SPEC.formatted(set2Rack, set2MinWritableBookies), PulsarClusterSpec.class);
+        clusterSpec.getGlobal().applyDefaults(null);
+        clusterSpec.getBookkeeper().applyDefaults(clusterSpec.getGlobalSpec());
+        return daemon.getSpecs(clusterSpec);
+    }
+
+    @Test
+    public void testRackBalancingSpecIncludesTheSets() {
+        try (final LaneScheduler scheduler = new LaneScheduler("test-");
+             final BookKeeperAutoscalerDaemon daemon = new BookKeeperAutoscalerDaemon(null, scheduler,
+                     new ZkClientRackClientFactory(null))) {
+            final Map<String, BookKeeperAutoscalerDaemon.TaskSpec> specs = getSpecs(daemon, "rack2", 3);
+            Assert.assertEquals(specs.keySet(), Set.of("rack-balancing:set1,set2"));
+            Assert.assertEquals(getSpecs(daemon, "rack2", 3), specs);
+
+            // a change of the settings or the rack of a set reschedules the task
+            final Map<String, BookKeeperAutoscalerDaemon.TaskSpec> minWritableChanged = getSpecs(daemon, "rack2", 4);
+            Assert.assertEquals(minWritableChanged.keySet(), specs.keySet());
+            Assert.assertNotEquals(minWritableChanged, specs);
+            Assert.assertNotEquals(getSpecs(daemon, "rack3", 3), specs);
+        }
+    }
+
+    @Test
+    public void testStatesOfRemovedSetsDropped() {
+        try (final BookKeeperAutoscalerDaemon daemon = new BookKeeperAutoscalerDaemon(null, null,
+                new ZkClientRackClientFactory(null))) {
+            for (String key : List.of("ns1/set1", "ns1/set2", "ns1/set3", "ns2/set1")) {
+                daemon.getStates().put(key, new BookKeeperSetAutoscalerState());
+            }
+            final BookKeeperAutoscalerSpec autoscaler = new BookKeeperAutoscalerSpec();
+            daemon.keysChanged("ns1", Map.of(
+                    "rack-balancing:set1,set2", new BookKeeperAutoscalerDaemon.TaskSpec(autoscaler,
+                            Map.of("set1", Pair.of(autoscaler, "rack1"), "set2", Pair.of(autoscaler, "rack2")))));
+            Assert.assertEquals(daemon.getStates().keySet(), Set.of("ns1/set1", "ns1/set2", "ns2/set1"));
+
+            daemon.keysChanged("ns1", Map.of("set2", new BookKeeperAutoscalerDaemon.TaskSpec(autoscaler, null)));
+            Assert.assertEquals(daemon.getStates().keySet(), Set.of("ns1/set2", "ns2/set1"));
+
+            daemon.keysChanged("ns2", Map.of());
+            Assert.assertEquals(daemon.getStates().keySet(), Set.of("ns1/set2"));
+        }
+    }
+}
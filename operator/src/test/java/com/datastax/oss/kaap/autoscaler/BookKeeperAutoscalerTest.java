@@ -32,6 +32,7 @@ import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.PodBuilder;
 import io.fabric8.kubernetes.api.model.PodList;
 import io.fabric8.kubernetes.api.model.PodListBuilder;
+import io.fabric8.kubernetes.api.model.PodSpecBuilder;
 import io.fabric8.kubernetes.api.model.PodStatusBuilder;
 import io.fabric8.kubernetes.api.model.Quantity;
 import io.fabric8.kubernetes.api.model.apps.StatefulSet;
@@ -51,16 +52,19 @@ import java.lang.reflect.Field;
 import java.net.HttpURLConnection;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.Builder;
 import lombok.Data;
 import lombok.SneakyThrows;
@@ -315,7 +319,7 @@ public class BookKeeperAutoscalerTest {
                                 .get()
                                 .withPath(genExpectedUrlForExecInPod("pul-bookkeeper-" + i,
                                         "curl -s http://localhost:8000/api/v1/autorecovery"
-                                                + "/list_under_replicated_ledger/"))
+                                                + "/list_under_replicated_ledger/ | head -c 64"))
                                 .andUpgradeToWebSocket()
                                 .open(new OutputStreamMessage("No under replicated ledgers found"))
                                 .done()
@@ -517,6 +521,294 @@ public class BookKeeperAutoscalerTest {
         Assert.assertEquals(4, mockServer.patchOp.getValue());
     }
 
+    @Test
+    public void testScaleUpDiskUsageForecast() throws Exception {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                """;
+        final BookKeeperSetAutoscalerState state = new BookKeeperSetAutoscalerState();
+        // far from the high watermark but growing fast
+        Assert.assertNull(runGrowingDiskUsage(spec, state, 500000).patchOp);
+        Thread.sleep(20);
+        Assert.assertNull(runGrowingDiskUsage(spec, state, 510000).patchOp);
+        Thread.sleep(20);
+        Assert.assertEquals(runGrowingDiskUsage(spec, state, 520000).patchOp.getValue(), 4);
+    }
+
+    @Test
+    public void testDiskUsageForecastDisabled() throws Exception {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        diskUsageHwmLeadTimeMs: 0
+                """;
+        final BookKeeperSetAutoscalerState state = new BookKeeperSetAutoscalerState();
+        Assert.assertNull(runGrowingDiskUsage(spec, state, 500000).patchOp);
+        Thread.sleep(20);
+        Assert.assertNull(runGrowingDiskUsage(spec, state, 510000).patchOp);
+        Thread.sleep(20);
+        Assert.assertNull(runGrowingDiskUsage(spec, state, 520000).patchOp);
+    }
+
+    @Test
+    public void testExpandVolumes() {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        volumeExpansion:
+                            enabled: true
+                            ledgersMaxSize: 100Gi
+                """;
+        final BookKeeperSetAutoscalerState state = new BookKeeperSetAutoscalerState();
+        MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                genAtRiskBookieInfo(), x -> {
+                }, state);
+        Assert.assertEquals(mockServer.patchOp.getPath(), "/spec/bookkeeper/volumes/ledgers/size");
+        Assert.assertEquals(mockServer.patchOp.getValue(), "75Gi");
+        Assert.assertEquals(state.getDecisionLog().getDecisions().get(0).getAction(),
+                AutoscalerDecisionLog.ACTION_EXPAND_VOLUMES);
+
+        // the bookies are still at risk until the file systems are resized
+        mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                genAtRiskBookieInfo(), x -> {
+                }, state);
+        Assert.assertNull(mockServer.patchOp);
+    }
+
+    @Test
+    public void testSetAutoscalerSpec() {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                    sets:
+                        bookkeeper:
+                            autoscaler:
+                                volumeExpansion:
+                                    enabled: true
+                                    ledgersMaxSize: 100Gi
+                """;
+        final BookKeeperSetAutoscalerState state = new BookKeeperSetAutoscalerState();
+        runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                genAtRiskBookieInfo(), x -> {
+                }, state);
+        // the volume expansion is configured on the set only
+        Assert.assertEquals(state.getDecisionLog().getDecisions().get(0).getAction(),
+                AutoscalerDecisionLog.ACTION_EXPAND_VOLUMES);
+    }
+
+    @Test
+    public void testExpandVolumesMaxSizeReached() {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 3
+                    volumes:
+                        ledgers:
+                            size: 100Gi
+                    autoscaler:
+                        enabled: true
+                        volumeExpansion:
+                            enabled: true
+                            ledgersMaxSize: 100Gi
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                genAtRiskBookieInfo());
+        Assert.assertEquals(mockServer.patchOp.getPath(), "/spec/bookkeeper/replicas");
+        Assert.assertEquals(mockServer.patchOp.getValue(), 4);
+    }
+
+    @Test
+    public void testScaleUpMostFullLedgerDirectory() {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                genBookieInfo(List.of(990000L, 100000L), 100000L));
+        Assert.assertEquals(mockServer.patchOp.getValue(), 4);
+    }
+
+    @Test
+    public void testScaleUpJournalAtRisk() {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                genBookieInfo(List.of(100000L), 990000L));
+        Assert.assertEquals(mockServer.patchOp.getValue(), 4);
+    }
+
+    @Test
+    public void testExpandJournalVolume() {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        volumeExpansion:
+                            enabled: true
+                            ledgersMaxSize: 100Gi
+                            journalMaxSize: 40Gi
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                genBookieInfo(List.of(100000L), 990000L));
+        Assert.assertEquals(mockServer.patchOp.getPath(), "/spec/bookkeeper/volumes/journal/size");
+        Assert.assertEquals(mockServer.patchOp.getValue(), "30Gi");
+    }
+
+    @Test
+    public void testKubeletDiskUsageSource() {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        diskUsageSource: Kubelet
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                    pod.setSpec(new PodSpecBuilder(pod.getSpec())
+                            .withNodeName("node-" + (i % 2))
+                            .build());
+                }, statefulSet -> {
+                },
+                // the bookies report a low disk usage
+                genBookieInfo(List.of(100000L), 100000L),
+                server -> {
+                    server.server.expect()
+                            .get()
+                            .withPath("/api/v1/nodes/node-0/proxy/stats/summary")
+                            .andReturn(HttpURLConnection.HTTP_OK, genKubeletSummary(
+                                    Map.of("pul-bookkeeper-0", 100000L, "pul-bookkeeper-2", 100000L)))
+                            .once();
+                    server.server.expect()
+                            .get()
+                            .withPath("/api/v1/nodes/node-1/proxy/stats/summary")
+                            .andReturn(HttpURLConnection.HTTP_OK, genKubeletSummary(
+                                    Map.of("pul-bookkeeper-1", 990000L)))
+                            .once();
+                });
+        Assert.assertEquals(mockServer.patchOp.getValue(), 4);
+    }
+
+    private static String genKubeletSummary(Map<String, Long> ledgersUsedBytes) {
+        return """
+                {"pods": [%s]}
+                """.formatted(ledgersUsedBytes.entrySet().stream()
+                .map(e -> """
+                        {
+                          "podRef": {"name": "%s", "namespace": "ns"},
+                          "volume": [{
+                            "name": "pul-bookkeeper-ledgers",
+                            "capacityBytes": 1000000,
+                            "availableBytes": %d,
+                            "pvcRef": {"name": "pul-bookkeeper-ledgers-%s", "namespace": "ns"}
+                          }]
+                        }
+                        """.formatted(e.getKey(), 1000000 - e.getValue(), e.getKey()))
+                .collect(Collectors.joining(",")));
+    }
+
+    private static Function<PodResource, Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats>>
+            genBookieInfo(List<Long> ledgersUsedBytes, long journalUsedBytes) {
+        return podSpec -> Pair.of(BookieAdminClient.BookieInfo.builder()
+                        .bookieId(podSpec.get().getMetadata().getName())
+                        .podResource(podSpec)
+                        .build(),
+                BookieAdminClient.BookieStats.builder()
+                        .isWritable(true)
+                        .ledgerDiskInfos(ledgersUsedBytes.stream()
+                                .map(used -> BookieAdminClient.BookieLedgerDiskInfo.builder()
+                                        .maxBytes(1000000)
+                                        .usedBytes(used)
+                                        .build())
+                                .toList())
+                        .journalDiskInfos(List.of(BookieAdminClient.BookieLedgerDiskInfo.builder()
+                                .maxBytes(1000000)
+                                .usedBytes(journalUsedBytes)
+                                .build()))
+                        .build());
+    }
+
+    private static Function<PodResource, Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats>>
+            genAtRiskBookieInfo() {
+        return podSpec -> Pair.of(BookieAdminClient.BookieInfo.builder()
+                        .bookieId(podSpec.get().getMetadata().getName())
+                        .podResource(podSpec)
+                        .build(),
+                BookieAdminClient.BookieStats.builder()
+                        .isWritable(true)
+                        .ledgerDiskInfos(List.of(BookieAdminClient.BookieLedgerDiskInfo.builder()
+                                .maxBytes(1000000)
+                                .usedBytes(990000)
+                                .build()))
+                        .build());
+    }
+
+    private MockServer runGrowingDiskUsage(String spec, BookKeeperSetAutoscalerState state, long usedBytes) {
+        Function<PodResource, Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats>> bookieInfofunc =
+                podSpec -> Pair.of(BookieAdminClient.BookieInfo.builder()
+                                .bookieId(podSpec.get().getMetadata().getName())
+                                .podResource(podSpec)
+                                .build(),
+                        BookieAdminClient.BookieStats.builder()
+                                .isWritable(true)
+                                .ledgerDiskInfos(List.of(BookieAdminClient.BookieLedgerDiskInfo.builder()
+                                        .maxBytes(1000000)
+                                        .usedBytes(usedBytes)
+                                        .build()))
+                                .build());
+        return runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                bookieInfofunc, x -> {
+                }, state);
+    }
+
     /**
      * One bookie is read only and one is at risk
      */
@@ -616,7 +908,7 @@ public class BookKeeperAutoscalerTest {
                                 .get()
                                 .withPath(genExpectedUrlForExecInPod("pul-bookkeeper-" + i,
                                         "curl -s http://localhost:8000/api/v1/autorecovery"
-                                                + "/list_under_replicated_ledger/"))
+                                                + "/list_under_replicated_ledger/ | head -c 64"))
                                 .andUpgradeToWebSocket()
                                 .open(new OutputStreamMessage("No under replicated ledgers found"))
                                 .done()
@@ -724,7 +1016,7 @@ public class BookKeeperAutoscalerTest {
                                 .get()
                                 .withPath(genExpectedUrlForExecInPod(podName,
                                         "curl -s http://localhost:8000/api/v1/autorecovery"
-                                                + "/list_under_replicated_ledger/"))
+                                                + "/list_under_replicated_ledger/ | head -c 64"))
                                 .andUpgradeToWebSocket()
                                 .open(new OutputStreamMessage("blah blah"))
                                 .done()
@@ -778,6 +1070,46 @@ public class BookKeeperAutoscalerTest {
         Assert.assertNull(mockServer.patchOp);
     }
 
+    /**
+     * Don't scale down if the stats of a bookie can't be collected
+     */
+    @Test
+    public void testNotScaleDownUnknownBookie() {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 5
+                    autoscaler:
+                        enabled: true
+                        bookieStatsRequestTimeoutMs: 200
+                """;
+
+        Function<PodResource, Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats>> bookieInfofunc =
+                podSpec -> {
+                    List<BookieAdminClient.BookieLedgerDiskInfo> ledgerDiskInfos = new ArrayList<>(1);
+                    ledgerDiskInfos.add(BookieAdminClient.BookieLedgerDiskInfo.builder()
+                            .maxBytes(1000000)
+                            .usedBytes(10000)
+                            .build());
+                    final boolean unresponsive = podSpec.get().getMetadata().getName().endsWith("-4");
+                    return Pair.of(BookieAdminClient.BookieInfo.builder()
+                                    .podResource(podSpec)
+                                    .build(),
+                            unresponsive ? null : BookieAdminClient.BookieStats.builder()
+                                    .isWritable(true)
+                                    .ledgerDiskInfos(ledgerDiskInfos)
+                                    .build()
+                    );
+                };
+
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                bookieInfofunc);
+        Assert.assertNull(mockServer.patchOp);
+    }
+
     /**
      * Don't scale down if there is a full bookie
      */
@@ -916,6 +1248,14 @@ public class BookKeeperAutoscalerTest {
                                      Function<PodResource, Pair<BookieAdminClient.BookieInfo,
                                              BookieAdminClient.BookieStats>> bookieInfofunc,
                                      Consumer<MockServer> serverAfter) {
+        return runAutoscaler(spec, podConf, stsConf, bookieInfofunc, serverAfter, new BookKeeperSetAutoscalerState());
+    }
+
+    private MockServer runAutoscaler(String spec, MockServer.PodConsumer podConf, Consumer<StatefulSet> stsConf,
+                                     Function<PodResource, Pair<BookieAdminClient.BookieInfo,
+                                             BookieAdminClient.BookieStats>> bookieInfofunc,
+                                     Consumer<MockServer> serverAfter,
+                                     BookKeeperSetAutoscalerState state) {
         final PulsarClusterSpec pulsarClusterSpec = MockKubernetesClient.readYaml(spec, PulsarClusterSpec.class);
         try (final MockServer server = MockServer.builder()
                 .withPulsarClusterSpec(pulsarClusterSpec)
@@ -926,7 +1266,8 @@ public class BookKeeperAutoscalerTest {
             serverAfter.accept(server);
 
             BookKeeperSetAutoscaler bkAutoscaler =
-                    new BookKeeperSetAutoscaler(server.server.getClient(), NAMESPACE,
+                    new BookKeeperSetAutoscaler(server.server.getClient(),
+                            new AdminHttpClientPool(server.server.getClient()), null, state, NAMESPACE,
                             BookKeeperResourcesFactory.BOOKKEEPER_DEFAULT_SET, pulsarClusterSpec) {
                         @Override
                         protected BookieAdminClient newBookieAdminClient(GlobalSpec currentGlobalSpec,
@@ -963,20 +1304,32 @@ public class BookKeeperAutoscalerTest {
                 final Pair<BookieInfo, BookieStats> res = bookieInfofunc.apply(pod);
                 System.out.println("putting result in " + pod.get().getMetadata().getName() + " " + res);
                 functionResult.put(pod.get().getMetadata().getName(), res);
+                res.getLeft().setPodName(pod.get().getMetadata().getName());
                 return res.getLeft();
             }
             return super.getBookieInfo(pod);
         }
 
         @Override
-        public BookieStats collectBookieStats(BookieInfo bookieInfo) {
+        public CompletableFuture<BookieStats> collectBookieStatsAsync(BookieInfo bookieInfo, Duration requestTimeout) {
             if (bookieInfofunc != null) {
 
                 final String k = bookieInfo.getPodResource().get().getMetadata().getName();
                 System.out.println("getting result with " + k);
-                return functionResult.get(k).getRight();
+                final BookieStats stats = functionResult.get(k).getRight();
+                // null stats simulate a bookie that never answers
+                return stats == null ? new CompletableFuture<>() : CompletableFuture.completedFuture(stats);
+            }
+            return super.collectBookieStatsAsync(bookieInfo, requestTimeout);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> isWritableAsync(BookieInfo bookieInfo, Duration requestTimeout) {
+            if (bookieInfofunc != null) {
+                final String k = bookieInfo.getPodResource().get().getMetadata().getName();
+                return CompletableFuture.completedFuture(functionResult.get(k).getRight().isWritable());
             }
-            return super.collectBookieStats(bookieInfo);
+            return super.isWritableAsync(bookieInfo, requestTimeout);
         }
 
         @Override
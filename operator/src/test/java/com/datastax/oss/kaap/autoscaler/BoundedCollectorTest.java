@@ -0,0 +1,58 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BoundedCollectorTest {
+
+    @Test
+    public void testCollect() throws Exception {
+        final BoundedCollector.Result<String, String> result = BoundedCollector.collect(List.of("a", "b", "c"),
+                item -> switch (item) {
+                    case "a" -> CompletableFuture.completedFuture("A");
+                    case "b" -> CompletableFuture.failedFuture(new IllegalStateException("error"));
+                    default -> CompletableFuture.failedFuture(new TimeoutException());
+                }, 2, 1000, 1000);
+        Assert.assertEquals(result.getCompleted(), Map.of("a", "A"));
+        Assert.assertEquals(result.getFailed().keySet(), Set.of("b"));
+        Assert.assertEquals(result.getTimedOut(), List.of("c"));
+        Assert.assertFalse(result.isComplete());
+    }
+
+    @Test
+    public void testPermitKeptUntilCallCompletes() throws Exception {
+        final List<String> called = new ArrayList<>();
+        final CompletableFuture<String> stuck = new CompletableFuture<>();
+        final BoundedCollector.Result<String, String> result = BoundedCollector.collect(List.of("a", "b"),
+                item -> {
+                    called.add(item);
+                    return stuck;
+                }, 1, 100, 300);
+        Assert.assertEquals(result.getTimedOut(), List.of("b", "a"));
+        // the collector doesn't complete the call, it must time out on its own
+        Assert.assertFalse(stuck.isDone());
+        // the only permit is still held by the first call
+        Assert.assertEquals(called, List.of("a"));
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import com.datastax.oss.kaap.controllers.broker.BrokerResourcesFactory;
+import com.datastax.oss.kaap.crds.AutoscalerStatus;
+import com.datastax.oss.kaap.crds.broker.Broker;
+import com.datastax.oss.kaap.crds.broker.BrokerFullSpec;
+import com.datastax.oss.kaap.crds.broker.BrokerStatus;
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import com.datastax.oss.kaap.mocks.MockKubernetesClient;
+import com.sun.net.httpserver.HttpServer;
+import io.fabric8.kubernetes.api.model.ContainerStatusBuilder;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.apps.StatefulSetBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.SneakyThrows;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class BrokerAutoscalerDrainTest {
+
+    private static final String NAMESPACE = "ns";
+
+    private KubernetesServer server;
+    private HttpServer httpServer;
+    private final List<String> ownedBundles = new CopyOnWriteArrayList<>();
+    private final List<String> unloadRequests = new CopyOnWriteArrayList<>();
+
+    @BeforeMethod
+    @SneakyThrows
+    public void before() {
+        ownedBundles.clear();
+        unloadRequests.clear();
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        httpServer.createContext("/admin/v2/broker-stats/load-report/", exchange -> {
+            final String bundles = String.join(",", ownedBundles.stream().map(b -> "\"" + b + "\"").toList());
+            final byte[] body = """
+                    {
+                        "cpu": {"usage": 0.8, "limit": 8.0},
+                        "bundles": [%s]
+                    }
+                    """.formatted(bundles).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        httpServer.createContext("/admin/v2/namespaces/", exchange -> {
+            unloadRequests.add(exchange.getRequestURI().getPath() + "?" + exchange.getRequestURI().getQuery());
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        httpServer.start();
+        server = new KubernetesServer(false, true);
+        server.before();
+    }
+
+    @AfterMethod
+    public void after() {
+        if (server != null) {
+            server.after();
+        }
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+    }
+
+    @Test
+    public void testDrainBeforeScaleDown() {
+        final PulsarClusterSpec clusterSpec = setup();
+        ownedBundles.addAll(List.of("public/default/0x00000000_0x80000000", "public/default/0x80000000_0xffffffff"));
+
+        runAutoscaler(clusterSpec);
+        Broker broker = getBroker();
+        Assert.assertEquals(broker.getSpec().getBroker().getReplicas().intValue(), 3);
+        BrokerStatus.DrainStatus drain = broker.getStatus().getDrains().get(BrokerResourcesFactory.BROKER_DEFAULT_SET);
+        Assert.assertEquals(drain.getTargetReplicas().intValue(), 2);
+        Assert.assertEquals(drain.getBrokers(), List.of("pul-broker-2"));
+        Assert.assertEquals(drain.getRemainingBundles(), Map.of("pul-broker-2", 2));
+        final String port = String.valueOf(httpServer.getAddress().getPort());
+        Assert.assertEquals(unloadRequests, List.of(
+                "/admin/v2/namespaces/public/default/0x00000000_0x80000000/unload"
+                        + "?destinationBroker=pul-broker-0.pul-broker.ns.svc.cluster.local:" + port,
+                "/admin/v2/namespaces/public/default/0x80000000_0xffffffff/unload"
+                        + "?destinationBroker=pul-broker-1.pul-broker.ns.svc.cluster.local:" + port));
+
+        // the drain is resumed from the status, even by a new autoscaler instance
+        unloadRequests.clear();
+        ownedBundles.clear();
+        runAutoscaler(clusterSpec);
+        broker = getBroker();
+        Assert.assertEquals(broker.getSpec().getBroker().getReplicas().intValue(), 2);
+        Assert.assertNull(broker.getStatus().getDrains());
+        Assert.assertTrue(unloadRequests.isEmpty());
+
+        // the new autoscaler instance restored the journal before adding its decision
+        final AutoscalerStatus journal = broker.getStatus().getAutoscalers()
+                .get(BrokerResourcesFactory.BROKER_DEFAULT_SET);
+        Assert.assertEquals(journal.getDecisions().stream().map(AutoscalerStatus.Decision::getAction).toList(),
+                List.of(AutoscalerDecisionLog.ACTION_DRAIN, AutoscalerDecisionLog.ACTION_SCALE));
+        Assert.assertEquals(journal.getDecisions().get(1).getInputs(), Map.of("remainingBundles.pul-broker-2", "0"));
+        Assert.assertEquals(journal.getLastActions().keySet(),
+                Set.of(AutoscalerDecisionLog.ACTION_DRAIN, AutoscalerDecisionLog.ACTION_SCALE));
+    }
+
+    @Test
+    public void testDrainTimeout() {
+        final PulsarClusterSpec clusterSpec = setup();
+        ownedBundles.add("public/default/0x00000000_0xffffffff");
+        final Broker broker = getBroker();
+        broker.getStatus().setDrains(Map.of(BrokerResourcesFactory.BROKER_DEFAULT_SET,
+                BrokerStatus.DrainStatus.builder()
+                        .targetReplicas(1)
+                        .brokers(List.of("pul-broker-1", "pul-broker-2"))
+                        .startedAt(System.currentTimeMillis() - 3_600_000)
+                        .build()));
+        client().resources(Broker.class).inNamespace(NAMESPACE).resource(broker).replaceStatus();
+
+        runAutoscaler(clusterSpec);
+        final Broker updated = getBroker();
+        Assert.assertEquals(updated.getSpec().getBroker().getReplicas().intValue(), 1);
+        Assert.assertNull(updated.getStatus().getDrains());
+        Assert.assertTrue(unloadRequests.isEmpty());
+    }
+
+    @Test
+    public void testDrainDisabled() {
+        final PulsarClusterSpec clusterSpec = setup("false");
+        ownedBundles.add("public/default/0x00000000_0xffffffff");
+
+        runAutoscaler(clusterSpec);
+        final Broker broker = getBroker();
+        Assert.assertEquals(broker.getSpec().getBroker().getReplicas().intValue(), 2);
+        Assert.assertNull(broker.getStatus().getDrains());
+        Assert.assertTrue(unloadRequests.isEmpty());
+    }
+
+    private PulsarClusterSpec setup() {
+        return setup("true");
+    }
+
+    private PulsarClusterSpec setup(String drainEnabled) {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    config:
+                        webServicePort: %d
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: PulsarLBReportHttp
+                        scaleDownDrain:
+                            enabled: %s
+                """.formatted(httpServer.getAddress().getPort(), drainEnabled);
+        final PulsarClusterSpec clusterSpec = MockKubernetesClient.readYaml(spec, PulsarClusterSpec.class);
+        clusterSpec.getGlobal().applyDefaults(null);
+        clusterSpec.getBroker().applyDefaults(clusterSpec.getGlobalSpec());
+
+        final Broker broker = new Broker();
+        broker.setMetadata(new ObjectMetaBuilder().withName("pul-broker").withNamespace(NAMESPACE).build());
+        broker.setSpec(BrokerFullSpec.builder()
+                .global(clusterSpec.getGlobal())
+                .broker(clusterSpec.getBroker())
+                .build());
+        client().resources(Broker.class).inNamespace(NAMESPACE).resource(broker).create();
+
+        client().apps().statefulSets().inNamespace(NAMESPACE).resource(new StatefulSetBuilder()
+                .withNewMetadata()
+                .withName("pul-broker")
+                .endMetadata()
+                .withNewSpec()
+                .withReplicas(3)
+                .endSpec()
+                .withNewStatus()
+                .withReplicas(3)
+                .withReadyReplicas(3)
+                .withUpdatedReplicas(3)
+                .withCurrentRevision("rev")
+                .withUpdateRevision("rev")
+                .endStatus()
+                .build()).create();
+
+        for (int i = 0; i < 3; i++) {
+            client().pods().inNamespace(NAMESPACE).resource(new PodBuilder()
+                    .withNewMetadata()
+                    .withName("pul-broker-%d".formatted(i))
+                    .withLabels(Map.of("cluster", "pul", "component", "broker", "resource-set", "broker"))
+                    .endMetadata()
+                    .withNewStatus()
+                    .withPodIP("127.0.0.1")
+                    .withContainerStatuses(new ArrayList<>(List.of(new ContainerStatusBuilder()
+                            .withReady(true)
+                            .build())))
+                    .withStartTime(Instant.now().minusSeconds(500).toString())
+                    .endStatus()
+                    .build()).create();
+        }
+        return clusterSpec;
+    }
+
+    private void runAutoscaler(PulsarClusterSpec clusterSpec) {
+        new BrokerSetAutoscaler(client(), NAMESPACE, BrokerResourcesFactory.BROKER_DEFAULT_SET, clusterSpec)
+                .internalRun();
+    }
+
+    private Broker getBroker() {
+        return client().resources(Broker.class).inNamespace(NAMESPACE).withName("pul-broker").get();
+    }
+
+    private KubernetesClient client() {
+        return server.getClient();
+    }
+}
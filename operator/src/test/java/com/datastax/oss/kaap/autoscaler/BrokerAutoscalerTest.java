@@ -21,16 +21,21 @@ import com.datastax.oss.kaap.crds.broker.BrokerFullSpec;
 import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
 import com.datastax.oss.kaap.mocks.MockKubernetesClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
 import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
 import io.fabric8.kubernetes.api.model.ContainerStatusBuilder;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.PodBuilder;
 import io.fabric8.kubernetes.api.model.PodList;
 import io.fabric8.kubernetes.api.model.PodListBuilder;
+import io.fabric8.kubernetes.api.model.PodSpecBuilder;
 import io.fabric8.kubernetes.api.model.PodStatusBuilder;
 import io.fabric8.kubernetes.api.model.Quantity;
 import io.fabric8.kubernetes.api.model.apps.StatefulSet;
 import io.fabric8.kubernetes.api.model.apps.StatefulSetStatusBuilder;
+import io.fabric8.kubernetes.api.model.metrics.v1beta1.ContainerMetrics;
 import io.fabric8.kubernetes.api.model.metrics.v1beta1.ContainerMetricsBuilder;
 import io.fabric8.kubernetes.api.model.metrics.v1beta1.PodMetrics;
 import io.fabric8.kubernetes.api.model.metrics.v1beta1.PodMetricsBuilder;
@@ -41,12 +46,15 @@ import io.fabric8.mockwebserver.utils.BodyProvider;
 import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Field;
 import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 import lombok.Builder;
 import lombok.Data;
@@ -170,12 +178,6 @@ public class BrokerAutoscalerTest {
                 podConsumer.accept(pod, podMetrics, i);
                 pods.add(pod);
                 podsMetrics.add(podMetrics);
-
-                server.expect()
-                        .get()
-                        .withPath("/api/v1/namespaces/ns/pods/%s".formatted(podName))
-                        .andReturn(HttpURLConnection.HTTP_OK, pod)
-                        .once();
             }
             final PodList podList = new PodListBuilder()
                     .withItems(pods)
@@ -320,6 +322,379 @@ public class BrokerAutoscalerTest {
     }
 
 
+    @Test
+    public void testScaleDownSkippedWithPartialUsages() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.1"));
+            if (i == 2) {
+                metrics.getContainers().get(0).getUsage().remove("cpu");
+            }
+        }, statefulSet -> {
+        });
+        Assert.assertNull(mockServer.patchOp);
+    }
+
+    @Test
+    public void testScaleUpWithPartialUsages() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.9"));
+            if (i == 2) {
+                metrics.getContainers().get(0).getUsage().remove("cpu");
+            }
+        }, statefulSet -> {
+        });
+        Assert.assertEquals(4, mockServer.patchOp.getValue());
+    }
+
+
+    @Test
+    public void testSidecarUsageCounted() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.9"));
+            addSidecar(pod, metrics, "0.1");
+        }, statefulSet -> {
+        });
+        // (0.9 + 0.1) / (1 + 1)
+        Assert.assertNull(mockServer.patchOp);
+    }
+
+    @Test
+    public void testSidecarWithoutRequests() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.1"));
+            addSidecar(pod, metrics, "0.1");
+            if (i == 2) {
+                pod.getSpec().getContainers().get(1).getResources().setRequests(null);
+            }
+        }, statefulSet -> {
+        });
+        Assert.assertNull(mockServer.patchOp);
+    }
+
+    private static void addSidecar(Pod pod, PodMetrics metrics, String cpuUsage) {
+        final List<Container> containers = new ArrayList<>(pod.getSpec().getContainers());
+        containers.add(new ContainerBuilder()
+                .withName("sidecar")
+                .withNewResources()
+                .withRequests(new HashMap<>(Map.of("cpu", Quantity.parse("1"))))
+                .endResources()
+                .build());
+        pod.setSpec(new PodSpecBuilder(pod.getSpec()).withContainers(containers).build());
+        final List<ContainerMetrics> containersMetrics = new ArrayList<>(metrics.getContainers());
+        containersMetrics.add(new ContainerMetricsBuilder()
+                .withName("sidecar")
+                .withUsage(new HashMap<>(Map.of("cpu", Quantity.parse(cpuUsage))))
+                .build());
+        metrics.setContainers(containersMetrics);
+    }
+
+    @Test
+    public void testTargetUtilizationScaleUp() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                        algorithm: TargetUtilization
+                        targetCpuUtilization: 0.6
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.9"));
+        }, statefulSet -> {
+        });
+        Assert.assertEquals(5, mockServer.patchOp.getValue());
+    }
+
+    @Test
+    public void testTargetUtilizationMaxStep() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                        algorithm: TargetUtilization
+                        targetCpuUtilization: 0.6
+                        maxScaleUpStep: 1
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.9"));
+        }, statefulSet -> {
+        });
+        Assert.assertEquals(4, mockServer.patchOp.getValue());
+    }
+
+    @Test
+    public void testTargetUtilizationScaleDown() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 4
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                        algorithm: TargetUtilization
+                        targetCpuUtilization: 0.6
+                        min: 2
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.1"));
+        }, statefulSet -> {
+        });
+        Assert.assertEquals(2, mockServer.patchOp.getValue());
+    }
+
+    @Test
+    public void testTargetUtilizationWithinTolerance() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                        algorithm: TargetUtilization
+                        targetCpuUtilization: 0.6
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.62"));
+        }, statefulSet -> {
+        });
+        Assert.assertNull(mockServer.patchOp);
+    }
+
+    @Test
+    public void testTargetUtilizationScaleDownSkippedWithPartialUsages() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 6
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                        algorithm: TargetUtilization
+                        targetCpuUtilization: 0.6
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        // the only available broker is hot
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.7"));
+            if (i > 0) {
+                metrics.getContainers().get(0).getUsage().remove("cpu");
+            }
+        }, statefulSet -> {
+        });
+        Assert.assertNull(mockServer.patchOp);
+    }
+
+    @Test
+    public void testTargetUtilizationDirectionNotReversedByPartialUsages() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                        algorithm: TargetUtilization
+                        targetCpuUtilization: 0.3
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        // the available brokers are cold, the unavailable one assumed fully used must not cause a scale up
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.1"));
+            if (i == 2) {
+                metrics.getContainers().get(0).getUsage().remove("cpu");
+            }
+        }, statefulSet -> {
+        });
+        Assert.assertNull(mockServer.patchOp);
+    }
+
+    @Test
+    public void testScaleUpLimitedByBehavior() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                        algorithm: TargetUtilization
+                        targetCpuUtilization: 0.3
+                        behavior:
+                            scaleUp:
+                                selectPolicy: Min
+                                policies:
+                                - type: Pods
+                                  value: 2
+                                  periodMs: 60000
+                                - type: Percent
+                                  value: 100
+                                  periodMs: 60000
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.9"));
+        }, statefulSet -> {
+        });
+        Assert.assertEquals(5, mockServer.patchOp.getValue());
+    }
+
+    @Test
+    public void testScheduledMinReplicas() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                        schedules:
+                        - cron: "* * * * *"
+                          minReplicas: 5
+                        - cron: "0 0 1 1 *"
+                          timeZone: Europe/Rome
+                          minReplicas: 10
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.5"));
+        }, statefulSet -> {
+        });
+        Assert.assertEquals(5, mockServer.patchOp.getValue());
+    }
+
+    @Test
+    public void testScheduledMinReplicasCappedToMax() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                        max: 4
+                        schedules:
+                        - cron: "* * * * *"
+                          minReplicas: 5
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.5"));
+        }, statefulSet -> {
+        });
+        Assert.assertEquals(4, mockServer.patchOp.getValue());
+    }
+
+
+    @Test
+    public void testScaleDownIgnoresNotAvailableResources() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                        memoryThresholds:
+                            lower: 0.2
+                            higher: 0.9
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+            metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.1"));
+        }, statefulSet -> {
+        });
+        Assert.assertEquals(2, mockServer.patchOp.getValue());
+    }
+
+
     @Test
     public void testDoNotScaleToZero() {
         final String spec = """
@@ -341,6 +716,59 @@ public class BrokerAutoscalerTest {
         Assert.assertNull(mockServer.patchOp);
     }
 
+    @Test
+    public void testRebalanceSkewedLoad() throws Exception {
+        final HttpServer httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        final List<String> unloadRequests = new CopyOnWriteArrayList<>();
+        httpServer.createContext("/admin/v2/broker-stats/load-report/", exchange -> {
+            final byte[] body = """
+                    {
+                        "lastStats": {
+                            "public/default/0x00000000_0x80000000": {"msgThroughputIn": 100},
+                            "public/default/0x80000000_0xffffffff": {"msgThroughputIn": 1000}
+                        }
+                    }
+                    """.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        httpServer.createContext("/admin/v2/namespaces/", exchange -> {
+            unloadRequests.add(exchange.getRequestURI().getPath());
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        httpServer.start();
+        try {
+            final String spec = """
+                    global:
+                       name: pul
+                    broker:
+                        replicas: 3
+                        config:
+                            webServicePort: %d
+                        autoscaler:
+                            enabled: true
+                            resourcesUsageSource: K8SMetrics
+                            rebalance:
+                                enabled: true
+                        resources:
+                            requests:
+                                cpu: 1
+                    """.formatted(httpServer.getAddress().getPort());
+            final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                pod.getStatus().setPodIP("127.0.0.1");
+                metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse(i == 0 ? "0.9" : "0.1"));
+            }, statefulSet -> {
+            });
+            Assert.assertNull(mockServer.patchOp);
+            Assert.assertEquals(unloadRequests,
+                    List.of("/admin/v2/namespaces/public/default/0x80000000_0xffffffff/unload"));
+        } finally {
+            httpServer.stop(0);
+        }
+    }
+
     private MockServer runAutoscaler(String spec, MockServer.PodConsumer podConf, Consumer<StatefulSet> stsConf) {
         final PulsarClusterSpec pulsarClusterSpec = MockKubernetesClient.readYaml(spec, PulsarClusterSpec.class);
         try (final MockServer server = MockServer.builder()
@@ -0,0 +1,74 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CronExpressionTest {
+
+    // 2024-01-01 is a monday
+    private static ZonedDateTime time(int month, int day, int hour, int minute) {
+        return ZonedDateTime.of(2024, month, day, hour, minute, 0, 0, ZoneOffset.UTC);
+    }
+
+    @Test
+    public void testAny() {
+        Assert.assertTrue(new CronExpression("* * * * *").matches(time(5, 17, 13, 42)));
+    }
+
+    @Test
+    public void testWorkingHours() {
+        final CronExpression cron = new CronExpression("* 8-17 * * MON-FRI");
+        Assert.assertTrue(cron.matches(time(1, 1, 8, 0)));
+        Assert.assertTrue(cron.matches(time(1, 5, 17, 59)));
+        Assert.assertFalse(cron.matches(time(1, 1, 18, 0)));
+        Assert.assertFalse(cron.matches(time(1, 6, 10, 0)));
+    }
+
+    @Test
+    public void testListsAndSteps() {
+        final CronExpression cron = new CronExpression("*/15,7 0 1 jan,7 *");
+        Assert.assertTrue(cron.matches(time(1, 1, 0, 0)));
+        Assert.assertTrue(cron.matches(time(1, 1, 0, 45)));
+        Assert.assertTrue(cron.matches(time(7, 1, 0, 7)));
+        Assert.assertFalse(cron.matches(time(1, 1, 0, 8)));
+        Assert.assertFalse(cron.matches(time(2, 1, 0, 0)));
+
+        final CronExpression from = new CronExpression("5/20 * * * *");
+        Assert.assertTrue(from.matches(time(1, 1, 0, 45)));
+        Assert.assertFalse(from.matches(time(1, 1, 0, 0)));
+    }
+
+    @Test
+    public void testDayOfMonthOrDayOfWeek() {
+        final CronExpression cron = new CronExpression("* * 15 * 0");
+        Assert.assertTrue(cron.matches(time(1, 15, 0, 0)));
+        // sunday
+        Assert.assertTrue(cron.matches(time(1, 7, 0, 0)));
+        Assert.assertFalse(cron.matches(time(1, 8, 0, 0)));
+        Assert.assertTrue(new CronExpression("* * * * 7").matches(time(1, 7, 0, 0)));
+    }
+
+    @Test
+    public void testInvalid() {
+        for (String expression : new String[]{"* * * *", "60 * * * *", "* * * FOO *", "5-1 * * * *", "*/0 * * * *"}) {
+            Assert.expectThrows(IllegalArgumentException.class, () -> new CronExpression(expression));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class LaneSchedulerTest {
+
+    @Test
+    @SneakyThrows
+    public void testSlowLaneDoesNotBlockOthers() {
+        try (final LaneScheduler scheduler = new LaneScheduler("test-")) {
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch brokerRuns = new CountDownLatch(3);
+            scheduler.scheduleWithFixedDelay(LaneScheduler.computeLane("ns", "bookkeeper"), () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, 0, 10, TimeUnit.MILLISECONDS);
+            scheduler.scheduleWithFixedDelay(LaneScheduler.computeLane("ns", "broker"), brokerRuns::countDown,
+                    0, 10, TimeUnit.MILLISECONDS);
+            Assert.assertTrue(brokerRuns.await(10, TimeUnit.SECONDS));
+            release.countDown();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void testSameLaneIsSerialized() {
+        try (final LaneScheduler scheduler = new LaneScheduler("test-")) {
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            final CountDownLatch runs = new CountDownLatch(10);
+            final Runnable task = () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                runs.countDown();
+            };
+            scheduler.scheduleWithFixedDelay("lane", task, 0, 1, TimeUnit.MILLISECONDS);
+            scheduler.scheduleWithFixedDelay("lane", task, 0, 1, TimeUnit.MILLISECONDS);
+            Assert.assertTrue(runs.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(maxRunning.get(), 1);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void testIdleLanesReleased() {
+        try (final LaneScheduler scheduler = new LaneScheduler("test-")) {
+            final ScheduledFuture<?> first = scheduler.scheduleWithFixedDelay("ns1/broker", () -> {
+            }, 0, 10, TimeUnit.MILLISECONDS);
+            scheduler.scheduleWithFixedDelay("ns2/broker", () -> {
+            }, 0, 10, TimeUnit.MILLISECONDS);
+            Assert.assertEquals(scheduler.getLanesCount(), 2);
+            first.cancel(true);
+            scheduler.releaseIdleLanes();
+            Assert.assertEquals(scheduler.getLanesCount(), 1);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void testRescheduleWaitsForCancelledTask() {
+        try (final LaneScheduler scheduler = new LaneScheduler("test-")) {
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            final ScheduledFuture<?> old = scheduler.scheduleWithFixedDelay("lane", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                started.countDown();
+                // ignores the interruption, like a blocking call that doesn't support it
+                while (release.getCount() > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignore) {
+                    }
+                }
+                running.decrementAndGet();
+            }, 0, 1, TimeUnit.SECONDS);
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            old.cancel(true);
+
+            final CountDownLatch newRuns = new CountDownLatch(1);
+            scheduler.scheduleWithFixedDelay("lane", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                running.decrementAndGet();
+                newRuns.countDown();
+            }, 0, 1, TimeUnit.SECONDS);
+            Assert.assertEquals(scheduler.getLanesCount(), 1);
+            Assert.assertFalse(newRuns.await(200, TimeUnit.MILLISECONDS));
+
+            release.countDown();
+            Assert.assertTrue(newRuns.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(maxRunning.get(), 1);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import com.datastax.oss.kaap.crds.configs.ScalingBehaviorConfig;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ScalingBehaviorLimiterTest {
+
+    private static ScalingBehaviorConfig.ScalingPolicy policy(String type, int value) {
+        return new ScalingBehaviorConfig.ScalingPolicy(type, value, 60_000L);
+    }
+
+    @Test
+    public void testNoRules() {
+        final ScalingBehaviorLimiter limiter = new ScalingBehaviorLimiter();
+        final AutoscalerDecisionLog decisionLog = new AutoscalerDecisionLog();
+        Assert.assertEquals(limiter.apply(new ScalingBehaviorConfig(), 3, 6, decisionLog, 1000), 6);
+        Assert.assertEquals(limiter.apply(new ScalingBehaviorConfig(), 3, 1, decisionLog, 2000), 1);
+    }
+
+    @Test
+    public void testScaleUpPolicies() {
+        final ScalingBehaviorConfig behavior = ScalingBehaviorConfig.builder()
+                .scaleUp(ScalingBehaviorConfig.ScalingRules.builder()
+                        .policies(List.of(policy(ScalingBehaviorConfig.POLICY_TYPE_PODS, 1)))
+                        .build())
+                .build();
+        final ScalingBehaviorLimiter limiter = new ScalingBehaviorLimiter();
+        final AutoscalerDecisionLog decisionLog = new AutoscalerDecisionLog();
+        final long now = System.currentTimeMillis();
+        Assert.assertEquals(limiter.apply(behavior, 3, 6, decisionLog, now), 4);
+        decisionLog.recordScale(3, 4, "scaled", null);
+        // the budget of the period has been used
+        Assert.assertEquals(limiter.apply(behavior, 4, 6, decisionLog, now), 4);
+        // no budget left, but never scale down because of the scale up policies
+        Assert.assertEquals(limiter.apply(behavior, 4, 5, decisionLog, now), 4);
+
+        behavior.getScaleUp().setPolicies(List.of(policy(ScalingBehaviorConfig.POLICY_TYPE_PODS, 1),
+                policy(ScalingBehaviorConfig.POLICY_TYPE_PERCENT, 100)));
+        Assert.assertEquals(limiter.apply(behavior, 4, 10, decisionLog, now), 6);
+        behavior.getScaleUp().setSelectPolicy(ScalingBehaviorConfig.SELECT_POLICY_MIN);
+        Assert.assertEquals(limiter.apply(behavior, 4, 10, decisionLog, now), 4);
+        behavior.getScaleUp().setSelectPolicy(ScalingBehaviorConfig.SELECT_POLICY_DISABLED);
+        Assert.assertEquals(limiter.apply(behavior, 3, 10, new AutoscalerDecisionLog(), now), 3);
+    }
+
+    @Test
+    public void testScaleEventsNotPushedOutOfTheJournal() {
+        final ScalingBehaviorConfig behavior = ScalingBehaviorConfig.builder()
+                .scaleUp(ScalingBehaviorConfig.ScalingRules.builder()
+                        .policies(List.of(policy(ScalingBehaviorConfig.POLICY_TYPE_PODS, 1)))
+                        .build())
+                .build();
+        final ScalingBehaviorLimiter limiter = new ScalingBehaviorLimiter();
+        final AutoscalerDecisionLog decisionLog = new AutoscalerDecisionLog();
+        final long now = System.currentTimeMillis();
+        decisionLog.recordScale(3, 4, "scaled", null);
+        for (int i = 0; i < AutoscalerDecisionLog.DEFAULT_MAX_ENTRIES; i++) {
+            decisionLog.record(AutoscalerDecisionLog.ACTION_REBALANCE, "rebalanced");
+        }
+        Assert.assertEquals(limiter.apply(behavior, 4, 6, decisionLog, now), 4);
+        // the scale event is out of the policy period
+        Assert.assertEquals(limiter.apply(behavior, 4, 6, decisionLog, now + 120_000L), 5);
+        Assert.assertTrue(decisionLog.getScaleEvents(0).isEmpty());
+    }
+
+    @Test
+    public void testScaleDownPolicies() {
+        final ScalingBehaviorConfig behavior = ScalingBehaviorConfig.builder()
+                .scaleDown(ScalingBehaviorConfig.ScalingRules.builder()
+                        .policies(List.of(policy(ScalingBehaviorConfig.POLICY_TYPE_PERCENT, 50),
+                                policy(ScalingBehaviorConfig.POLICY_TYPE_PODS, 2)))
+                        .build())
+                .build();
+        final ScalingBehaviorLimiter limiter = new ScalingBehaviorLimiter();
+        final AutoscalerDecisionLog decisionLog = new AutoscalerDecisionLog();
+        final long now = System.currentTimeMillis();
+        Assert.assertEquals(limiter.apply(behavior, 10, 1, decisionLog, now), 5);
+        behavior.getScaleDown().setSelectPolicy(ScalingBehaviorConfig.SELECT_POLICY_MIN);
+        Assert.assertEquals(limiter.apply(behavior, 10, 1, decisionLog, now), 8);
+        decisionLog.recordScale(10, 8, "scaled", null);
+        Assert.assertEquals(limiter.apply(behavior, 8, 1, decisionLog, now), 8);
+        // scaling up is not limited
+        Assert.assertEquals(limiter.apply(behavior, 8, 12, decisionLog, now), 12);
+    }
+
+    @Test
+    public void testStabilizationWindow() {
+        final ScalingBehaviorConfig behavior = ScalingBehaviorConfig.builder()
+                .scaleDown(ScalingBehaviorConfig.ScalingRules.builder()
+                        .stabilizationWindowMs(300_000L)
+                        .build())
+                .build();
+        final ScalingBehaviorLimiter limiter = new ScalingBehaviorLimiter();
+        final AutoscalerDecisionLog decisionLog = new AutoscalerDecisionLog();
+        Assert.assertEquals(limiter.apply(behavior, 5, 5, decisionLog, 0), 5);
+        Assert.assertEquals(limiter.apply(behavior, 5, 3, decisionLog, 10_000), 5);
+        Assert.assertEquals(limiter.apply(behavior, 5, 4, decisionLog, 200_000), 5);
+        // the highest recommendation in the window is now 4
+        Assert.assertEquals(limiter.apply(behavior, 5, 3, decisionLog, 301_000), 4);
+        Assert.assertEquals(limiter.apply(behavior, 5, 3, decisionLog, 501_000), 3);
+        // the scale up has no window
+        Assert.assertEquals(limiter.apply(behavior, 3, 6, decisionLog, 502_000), 6);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import java.util.List;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BookKeeperRackBalancerTest {
+
+    private static final long BOOKIE_CAPACITY = 100;
+
+    @Test
+    public void testScaleUpMostUsedRack() {
+        // rack b has less bookies and fills up first
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a", "a", 3, 3, 200),
+                set("set-b", "b", 2, 3, 190),
+                set("set-c", "c", 3, 3, 200)
+        )), Map.of("set-a", 3, "set-b", 3, "set-c", 3));
+
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a", "a", 3, 4, 200),
+                set("set-b", "b", 2, 2, 190),
+                set("set-c", "c", 3, 3, 200)
+        )), Map.of("set-a", 3, "set-b", 3, "set-c", 3));
+
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a", "a", 3, 5, 200),
+                set("set-b", "b", 2, 2, 190),
+                set("set-c", "c", 3, 3, 200)
+        )), Map.of("set-a", 4, "set-b", 3, "set-c", 3));
+    }
+
+    @Test
+    public void testScaleUpSetsInSameRack() {
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a1", "a", 1, 1, 100),
+                set("set-a2", "a", 2, 2, 190),
+                set("set-b", "b", 4, 5, 300)
+        )), Map.of("set-a1", 2, "set-a2", 2, "set-b", 4));
+    }
+
+    @Test
+    public void testScaleUpSetsWithoutRack() {
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a", null, 3, 4, 100),
+                set("set-b", null, 3, 3, 250)
+        )), Map.of("set-a", 3, "set-b", 4));
+    }
+
+    @Test
+    public void testScaleUpMinReplicas() {
+        // the missing writable bookies are added to the set anyway
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a", "a", 1, 3, 3, 50),
+                set("set-b", "b", 3, 3, 270)
+        )), Map.of("set-a", 3, "set-b", 3));
+
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a", "a", 1, 4, 3, 50),
+                set("set-b", "b", 3, 3, 270)
+        )), Map.of("set-a", 3, "set-b", 4));
+    }
+
+    @Test
+    public void testScaleUpMaxReplicas() {
+        final BookKeeperRackBalancer.SetState full = set("set-b", "b", 3, 3, 270);
+        full.setMaxReplicas(3);
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a", "a", 3, 4, 100),
+                full
+        )), Map.of("set-a", 4, "set-b", 3));
+
+        final BookKeeperRackBalancer.SetState alsoFull = set("set-a", "a", 3, 4, 100);
+        alsoFull.setMaxReplicas(3);
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(alsoFull, full)),
+                Map.of("set-a", 3, "set-b", 3));
+    }
+
+    @Test
+    public void testNotScalable() {
+        final BookKeeperRackBalancer.SetState notReady = set("set-b", "b", 2, 2, 190);
+        notReady.setScalable(false);
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a", "a", 3, 4, 200),
+                notReady
+        )), Map.of("set-a", 4, "set-b", 2));
+
+        // the capacity of rack b is not known
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a", "a", 3, 2, 20),
+                notReady
+        )), Map.of("set-a", 3, "set-b", 2));
+    }
+
+    @Test
+    public void testScaleDownLeastUsedRack() {
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a", "a", 4, 3, 100),
+                set("set-b", "b", 4, 3, 200),
+                set("set-c", "c", 4, 4, 200)
+        )), Map.of("set-a", 3, "set-b", 4, "set-c", 4));
+
+        // rack a is the smallest now
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a", "a", 3, 2, 100),
+                set("set-b", "b", 4, 3, 200),
+                set("set-c", "c", 4, 4, 200)
+        )), Map.of("set-a", 3, "set-b", 3, "set-c", 4));
+
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a", "a", 3, 2, 100),
+                set("set-b", "b", 3, 3, 200),
+                set("set-c", "c", 4, 4, 200)
+        )), Map.of("set-a", 3, "set-b", 3, "set-c", 4));
+
+        // never below the recommendation of the set
+        Assert.assertEquals(BookKeeperRackBalancer.balance(List.of(
+                set("set-a", "a", 4, 2, 100),
+                set("set-b", "b", 4, 4, 200)
+        )), Map.of("set-a", 3, "set-b", 4));
+    }
+
+    private static BookKeeperRackBalancer.SetState set(String name, String rack, int currentReplicas,
+                                                       int recommendedReplicas, long usedBytes) {
+        return set(name, rack, currentReplicas, recommendedReplicas, currentReplicas, usedBytes);
+    }
+
+    private static BookKeeperRackBalancer.SetState set(String name, String rack, int currentReplicas,
+                                                       int recommendedReplicas, int minReplicas, long usedBytes) {
+        return BookKeeperRackBalancer.SetState.builder()
+                .name(name)
+                .rack(rack)
+                .scalable(true)
+                .currentReplicas(currentReplicas)
+                .recommendedReplicas(recommendedReplicas)
+                .minReplicas(minReplicas)
+                .maxReplicas(10)
+                .capacityBytes(currentReplicas * BOOKIE_CAPACITY)
+                .usedBytes(usedBytes)
+                .bookieCapacityBytes(BOOKIE_CAPACITY)
+                .build();
+    }
+}
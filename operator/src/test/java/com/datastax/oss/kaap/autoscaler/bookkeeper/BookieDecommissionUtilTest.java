@@ -0,0 +1,261 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
+import com.datastax.oss.kaap.crds.bookkeeper.BookieDecommissionStatus;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BookieDecommissionUtilTest {
+
+    @Test
+    public void testAwaitNoUnderReplicatedLedgers() {
+        BookieAdminClient bookieAdminClient = mock(BookieAdminClient.class);
+        when(bookieAdminClient.doesNotHaveUnderReplicatedLedgers()).thenReturn(true);
+        Assert.assertTrue(BookieDecommissionUtil.awaitNoUnderReplicatedLedgers(bookieAdminClient, 1, 1000));
+        verify(bookieAdminClient, never()).countUnderReplicatedLedgers();
+
+        bookieAdminClient = mock(BookieAdminClient.class);
+        when(bookieAdminClient.doesNotHaveUnderReplicatedLedgers()).thenReturn(false);
+        when(bookieAdminClient.countUnderReplicatedLedgers())
+                .thenReturn(10)
+                .thenThrow(new IllegalStateException("bookie not available"))
+                .thenReturn(3)
+                .thenReturn(0);
+        Assert.assertTrue(BookieDecommissionUtil.awaitNoUnderReplicatedLedgers(bookieAdminClient, 1, 10000));
+        verify(bookieAdminClient, times(4)).countUnderReplicatedLedgers();
+
+        bookieAdminClient = mock(BookieAdminClient.class);
+        when(bookieAdminClient.doesNotHaveUnderReplicatedLedgers()).thenReturn(false);
+        when(bookieAdminClient.countUnderReplicatedLedgers()).thenReturn(10);
+        Assert.assertFalse(BookieDecommissionUtil.awaitNoUnderReplicatedLedgers(bookieAdminClient, 10, 50));
+    }
+
+    @Test
+    public void testRecoverInParallel() {
+        final List<BookieAdminClient.BookieInfo> bookies = genBookieInfos(4);
+        final BookieAdminClient bookieAdminClient = mock(BookieAdminClient.class);
+        when(bookieAdminClient.isWritableAsync(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(true))
+                .thenReturn(CompletableFuture.completedFuture(false));
+        when(bookieAdminClient.doesNotHaveUnderReplicatedLedgers()).thenReturn(true);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Set<Long> rates = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            rates.add(invocation.getArgument(2));
+            Thread.sleep(200);
+            running.decrementAndGet();
+            return null;
+        }).when(bookieAdminClient).recoverAndDeleteCookieInZk(any(), eq(false), anyLong());
+
+        final BookieDecommissionProgress progress = new BookieDecommissionProgress();
+        Assert.assertEquals(BookieDecommissionUtil.decommissionBookies(bookies, bookieAdminClient,
+                genConfig(2, 1000L, 10000L), progress), 4);
+        Assert.assertEquals(maxRunning.get(), 2);
+        Assert.assertEquals(rates, Set.of(500L));
+        // polling the read-only state doesn't need the disk usage
+        verify(bookieAdminClient, never()).collectBookieStats(any());
+        for (BookieAdminClient.BookieInfo bookie : bookies) {
+            Assert.assertEquals(progress.getPhase(bookie.getBookieId()),
+                    BookieDecommissionProgress.Phase.COOKIE_DELETED);
+            verify(bookieAdminClient).recoverAndDeleteCookieInZk(bookie, true);
+            verify(bookieAdminClient).deleteCookieOnDisk(bookie);
+            verify(bookieAdminClient, never()).setReadOnly(bookie, false);
+        }
+    }
+
+    @Test
+    public void testNotReadOnly() {
+        final List<BookieAdminClient.BookieInfo> bookies = genBookieInfos(2);
+        final BookieAdminClient bookieAdminClient = mock(BookieAdminClient.class);
+        when(bookieAdminClient.isWritableAsync(eq(bookies.get(0)), any()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+        when(bookieAdminClient.isWritableAsync(eq(bookies.get(1)), any()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        final BookieDecommissionProgress progress = new BookieDecommissionProgress();
+        Assert.assertEquals(BookieDecommissionUtil.decommissionBookies(bookies, bookieAdminClient,
+                genConfig(2, 0L, 10L), progress), 0);
+        Assert.assertEquals(progress.getPhase(bookies.get(0).getBookieId()),
+                BookieDecommissionProgress.Phase.READONLY);
+        Assert.assertNull(progress.getPhase(bookies.get(1).getBookieId()));
+        verify(bookieAdminClient, never()).recoverAndDeleteCookieInZk(any(), eq(false), anyLong());
+        // kept read-only, the decommission will be resumed
+        verify(bookieAdminClient, never()).setReadOnly(any(), eq(false));
+    }
+
+    @Test
+    public void testRecoveryFailure() {
+        final List<BookieAdminClient.BookieInfo> bookies = genBookieInfos(3);
+        final BookieAdminClient bookieAdminClient = mock(BookieAdminClient.class);
+        when(bookieAdminClient.isWritableAsync(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+        when(bookieAdminClient.doesNotHaveUnderReplicatedLedgers()).thenReturn(true);
+        doThrow(new IllegalStateException("recovery failed"))
+                .when(bookieAdminClient).recoverAndDeleteCookieInZk(eq(bookies.get(0)), eq(false), anyLong());
+
+        final BookieDecommissionProgress progress = new BookieDecommissionProgress();
+        Assert.assertEquals(BookieDecommissionUtil.decommissionBookies(bookies, bookieAdminClient,
+                genConfig(1, 0L, 10000L), progress), 0);
+        Assert.assertEquals(progress.getPhase(bookies.get(0).getBookieId()),
+                BookieDecommissionProgress.Phase.RECOVERING);
+        Assert.assertEquals(progress.toStatus().get(0).getLastError(), "Recovery failed: recovery failed");
+        Assert.assertEquals(progress.getPhase(bookies.get(1).getBookieId()),
+                BookieDecommissionProgress.Phase.READONLY);
+        // the recoveries not started yet are skipped
+        verify(bookieAdminClient, never()).recoverAndDeleteCookieInZk(eq(bookies.get(1)), eq(false), anyLong());
+        verify(bookieAdminClient, never()).recoverAndDeleteCookieInZk(any(), eq(true));
+        verify(bookieAdminClient, never()).setReadOnly(any(), eq(false));
+    }
+
+    @Test
+    public void testResume() {
+        final List<BookieAdminClient.BookieInfo> bookies = genBookieInfos(3);
+        final BookieAdminClient bookieAdminClient = mock(BookieAdminClient.class);
+        when(bookieAdminClient.isWritableAsync(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+        when(bookieAdminClient.doesNotHaveUnderReplicatedLedgers()).thenReturn(true);
+
+        final List<List<BookieDecommissionStatus>> checkpoints = new ArrayList<>();
+        final BookieDecommissionProgress progress = new BookieDecommissionProgress(List.of(
+                genStatus("pul-bookkeeper-0", BookieDecommissionProgress.Phase.COOKIE_DELETED),
+                genStatus("pul-bookkeeper-1", BookieDecommissionProgress.Phase.VERIFIED),
+                genStatus("pul-bookkeeper-2", BookieDecommissionProgress.Phase.RECOVERING)),
+                checkpoints::add);
+        Assert.assertTrue(progress.hasPendingBookies());
+        Assert.assertEquals(BookieDecommissionUtil.decommissionBookies(bookies, bookieAdminClient,
+                genConfig(2, 0L, 10000L), progress), 3);
+        Assert.assertFalse(progress.hasPendingBookies());
+
+        verify(bookieAdminClient, never()).setReadOnly(eq(bookies.get(0)), eq(true));
+        verify(bookieAdminClient, never()).recoverAndDeleteCookieInZk(eq(bookies.get(0)), eq(false), anyLong());
+        verify(bookieAdminClient, never()).recoverAndDeleteCookieInZk(eq(bookies.get(1)), eq(false), anyLong());
+        verify(bookieAdminClient).recoverAndDeleteCookieInZk(eq(bookies.get(2)), eq(false), anyLong());
+        verify(bookieAdminClient, never()).deleteCookieOnDisk(bookies.get(0));
+        verify(bookieAdminClient).deleteCookieOnDisk(bookies.get(1));
+        verify(bookieAdminClient).deleteCookieOnDisk(bookies.get(2));
+
+        // pul-bookkeeper-2 verified, then the cookies of pul-bookkeeper-1 and pul-bookkeeper-2 deleted
+        Assert.assertEquals(checkpoints.size(), 3);
+        for (BookieDecommissionStatus status : checkpoints.get(checkpoints.size() - 1)) {
+            Assert.assertEquals(status.getPhase(), BookieDecommissionProgress.Phase.COOKIE_DELETED.name());
+            Assert.assertEquals(status.getPodName(), status.getBookieId());
+        }
+    }
+
+    @Test
+    public void testCancel() {
+        final List<BookieAdminClient.BookieInfo> bookies = genBookieInfos(4);
+        final BookieAdminClient bookieAdminClient = mock(BookieAdminClient.class);
+        final BookieDecommissionProgress progress = new BookieDecommissionProgress(List.of(
+                genStatus("pul-bookkeeper-2", BookieDecommissionProgress.Phase.RECOVERING),
+                genStatus("pul-bookkeeper-3", BookieDecommissionProgress.Phase.READONLY)),
+                null);
+        Assert.assertEquals(BookieDecommissionUtil.decommissionBookies(bookies, 0, bookieAdminClient,
+                genConfig(2, 0L, 10000L), progress), 0);
+        verify(bookieAdminClient).setReadOnly(bookies.get(2), false);
+        verify(bookieAdminClient).setReadOnly(bookies.get(3), false);
+        Assert.assertTrue(progress.toStatus().isEmpty());
+    }
+
+    @Test
+    public void testRemovedBookieAddedBack() {
+        final List<BookieAdminClient.BookieInfo> bookies = genBookieInfos(3);
+        final BookieAdminClient bookieAdminClient = mock(BookieAdminClient.class);
+        when(bookieAdminClient.isWritableAsync(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+        when(bookieAdminClient.doesNotHaveUnderReplicatedLedgers()).thenReturn(true);
+        final BookieDecommissionProgress progress = new BookieDecommissionProgress(List.of(
+                genStatus("pul-bookkeeper-2", BookieDecommissionProgress.Phase.REMOVED)),
+                null);
+        Assert.assertEquals(BookieDecommissionUtil.decommissionBookies(bookies, 1, bookieAdminClient,
+                genConfig(2, 0L, 10000L), progress), 1);
+        verify(bookieAdminClient).setReadOnly(bookies.get(2), true);
+        verify(bookieAdminClient).recoverAndDeleteCookieInZk(eq(bookies.get(2)), eq(false), anyLong());
+        Assert.assertEquals(progress.getPhase("pul-bookkeeper-2"), BookieDecommissionProgress.Phase.COOKIE_DELETED);
+    }
+
+    private static BookieDecommissionStatus genStatus(String bookieId, BookieDecommissionProgress.Phase phase) {
+        return BookieDecommissionStatus.builder()
+                .bookieId(bookieId)
+                .podName(bookieId)
+                .phase(phase.name())
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    @Test
+    public void testRecoveryRatePerBookie() {
+        Assert.assertEquals(BookieDecommissionUtil.getRecoveryRatePerBookie(0, 2), 0);
+        Assert.assertEquals(BookieDecommissionUtil.getRecoveryRatePerBookie(1000, 1), 1000);
+        Assert.assertEquals(BookieDecommissionUtil.getRecoveryRatePerBookie(1000, 3), 333);
+        Assert.assertEquals(BookieDecommissionUtil.getRecoveryRatePerBookie(1, 3), 1);
+        Assert.assertEquals(PodExecBookieAdminClient.getRecoverCommand("bk-0:3181", false, 0),
+                "bin/bookkeeper shell recover -f bk-0:3181");
+        Assert.assertEquals(PodExecBookieAdminClient.getRecoverCommand("bk-0:3181", false, 500),
+                "sed '/^replicationRateByBytes=/d' conf/bookkeeper.conf > /tmp/kaap-recover.conf "
+                        + "&& echo 'replicationRateByBytes=500' >> /tmp/kaap-recover.conf "
+                        + "&& BOOKIE_CONF=/tmp/kaap-recover.conf bin/bookkeeper shell recover -f bk-0:3181");
+    }
+
+    private static BookKeeperSetSpec.DecommissionConfig genConfig(int maxConcurrentRecoveries,
+                                                                  long recoveryRateBytesPerSecond,
+                                                                  long readOnlyTimeoutMs) {
+        return BookKeeperSetSpec.DecommissionConfig.builder()
+                .maxConcurrentRecoveries(maxConcurrentRecoveries)
+                .recoveryRateBytesPerSecond(recoveryRateBytesPerSecond)
+                .readOnlyTimeoutMs(readOnlyTimeoutMs)
+                .build();
+    }
+
+    private static List<BookieAdminClient.BookieInfo> genBookieInfos(int count) {
+        final List<BookieAdminClient.BookieInfo> bookies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final PodResource pod = mock(PodResource.class);
+            when(pod.get()).thenReturn(new PodBuilder()
+                    .withNewMetadata()
+                    .withName("pul-bookkeeper-" + i)
+                    .endMetadata()
+                    .build());
+            bookies.add(BookieAdminClient.BookieInfo.builder()
+                    .bookieId("pul-bookkeeper-" + i)
+                    .podResource(pod)
+                    .build());
+        }
+        return bookies;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BookieDiskUsageForecasterTest {
+
+    @Test
+    public void testConstantGrowth() {
+        final BookieDiskUsageForecaster forecaster = new BookieDiskUsageForecaster();
+        // 1000 bytes/s sampled every 10 seconds
+        forecaster.record("bk-0", 0, 0, 100000);
+        forecaster.record("bk-0", 0, 10000, 110000);
+        Assert.assertNull(forecaster.getFillRate("bk-0", 0));
+        Assert.assertNull(forecaster.estimateTimeToReachMs("bk-0", 0, 200000, 10000));
+        for (int i = 2; i < 10; i++) {
+            forecaster.record("bk-0", 0, i * 10000L, 100000 + i * 10000L);
+        }
+        Assert.assertEquals(forecaster.getFillRate("bk-0", 0), 1000d, 0.001d);
+        // last sample 190000 bytes at 90s
+        Assert.assertEquals((long) forecaster.estimateTimeToReachMs("bk-0", 0, 290000, 90000), 100000L);
+        Assert.assertEquals((long) forecaster.estimateTimeToReachMs("bk-0", 0, 290000, 140000), 50000L);
+        Assert.assertEquals((long) forecaster.estimateTimeToReachMs("bk-0", 0, 150000, 90000), 0L);
+        Assert.assertNull(forecaster.getFillRate("bk-0", 1));
+        Assert.assertNull(forecaster.getFillRate("bk-1", 0));
+    }
+
+    @Test
+    public void testIrregularSamples() {
+        final BookieDiskUsageForecaster forecaster = new BookieDiskUsageForecaster();
+        forecaster.record("bk-0", 0, 0, 0);
+        forecaster.record("bk-0", 0, 5000, 5000);
+        forecaster.record("bk-0", 0, 35000, 35000);
+        forecaster.record("bk-0", 0, 40000, 40000);
+        // samples with the same timestamp are ignored
+        forecaster.record("bk-0", 0, 40000, 90000);
+        Assert.assertEquals(forecaster.getFillRate("bk-0", 0), 1000d, 0.001d);
+    }
+
+    @Test
+    public void testNotGrowing() {
+        final BookieDiskUsageForecaster forecaster = new BookieDiskUsageForecaster();
+        forecaster.record("bk-0", 0, 0, 100000);
+        forecaster.record("bk-0", 0, 10000, 90000);
+        forecaster.record("bk-0", 0, 20000, 80000);
+        Assert.assertTrue(forecaster.getFillRate("bk-0", 0) < 0);
+        Assert.assertNull(forecaster.estimateTimeToReachMs("bk-0", 0, 200000, 20000));
+        Assert.assertEquals((long) forecaster.estimateTimeToReachMs("bk-0", 0, 50000, 20000), 0L);
+    }
+
+    @Test
+    public void testRetainOnly() {
+        final BookieDiskUsageForecaster forecaster = new BookieDiskUsageForecaster();
+        for (int i = 0; i < 3; i++) {
+            forecaster.record("bk-0", 0, i * 1000L, i * 1000L);
+            forecaster.record("bk-1", 0, i * 1000L, i * 1000L);
+        }
+        forecaster.retainOnly(List.of("bk-1"));
+        Assert.assertNull(forecaster.getFillRate("bk-0", 0));
+        Assert.assertEquals(forecaster.getFillRate("bk-1", 0), 1000d, 0.001d);
+    }
+}
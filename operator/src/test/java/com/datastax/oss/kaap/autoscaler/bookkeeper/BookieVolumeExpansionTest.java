@@ -0,0 +1,47 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BookieVolumeExpansionTest {
+
+    @Test
+    public void testComputeExpandedSize() {
+        Assert.assertEquals(BookieVolumeExpansion.computeExpandedSize("50Gi", 1.5d, "100Gi"), "75Gi");
+        // rounded up to the next Gi
+        Assert.assertEquals(BookieVolumeExpansion.computeExpandedSize("15Gi", 1.5d, "100Gi"), "23Gi");
+        Assert.assertEquals(BookieVolumeExpansion.computeExpandedSize("512Mi", 1.5d, "100Gi"), "1Gi");
+        // capped to the max size
+        Assert.assertEquals(BookieVolumeExpansion.computeExpandedSize("80Gi", 1.5d, "100Gi"), "100Gi");
+        Assert.assertEquals(BookieVolumeExpansion.computeExpandedSize("1Ti", 2d, "1500Gi"), "1500Gi");
+        Assert.assertNull(BookieVolumeExpansion.computeExpandedSize("100Gi", 1.5d, "100Gi"));
+        Assert.assertNull(BookieVolumeExpansion.computeExpandedSize("200Gi", 1.5d, "100Gi"));
+        Assert.assertNull(BookieVolumeExpansion.computeExpandedSize("50Gi", 1.5d, null));
+        Assert.assertNull(BookieVolumeExpansion.computeExpandedSize("50Gi", 1d, "100Gi"));
+    }
+
+    @Test
+    public void testIsLarger() {
+        Assert.assertTrue(BookieVolumeExpansion.isLarger("75Gi", "50Gi"));
+        Assert.assertTrue(BookieVolumeExpansion.isLarger("1Ti", "1000Gi"));
+        Assert.assertFalse(BookieVolumeExpansion.isLarger("1024Gi", "1Ti"));
+        Assert.assertFalse(BookieVolumeExpansion.isLarger("50Gi", "75Gi"));
+        Assert.assertTrue(BookieVolumeExpansion.isLarger("50Gi", null));
+        Assert.assertFalse(BookieVolumeExpansion.isLarger(null, "50Gi"));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import com.datastax.oss.kaap.autoscaler.AdminHttpClientPool;
+import com.datastax.oss.kaap.controllers.bookkeeper.BookKeeperResourcesFactory;
+import com.datastax.oss.kaap.crds.CRDConstants;
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import com.datastax.oss.kaap.mocks.MockKubernetesClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class HttpBookieAdminClientTest {
+
+    @Test
+    public void test() throws Exception {
+        final HttpServer httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        final AtomicLong stateDelayMs = new AtomicLong();
+        httpServer.createContext("/api/v1/bookie/state", exchange -> {
+            requests.add(describe(exchange));
+            try {
+                Thread.sleep(stateDelayMs.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            reply(exchange, 200, """
+                    {
+                      "running" : true,
+                      "readOnly" : false,
+                      "shuttingDown" : false,
+                      "availableForHighPriorityWrites" : true
+                    }
+                    """);
+        });
+        httpServer.createContext("/api/v1/bookie/info", exchange -> {
+            requests.add(describe(exchange));
+            reply(exchange, 200, """
+                    {
+                      "freeSpace" : 25,
+                      "totalSpace" : 100
+                    }
+                    """);
+        });
+        final AtomicReference<String> underReplicatedLedgers = new AtomicReference<>();
+        httpServer.createContext("/api/v1/autorecovery/list_under_replicated_ledger/", exchange -> {
+            requests.add(describe(exchange));
+            if (underReplicatedLedgers.get() == null) {
+                reply(exchange, 404, "No under replicated ledgers found");
+            } else {
+                reply(exchange, 200, underReplicatedLedgers.get());
+            }
+        });
+        httpServer.createContext("/api/v1/autorecovery/trigger_audit", exchange -> {
+            requests.add(describe(exchange));
+            reply(exchange, 200, "");
+        });
+        httpServer.start();
+
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 1
+                    config:
+                        PULSAR_PREFIX_httpServerPort: %d
+                """.formatted(httpServer.getAddress().getPort());
+        final PulsarClusterSpec pulsarClusterSpec = MockKubernetesClient.readYaml(spec, PulsarClusterSpec.class);
+        pulsarClusterSpec.getGlobal().applyDefaults(null);
+        pulsarClusterSpec.getBookkeeper().applyDefaults(pulsarClusterSpec.getGlobalSpec());
+
+        final KubernetesServer server = new KubernetesServer(false, true);
+        server.before();
+        try {
+            server.getClient().pods().inNamespace("ns").resource(new PodBuilder()
+                    .withNewMetadata()
+                    .withName("pul-bookkeeper-0")
+                    .withLabels(Map.of(
+                            CRDConstants.LABEL_CLUSTER, "pul",
+                            CRDConstants.LABEL_COMPONENT,
+                            BookKeeperResourcesFactory.getComponentBaseName(pulsarClusterSpec.getGlobalSpec()),
+                            CRDConstants.LABEL_RESOURCESET, BookKeeperResourcesFactory.BOOKKEEPER_DEFAULT_SET))
+                    .endMetadata()
+                    .withNewSpec()
+                    .withHostname("pul-bookkeeper-0")
+                    .endSpec()
+                    .withNewStatus()
+                    .withPodIP("127.0.0.1")
+                    .endStatus()
+                    .build()).create();
+
+            final HttpBookieAdminClient adminClient = new HttpBookieAdminClient(server.getClient(),
+                    new AdminHttpClientPool(server.getClient()), "ns", pulsarClusterSpec.getGlobalSpec(),
+                    BookKeeperResourcesFactory.BOOKKEEPER_DEFAULT_SET, pulsarClusterSpec.getBookkeeper());
+
+            final List<BookieAdminClient.BookieInfo> bookieInfos = adminClient.collectBookieInfos();
+            Assert.assertEquals(bookieInfos.size(), 1);
+            final BookieAdminClient.BookieStats stats = adminClient.collectBookieStatsAsync(bookieInfos.get(0),
+                    Duration.ofSeconds(10)).get();
+            Assert.assertTrue(stats.isWritable());
+            Assert.assertEquals(stats.getLedgerDiskInfos().size(), 1);
+            Assert.assertEquals(stats.getLedgerDiskInfos().get(0).getMaxBytes(), 100L);
+            Assert.assertEquals(stats.getLedgerDiskInfos().get(0).getUsedBytes(), 75L);
+
+            adminClient.setReadOnly(bookieInfos.get(0), true);
+            Assert.assertTrue(adminClient.doesNotHaveUnderReplicatedLedgers());
+            Assert.assertEquals(adminClient.countUnderReplicatedLedgers(), 0);
+            adminClient.triggerAudit();
+
+            underReplicatedLedgers.set("[ 1, 2, 3, 10000000000 ]");
+            Assert.assertFalse(adminClient.doesNotHaveUnderReplicatedLedgers());
+            Assert.assertEquals(adminClient.countUnderReplicatedLedgers(), 4);
+
+            Assert.assertEquals(requests.subList(2, requests.size()), List.of(
+                    "PUT /api/v1/bookie/state/readonly {\"readOnly\":true}",
+                    "GET /api/v1/autorecovery/list_under_replicated_ledger/ ",
+                    "GET /api/v1/autorecovery/list_under_replicated_ledger/ ",
+                    "PUT /api/v1/autorecovery/trigger_audit ",
+                    "GET /api/v1/autorecovery/list_under_replicated_ledger/ ",
+                    "GET /api/v1/autorecovery/list_under_replicated_ledger/ "
+            ));
+
+            // the http request ends with the timeout given by the caller
+            stateDelayMs.set(5000);
+            try {
+                adminClient.isWritableAsync(bookieInfos.get(0), Duration.ofMillis(200)).get(2, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof HttpTimeoutException, e.getCause().toString());
+            }
+        } finally {
+            server.after();
+            httpServer.stop(0);
+        }
+    }
+
+    private static String describe(HttpExchange exchange) throws IOException {
+        return "%s %s %s".formatted(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    private static void reply(HttpExchange exchange, int code, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
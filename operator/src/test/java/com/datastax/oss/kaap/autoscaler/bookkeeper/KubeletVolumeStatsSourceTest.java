@@ -0,0 +1,124 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import java.net.HttpURLConnection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class KubeletVolumeStatsSourceTest {
+
+    private static final String SUMMARY = """
+            {
+              "node": {"nodeName": "node-0"},
+              "pods": [{
+                  "podRef": {"name": "pul-bookkeeper-0", "namespace": "ns"},
+                  "volume": [{
+                      "name": "pul-bookkeeper-journal",
+                      "availableBytes": 800,
+                      "capacityBytes": 1000,
+                      "usedBytes": 150,
+                      "pvcRef": {"name": "pul-bookkeeper-journal-pul-bookkeeper-0", "namespace": "ns"}
+                    }, {
+                      "name": "pul-bookkeeper-ledgers",
+                      "capacityBytes": 2000,
+                      "usedBytes": 1500,
+                      "pvcRef": {"name": "pul-bookkeeper-ledgers-pul-bookkeeper-0", "namespace": "ns"}
+                    }, {
+                      "name": "kube-api-access",
+                      "capacityBytes": 100,
+                      "usedBytes": 10
+                    }]
+                }, {
+                  "podRef": {"name": "pul-bookkeeper-1", "namespace": "other"},
+                  "volume": [{
+                      "name": "pul-bookkeeper-ledgers",
+                      "capacityBytes": 2000,
+                      "usedBytes": 1500,
+                      "pvcRef": {"name": "pul-bookkeeper-ledgers-pul-bookkeeper-1", "namespace": "other"}
+                    }]
+                }, {
+                  "podRef": {"name": "pul-broker-0", "namespace": "ns"},
+                  "volume": []
+                }]
+            }
+            """;
+
+    @Test
+    public void testParseSummary() {
+        final KubeletVolumeStatsSource source = new KubeletVolumeStatsSource(null, "ns",
+                "pul-bookkeeper-journal", "pul-bookkeeper-ledgers");
+        final Map<String, BookieAdminClient.BookieStats> stats = source.parseSummary(SUMMARY,
+                Set.of("pul-bookkeeper-0", "pul-bookkeeper-1"));
+        Assert.assertEquals(stats.keySet(), Set.of("pul-bookkeeper-0"));
+        final BookieAdminClient.BookieStats bookieStats = stats.get("pul-bookkeeper-0");
+        Assert.assertEquals(bookieStats.getJournalDiskInfos().size(), 1);
+        Assert.assertEquals(bookieStats.getJournalDiskInfos().get(0).getDirectory(),
+                "pul-bookkeeper-journal-pul-bookkeeper-0");
+        Assert.assertEquals(bookieStats.getJournalDiskInfos().get(0).getMaxBytes(), 1000L);
+        // the reserved blocks are used
+        Assert.assertEquals(bookieStats.getJournalDiskInfos().get(0).getUsedBytes(), 200L);
+        Assert.assertEquals(bookieStats.getLedgerDiskInfos().size(), 1);
+        Assert.assertEquals(bookieStats.getLedgerDiskInfos().get(0).getMaxBytes(), 2000L);
+        Assert.assertEquals(bookieStats.getLedgerDiskInfos().get(0).getUsedBytes(), 1500L);
+    }
+
+    @Test
+    public void testCollect() throws Exception {
+        final KubernetesServer server = new KubernetesServer(false);
+        server.before();
+        try {
+            server.expect()
+                    .get()
+                    .withPath("/api/v1/nodes/node-0/proxy/stats/summary")
+                    .andReturn(HttpURLConnection.HTTP_OK, SUMMARY)
+                    .once();
+            server.expect()
+                    .get()
+                    .withPath("/api/v1/nodes/node-1/proxy/stats/summary")
+                    .andReturn(HttpURLConnection.HTTP_INTERNAL_ERROR, "error")
+                    .once();
+            final KubeletVolumeStatsSource source = new KubeletVolumeStatsSource(server.getClient(), "ns",
+                    "pul-bookkeeper-journal", "pul-bookkeeper-ledgers");
+            final Map<String, BookieAdminClient.BookieStats> stats = source.collect(List.of(
+                    genPod("pul-bookkeeper-0", "node-0"),
+                    genPod("pul-bookkeeper-1", "node-1"),
+                    genPod("pul-bookkeeper-2", null)), 10000);
+            Assert.assertEquals(stats.keySet(), Set.of("pul-bookkeeper-0"));
+            // one request for each node
+            Assert.assertEquals(server.getKubernetesMockServer().getRequestCount(), 2);
+        } finally {
+            server.after();
+        }
+    }
+
+    private static Pod genPod(String name, String node) {
+        return new PodBuilder()
+                .withNewMetadata()
+                .withName(name)
+                .endMetadata()
+                .withNewSpec()
+                .withNodeName(node)
+                .endSpec()
+                .build();
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import com.datastax.oss.kaap.controllers.bookkeeper.racks.client.ZkClientRackClientFactory;
+import com.datastax.oss.kaap.crds.GlobalSpec;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.TestingServer;
+import org.awaitility.Awaitility;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class LedgerMetadataIndexTest {
+
+    TestingServer zkServer;
+    CuratorFramework zkClient;
+
+    @BeforeMethod
+    @SneakyThrows
+    public void before() {
+        zkServer = new TestingServer(-1, new File("target", "curator"), true);
+        zkClient = CuratorFrameworkFactory.newClient(zkServer.getConnectString(), new RetryOneTime(1000));
+        zkClient.start();
+    }
+
+    @AfterMethod
+    @SneakyThrows
+    public void after() {
+        if (zkClient != null) {
+            zkClient.close();
+        }
+        if (zkServer != null) {
+            zkServer.close();
+        }
+    }
+
+    @Test
+    public void testParseLedgerId() {
+        Assert.assertEquals(LedgerMetadataIndex.parseLedgerId("/ledgers", "/ledgers/L0000000012"), 12L);
+        Assert.assertEquals(LedgerMetadataIndex.parseLedgerId("/ledgers", "/ledgers/00/0001/L0012"), 10012L);
+        Assert.assertEquals(LedgerMetadataIndex.parseLedgerId("/ledgers",
+                "/ledgers/000/0000/0000/0001/L0012"), 10012L);
+        Assert.assertNull(LedgerMetadataIndex.parseLedgerId("/ledgers", "/ledgers/00/0001"));
+        Assert.assertNull(LedgerMetadataIndex.parseLedgerId("/ledgers", "/ledgers/idgen/ID-0000000012"));
+        Assert.assertNull(LedgerMetadataIndex.parseLedgerId("/ledgers", "/ledgers/cookies/bk-0:3181"));
+        Assert.assertNull(LedgerMetadataIndex.parseLedgerId("/ledgers", "/other/00/0001/L0012"));
+    }
+
+    @Test
+    public void testParseEnsembleMembers() {
+        Assert.assertEquals(LedgerMetadataIndex.parseEnsembleMembers(binaryMetadata("bk-0:3181", "bk-1:3181")),
+                Set.of("bk-0:3181", "bk-1:3181"));
+        Assert.assertEquals(LedgerMetadataIndex.parseEnsembleMembers(textMetadata("bk-0:3181", "bk-2:3181")),
+                Set.of("bk-0:3181", "bk-2:3181"));
+        Assert.expectThrows(IllegalArgumentException.class, () -> LedgerMetadataIndex.parseEnsembleMembers(
+                "BookieMetadataFormatVersion\t1\n2\n2\n0\n".getBytes(StandardCharsets.UTF_8)));
+        Assert.expectThrows(IllegalArgumentException.class, () -> LedgerMetadataIndex.parseEnsembleMembers(
+                "garbage".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        create("/ledgers/00/0000/L0001", binaryMetadata("bk-0:3181", "bk-1:3181"));
+        create("/ledgers/00/0000/L0002", textMetadata("bk-1:3181", "bk-2:3181"));
+        create("/ledgers/idgen/ID-0000000002", new byte[0]);
+        create("/ledgers/cookies/bk-3:3181", "cookie".getBytes(StandardCharsets.UTF_8));
+
+        try (final LedgerMetadataIndex index = new LedgerMetadataIndex(zkClient, "/ledgers")) {
+            index.start();
+            Awaitility.await().atMost(30, TimeUnit.SECONDS).until(index::isReady);
+            Assert.assertEquals(index.getLedgersCount(), 2);
+            Assert.assertTrue(index.hasLedgers("bk-0:3181"));
+            Assert.assertTrue(index.hasLedgers("bk-2:3181"));
+            Assert.assertFalse(index.hasLedgers("bk-3:3181"));
+            Assert.assertFalse(index.hasUnderReplicatedLedgers());
+
+            // the changes are visible as soon as they're done
+            zkClient.delete().forPath("/ledgers/00/0000/L0001");
+            Assert.assertFalse(index.hasLedgers("bk-0:3181"));
+            Assert.assertTrue(index.hasLedgers("bk-1:3181"));
+
+            zkClient.setData().forPath("/ledgers/00/0000/L0002", binaryMetadata("bk-2:3181", "bk-3:3181"));
+            Assert.assertFalse(index.hasLedgers("bk-1:3181"));
+            Assert.assertTrue(index.hasLedgers("bk-3:3181"));
+
+            create("/ledgers/000/0000/0000/0001/L0000", binaryMetadata("bk-4:3181"));
+            Assert.assertTrue(index.hasLedgers("bk-4:3181"));
+            Assert.assertEquals(index.getLedgersCount(), 2);
+
+            create("/ledgers/underreplication/ledgers/0000/0000/0000/0002/urL0000000002", new byte[0]);
+            Assert.assertTrue(index.hasUnderReplicatedLedgers());
+            Assert.assertEquals(index.countUnderReplicatedLedgers(), 1);
+            zkClient.delete().forPath("/ledgers/underreplication/ledgers/0000/0000/0000/0002/urL0000000002");
+            Assert.assertFalse(index.hasUnderReplicatedLedgers());
+
+            // the owners of the ledger are unknown, every bookie might own it
+            create("/ledgers/00/0000/L0005", "garbage".getBytes(StandardCharsets.UTF_8));
+            Assert.assertTrue(index.hasLedgers("bk-0:3181"));
+            zkClient.delete().forPath("/ledgers/00/0000/L0005");
+            Assert.assertFalse(index.hasLedgers("bk-0:3181"));
+        }
+    }
+
+    @Test
+    public void testFactory() throws Exception {
+        final GlobalSpec globalSpec = GlobalSpec.builder().name("pul").build();
+        globalSpec.applyDefaults(null);
+        final ZkClientRackClientFactory zkClientFactory = mock(ZkClientRackClientFactory.class);
+        when(zkClientFactory.getCuratorFramework("ns", globalSpec)).thenReturn(zkClient);
+        try (final LedgerMetadataIndexFactory factory = new LedgerMetadataIndexFactory(zkClientFactory)) {
+            final LedgerMetadataIndex index = factory.getLedgerMetadataIndex("ns", globalSpec);
+            Assert.assertSame(factory.getLedgerMetadataIndex("ns", globalSpec), index);
+
+            // cluster deleted
+            factory.closeLedgerMetadataIndex("ns", globalSpec);
+            Assert.assertNotSame(factory.getLedgerMetadataIndex("ns", globalSpec), index);
+        }
+        // the zookeeper clients are shared with the autoscalers
+        verify(zkClientFactory, never()).close();
+    }
+
+    @Test
+    public void testNotReady() {
+        try (final LedgerMetadataIndex index = new LedgerMetadataIndex(zkClient, "/ledgers")) {
+            Assert.assertNull(index.hasLedgers("bk-0:3181"));
+            Assert.assertNull(index.hasUnderReplicatedLedgers());
+            // the query triggers the load
+            Awaitility.await().atMost(30, TimeUnit.SECONDS).until(index::isReady);
+            Assert.assertFalse(index.hasLedgers("bk-0:3181"));
+        }
+    }
+
+    @SneakyThrows
+    private void create(String path, byte[] data) {
+        zkClient.create().creatingParentsIfNeeded().forPath(path, data);
+    }
+
+    private static byte[] binaryMetadata(String... ensemble) {
+        final ByteArrayOutputStream segment = new ByteArrayOutputStream();
+        for (String bookie : ensemble) {
+            writeString(segment, 1, bookie);
+        }
+        writeVarintField(segment, 2, 0);
+
+        final ByteArrayOutputStream message = new ByteArrayOutputStream();
+        writeVarintField(message, 1, ensemble.length);
+        writeVarintField(message, 2, ensemble.length);
+        writeVarintField(message, 3, 0);
+        writeVarintField(message, 5, 1);
+        writeBytes(message, 6, segment.toByteArray());
+        writeVarintField(message, 10, System.currentTimeMillis());
+
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        result.writeBytes("BookieMetadataFormatVersion\t3\n".getBytes(StandardCharsets.UTF_8));
+        writeVarint(result, message.size());
+        result.writeBytes(message.toByteArray());
+        return result.toByteArray();
+    }
+
+    private static byte[] textMetadata(String... ensemble) {
+        StringBuilder metadata = new StringBuilder("BookieMetadataFormatVersion\t2\n");
+        metadata.append("quorumSize: %d\nensembleSize: %d\nlength: 0\nstate: CLOSED\nsegment {\n"
+                .formatted(ensemble.length, ensemble.length));
+        for (String bookie : ensemble) {
+            metadata.append("  ensembleMember: \"%s\"\n".formatted(bookie));
+        }
+        metadata.append("  firstEntryId: 0\n}\n");
+        return metadata.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarintField(ByteArrayOutputStream out, int field, long value) {
+        writeVarint(out, (long) field << 3);
+        writeVarint(out, value);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, int field, String value) {
+        writeBytes(out, field, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, int field, byte[] value) {
+        writeVarint(out, ((long) field << 3) | 2);
+        writeVarint(out, value.length);
+        out.writeBytes(value);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
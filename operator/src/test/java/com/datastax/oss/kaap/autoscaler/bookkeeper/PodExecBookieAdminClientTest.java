@@ -0,0 +1,84 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.bookkeeper;
+
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import com.datastax.oss.kaap.mocks.MockKubernetesClient;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PodExecBookieAdminClientTest {
+
+    @Test
+    public void testParseDirectoriesUsage() {
+        final String df = """
+                Filesystem     1024-blocks     Used Available Capacity Mounted on
+                /dev/sdb              1000      100       850      11% /pulsar/data/bookkeeper/journal
+                /dev/sdc              2000     1500       400      79% /pulsar/data/bookkeeper/ledgers
+                /dev/sdc              2000     1500       400      79% /pulsar/data/bookkeeper/ledgers
+                """;
+        final List<BookieAdminClient.BookieLedgerDiskInfo> diskInfos = PodExecBookieAdminClient
+                .parseDirectoriesUsage(df, List.of("journal", "ledgers/0", "ledgers/1"));
+        Assert.assertEquals(diskInfos.size(), 3);
+        Assert.assertEquals(diskInfos.get(0).getDirectory(), "journal");
+        Assert.assertEquals(diskInfos.get(0).getMaxBytes(), 1000 * 1024L);
+        // the reserved blocks are used
+        Assert.assertEquals(diskInfos.get(0).getUsedBytes(), 150 * 1024L);
+        Assert.assertEquals(diskInfos.get(2).getDirectory(), "ledgers/1");
+        Assert.assertEquals(diskInfos.get(2).getMaxBytes(), 2000 * 1024L);
+        Assert.assertEquals(diskInfos.get(2).getUsedBytes(), 1600 * 1024L);
+
+        Assert.assertThrows(IllegalStateException.class,
+                () -> PodExecBookieAdminClient.parseDirectoriesUsage(df, List.of("journal", "ledgers")));
+        Assert.assertThrows(IllegalStateException.class,
+                () -> PodExecBookieAdminClient.parseDirectoriesUsage("df: /invalid: No such file or directory",
+                        List.of("journal")));
+    }
+
+    @Test
+    public void testDirectories() {
+        PodExecBookieAdminClient client = newClient("""
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 1
+                """);
+        Assert.assertEquals(client.getJournalDirectories(), List.of("/pulsar/data/bookkeeper/journal"));
+        Assert.assertEquals(client.getLedgerDirectories(), List.of("/pulsar/data/bookkeeper/ledgers"));
+
+        client = newClient("""
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 1
+                    config:
+                        journalDirectory: data/bookkeeper/journal
+                        PULSAR_PREFIX_ledgerDirectories: "data/bookkeeper/ledgers/0, data/bookkeeper/ledgers/1"
+                """);
+        Assert.assertEquals(client.getJournalDirectories(), List.of("data/bookkeeper/journal"));
+        Assert.assertEquals(client.getLedgerDirectories(),
+                List.of("data/bookkeeper/ledgers/0", "data/bookkeeper/ledgers/1"));
+    }
+
+    private static PodExecBookieAdminClient newClient(String spec) {
+        final PulsarClusterSpec pulsarClusterSpec = MockKubernetesClient.readYaml(spec, PulsarClusterSpec.class);
+        pulsarClusterSpec.getGlobal().applyDefaults(null);
+        pulsarClusterSpec.getBookkeeper().applyDefaults(pulsarClusterSpec.getGlobalSpec());
+        return new PodExecBookieAdminClient(null, "ns", pulsarClusterSpec.getGlobalSpec(), "bookkeeper",
+                pulsarClusterSpec.getBookkeeper());
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.broker;
+
+import com.datastax.oss.kaap.autoscaler.AdminHttpClientPool;
+import com.datastax.oss.kaap.controllers.broker.BrokerResourcesFactory;
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import com.datastax.oss.kaap.mocks.MockKubernetesClient;
+import com.sun.net.httpserver.HttpServer;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BrokerBundleRebalancerTest {
+
+    private static final String LOAD_REPORT = """
+            {
+                "cpu": {"usage": 7.5, "limit": 8.0},
+                "lastStats": {
+                    "public/default/0x00000000_0x40000000": {"msgThroughputIn": 100, "msgThroughputOut": 100},
+                    "public/default/0x40000000_0x80000000": {"msgThroughputIn": 5000, "msgThroughputOut": 1000},
+                    "public/other/0x00000000_0xffffffff": {"msgThroughputIn": 2000, "msgThroughputOut": 0},
+                    "pulsar/pul/pul-broker-0.pul-broker.ns.svc.cluster.local:8080/0x00000000_0xffffffff": {
+                        "msgThroughputIn": 99999
+                    }
+                }
+            }
+            """;
+
+    @Test
+    public void testParseBundleLoads() {
+        final List<BrokerBundleRebalancer.BundleLoad> bundles = BrokerBundleRebalancer.parseBundleLoads(LOAD_REPORT);
+        Assert.assertEquals(bundles.stream().map(BrokerBundleRebalancer.BundleLoad::getBundle).toList(),
+                List.of("public/default/0x40000000_0x80000000",
+                        "public/other/0x00000000_0xffffffff",
+                        "public/default/0x00000000_0x40000000"));
+
+        Assert.assertTrue(BrokerBundleRebalancer.parseBundleLoads("{\"cpu\": {}}").isEmpty());
+        Assert.assertEquals(BrokerBundleRebalancer.parseBundleLoads("""
+                {"bundleStats": {"public/default/0x00000000_0xffffffff": {"msgRateIn": 10}}}
+                """).size(), 1);
+    }
+
+    @Test
+    public void testComputeUnloadPath() {
+        Assert.assertEquals(BrokerBundleRebalancer.computeUnloadPath("public/default/0x40000000_0x80000000"),
+                "/admin/v2/namespaces/public/default/0x40000000_0x80000000/unload");
+    }
+
+    @Test
+    public void testCoefficientOfVariation() {
+        Assert.assertEquals(BrokerBundleRebalancer.computeCpuCoefficientOfVariation(List.of(
+                new BrokerResourceUsageSource.ResourceUsage("b0", 0.5f),
+                new BrokerResourceUsageSource.ResourceUsage("b1", 0.5f))), 0d);
+        Assert.assertEquals(BrokerBundleRebalancer.computeCpuCoefficientOfVariation(List.of(
+                new BrokerResourceUsageSource.ResourceUsage("b0", 0.9f),
+                new BrokerResourceUsageSource.ResourceUsage("b1", 0.1f))), 0.8d, 0.0001d);
+        Assert.assertEquals(BrokerBundleRebalancer.computeCpuCoefficientOfVariation(List.of(
+                new BrokerResourceUsageSource.ResourceUsage("b0", 0.9f))), 0d);
+    }
+
+    @Test
+    public void testUnloadHottestBundles() throws Exception {
+        final HttpServer httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        final List<String> unloadRequests = new CopyOnWriteArrayList<>();
+        httpServer.createContext("/admin/v2/broker-stats/load-report/", exchange -> {
+            final byte[] body = LOAD_REPORT.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        httpServer.createContext("/admin/v2/namespaces/", exchange -> {
+            unloadRequests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        httpServer.start();
+
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 2
+                    config:
+                        webServicePort: %d
+                """.formatted(httpServer.getAddress().getPort());
+        final PulsarClusterSpec pulsarClusterSpec = MockKubernetesClient.readYaml(spec, PulsarClusterSpec.class);
+        pulsarClusterSpec.getGlobal().applyDefaults(null);
+        pulsarClusterSpec.getBroker().applyDefaults(pulsarClusterSpec.getGlobalSpec());
+
+        final KubernetesServer server = new KubernetesServer(false, true);
+        server.before();
+        try {
+            final BrokerBundleRebalancer rebalancer = new BrokerBundleRebalancer(
+                    new BrokerAdminHttpClient(new AdminHttpClientPool(server.getClient()), "ns",
+                            BrokerResourcesFactory.BROKER_DEFAULT_SET, pulsarClusterSpec.getBroker(),
+                            pulsarClusterSpec.getGlobalSpec()),
+                    Duration.ofSeconds(10));
+            final Pod broker = new PodBuilder()
+                    .withNewMetadata()
+                    .withName("pul-broker-0")
+                    .endMetadata()
+                    .withNewStatus()
+                    .withPodIP("127.0.0.1")
+                    .endStatus()
+                    .build();
+
+            Assert.assertEquals(rebalancer.unloadHottestBundles(List.of(broker), 1),
+                    List.of("public/default/0x40000000_0x80000000"));
+            Assert.assertEquals(unloadRequests,
+                    List.of("PUT /admin/v2/namespaces/public/default/0x40000000_0x80000000/unload"));
+
+            unloadRequests.clear();
+            // the least loaded bundle is kept on the broker
+            Assert.assertEquals(rebalancer.unloadHottestBundles(List.of(broker), 10).size(), 2);
+            Assert.assertEquals(unloadRequests.size(), 2);
+        } finally {
+            server.after();
+            httpServer.stop(0);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.broker;
+
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BrokerLoadPredictorTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long START = 100 * DAY;
+
+    @Test
+    public void testPredictFromPreviousDays() {
+        final BrokerLoadPredictor predictor = new BrokerLoadPredictor();
+        Assert.assertNull(predictor.predict(START));
+        predictor.record(START + 9 * HOUR, 2.0f, 3);
+        predictor.record(START + 9 * HOUR + 60_000, 3.0f, 3);
+        predictor.record(START + DAY + 9 * HOUR, 2.5f, 3);
+
+        // the current day is not used for the prediction
+        Assert.assertNull(predictor.predict(START + 9 * HOUR));
+        Assert.assertEquals(predictor.predict(START + DAY + 9 * HOUR), 3.0f);
+        Assert.assertEquals(predictor.predict(START + 2 * DAY + 9 * HOUR), 3.0f);
+        Assert.assertNull(predictor.predict(START + 2 * DAY + 10 * HOUR));
+    }
+
+    @Test
+    public void testOldDaysForgotten() {
+        final BrokerLoadPredictor predictor = new BrokerLoadPredictor();
+        predictor.record(START + 9 * HOUR, 3.0f, 2);
+        predictor.record(START + DAY + 9 * HOUR, 1.0f, 2);
+        Assert.assertEquals(predictor.predict(START + 2 * DAY + 9 * HOUR), 3.0f);
+        // out of the 2 days window
+        Assert.assertEquals(predictor.predict(START + 3 * DAY + 9 * HOUR), 1.0f);
+        predictor.record(START + 3 * DAY, 0.5f, 2);
+        Assert.assertNull(predictor.predict(START + 4 * DAY + 9 * HOUR));
+    }
+}
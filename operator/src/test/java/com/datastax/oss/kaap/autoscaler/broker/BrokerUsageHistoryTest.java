@@ -0,0 +1,69 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.broker;
+
+import com.datastax.oss.kaap.crds.broker.BrokerAutoscalerSpec;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BrokerUsageHistoryTest {
+
+    @Test
+    public void testAggregations() {
+        final BrokerUsageHistory history = new BrokerUsageHistory();
+        for (float sample : new float[]{0.9f, 0.1f, 0.2f, 0.3f, 0.4f, 0.5f}) {
+            history.record("broker-0", "cpu", sample, 5);
+        }
+        // 0.9 is out of the window
+        Assert.assertEquals(history.getSamplesCount("broker-0", "cpu"), 5);
+        Assert.assertEquals(aggregate(history, BrokerAutoscalerSpec.METRICS_AGGREGATION_LAST), 0.5f);
+        Assert.assertEquals(aggregate(history, BrokerAutoscalerSpec.METRICS_AGGREGATION_MAX), 0.5f);
+        Assert.assertEquals(aggregate(history, BrokerAutoscalerSpec.METRICS_AGGREGATION_P50), 0.3f);
+        Assert.assertEquals(aggregate(history, BrokerAutoscalerSpec.METRICS_AGGREGATION_P90), 0.5f);
+        Assert.assertEquals(aggregate(history, BrokerAutoscalerSpec.METRICS_AGGREGATION_EWMA), 0.40625f, 0.0001f);
+    }
+
+    @Test
+    public void testSpikeIsSmoothed() {
+        final BrokerUsageHistory history = new BrokerUsageHistory();
+        history.record("broker-0", "cpu", 0.5f, 3);
+        history.record("broker-0", "cpu", 0.5f, 3);
+        history.record("broker-0", "cpu", 0.99f, 3);
+        Assert.assertEquals(aggregate(history, BrokerAutoscalerSpec.METRICS_AGGREGATION_P50), 0.5f);
+        Assert.assertEquals(aggregate(history, BrokerAutoscalerSpec.METRICS_AGGREGATION_MAX), 0.99f);
+    }
+
+    @Test
+    public void testWindowResizeAndRetain() {
+        final BrokerUsageHistory history = new BrokerUsageHistory();
+        history.record("broker-0", "cpu", 0.5f, 3);
+        history.record("broker-0", "cpu", 0.5f, 3);
+        history.record("broker-1", "cpu", 0.5f, 3);
+        history.record("broker-0", "cpu", 0.7f, 2);
+        history.record("broker-0", "memory", 0.7f, 2);
+        Assert.assertEquals(history.getSamplesCount("broker-0", "cpu"), 1);
+        Assert.assertEquals(history.getSamplesCount("broker-0", "memory"), 1);
+
+        history.retainOnly(List.of("broker-0"));
+        Assert.assertEquals(history.getSamplesCount("broker-0", "cpu"), 1);
+        Assert.assertEquals(history.getSamplesCount("broker-1", "cpu"), 0);
+    }
+
+    private static float aggregate(BrokerUsageHistory history, String aggregation) {
+        return history.aggregate("broker-0", "cpu", aggregation, 0.5d);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.broker;
+
+import com.datastax.oss.kaap.autoscaler.AdminHttpClientPool;
+import com.datastax.oss.kaap.autoscaler.PodIndex;
+import com.datastax.oss.kaap.controllers.broker.BrokerResourcesFactory;
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import com.datastax.oss.kaap.mocks.MockKubernetesClient;
+import com.sun.net.httpserver.HttpServer;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class HttpLoadReportResourceUsageSourceTest {
+
+    @Test
+    public void testOk() throws Exception {
+        final HttpServer httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        final List<String> authHeaders = new CopyOnWriteArrayList<>();
+        httpServer.createContext("/admin/v2/broker-stats/load-report/", exchange -> {
+            authHeaders.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            final byte[] body = """
+                    {
+                        "cpu": {
+                            "usage": 2.33,
+                            "limit": 8.0
+                        },
+                        "other": {}
+                    }
+                    """.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        httpServer.start();
+
+        final String spec = """
+                global:
+                   name: pul
+                   auth:
+                      enabled: true
+                broker:
+                    replicas: 2
+                    config:
+                        webServicePort: %d
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: PulsarLBReportHttp
+                """.formatted(httpServer.getAddress().getPort());
+        final PulsarClusterSpec pulsarClusterSpec = MockKubernetesClient.readYaml(spec, PulsarClusterSpec.class);
+        pulsarClusterSpec.getGlobal().applyDefaults(null);
+        pulsarClusterSpec.getBroker().applyDefaults(pulsarClusterSpec.getGlobalSpec());
+
+        final KubernetesServer server = new KubernetesServer(false, true);
+        server.before();
+        try {
+            for (int i = 0; i < 3; i++) {
+                server.getClient().pods().inNamespace("ns").resource(new PodBuilder()
+                        .withNewMetadata()
+                        .withName("pul-broker-%d".formatted(i))
+                        .withLabels(Map.of("app", "pulsar"))
+                        .endMetadata()
+                        .withNewStatus()
+                        // the last pod is not scheduled yet
+                        .withPodIP(i == 2 ? null : "127.0.0.1")
+                        .endStatus()
+                        .build()).create();
+            }
+            server.getClient().secrets().inNamespace("ns").resource(new SecretBuilder()
+                    .withNewMetadata()
+                    .withName("token-superuser")
+                    .endMetadata()
+                    .withData(Map.of("superuser.jwt",
+                            Base64.getEncoder().encodeToString("my-token\n".getBytes(StandardCharsets.UTF_8))))
+                    .build()).create();
+
+            final HttpLoadReportResourceUsageSource source = new HttpLoadReportResourceUsageSource(
+                    new AdminHttpClientPool(server.getClient()),
+                    new PodIndex(server.getClient(), "ns", Map.of("app", "pulsar")),
+                    BrokerResourcesFactory.BROKER_DEFAULT_SET, pulsarClusterSpec.getBroker(),
+                    pulsarClusterSpec.getGlobalSpec());
+            final BrokerResourceUsageSource.ResourceUsages resourceUsages = source.getBrokersResourceUsages();
+
+            Assert.assertEquals(resourceUsages.getUsages().size(), 2);
+            Assert.assertEquals(resourceUsages.getUsages().get(0).getPod(), "pul-broker-0");
+            Assert.assertEquals(resourceUsages.getUsages().get(0).getPercentCpu() + "", "0.29");
+            Assert.assertEquals(resourceUsages.getUsages().get(1).getPod(), "pul-broker-1");
+            Assert.assertEquals(resourceUsages.getUnavailablePods().keySet(), Set.of("pul-broker-2"));
+            Assert.assertEquals(authHeaders, List.of("Bearer my-token", "Bearer my-token"));
+        } finally {
+            server.after();
+            httpServer.stop(0);
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.kaap.autoscaler.broker;
 
+import com.datastax.oss.kaap.autoscaler.PodIndex;
 import com.datastax.oss.kaap.controllers.broker.BrokerResourcesFactory;
 import com.datastax.oss.kaap.crds.broker.Broker;
 import com.datastax.oss.kaap.crds.broker.BrokerFullSpec;
@@ -35,7 +36,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import lombok.Builder;
 import lombok.SneakyThrows;
@@ -121,7 +122,7 @@ public class LoadReportResourceUsageSourceTest {
         }
     }
 
-    @Test(expectedExceptions = ExecutionException.class)
+    @Test
     public void testLastFailed() throws Exception {
         final String spec = """
                 global:
@@ -132,7 +133,7 @@ public class LoadReportResourceUsageSourceTest {
                         enabled: true
                 """;
 
-        final List<BrokerResourceUsageSource.ResourceUsage> brokersResourceUsages =
+        final BrokerResourceUsageSource.ResourceUsages resourceUsages =
                 createLoadReportResourceUsageSource(spec, (pod, server) -> {
                     final String[] split = pod.getMetadata().getName().split("-");
                     int replicaCount = Integer.parseInt(split[split.length - 1]);
@@ -158,6 +159,10 @@ public class LoadReportResourceUsageSourceTest {
                     }
 
                 });
+        Assert.assertTrue(resourceUsages.isPartial());
+        Assert.assertEquals(resourceUsages.getUsages().size(), 1);
+        Assert.assertEquals(resourceUsages.getUsages().get(0).getPod(), "pul-broker-0");
+        Assert.assertEquals(resourceUsages.getUnavailablePods().keySet(), Set.of("pul-broker-1"));
     }
 
     @Test
@@ -171,7 +176,7 @@ public class LoadReportResourceUsageSourceTest {
                         enabled: true
                 """;
 
-        final List<BrokerResourceUsageSource.ResourceUsage> brokersResourceUsages =
+        final BrokerResourceUsageSource.ResourceUsages resourceUsages =
                 createLoadReportResourceUsageSource(spec, (pod, server) -> {
                     final String[] split = pod.getMetadata().getName().split("-");
                     int replicaCount = Integer.parseInt(split[split.length - 1]);
@@ -188,6 +193,12 @@ public class LoadReportResourceUsageSourceTest {
                                             "usage": %f,
                                             "limit": 8.0
                                         },
+                                        "memory": {
+                                            "usage": 512.0,
+                                            "limit": 1024.0
+                                        },
+                                        "msgRateIn": 100.0,
+                                        "msgRateOut": 50.0,
                                         "other": {}
                                     }
                                     """.formatted(2.33 * (replicaCount + 1))))
@@ -196,17 +207,22 @@ public class LoadReportResourceUsageSourceTest {
 
                 });
 
+        Assert.assertFalse(resourceUsages.isPartial());
+        final List<BrokerResourceUsageSource.ResourceUsage> brokersResourceUsages = resourceUsages.getUsages();
         Assert.assertEquals(brokersResourceUsages.size(), 2);
         Assert.assertEquals(brokersResourceUsages.get(0).getPod(), "pul-broker-0");
         Assert.assertEquals(brokersResourceUsages.get(0).getPercentCpu() + "", "0.29");
         Assert.assertEquals(brokersResourceUsages.get(1).getPod(), "pul-broker-1");
         Assert.assertEquals(brokersResourceUsages.get(1).getPercentCpu() + "", "0.58");
+        Assert.assertEquals(brokersResourceUsages.get(1).getPercentMemory() + "", "0.5");
+        Assert.assertEquals(brokersResourceUsages.get(1).getMsgRate() + "", "150.0");
+        Assert.assertNull(brokersResourceUsages.get(1).getPercentDirectMemory());
     }
 
 
-    private List<BrokerResourceUsageSource.ResourceUsage> createLoadReportResourceUsageSource(String spec,
-                                                                                              BiConsumer<Pod,
-                                                                                                      MockServer> podConf) {
+    private BrokerResourceUsageSource.ResourceUsages createLoadReportResourceUsageSource(String spec,
+                                                                                         BiConsumer<Pod,
+                                                                                                 MockServer> podConf) {
         final PulsarClusterSpec pulsarClusterSpec = MockKubernetesClient.readYaml(spec, PulsarClusterSpec.class);
         try (final MockServer server = MockServer.builder()
                 .withPulsarClusterSpec(pulsarClusterSpec)
@@ -216,7 +232,8 @@ public class LoadReportResourceUsageSourceTest {
 
 
             final LoadReportResourceUsageSource source =
-                    new LoadReportResourceUsageSource(server.server.getClient(), "ns", Map.of("app", "pulsar"),
+                    new LoadReportResourceUsageSource(server.server.getClient(),
+                            new PodIndex(server.server.getClient(), "ns", Map.of("app", "pulsar")),
                             BrokerResourcesFactory.BROKER_DEFAULT_SET,
                             pulsarClusterSpec.getBroker(),
                             pulsarClusterSpec.getGlobalSpec());
@@ -0,0 +1,145 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler.broker;
+
+import com.datastax.oss.kaap.autoscaler.PodIndex;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import lombok.SneakyThrows;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.TestingServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ZkLoadReportResourceUsageSourceTest {
+
+    TestingServer zkServer;
+    CuratorFramework zkClient;
+    KubernetesServer server;
+
+    @BeforeMethod
+    @SneakyThrows
+    public void before() {
+        zkServer = new TestingServer(-1, new File("target", "curator"), true);
+        zkClient = CuratorFrameworkFactory.newClient(zkServer.getConnectString(), new RetryOneTime(1000));
+        zkClient.start();
+        server = new KubernetesServer(false, true);
+        server.before();
+    }
+
+    @AfterMethod
+    @SneakyThrows
+    public void after() {
+        if (server != null) {
+            server.after();
+        }
+        if (zkClient != null) {
+            zkClient.close();
+        }
+        if (zkServer != null) {
+            zkServer.close();
+        }
+    }
+
+    @Test
+    public void test() throws Exception {
+        createPod("pul-broker-0", "10.0.0.1");
+        createPod("pul-broker-1", "10.0.0.2");
+        createPod("pul-broker-2", "10.0.0.3");
+
+        createLoadReport("pul-broker-0.pul-broker.ns.svc.cluster.local:8080", """
+                {
+                    "cpu": {"usage": 2.33, "limit": 8.0},
+                    "memory": {"usage": 512, "limit": 1024},
+                    "directMemory": {"usage": 100, "limit": 1000},
+                    "bandwidthIn": {"usage": 10, "limit": -1},
+                    "bandwidthOut": {"usage": 30, "limit": 100},
+                    "bundles": []
+                }
+                """);
+        // advertised address set to the pod ip
+        createLoadReport("10.0.0.2:8080", """
+                {
+                    "cpu": {"usage": 4.0, "limit": 8.0}
+                }
+                """);
+        // broker of another set
+        createLoadReport("pul-broker-other-0.pul-broker-other.ns.svc.cluster.local:8080", """
+                {
+                    "cpu": {"usage": 4.0, "limit": 8.0}
+                }
+                """);
+
+        final ZkLoadReportResourceUsageSource source = new ZkLoadReportResourceUsageSource(zkClient,
+                new PodIndex(server.getClient(), "ns", Map.of("app", "pulsar")));
+        final BrokerResourceUsageSource.ResourceUsages resourceUsages = source.getBrokersResourceUsages();
+
+        Assert.assertEquals(resourceUsages.getUsages().size(), 2);
+        final BrokerResourceUsageSource.ResourceUsage broker0 = resourceUsages.getUsages().get(0);
+        Assert.assertEquals(broker0.getPod(), "pul-broker-0");
+        Assert.assertEquals(broker0.getPercentCpu() + "", "0.29");
+        Assert.assertEquals(broker0.getPercentMemory() + "", "0.5");
+        Assert.assertEquals(broker0.getPercentDirectMemory() + "", "0.1");
+        Assert.assertNull(broker0.getPercentBandwidthIn());
+        Assert.assertEquals(broker0.getPercentBandwidthOut() + "", "0.3");
+
+        final BrokerResourceUsageSource.ResourceUsage broker1 = resourceUsages.getUsages().get(1);
+        Assert.assertEquals(broker1.getPod(), "pul-broker-1");
+        Assert.assertEquals(broker1.getPercentCpu() + "", "0.5");
+        Assert.assertNull(broker1.getPercentMemory());
+
+        Assert.assertEquals(resourceUsages.getUnavailablePods().keySet(), Set.of("pul-broker-2"));
+    }
+
+    @Test
+    public void testNoReports() throws Exception {
+        createPod("pul-broker-0", "10.0.0.1");
+        zkClient.create().creatingParentsIfNeeded().forPath(ZkLoadReportResourceUsageSource.LOAD_REPORTS_PATH);
+
+        final ZkLoadReportResourceUsageSource source = new ZkLoadReportResourceUsageSource(zkClient,
+                new PodIndex(server.getClient(), "ns", Map.of("app", "pulsar")));
+        final BrokerResourceUsageSource.ResourceUsages resourceUsages = source.getBrokersResourceUsages();
+        Assert.assertTrue(resourceUsages.getUsages().isEmpty());
+        Assert.assertEquals(resourceUsages.getUnavailablePods().keySet(), Set.of("pul-broker-0"));
+    }
+
+    private void createPod(String name, String ip) {
+        server.getClient().pods().inNamespace("ns").resource(new PodBuilder()
+                .withNewMetadata()
+                .withName(name)
+                .withLabels(Map.of("app", "pulsar"))
+                .endMetadata()
+                .withNewStatus()
+                .withPodIP(ip)
+                .endStatus()
+                .build()).create();
+    }
+
+    @SneakyThrows
+    private void createLoadReport(String brokerAddress, String json) {
+        zkClient.create().creatingParentsIfNeeded()
+                .forPath(ZkLoadReportResourceUsageSource.LOAD_REPORTS_PATH + "/" + brokerAddress,
+                        json.getBytes(StandardCharsets.UTF_8));
+    }
+}
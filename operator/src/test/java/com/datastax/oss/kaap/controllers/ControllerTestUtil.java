@@ -34,7 +34,7 @@ import lombok.SneakyThrows;
 import org.testng.Assert;
 
 public class ControllerTestUtil<X extends FullSpecWithDefaults,
-        R extends CustomResource<X, BaseComponentStatus>> {
+        R extends CustomResource<X, ? extends BaseComponentStatus>> {
 
     public static class TestOperatorRuntimeConfiguration implements OperatorRuntimeConfiguration{
         @Override
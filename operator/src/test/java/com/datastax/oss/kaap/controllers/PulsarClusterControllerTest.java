@@ -525,6 +525,28 @@ public class PulsarClusterControllerTest {
                       scaleDownBy: 1
                       stabilizationWindowMs: 300000
                       resourcesUsageSource: PulsarLBReport
+                      resourcesUsageMaxConcurrency: 10
+                      resourcesUsageRequestTimeoutMs: 30000
+                      resourcesUsageCollectionTimeoutMs: 60000
+                      metricsWindowSize: 1
+                      metricsAggregation: Last
+                      metricsEwmaAlpha: 0.5
+                      algorithm: Threshold
+                      targetCpuUtilization: 0.6
+                      targetUtilizationTolerance: 0.1
+                      rebalance:
+                        enabled: false
+                        maxCpuCoefficientOfVariation: 0.3
+                        maxBundleUnloads: 3
+                        minIntervalMs: 300000
+                      scaleDownDrain:
+                        enabled: false
+                        bundlesBatchSize: 10
+                        timeoutMs: 600000
+                      predictiveScaling:
+                        enabled: false
+                        historyDays: 7
+                        leadTimeMs: 900000
                     kafka:
                       enabled: false
                       exposePorts: true
@@ -595,7 +617,22 @@ public class PulsarClusterControllerTest {
                       scaleUpMaxLimit: 30
                       scaleDownBy: 1
                       stabilizationWindowMs: 300000
+                      bookieStatsMaxConcurrency: 10
+                      bookieStatsRequestTimeoutMs: 30000
+                      bookieStatsCollectionTimeoutMs: 60000
+                      bookieAdminClient: PodExec
+                      diskUsageSource: Bookie
+                      ledgerMetadataIndexEnabled: false
+                      diskUsageHwmLeadTimeMs: 600000
+                      volumeExpansion:
+                        enabled: false
+                        expansionFactor: 1.5
+                      rackBalancing: false
                     cleanUpPvcs: true
+                    decommission:
+                      maxConcurrentRecoveries: 2
+                      recoveryRateBytesPerSecond: 0
+                      readOnlyTimeoutMs: 60000
                     setsUpdateStrategy: RollingUpdate
                     autoRackConfig:
                       enabled: true
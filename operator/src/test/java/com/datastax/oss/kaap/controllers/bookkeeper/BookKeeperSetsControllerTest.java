@@ -30,6 +30,7 @@ import com.datastax.oss.kaap.crds.bookkeeper.BookKeeper;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperAutoRackConfig;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperFullSpec;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
+import com.datastax.oss.kaap.crds.bookkeeper.BookieDecommissionStatus;
 import com.datastax.oss.kaap.mocks.MockKubernetesClient;
 import com.datastax.oss.kaap.mocks.MockResourcesResolver;
 import io.fabric8.kubernetes.api.model.ConfigMap;
@@ -47,6 +48,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import lombok.SneakyThrows;
 import lombok.extern.jbosslog.JBossLog;
@@ -1156,6 +1158,20 @@ public class BookKeeperSetsControllerTest {
         KubeTestUtil.assertUpdateControlInitializing(bookkeeperUpdateControl);
         Assert.assertEquals((int) client.getCreatedResource(StatefulSet.class).getResource().getSpec().getReplicas(),
                 3);
+        final List<BookieDecommissionStatus> decommissions = bookkeeperUpdateControl.getResource().getStatus()
+                .getDecommissions().get(BookKeeperResourcesFactory.BOOKKEEPER_DEFAULT_SET);
+        Assert.assertEquals(decommissions.stream().map(BookieDecommissionStatus::getBookieId).toList(),
+                List.of("pul-bookkeeper-4", "pul-bookkeeper-3"));
+        for (BookieDecommissionStatus decommission : decommissions) {
+            Assert.assertEquals(decommission.getPhase(), "COOKIE_DELETED");
+        }
+
+        // the pods are gone and there are no pvcs, the bookies are removed from the status
+        resolver.putResource("pul-bookkeeper", resolver.newStatefulSetBuilder("pul-bookkeeper", true).build());
+        client = new MockKubernetesClient(NAMESPACE, resolver);
+        bookkeeperUpdateControl = invokeController(spec, bookkeeperUpdateControl.getResource(), client);
+        KubeTestUtil.assertUpdateControlReady(bookkeeperUpdateControl);
+        Assert.assertNull(bookkeeperUpdateControl.getResource().getStatus().getDecommissions());
     }
 
     private void mockBookieAdminClient(int replicas) {
@@ -1165,6 +1181,8 @@ public class BookKeeperSetsControllerTest {
         }
         when(bookieAdminClient.collectBookieInfos()).thenReturn(bookieInfos);
         when(bookieAdminClient.doesNotHaveUnderReplicatedLedgers()).thenReturn(true);
+        when(bookieAdminClient.isWritableAsync(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(false));
         when(bookieAdminClient.existsLedger(any())).thenReturn(false);
     }
 
@@ -0,0 +1,145 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.crds;
+
+import com.datastax.oss.kaap.common.SerializationUtil;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.fabric8.kubernetes.api.model.apiextensions.v1.CustomResourceDefinition;
+import io.fabric8.kubernetes.api.model.apiextensions.v1.JSONSchemaProps;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import lombok.SneakyThrows;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CRDSchemaTest {
+
+    private static final Path HELM_CRDS_DIR = Path.of("..", "helm", "kaap", "crds");
+
+    @Test
+    public void testBookKeeperStatusNotPruned() {
+        final BookKeeper bk = SerializationUtil.readYaml("""
+                apiVersion: kaap.oss.datastax.com/v1beta1
+                kind: BookKeeper
+                metadata:
+                  name: pulsar-bookkeeper
+                spec:
+                  bookkeeper:
+                    autoscaler:
+                      enabled: true
+                      diskUsageSource: Kubelet
+                      volumeExpansion:
+                        enabled: true
+                        expansionFactor: 2.0
+                        ledgersMaxSize: 1Ti
+                status:
+                  autoscalers:
+                    bookkeeper:
+                      decisions:
+                      - timestamp: 1000
+                        action: Scale
+                        message: Scaled bookies
+                        inputs:
+                          writableBookies: "3"
+                        fromReplicas: 3
+                        toReplicas: 4
+                      lastActions:
+                        Scale: 1000
+                      scaleEvents:
+                      - timestamp: 1000
+                        action: Scale
+                        fromReplicas: 3
+                        toReplicas: 4
+                  decommissions:
+                    bookkeeper:
+                    - bookieId: pulsar-bookkeeper-3
+                      podName: pulsar-bookkeeper-3
+                      phase: RECOVERING
+                      timestamp: 2000
+                """, BookKeeper.class);
+        final JsonNode json = Serialization.jsonMapper().valueToTree(bk);
+        ((ObjectNode) json.get("status")).put("unknown", "value");
+
+        final JsonNode pruned = prune(json, readSchema("bookkeepers.kaap.oss.datastax.com-v1.yml"));
+        Assert.assertNull(pruned.get("status").get("unknown"));
+        final BookKeeper roundTripped = SerializationUtil.convertValue(pruned, BookKeeper.class);
+        Assert.assertEquals(roundTripped.getSpec(), bk.getSpec());
+        Assert.assertEquals(roundTripped.getStatus(), bk.getStatus());
+        Assert.assertEquals(roundTripped.getStatus().getAutoscalers().get("bookkeeper").getDecisions().size(), 1);
+        Assert.assertEquals(roundTripped.getSpec().getBookkeeper().getAutoscaler().getVolumeExpansion()
+                .getLedgersMaxSize(), "1Ti");
+    }
+
+    @SneakyThrows
+    private static JSONSchemaProps readSchema(String crdFile) {
+        try (InputStream in = new FileInputStream(HELM_CRDS_DIR.resolve(crdFile).toFile())) {
+            final CustomResourceDefinition crd = Serialization.unmarshal(in, CustomResourceDefinition.class);
+            return crd.getSpec().getVersions().get(0).getSchema().getOpenAPIV3Schema();
+        }
+    }
+
+    // same as the structural schema pruning of the API server, metadata is not pruned
+    private static JsonNode prune(JsonNode resource, JSONSchemaProps schema) {
+        final ObjectNode result = resource.deepCopy();
+        for (String field : List.of("spec", "status")) {
+            if (result.has(field)) {
+                final JSONSchemaProps fieldSchema = schema.getProperties().get(field);
+                if (fieldSchema == null) {
+                    result.remove(field);
+                } else {
+                    pruneNode(result.get(field), fieldSchema);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void pruneNode(JsonNode node, JSONSchemaProps schema) {
+        if (Boolean.TRUE.equals(schema.getXKubernetesPreserveUnknownFields())) {
+            return;
+        }
+        if (node instanceof ObjectNode object) {
+            final Map<String, JSONSchemaProps> properties = schema.getProperties();
+            final JSONSchemaProps additionalProperties = schema.getAdditionalProperties() == null
+                    ? null : schema.getAdditionalProperties().getSchema();
+            final List<String> toRemove = new ArrayList<>();
+            final Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+            while (fields.hasNext()) {
+                final Map.Entry<String, JsonNode> field = fields.next();
+                final JSONSchemaProps fieldSchema = properties != null && properties.containsKey(field.getKey())
+                        ? properties.get(field.getKey()) : additionalProperties;
+                if (fieldSchema == null) {
+                    toRemove.add(field.getKey());
+                } else {
+                    pruneNode(field.getValue(), fieldSchema);
+                }
+            }
+            object.remove(toRemove);
+        } else if (node instanceof ArrayNode array && schema.getItems() != null
+                && schema.getItems().getSchema() != null) {
+            array.forEach(item -> pruneNode(item, schema.getItems().getSchema()));
+        }
+    }
+}